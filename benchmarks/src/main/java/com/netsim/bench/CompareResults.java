@@ -0,0 +1,80 @@
+package com.netsim.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH CSV result files (-rf csv) row by row, keyed by benchmark name
+ * (including secondary metrics such as gc.alloc.rate.norm) and parameters.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.netsim.bench.CompareResults base.csv new.csv}
+ */
+public final class CompareResults {
+    private CompareResults() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: CompareResults <base.csv> <new.csv>");
+            System.exit(2);
+        }
+        Map<String, String[]> base    = load(args[0]);
+        Map<String, String[]> current = load(args[1]);
+
+        System.out.printf("%-90s %16s %16s %9s%n", "benchmark [params]", "base", "new", "change");
+        for (Map.Entry<String, String[]> e : current.entrySet()) {
+            String[] now  = e.getValue();
+            String[] then = base.get(e.getKey());
+            double   b    = then == null ? Double.NaN : Double.parseDouble(then[4]);
+            double   n    = Double.parseDouble(now[4]);
+            String   pct  = then == null || b == 0.0 ? "new" : String.format("%+8.1f%%", (n - b) * 100.0 / b);
+            System.out.printf("%-90s %16.3f %16.3f %9s %s%n", e.getKey(), b, n, pct, now[6]);
+        }
+        for (String key : base.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-90s %16s%n", key, "removed");
+            }
+        }
+    }
+
+    private static Map<String, String[]> load(String file) throws IOException {
+        Map<String, String[]> rows   = new LinkedHashMap<>();
+        List<String>          lines  = Files.readAllLines(Paths.get(file));
+        if (lines.isEmpty()) {
+            return rows;
+        }
+        String[] header = split(lines.get(0));
+        for (String line : lines.subList(1, lines.size())) {
+            String[]      cols = split(line);
+            StringBuilder key  = new StringBuilder(cols[0]);
+            for (int i = 7; i < cols.length && i < header.length; i++) {
+                key.append(' ').append(header[i].replace("Param: ", "")).append('=').append(cols[i]);
+            }
+            rows.put(key.toString(), cols);
+        }
+        return rows;
+    }
+
+    private static String[] split(String line) {
+        List<String>  cols    = new ArrayList<>();
+        StringBuilder cur     = new StringBuilder();
+        boolean       quoted  = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                cols.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        cols.add(cur.toString());
+        return cols.toArray(new String[0]);
+    }
+}
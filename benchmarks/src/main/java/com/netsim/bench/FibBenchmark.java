@@ -0,0 +1,79 @@
+package com.netsim.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.netsim.table.Dir248Fib;
+import com.netsim.table.Fib;
+import com.netsim.table.PatriciaFib;
+
+/**
+ * Longest-prefix match throughput of the FIB engines. Prefix lengths follow
+ * the rough shape of a BGP table (mostly /24, few longer than /24); half of
+ * the looked up addresses fall inside an installed prefix.
+ * <p>
+ * The 1M-route tables need a few hundred MB of heap: run with -jvmArgs -Xmx2g
+ * if the default heap is small.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class FibBenchmark {
+    private static final int LOOKUPS = 4096;
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int routes;
+
+    @Param({ "patricia", "dir24_8" })
+    public String engine;
+
+    private Fib<Integer> fib;
+    private int[]        addresses;
+
+    @Setup
+    public void setUp() {
+        this.fib = "patricia".equals(this.engine) ? new PatriciaFib<>() : new Dir248Fib<>();
+        Random rnd      = new Random(7);
+        int[]  networks = new int[this.routes];
+        for (int i = 0; i < this.routes; i++) {
+            int roll   = rnd.nextInt(100);
+            int length = roll < 60 ? 24
+                       : roll < 95 ? 17 + rnd.nextInt(7)
+                       : roll < 99 ? 25 + rnd.nextInt(8)
+                       : 8 + rnd.nextInt(9);
+            networks[i] = rnd.nextInt() & Fib.netmask(length);
+            this.fib.put(networks[i], length, i);
+        }
+        this.addresses = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            this.addresses[i] = i % 2 == 0
+                ? networks[rnd.nextInt(this.routes)] | (rnd.nextInt() & 0xFF)
+                : rnd.nextInt();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void lookup(Blackhole bh) {
+        for (int a : this.addresses) {
+            bh.consume(this.fib.lookup(a));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.netsim.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.protocols.MSG.MSGProtocol;
+
+/**
+ * MSGProtocol encapsulate/decapsulate; MSG framing does not depend on the MTU.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MSGBenchmark {
+    @Param({ "16", "256", "1024", "16384", "65536" })
+    public int payloadSize;
+
+    private MSGProtocol protocol;
+    private byte[]      payload;
+    private byte[]      encoded;
+
+    @Setup
+    public void setUp() {
+        this.protocol = new MSGProtocol("bench");
+        this.payload  = Payloads.ascii(this.payloadSize);
+        this.encoded  = this.protocol.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] encapsulate() {
+        return this.protocol.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] decapsulate() {
+        return this.protocol.decapsulate(this.encoded);
+    }
+}
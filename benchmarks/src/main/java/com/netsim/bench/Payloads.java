@@ -0,0 +1,22 @@
+package com.netsim.bench;
+
+/**
+ * Deterministic payloads shared by the benchmarks.
+ */
+final class Payloads {
+    private Payloads() {}
+
+    /**
+     * Printable ASCII so that MSGProtocol's String round trip is lossless.
+     *
+     * @param size number of bytes
+     * @return a repeatable payload of the given size
+     */
+    static byte[] ascii(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) ('a' + (i % 26));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,119 @@
+package com.netsim.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
+import com.netsim.networkstack.CompiledStack;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.MSG.MSGProtocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.protocols.UDP.UDPProtocol;
+
+/**
+ * Full MSG -&gt; UDP -&gt; IPv4 -&gt; SimpleDLL ProtocolPipeline round trip.
+ * The largest payload is 60000 bytes: with MSG and per-segment UDP headers a
+ * 64 KB message no longer fits one IPv4 datagram (13-bit fragment offset).
+ * The buffer variants go through the {@link PacketBuffer} overloads, where
+ * headers are prepended into headroom and stripped in place. The compiled
+ * variants encode the same frames through {@link CompiledStack} in one pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PipelineBenchmark {
+    @Param({ "16", "256", "1024", "16384", "60000" })
+    public int payloadSize;
+
+    @Param({ "576", "1500", "4000" })
+    public int mtu;
+
+    private ProtocolPipeline pipeline;
+    private byte[]           payload;
+    private byte[]           encoded;
+    private CompiledStack    compiled;
+    private byte[]           frames;
+
+    @Setup
+    public void setUp() {
+        // encapsulate() applies the most recently pushed protocol first
+        this.pipeline = new ProtocolPipeline();
+        this.pipeline.push(new SimpleDLLProtocol(new Mac("aa:bb:cc:00:00:01"), new Mac("aa:bb:cc:00:00:02")));
+        this.pipeline.push(new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.1.1", 24),
+                                            5, 0, 0, 0, 64, 0, this.mtu));
+        this.pipeline.push(new UDPProtocol(this.mtu - 20 - 20, new Port("4000"), MSGProtocol.port()));
+        this.pipeline.push(new MSGProtocol("bench"));
+        this.payload = Payloads.ascii(this.payloadSize);
+        this.encoded = this.pipeline.encapsulate(this.payload);
+        if (!Arrays.equals(this.payload, this.pipeline.decapsulate(this.encoded))) {
+            throw new IllegalStateException("pipeline round trip does not preserve the payload");
+        }
+        this.compiled = this.pipeline.compile();
+        this.frames   = new byte[this.compiled.length(this.payloadSize)];
+        if (!Arrays.equals(this.encoded, this.compiled.encapsulate(this.payload))) {
+            throw new IllegalStateException("compiled stack does not match the pipeline");
+        }
+    }
+
+    @Benchmark
+    public byte[] encapsulate() {
+        return this.pipeline.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] decapsulate() {
+        return this.pipeline.decapsulate(this.encoded);
+    }
+
+    @Benchmark
+    public byte[] roundTrip() {
+        return this.pipeline.decapsulate(this.pipeline.encapsulate(this.payload));
+    }
+
+    @Benchmark
+    public PacketBuffer encapsulateBuffer() {
+        return this.pipeline.encapsulate(PacketBuffer.copyOf(this.payload));
+    }
+
+    @Benchmark
+    public PacketBuffer decapsulateBuffer() {
+        // decapsulation trims in place, so every invocation needs its own view
+        return this.pipeline.decapsulate(PacketBuffer.wrap(this.encoded));
+    }
+
+    @Benchmark
+    public PacketBuffer roundTripBuffer() {
+        return this.pipeline.decapsulate(this.pipeline.encapsulate(PacketBuffer.copyOf(this.payload)));
+    }
+
+    @Benchmark
+    public byte[] encapsulateCompiled() {
+        return this.compiled.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] encapsulateCompiledInto() {
+        // steady state of a sender reusing its frame buffer
+        this.compiled.encapsulate(this.payload, this.frames, 0);
+        return this.frames;
+    }
+}
@@ -0,0 +1,211 @@
+package com.netsim.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.Control;
+
+import com.netsim.network.MpscRing;
+
+/**
+ * Several upstream links feeding one node: three producer threads offer
+ * frames into one queue that a single consumer drains, as adapters do into a
+ * node's receive queue. {@link MpscRing} is compared with ArrayBlockingQueue
+ * and ConcurrentLinkedQueue of the same capacity; the linked queue is
+ * unbounded and is held to it by a shared counter, as an adapter would. The
+ * <code>single</code> group moves one frame per call; in the <code>batch</code>
+ * group producers offer runs of {@value #RUN} frames and the consumer drains
+ * up to {@value #DRAIN} per call, through the ring's batch claim and drain and
+ * through drainTo / poll loops for the JDK queues.
+ * Scores are calls per second per thread group; a producer blocked on a full
+ * queue or a consumer on an empty one spins until the iteration ends.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RingBenchmark {
+    private static final int RUN   = 8;
+    private static final int DRAIN = 64;
+
+    @Param({ "mpsc", "abq", "clq" })
+    public String queue;
+
+    @Param({ "1024" })
+    public int capacity;
+
+    /** The operations under test, over one of the three queues. */
+    private interface Channel {
+        boolean offer(byte[] frame);
+
+        int offer(byte[][] run);
+
+        byte[] poll();
+
+        int drain(Consumer<byte[]> sink, int limit);
+    }
+
+    private static final class RingChannel implements Channel {
+        private final MpscRing<byte[]> ring;
+
+        private RingChannel(int capacity) {
+            this.ring = new MpscRing<>(capacity);
+        }
+
+        public boolean offer(byte[] frame) {
+            return this.ring.offer(frame);
+        }
+
+        public int offer(byte[][] run) {
+            return this.ring.offer(run, 0, run.length);
+        }
+
+        public byte[] poll() {
+            return this.ring.poll();
+        }
+
+        public int drain(Consumer<byte[]> sink, int limit) {
+            return this.ring.drain(sink, limit);
+        }
+    }
+
+    private static final class QueueChannel implements Channel {
+        private final Queue<byte[]> queue;
+        private final AtomicInteger size;
+        private final int           bound;
+        private final List<byte[]>  drained;
+
+        /** @param size counter bounding an unbounded queue, or null for a bounded one */
+        private QueueChannel(Queue<byte[]> queue, AtomicInteger size, int bound) {
+            this.queue   = queue;
+            this.size    = size;
+            this.bound   = bound;
+            this.drained = new ArrayList<>(DRAIN);
+        }
+
+        public boolean offer(byte[] frame) {
+            if (this.size == null) {
+                return this.queue.offer(frame);
+            }
+            if (this.size.incrementAndGet() > this.bound) {
+                this.size.decrementAndGet();
+                return false;
+            }
+            return this.queue.offer(frame);
+        }
+
+        public int offer(byte[][] run) {
+            int n = 0;
+            while (n < run.length && this.offer(run[n])) {
+                n++;
+            }
+            return n;
+        }
+
+        public byte[] poll() {
+            byte[] e = this.queue.poll();
+            if (e != null && this.size != null) {
+                this.size.decrementAndGet();
+            }
+            return e;
+        }
+
+        public int drain(Consumer<byte[]> sink, int limit) {
+            if (this.size == null) {
+                // one lock acquisition for the whole run
+                this.drained.clear();
+                int n = ((ArrayBlockingQueue<byte[]>) this.queue).drainTo(this.drained, limit);
+                this.drained.forEach(sink);
+                return n;
+            }
+            int n = 0;
+            byte[] e;
+            while (n < limit && (e = this.queue.poll()) != null) {
+                sink.accept(e);
+                n++;
+            }
+            this.size.addAndGet(-n);
+            return n;
+        }
+    }
+
+    private Channel  channel;
+    private byte[][] run;
+
+    @Setup
+    public void setUp() {
+        switch (this.queue) {
+            case "mpsc": this.channel = new RingChannel(this.capacity); break;
+            case "abq":  this.channel = new QueueChannel(new ArrayBlockingQueue<>(this.capacity), null, 0); break;
+            case "clq":  this.channel = new QueueChannel(new ConcurrentLinkedQueue<>(), new AtomicInteger(),
+                                                         this.capacity); break;
+            default:     throw new IllegalArgumentException("unknown queue " + this.queue);
+        }
+        this.run = new byte[RUN][];
+        for (int i = 0; i < RUN; i++) {
+            this.run[i] = Payloads.ascii(64);
+        }
+    }
+
+    @Benchmark
+    @Group("single")
+    @GroupThreads(3)
+    public void offer(Control control) {
+        while (!this.channel.offer(this.run[0]) && !control.stopMeasurement) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Benchmark
+    @Group("single")
+    @GroupThreads(1)
+    public void poll(Control control, Blackhole bh) {
+        byte[] e;
+        while ((e = this.channel.poll()) == null && !control.stopMeasurement) {
+            Thread.onSpinWait();
+        }
+        bh.consume(e);
+    }
+
+    @Benchmark
+    @Group("batch")
+    @GroupThreads(3)
+    public void offerRun(Control control) {
+        while (this.channel.offer(this.run) == 0 && !control.stopMeasurement) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Benchmark
+    @Group("batch")
+    @GroupThreads(1)
+    public int drain(Control control, Blackhole bh) {
+        int n;
+        while ((n = this.channel.drain(bh::consume, DRAIN)) == 0 && !control.stopMeasurement) {
+            Thread.onSpinWait();
+        }
+        return n;
+    }
+}
@@ -8,11 +8,13 @@ import com.netsim.utils.Logger;
  * Provides common functionality for byte‐level and string representations.
  */
 public abstract class Address {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Address.class);
     private static final String CLS = Address.class.getSimpleName();
 
     protected int bytesLen;
     protected byte[] address;
+    private boolean immutable;
+    private int     hash;
 
     /**
      * Constructs an Address by parsing the given string into a fixed‐length byte array.
@@ -22,16 +24,16 @@ public abstract class Address {
      * @throws IllegalArgumentException if parsing fails or the resulting byte array length is incorrect
      */
     public Address(String addressString, int bytes) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] constructing from \"" + addressString + "\", expecting " + bytes + " bytes");
+        logger.info("[{}] constructing from \"{}\", expecting {} bytes", CLS, addressString, bytes);
         this.bytesLen = bytes;
         byte[] byteRepr = this.parse(addressString);
         if (byteRepr.length != this.bytesLen) {
             String msg = "Invalid addressString length, must be " + this.bytesLen + " bytes";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         this.setAddress(byteRepr);
-        logger.info("[" + CLS + "] constructed successfully: " + this.stringRepresentation());
+        logger.info("[{}] constructed successfully: {}", CLS, this);
     }
 
     /**
@@ -41,11 +43,29 @@ public abstract class Address {
      * @throws IllegalArgumentException if parsing fails
      */
     public Address(String addressString) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] constructing from \"" + addressString + "\"");
+        logger.info("[{}] constructing from \"{}\"", CLS, addressString);
         byte[] byteRepr = this.parse(addressString);
         this.bytesLen = byteRepr.length;
         this.setAddress(byteRepr);
-        logger.info("[" + CLS + "] constructed successfully: " + this.stringRepresentation());
+        logger.info("[{}] constructed successfully: {}", CLS, this);
+    }
+
+    /**
+     * Constructs an Address directly from its raw bytes, skipping the text form
+     * and the per-construction logging. Subclasses derive their own state from
+     * {@link #address} after this returns.
+     *
+     * @param bytes the raw byte array (non-null, copied)
+     * @throws IllegalArgumentException if bytes is null
+     */
+    protected Address(byte[] bytes) throws IllegalArgumentException {
+        if (bytes == null) {
+            String msg = "Raw address cannot be null";
+            logger.error("[{}] {}", CLS, msg);
+            throw new IllegalArgumentException(msg);
+        }
+        this.bytesLen = bytes.length;
+        this.address  = bytes.clone();
     }
 
     /**
@@ -72,13 +92,66 @@ public abstract class Address {
      * @throws IllegalArgumentException if the array is null or of incorrect length
      */
     protected void setAddress(byte[] newAddress) throws IllegalArgumentException {
+        this.checkMutable();
         if (newAddress == null || newAddress.length != this.bytesLen) {
             String msg = "New address must be " + this.bytesLen + " bytes long";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         this.address = newAddress.clone();
-        logger.info("[" + CLS + "] byte address set to " + this.stringRepresentation());
+        logger.info("[{}] byte address set to {}", CLS, this);
+    }
+
+    /**
+     * Marks this instance as shared: every later update throws. Canonical
+     * instances handed out by the interning factories are immutable.
+     */
+    protected final void makeImmutable() {
+        this.immutable = true;
+    }
+
+    /**
+     * @return true if this is a shared instance that cannot be updated
+     */
+    public final boolean isImmutable() {
+        return this.immutable;
+    }
+
+    /**
+     * Guards every mutator of the hierarchy.
+     *
+     * @throws UnsupportedOperationException if this instance is immutable
+     */
+    protected final void checkMutable() throws UnsupportedOperationException {
+        if (this.immutable) {
+            String msg = this.getClass().getSimpleName() + " " + this + " is shared and cannot be modified";
+            logger.error("[{}] {}", CLS, msg);
+            throw new UnsupportedOperationException(msg);
+        }
+    }
+
+    /**
+     * Packs up to 4 bytes into a big-endian int.
+     *
+     * @param bytes the raw bytes (at most 4)
+     * @return the packed value
+     */
+    protected static int packBits(byte[] bytes) {
+        int v = 0;
+        for (byte b : bytes) {
+            v = (v << 8) | (b & 0xFF);
+        }
+        return v;
+    }
+
+    /**
+     * Unpacks a big-endian int into 4 bytes.
+     *
+     * @param v the packed value
+     * @return a new 4-byte array
+     */
+    protected static byte[] unpackBits(int v) {
+        return new byte[] { (byte) (v >>> 24), (byte) (v >>> 16), (byte) (v >>> 8), (byte) v };
     }
 
     /**
@@ -90,7 +163,7 @@ public abstract class Address {
     public byte[] byteRepresentation() throws NullPointerException {
         if (this.address == null) {
             String msg = "Address is not defined";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new NullPointerException(msg);
         }
         return this.address.clone();
@@ -105,7 +178,7 @@ public abstract class Address {
     public String stringRepresentation() throws NullPointerException {
         if (this.address == null) {
             String msg = "Address is not defined";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new NullPointerException(msg);
         }
 
@@ -120,32 +193,58 @@ public abstract class Address {
     }
 
     /**
-     * Compares this Address to another for byte‐wise equality.
+     * Same as {@link #stringRepresentation()}, so addresses can be passed
+     * directly as parameterised log arguments.
+     *
+     * @return the string form of the address, or "undefined" if unset
+     */
+    @Override
+    public String toString() {
+        return this.address == null ? "undefined" : this.stringRepresentation();
+    }
+
+    /**
+     * Compares this Address to another for byte‐wise equality. Reads the
+     * internal arrays directly: no copies, no logging, safe on the lookup path.
      *
      * @param obj the object to compare
      * @return true if both are Address instances with identical byte arrays
      */
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
         if (obj == null || !obj.getClass().isInstance(this)) {
-            logger.debug("[" + CLS + "] equals() false: incompatible type or null");
             return false;
         }
-        boolean eq = Arrays.equals(this.byteRepresentation(), ((Address) obj).byteRepresentation());
-        logger.debug("[" + CLS + "] equals() result with "
-                     + obj.getClass().getSimpleName() + ": " + eq);
-        return eq;
+        return Arrays.equals(this.address, ((Address) obj).address);
     }
 
     /**
-     * Computes a hash code based on the address byte array.
+     * Returns the hash of {@link #computeHash()}; immutable instances compute
+     * it once and keep it.
      *
      * @return the hash code
      */
     @Override
-    public int hashCode() {
-        int h = Arrays.hashCode(this.address);
-        logger.debug("[" + CLS + "] hashCode() = " + h);
+    public final int hashCode() {
+        int h = this.hash;
+        if (h == 0 || !this.immutable) {
+            h = this.computeHash();
+            if (this.immutable) {
+                this.hash = h;
+            }
+        }
         return h;
     }
+
+    /**
+     * Computes the hash of the current state; must agree with {@link #equals(Object)}.
+     *
+     * @return the hash of the address byte array
+     */
+    protected int computeHash() {
+        return Arrays.hashCode(this.address);
+    }
 }
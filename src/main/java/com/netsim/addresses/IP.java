@@ -1,17 +1,21 @@
 package com.netsim.addresses;
 
-import java.util.Arrays;
 import com.netsim.utils.Logger;
 
 /**
  * Represents an IP address with an associated subnet mask.
  * Provides common operations for subnet checks and address updates.
+ * <p>
+ * The address is also kept packed big-endian in an int, and subnet checks are
+ * done on that int and on the mask bits; the dotted-string overloads only parse
+ * their argument and delegate.
  */
 public abstract class IP extends Address {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(IP.class);
     private static final String CLS = IP.class.getSimpleName();
 
     protected Mask mask;
+    protected int  bits;
 
     /**
      * Constructs an IP address from a textual address and prefix length.
@@ -24,7 +28,7 @@ public abstract class IP extends Address {
     protected IP(String addressString, int prefix, int bytes) throws IllegalArgumentException {
         super(addressString, bytes);
         this.mask = new Mask(prefix, bytes);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation() + "/" + prefix);
+        logger.info("[{}] constructed {}/{}", CLS, this, prefix);
     }
 
     /**
@@ -38,7 +42,32 @@ public abstract class IP extends Address {
     protected IP(String addressString, String maskString, int bytes) throws IllegalArgumentException {
         super(addressString, bytes);
         this.mask = new Mask(maskString, bytes);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation() + " mask=" + maskString);
+        logger.info("[{}] constructed {} mask={}", CLS, this, maskString);
+    }
+
+    /**
+     * Constructs an IP address from its packed bits and prefix length.
+     *
+     * @param bits   the address packed big-endian
+     * @param prefix the subnet prefix length (0–32)
+     * @throws IllegalArgumentException if prefix invalid
+     */
+    protected IP(int bits, int prefix) throws IllegalArgumentException {
+        super(unpackBits(bits));
+        this.bits = bits;
+        this.mask = new Mask(prefix, 4);
+    }
+
+    /**
+     * Keeps the packed bits in step with the raw bytes.
+     *
+     * @param newAddress the raw address bytes
+     * @throws IllegalArgumentException if the array is null or of incorrect length
+     */
+    @Override
+    protected void setAddress(byte[] newAddress) throws IllegalArgumentException {
+        super.setAddress(newAddress);
+        this.bits = packBits(newAddress);
     }
 
     /**
@@ -52,37 +81,60 @@ public abstract class IP extends Address {
     public boolean isInSubnet(String networkString, int mask) throws IllegalArgumentException {
         if (networkString == null) {
             String msg = "Network string cannot be null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         byte[] network = this.parse(networkString);
         if (network.length != this.byteRepresentation().length) {
             String msg = "Network must have length " + this.byteRepresentation().length;
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
-        int addrInt = 0;
-        int netInt  = 0;
-        for (int i = 0; i < this.address.length; i++) {
-            addrInt = (addrInt << 8) | (this.address[i] & 0xFF);
-            netInt  = (netInt  << 8) | (network[i] & 0xFF);
-        }
-        int maskBits = (mask == 0) ? 0 : (~0 << (8 * this.address.length - mask));
-        boolean result = (addrInt & maskBits) == (netInt & maskBits);
-        logger.debug("[" + CLS + "] isInSubnet(" + networkString + "/" + mask + ") -> " + result);
+        boolean result = this.isInSubnet(packBits(network), mask);
+        logger.debug(() -> "[" + CLS + "] isInSubnet(" + networkString + "/" + mask + ") -> " + result);
         return result;
     }
 
+    /**
+     * Checks whether this IP lies within a given subnet.
+     *
+     * @param network the network address packed big-endian
+     * @param mask    the subnet prefix length (0–32)
+     * @return true if this address is in the subnet, false otherwise
+     */
+    public boolean isInSubnet(int network, int mask) {
+        int maskBits = Mask.bitsOf(mask);
+        return ((this.bits ^ network) & maskBits) == 0;
+    }
+
+    /**
+     * Checks whether this IP lies within another address's subnet, using the
+     * other address's prefix length.
+     *
+     * @param network an address of the subnet (non-null)
+     * @return true if this address is in the subnet, false otherwise
+     * @throws IllegalArgumentException if network is null
+     */
+    public boolean isInSubnet(IP network) throws IllegalArgumentException {
+        if (network == null) {
+            String msg = "Network cannot be null";
+            logger.error("[{}] {}", CLS, msg);
+            throw new IllegalArgumentException(msg);
+        }
+        return ((this.bits ^ network.bits) & network.mask.getBits()) == 0;
+    }
+
     /**
      * Sets the IP address from a new textual form.
      *
      * @param newAddress the new IP address in dotted‐decimal form
      * @throws IllegalArgumentException if parsing fails
+     * @throws UnsupportedOperationException if this is a shared instance
      */
     @Override
     public void setAddress(String newAddress) throws IllegalArgumentException {
-        super.setAddress(this.parse(newAddress));
-        logger.info("[" + CLS + "] address updated to " + this.stringRepresentation());
+        this.setAddress(this.parse(newAddress));
+        logger.info("[{}] address updated to {}", CLS, this);
     }
 
     /**
@@ -91,21 +143,25 @@ public abstract class IP extends Address {
      * @param newAddress the new IP address in dotted‐decimal form
      * @param newPrefix  the new subnet prefix length
      * @throws IllegalArgumentException if parsing fails or prefix invalid
+     * @throws UnsupportedOperationException if this is a shared instance
      */
     public void setAddress(String newAddress, int newPrefix) throws IllegalArgumentException {
-        super.setAddress(this.parse(newAddress));
+        this.checkMutable();
+        this.setAddress(this.parse(newAddress));
         this.mask.setPrefix(newPrefix);
-        logger.info("[" + CLS + "] address updated to " + this.stringRepresentation() + "/" + newPrefix);
+        logger.info("[{}] address updated to {}/{}", CLS, this, newPrefix);
     }
 
     /**
      * Updates the subnet prefix length.
      *
      * @param newMask the new subnet prefix length
+     * @throws UnsupportedOperationException if this is a shared instance
      */
     public void setMask(int newMask) {
+        this.checkMutable();
         this.mask.setPrefix(newMask);
-        logger.info("[" + CLS + "] mask updated to /" + newMask);
+        logger.info("[{}] mask updated to /{}", CLS, newMask);
     }
 
     /**
@@ -117,24 +173,48 @@ public abstract class IP extends Address {
         return this.mask.getPrefix();
     }
 
+    /**
+     * Returns the address packed big-endian into an int.
+     *
+     * @return the address bits
+     */
+    public int toInt() {
+        return this.bits;
+    }
+
+    /**
+     * Returns the netmask packed big-endian into an int.
+     *
+     * @return the mask bits
+     */
+    public int getMaskBits() {
+        return this.mask.getBits();
+    }
+
+    /**
+     * Compares address bits and prefix length.
+     *
+     * @param obj the object to compare
+     * @return true if obj is an IP of a compatible class with the same address and prefix
+     */
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
         if (obj == null || !(obj.getClass().isInstance(this))) {
-            logger.debug("[" + CLS + "] equals() false: incompatible type or null");
             return false;
         }
         IP other = (IP) obj;
-        boolean eq = Arrays.equals(this.byteRepresentation(), other.byteRepresentation())
-                  && this.getMask() == other.getMask();
-        logger.debug("[" + CLS + "] equals() -> " + eq);
-        return eq;
+        return this.bits == other.bits && this.mask.getPrefix() == other.mask.getPrefix();
     }
 
+    /**
+     * @return a hash of the address bits and prefix length
+     */
     @Override
-    public int hashCode() {
-        int h = Arrays.hashCode(this.address) * 31 + this.mask.hashCode();
-        logger.debug("[" + CLS + "] hashCode() -> " + h);
-        return h;
+    protected int computeHash() {
+        return this.bits * 31 + this.mask.getPrefix();
     }
 
     public abstract boolean isLoopback();
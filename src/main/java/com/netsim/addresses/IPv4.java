@@ -6,11 +6,26 @@ import com.netsim.utils.Logger;
 /**
  * Concrete IPv4 address implementation.
  * Supports parsing, common classifications, and subnet broadcast computation.
+ * Classifications, network/broadcast computation and ordering work on the
+ * packed int form of the address. {@link #intern(int, int)} returns shared
+ * immutable instances from a bounded cache.
  */
-public class IPv4 extends IP {
-    private static final Logger logger = Logger.getInstance();
+public class IPv4 extends IP implements Comparable<IPv4> {
+    private static final Logger logger = Logger.getInstance(IPv4.class);
     private static final String CLS    = IPv4.class.getSimpleName();
 
+    private static final int LOOPBACK    = 0x7F000000; // 127.0.0.0/8
+    private static final int MULTICAST   = 0xE0000000; // 224.0.0.0/4
+    private static final int PRIVATE_10  = 0x0A000000; // 10.0.0.0/8
+    private static final int PRIVATE_172 = 0xAC100000; // 172.16.0.0/12
+    private static final int PRIVATE_192 = 0xC0A80000; // 192.168.0.0/16
+    private static final int LINK_LOCAL  = 0xA9FE0000; // 169.254.0.0/16
+
+    /** slots of the intern cache */
+    static final int INTERN_CAPACITY = 4096;
+
+    private static final InternCache<IPv4> CACHE = new InternCache<>(INTERN_CAPACITY);
+
     /**
      * Constructs an IPv4 from dotted‐decimal address and mask string.
      *
@@ -20,7 +35,7 @@ public class IPv4 extends IP {
      */
     public IPv4(String addressString, String maskString) throws IllegalArgumentException {
         super(addressString, maskString, 4);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation() + " mask=" + maskString);
+        logger.info("[{}] constructed {} mask={}", CLS, this, maskString);
     }
 
     /**
@@ -32,7 +47,40 @@ public class IPv4 extends IP {
      */
     public IPv4(String addressString, int maskPrefix) throws IllegalArgumentException {
         super(addressString, maskPrefix, 4);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation() + "/" + maskPrefix);
+        logger.info("[{}] constructed {}/{}", CLS, this, maskPrefix);
+    }
+
+    /**
+     * Constructs an IPv4 from its packed int form and prefix length.
+     *
+     * @param address    the address packed big-endian (e.g. 0xC0A80001 for 192.168.0.1)
+     * @param maskPrefix the subnet prefix length (0–32)
+     * @throws IllegalArgumentException if maskPrefix is out of range
+     */
+    public IPv4(int address, int maskPrefix) throws IllegalArgumentException {
+        super(address, maskPrefix);
+        logger.debug("[{}] constructed {}/{}", CLS, this, maskPrefix);
+    }
+
+    /**
+     * Returns the shared immutable IPv4 for an address and prefix length.
+     * A cache hit allocates nothing.
+     *
+     * @param address    the address packed big-endian
+     * @param maskPrefix the subnet prefix length (0–32)
+     * @return the canonical IPv4
+     * @throws IllegalArgumentException if maskPrefix is out of range
+     */
+    public static IPv4 intern(int address, int maskPrefix) throws IllegalArgumentException {
+        int  slot   = CACHE.slot(address * 31 + maskPrefix);
+        IPv4 cached = CACHE.get(slot);
+        if (cached != null && cached.bits == address && cached.mask.getPrefix() == maskPrefix) {
+            return cached;
+        }
+        IPv4 ip = new IPv4(address, maskPrefix);
+        ip.makeImmutable();
+        CACHE.set(slot, ip);
+        return ip;
     }
 
     /**
@@ -46,13 +94,13 @@ public class IPv4 extends IP {
     protected byte[] parse(String address) throws IllegalArgumentException {
         if (address == null) {
             String msg = "parse failed: address string is null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         String[] parts = address.trim().split("\\.", -1);
         if (parts.length != 4) {
             String msg = "Invalid IPv4 format, got " + parts.length + " parts in \"" + address + "\"";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         byte[] octets = new byte[4];
@@ -60,7 +108,7 @@ public class IPv4 extends IP {
             String part = parts[i];
             if (part.isEmpty()) {
                 String msg = "Octet #" + (i + 1) + " is empty in \"" + address + "\"";
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new IllegalArgumentException(msg);
             }
             int val;
@@ -68,72 +116,62 @@ public class IPv4 extends IP {
                 val = Integer.parseInt(part);
             } catch (NumberFormatException e) {
                 String msg = "Octet #" + (i + 1) + " not a valid integer: \"" + part + "\"";
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new IllegalArgumentException(msg, e);
             }
             if (val < 0 || val > 255) {
                 String msg = "Octet #" + (i + 1) + " out of range (0–255): " + val;
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new IllegalArgumentException(msg);
             }
             octets[i] = (byte) val;
         }
-        logger.debug("[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
+        logger.debug(() -> "[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
         return octets;
     }
 
     @Override
     public boolean isLoopback() {
-        boolean result = this.isInSubnet("127.0.0.0", 8);
-        logger.debug("[" + CLS + "] isLoopback() → " + result);
+        boolean result = this.isInSubnet(LOOPBACK, 8);
+        logger.debug("[{}] isLoopback() → {}", CLS, result);
         return result;
     }
 
     @Override
     public boolean isMulticast() {
-        boolean result = this.isInSubnet("224.0.0.0", 4);
-        logger.debug("[" + CLS + "] isMulticast() → " + result);
+        boolean result = this.isInSubnet(MULTICAST, 4);
+        logger.debug("[{}] isMulticast() → {}", CLS, result);
         return result;
     }
 
     @Override
     public boolean isBroadcast() {
-        for (byte b : this.address) {
-            if ((b & 0xFF) != 0xFF) {
-                logger.debug("[" + CLS + "] isBroadcast() → false");
-                return false;
-            }
-        }
-        logger.debug("[" + CLS + "] isBroadcast() → true");
-        return true;
+        boolean result = this.bits == -1;
+        logger.debug("[{}] isBroadcast() → {}", CLS, result);
+        return result;
     }
 
     @Override
     public boolean isPrivate() {
-        boolean result = this.isInSubnet("10.0.0.0", 8)
-                      || this.isInSubnet("172.16.0.0", 12)
-                      || this.isInSubnet("192.168.0.0", 16);
-        logger.debug("[" + CLS + "] isPrivate() → " + result);
+        boolean result = this.isInSubnet(PRIVATE_10, 8)
+                      || this.isInSubnet(PRIVATE_172, 12)
+                      || this.isInSubnet(PRIVATE_192, 16);
+        logger.debug("[{}] isPrivate() → {}", CLS, result);
         return result;
     }
 
     @Override
     public boolean isLinkLocal() {
-        boolean result = this.isInSubnet("169.254.0.0", 16);
-        logger.debug("[" + CLS + "] isLinkLocal() → " + result);
+        boolean result = this.isInSubnet(LINK_LOCAL, 16);
+        logger.debug("[{}] isLinkLocal() → {}", CLS, result);
         return result;
     }
 
     @Override
     public boolean isUnspecified() {
-        for (byte b : this.address) {
-            if (b != 0) {
-                logger.debug("[" + CLS + "] isUnspecified() → false");
-                return false;
-            }
-        }
-        logger.debug("[" + CLS + "] isUnspecified() → true");
-        return true;
+        boolean result = this.bits == 0;
+        logger.debug("[{}] isUnspecified() → {}", CLS, result);
+        return result;
     }
 
     @Override
@@ -141,19 +179,21 @@ public class IPv4 extends IP {
         int prefix = this.mask.getPrefix();
         if (prefix < 0 || prefix > 32) {
             String msg = "Invalid mask prefix: " + prefix;
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalStateException(msg);
         }
-        byte[] maskBytes = new Mask(prefix, 4).byteRepresentation();
-        byte[] addrBytes = this.byteRepresentation();
-        for (int i = 0; i < 4; i++) {
-            if ((addrBytes[i] & ~maskBytes[i]) != 0) {
-                logger.debug("[" + CLS + "] isSubnet() → false");
-                return false;
-            }
-        }
-        logger.debug("[" + CLS + "] isSubnet() → true");
-        return true;
+        boolean result = (this.bits & ~this.mask.getBits()) == 0;
+        logger.debug("[{}] isSubnet() → {}", CLS, result);
+        return result;
+    }
+
+    /**
+     * Computes the network address of this subnet (host bits cleared).
+     *
+     * @return the network IPv4 with the same prefix length
+     */
+    public IPv4 network() {
+        return new IPv4(this.bits & this.mask.getBits(), this.mask.getPrefix());
     }
 
     /**
@@ -162,24 +202,20 @@ public class IPv4 extends IP {
      * @return the calculated subnet broadcast IPv4
      */
     public IPv4 subnetBroadcast() {
-        String[] parts = this.stringRepresentation().split("\\.");
-        int ipInt = 0;
-        for (int i = 0; i < 4; i++) {
-            ipInt |= (Integer.parseInt(parts[i]) << (24 - (8 * i)));
-        }
-        int maskBits = (this.mask.getPrefix() == 0) ? 0 : (~0 << (32 - this.mask.getPrefix()));
-        int bInt = ipInt | ~maskBits;
-        String bStr = String.format("%d.%d.%d.%d",
-            (bInt >> 24) & 0xFF,
-            (bInt >> 16) & 0xFF,
-            (bInt >> 8)  & 0xFF,
-            bInt & 0xFF
-        );
-        IPv4 bc = new IPv4(bStr, this.mask.getPrefix());
-        logger.info("[" + CLS + "] subnetBroadcast() → " + bc.stringRepresentation());
+        IPv4 bc = new IPv4(this.bits | ~this.mask.getBits(), this.mask.getPrefix());
+        logger.info("[{}] subnetBroadcast() → {}", CLS, bc);
         return bc;
     }
 
-    @Override public boolean equals(Object o) { return super.equals(o); }
-    @Override public int     hashCode()      { return super.hashCode(); }
+    /**
+     * Orders addresses as unsigned 32-bit numbers, then by prefix length.
+     *
+     * @param other the address to compare with (non-null)
+     * @return negative, zero or positive as this is below, equal to or above other
+     */
+    @Override
+    public int compareTo(IPv4 other) {
+        int c = Integer.compareUnsigned(this.bits, other.bits);
+        return c != 0 ? c : Integer.compare(this.mask.getPrefix(), other.mask.getPrefix());
+    }
 }
\ No newline at end of file
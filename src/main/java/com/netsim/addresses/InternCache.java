@@ -0,0 +1,67 @@
+package com.netsim.addresses;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free, direct-mapped cache of canonical address instances.
+ * <p>
+ * Each key hashes to exactly one slot; a miss overwrites the slot, so the
+ * cache never holds more than its capacity and never blocks. Callers compare
+ * the cached instance with their key themselves, which keeps hits free of
+ * allocation. Two keys sharing a slot simply evict each other; correctness
+ * does not depend on hits, only the allocation rate does.
+ *
+ * @param <T> the cached address type
+ */
+final class InternCache<T extends Address> {
+    private final AtomicReferenceArray<T> slots;
+    private final int                     mask;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two (&gt; 0)
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    InternCache(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("InternCache: capacity must be in 1..2^30");
+        }
+        int size   = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask  = size - 1;
+    }
+
+    /**
+     * @param hash hash of the key
+     * @return the slot the key maps to
+     */
+    int slot(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x9E3779B1;
+        return (hash ^ (hash >>> 15)) & this.mask;
+    }
+
+    /**
+     * @param slot a slot returned by {@link #slot(int)}
+     * @return the instance cached there, or null
+     */
+    T get(int slot) {
+        return this.slots.get(slot);
+    }
+
+    /**
+     * Stores a canonical instance; it must already be immutable.
+     *
+     * @param slot     a slot returned by {@link #slot(int)}
+     * @param instance the instance to cache
+     */
+    void set(int slot, T instance) {
+        this.slots.lazySet(slot, instance);
+    }
+
+    /**
+     * @return the number of slots
+     */
+    int capacity() {
+        return this.slots.length();
+    }
+}
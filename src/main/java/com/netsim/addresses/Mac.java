@@ -5,11 +5,32 @@ import com.netsim.utils.Logger;
 
 /**
  * A 6‐byte MAC address.
+ * <p>
+ * The 48 bits are also kept in the low bits of a long, so that equality,
+ * hashing and frame filtering are single long operations and addresses can
+ * be written to or read from a frame without an intermediate array.
+ * Decoders obtain addresses through {@link #intern(byte[], int)}, which returns
+ * shared immutable instances from a bounded cache instead of building a new
+ * Mac per frame.
  */
 public class Mac extends Address {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Mac.class);
     private static final String CLS    = Mac.class.getSimpleName();
 
+    /** slots of the intern cache; a busy segment rarely has more stations */
+    static final int INTERN_CAPACITY = 4096;
+
+    private static final InternCache<Mac> CACHE = new InternCache<>(INTERN_CAPACITY);
+
+    /** FF:FF:FF:FF:FF:FF as returned by {@link #toLong()} */
+    public static final long BROADCAST_BITS = 0xFFFF_FFFF_FFFFL;
+
+    private static final Mac BROADCAST = new Mac(unpack(BROADCAST_BITS));
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private long bits;
+
     /**
      * Parses and constructs a MAC from a string like "02:00:00:00:00:01".
      *
@@ -18,7 +39,118 @@ public class Mac extends Address {
      */
     public Mac(String address) throws IllegalArgumentException {
         super(address, 6);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation());
+        logger.info("[{}] constructed {}", CLS, this);
+    }
+
+    /**
+     * Builds a shared instance from raw bytes without parsing or logging.
+     *
+     * @param sixBytes raw 6 bytes
+     */
+    private Mac(byte[] sixBytes) {
+        super(sixBytes);
+        this.bits = decode(sixBytes, 0);
+        this.makeImmutable();
+    }
+
+    /**
+     * Returns the shared immutable Mac for the 6 bytes at offset in src.
+     * A cache hit allocates nothing.
+     *
+     * @param src    array holding the address (non-null)
+     * @param offset index of the first address byte
+     * @return the canonical Mac
+     * @throws IllegalArgumentException if src is null or too short
+     */
+    public static Mac intern(byte[] src, int offset) throws IllegalArgumentException {
+        if (src == null || offset < 0 || offset + 6 > src.length) {
+            String msg = "intern: need 6 bytes at offset " + offset;
+            logger.error("[{}] {}", CLS, msg);
+            throw new IllegalArgumentException(msg);
+        }
+        return fromLong(decode(src, offset));
+    }
+
+    /**
+     * Returns the shared immutable Mac for a 48-bit value.
+     * A cache hit allocates nothing.
+     *
+     * @param bits the address in the low 48 bits
+     * @return the canonical Mac
+     * @throws IllegalArgumentException if bits has any of its top 16 bits set
+     */
+    public static Mac fromLong(long bits) throws IllegalArgumentException {
+        if ((bits & ~BROADCAST_BITS) != 0) {
+            String msg = "fromLong: value does not fit in 48 bits";
+            logger.error("[{}] {}", CLS, msg);
+            throw new IllegalArgumentException(msg);
+        }
+        if (bits == BROADCAST_BITS) {
+            return BROADCAST;
+        }
+        int slot   = CACHE.slot(Long.hashCode(bits));
+        Mac cached = CACHE.get(slot);
+        if (cached != null && cached.bits == bits) {
+            return cached;
+        }
+        Mac mac = new Mac(unpack(bits));
+        CACHE.set(slot, mac);
+        return mac;
+    }
+
+    /**
+     * Reads the 6 bytes at offset as a 48-bit value, without building a Mac.
+     *
+     * @param src    array holding the address (non-null, offset + 6 &lt;= length)
+     * @param offset index of the first address byte
+     * @return the address in the low 48 bits
+     */
+    public static long decode(byte[] src, int offset) {
+        return ((long) (src[offset]     & 0xFF) << 40)
+             | ((long) (src[offset + 1] & 0xFF) << 32)
+             | ((long) (src[offset + 2] & 0xFF) << 24)
+             | ((long) (src[offset + 3] & 0xFF) << 16)
+             | ((long) (src[offset + 4] & 0xFF) << 8)
+             |  (long) (src[offset + 5] & 0xFF);
+    }
+
+    /**
+     * Writes this address as 6 bytes at offset in dst.
+     *
+     * @param dst    destination array (non-null, offset + 6 &lt;= length)
+     * @param offset index of the first address byte
+     */
+    public void encode(byte[] dst, int offset) {
+        long v = this.bits;
+        dst[offset]     = (byte) (v >>> 40);
+        dst[offset + 1] = (byte) (v >>> 32);
+        dst[offset + 2] = (byte) (v >>> 24);
+        dst[offset + 3] = (byte) (v >>> 16);
+        dst[offset + 4] = (byte) (v >>> 8);
+        dst[offset + 5] = (byte) v;
+    }
+
+    /**
+     * @return the address in the low 48 bits of a long
+     */
+    public long toLong() {
+        return this.bits;
+    }
+
+    /**
+     * @return true if this is FF:FF:FF:FF:FF:FF
+     */
+    public boolean isBroadcast() {
+        return this.bits == BROADCAST_BITS;
+    }
+
+    private static byte[] unpack(long bits) {
+        byte[] b = new byte[6];
+        for (int i = 5; i >= 0; i--) {
+            b[i] = (byte) bits;
+            bits >>>= 8;
+        }
+        return b;
     }
 
     /**
@@ -32,13 +164,13 @@ public class Mac extends Address {
     protected byte[] parse(String address) throws IllegalArgumentException {
         if (address == null) {
             String msg = "parse failed: input string is null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         String[] parts = address.trim().split(":");
         if (parts.length != 6) {
             String msg = "Invalid MAC format: expected 6 octets, got " + parts.length;
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
 
@@ -47,7 +179,7 @@ public class Mac extends Address {
             String part = parts[i];
             if (part.length() != 2) {
                 String msg = "Invalid octet length at index " + i + ": \"" + part + "\"";
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new IllegalArgumentException(msg);
             }
             int val;
@@ -55,13 +187,13 @@ public class Mac extends Address {
                 val = Integer.parseInt(part, 16);
             } catch (NumberFormatException e) {
                 String msg = "Octet #" + (i + 1) + " not valid hex: \"" + part + "\"";
-                logger.error("[" + CLS + "] " + msg);
-                logger.debug("[" + CLS + "] parse error detail: " + e.getMessage());
+                logger.error("[{}] {}", CLS, msg);
+                logger.debug("[{}] parse error detail: {}", CLS, e.getMessage());
                 throw new IllegalArgumentException(msg, e);
             }
             octets[i] = (byte) val;
         }
-        logger.debug("[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
+        logger.debug(() -> "[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
         return octets;
     }
 
@@ -70,17 +202,31 @@ public class Mac extends Address {
      *
      * @param newAddress new MAC string
      * @throws IllegalArgumentException if parsing fails or length ≠ 6
+     * @throws UnsupportedOperationException if this is a shared instance
      */
     @Override
     public void setAddress(String newAddress) throws IllegalArgumentException {
         byte[] newBytes = this.parse(newAddress);
         if (newBytes.length != 6) {
             String msg = "setAddress failed: must be 6 bytes";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
-        super.setAddress(newBytes);
-        logger.info("[" + CLS + "] address set to " + this.stringRepresentation());
+        this.setAddress(newBytes);
+        logger.info("[{}] address set to {}", CLS, this);
+    }
+
+    /**
+     * Keeps the packed bits in step with the raw bytes.
+     *
+     * @param newAddress the raw 6 bytes
+     * @throws IllegalArgumentException if the array is null or of incorrect length
+     * @throws UnsupportedOperationException if this is a shared instance
+     */
+    @Override
+    protected void setAddress(byte[] newAddress) throws IllegalArgumentException {
+        super.setAddress(newAddress);
+        this.bits = decode(newAddress, 0);
     }
 
     /**
@@ -90,50 +236,65 @@ public class Mac extends Address {
      */
     @Override
     public String stringRepresentation() {
-        byte[] octets = this.byteRepresentation();
-        StringBuilder sb = new StringBuilder(17);
-        for (int i = 0; i < octets.length; i++) {
-            sb.append(String.format("%02X", octets[i] & 0xFF));
-            if (i < octets.length - 1) {
-                sb.append(':');
+        char[] out = new char[17];
+        for (int i = 0; i < 6; i++) {
+            int octet = (int) (this.bits >>> (40 - 8 * i)) & 0xFF;
+            out[i * 3]     = HEX[octet >>> 4];
+            out[i * 3 + 1] = HEX[octet & 0x0F];
+            if (i < 5) {
+                out[i * 3 + 2] = ':';
             }
         }
-        return sb.toString();
+        return new String(out);
     }
 
     /**
-     * Returns the broadcast MAC address FF:FF:FF:FF:FF:FF.
+     * Returns the shared broadcast MAC address FF:FF:FF:FF:FF:FF.
      *
-     * @return broadcast MAC
+     * @return broadcast MAC (immutable)
      */
     public static Mac broadcast() {
-        Mac bc = new Mac("FF:FF:FF:FF:FF:FF");
-        logger.info("[" + CLS + "] broadcast address created");
-        return bc;
+        return BROADCAST;
+    }
+
+    /**
+     * Compares the 48-bit values.
+     *
+     * @param obj the object to compare
+     * @return true if obj is a Mac with the same address
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || !obj.getClass().isInstance(this)) {
+            return false;
+        }
+        return this.bits == ((Mac) obj).bits;
+    }
+
+    /**
+     * @return a hash of the 48-bit value
+     */
+    @Override
+    protected int computeHash() {
+        return Long.hashCode(this.bits);
     }
 
     /**
      * Builds a Mac from a raw 6‐byte array.
      *
      * @param sixBytes raw 6 bytes
-     * @return corresponding Mac instance
+     * @return the shared immutable Mac for these bytes
      * @throws IllegalArgumentException if sixBytes is null or length ≠ 6
      */
     public static Mac bytesToMac(byte[] sixBytes) throws IllegalArgumentException {
         if (sixBytes == null || sixBytes.length != 6) {
             String msg = "bytesToMac: must pass exactly 6 bytes";
-            Logger.getInstance().error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
-        StringBuilder sb = new StringBuilder(17);
-        for (int i = 0; i < 6; i++) {
-            sb.append(String.format("%02X", sixBytes[i] & 0xFF));
-            if (i < 5) {
-                sb.append(':');
-            }
-        }
-        Mac result = new Mac(sb.toString());
-        logger.info("[" + CLS + "] bytesToMac → " + result.stringRepresentation());
-        return result;
+        return intern(sixBytes, 0);
     }
 }
\ No newline at end of file
@@ -5,12 +5,16 @@ import java.util.Arrays;
 
 /**
  * Represents an IPv4/IPv6 subnet mask with a prefix length.
+ * <p>
+ * Masks of up to 4 bytes also keep their bits packed in an int, so that
+ * subnet arithmetic never goes back to the byte or string form.
  */
 public class Mask extends Address {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Mask.class);
     private static final String CLS    = Mask.class.getSimpleName();
 
     private int prefix;
+    private int bits;
 
     /**
      * Constructs a Mask from a prefix length.
@@ -20,9 +24,10 @@ public class Mask extends Address {
      * @throws IllegalArgumentException if prefix or bytes yield invalid mask
      */
     public Mask(int prefix, int bytes) throws IllegalArgumentException {
-        super(buildMaskString(prefix, bytes), bytes);
+        super(maskBytes(prefix, bytes));
         this.prefix = prefix;
-        logger.info("[" + CLS + "] constructed mask=" + this.stringRepresentation() + " (/" + this.prefix + ")");
+        this.bits   = packBits(this.address);
+        logger.info("[{}] constructed mask={} (/{})", CLS, this, this.prefix);
     }
 
     /**
@@ -43,7 +48,7 @@ public class Mask extends Address {
                 if (one) {
                     if (zeroFound) {
                         String msg = "Non-contiguous mask: " + maskString;
-                        logger.error("[" + CLS + "] " + msg);
+                        logger.error("[{}] {}", CLS, msg);
                         throw new IllegalArgumentException(msg);
                     }
                     computed++;
@@ -53,7 +58,39 @@ public class Mask extends Address {
             }
         }
         this.prefix = computed;
-        logger.info("[" + CLS + "] parsed mask=" + this.stringRepresentation() + " (/" + this.prefix + ")");
+        logger.info("[{}] parsed mask={} (/{})", CLS, this, this.prefix);
+    }
+
+    /**
+     * Builds the raw bytes of a mask from a prefix length.
+     *
+     * @param prefix the subnet prefix length (0–8*bytes)
+     * @param bytes  number of bytes
+     * @return the mask bytes
+     * @throws IllegalArgumentException if prefix is out of range
+     */
+    static byte[] maskBytes(int prefix, int bytes) throws IllegalArgumentException {
+        if (prefix < 0 || prefix > 8 * bytes) {
+            String msg = "Invalid prefix /" + prefix + " for a " + bytes + "-byte mask";
+            logger.error("[{}] {}", CLS, msg);
+            throw new IllegalArgumentException(msg);
+        }
+        byte[] out = new byte[bytes];
+        for (int i = 0; i < bytes; i++) {
+            int remaining = prefix - 8 * i;
+            out[i] = (byte) (remaining >= 8 ? 0xFF : remaining <= 0 ? 0 : (0xFF << (8 - remaining)));
+        }
+        return out;
+    }
+
+    /**
+     * Netmask of an IPv4 prefix length as an int: the top prefix bits set.
+     *
+     * @param prefix the prefix length (0–32)
+     * @return the netmask bits
+     */
+    public static int bitsOf(int prefix) {
+        return prefix == 0 ? 0 : -1 << (32 - prefix);
     }
 
     /**
@@ -81,7 +118,7 @@ public class Mask extends Address {
                 sb.append('.');
             }
         }
-        logger.debug("[" + CLS + "] buildMaskString -> " + sb.toString());
+        logger.debug("[{}] buildMaskString -> {}", CLS, sb);
         return sb.toString();
     }
 
@@ -93,17 +130,31 @@ public class Mask extends Address {
      */
     @Override
     public void setAddress(String newAddress) throws IllegalArgumentException {
-        super.setAddress(this.parse(newAddress));
-        logger.info("[" + CLS + "] address set to " + this.stringRepresentation());
+        this.setAddress(this.parse(newAddress));
+        logger.info("[{}] address set to {}", CLS, this);
     }
 
     /**
-     * Changes only the prefix length.
+     * Keeps the packed bits in step with the raw bytes.
+     *
+     * @param newAddress the raw mask bytes
+     * @throws IllegalArgumentException if the array is null or of incorrect length
+     */
+    @Override
+    protected void setAddress(byte[] newAddress) throws IllegalArgumentException {
+        super.setAddress(newAddress);
+        this.bits = packBits(newAddress);
+    }
+
+    /**
+     * Changes the prefix length, updating the mask bytes with it.
      *
      * @param newPrefix new subnet prefix length
+     * @throws IllegalArgumentException if newPrefix is out of range
      */
-    public void setPrefix(int newPrefix) {
-        logger.info("[" + CLS + "] prefix changed from /" + this.prefix + " to /" + newPrefix);
+    public void setPrefix(int newPrefix) throws IllegalArgumentException {
+        this.setAddress(maskBytes(newPrefix, this.bytesLen));
+        logger.info("[{}] prefix changed from /{} to /{}", CLS, this.prefix, newPrefix);
         this.prefix = newPrefix;
     }
 
@@ -118,14 +169,14 @@ public class Mask extends Address {
     protected byte[] parse(String address) throws IllegalArgumentException {
         if (address == null) {
             String msg = "parse failed: address string is null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         String[] parts = address.trim().split("\\.");
         if (parts.length != this.bytesLen) {
             String msg = "Invalid mask format: expected " + this.bytesLen
                        + " octets, got " + parts.length + " in \"" + address + "\"";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         byte[] octets = new byte[this.bytesLen];
@@ -133,7 +184,7 @@ public class Mask extends Address {
             String part = parts[i];
             if (part.isEmpty()) {
                 String msg = "Octet #" + (i + 1) + " is empty in \"" + address + "\"";
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new IllegalArgumentException(msg);
             }
             int v;
@@ -141,17 +192,17 @@ public class Mask extends Address {
                 v = Integer.parseInt(part);
             } catch (NumberFormatException e) {
                 String msg = "Octet #" + (i + 1) + " not a valid integer: \"" + part + "\"";
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new IllegalArgumentException(msg, e);
             }
             if (v < 0 || v > 255) {
                 String msg = "Octet #" + (i + 1) + " out of range (0-255): " + v;
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new IllegalArgumentException(msg);
             }
             octets[i] = (byte) v;
         }
-        logger.debug("[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
+        logger.debug(() -> "[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
         return octets;
     }
 
@@ -163,4 +214,13 @@ public class Mask extends Address {
     public int getPrefix() {
         return this.prefix;
     }
+
+    /**
+     * Retrieves the mask packed big-endian into an int (masks of up to 4 bytes).
+     *
+     * @return the mask bits
+     */
+    public int getBits() {
+        return this.bits;
+    }
 }
\ No newline at end of file
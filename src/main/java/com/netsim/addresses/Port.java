@@ -4,11 +4,23 @@ import com.netsim.utils.Logger;
 
 /**
  * Represents a transport‐layer port (0–65535) with a 2‐byte big‐endian encoding.
+ * <p>
+ * {@link #of(int)} hands out one shared, immutable instance per port number
+ * from a table filled at class initialisation; decoders use it so that no
+ * Port is allocated per segment.
  */
 public class Port extends Address {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Port.class);
     private static final String CLS    = Port.class.getSimpleName();
 
+    private static final Port[] TABLE = new Port[0x10000];
+
+    static {
+        for (int p = 0; p < TABLE.length; p++) {
+            TABLE[p] = new Port(p);
+        }
+    }
+
     private int port;
 
     /**
@@ -20,7 +32,34 @@ public class Port extends Address {
     public Port(String portStr) throws IllegalArgumentException {
         super(portStr, 2);
         this.port = this.parsePort(portStr);
-        logger.info("[" + CLS + "] constructed port=" + this.port);
+        logger.info("[{}] constructed port={}", CLS, this.port);
+    }
+
+    /**
+     * Builds a canonical table entry without parsing or logging.
+     *
+     * @param port the port number (0–65535)
+     */
+    private Port(int port) {
+        super(Port.shortToBytes(port));
+        this.port = port;
+        this.makeImmutable();
+    }
+
+    /**
+     * Returns the shared immutable instance for a port number.
+     *
+     * @param port the port number (0–65535)
+     * @return the canonical Port
+     * @throws IllegalArgumentException if port is out of range
+     */
+    public static Port of(int port) throws IllegalArgumentException {
+        if (port < 0 || port > 0xFFFF) {
+            String msg = "Port out of range: " + port;
+            logger.error("[{}] {}", CLS, msg);
+            throw new IllegalArgumentException(msg);
+        }
+        return TABLE[port];
     }
 
     /**
@@ -33,7 +72,7 @@ public class Port extends Address {
     private int parsePort(String input) throws IllegalArgumentException {
         if (input == null) {
             String msg = "Port string cannot be null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         int value;
@@ -41,12 +80,12 @@ public class Port extends Address {
             value = Integer.parseInt(input.trim());
         } catch (NumberFormatException e) {
             String msg = "Invalid port format: " + input;
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg, e);
         }
         if (value < 0 || value > 0xFFFF) {
             String msg = "Port out of range: " + value;
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         return value;
@@ -57,16 +96,18 @@ public class Port extends Address {
      *
      * @param newPort the port number (0–65535)
      * @throws IllegalArgumentException if newPort is out of range
+     * @throws UnsupportedOperationException if this is a shared instance
      */
     public void setAddress(int newPort) throws IllegalArgumentException {
+        this.checkMutable();
         if (newPort < 0 || newPort > 0xFFFF) {
             String msg = "Port out of range: " + newPort;
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         this.port    = newPort;
         this.address = Port.shortToBytes(newPort);
-        logger.info("[" + CLS + "] set port to " + this.port);
+        logger.info("[{}] set port to {}", CLS, this.port);
     }
 
     /**
@@ -74,6 +115,7 @@ public class Port extends Address {
      *
      * @param portStr the port number as string
      * @throws IllegalArgumentException if portStr is null, non‐numeric, or out of range
+     * @throws UnsupportedOperationException if this is a shared instance
      */
     @Override
     public void setAddress(String portStr) throws IllegalArgumentException {
@@ -90,10 +132,11 @@ public class Port extends Address {
      */
     @Override
     protected byte[] parse(String input) throws IllegalArgumentException {
+        this.checkMutable();
         int parsed = this.parsePort(input);
         this.port  = parsed;
         byte[] result = Port.shortToBytes(parsed);
-        logger.debug("[" + CLS + "] parse(\"" + input + "\") → port=" + parsed);
+        logger.debug("[{}] parse(\"{}\") → port={}", CLS, input, parsed);
         return result;
     }
 
@@ -104,6 +147,14 @@ public class Port extends Address {
         return this.port;
     }
 
+    /**
+     * @return the decimal port number
+     */
+    @Override
+    public String toString() {
+        return Integer.toString(this.port);
+    }
+
     /**
      * Converts an integer to a 2‐byte big‐endian array.
      *
@@ -118,25 +169,25 @@ public class Port extends Address {
     }
 
     /**
-     * Constructs a Port from a 2‐byte big‐endian array.
+     * Decodes a Port from a 2‐byte big‐endian array.
      *
      * @param data a 2‐byte array
-     * @return a new Port instance
+     * @return the shared immutable Port
      * @throws IllegalArgumentException if data is null or length≠2
      */
     public static Port fromBytes(byte[] data) throws IllegalArgumentException {
         if (data == null) {
             String msg = "Port.fromBytes: input null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         if (data.length != 2) {
             String msg = "Port.fromBytes: expected 2 bytes but got " + data.length;
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(msg);
         }
         int portValue = ((data[0] & 0xFF) << 8) | (data[1] & 0xFF);
-        logger.info("[" + CLS + "] fromBytes → port=" + portValue);
-        return new Port(Integer.toString(portValue));
+        logger.debug("[{}] fromBytes → port={}", CLS, portValue);
+        return TABLE[portValue];
     }
 }
\ No newline at end of file
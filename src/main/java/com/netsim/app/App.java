@@ -1,5 +1,7 @@
 package com.netsim.app;
 
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Port;
 import com.netsim.network.NetworkNode;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.utils.Logger;
@@ -8,7 +10,7 @@ import com.netsim.utils.Logger;
  * Base class for applications running on a NetworkNode.
  */
 public abstract class App {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(App.class);
     private final String CLS = this.getClass().getSimpleName();
 
     protected final String name;
@@ -28,7 +30,7 @@ public abstract class App {
      */
     protected App(String name, String usage, CommandFactory factory, NetworkNode node) throws IllegalArgumentException {
         if (name == null || usage == null || factory == null) {
-            logger.error("[" + this.CLS + "] name, usage, and factory must be non-null");
+            logger.error("[{}] name, usage, and factory must be non-null", this.CLS);
             throw new IllegalArgumentException(this.CLS + ": name, usage, and factory cannot be null");
         }
         this.name = name;
@@ -36,8 +38,8 @@ public abstract class App {
         this.commands = factory;
         this.owner = node;
         this.username = null;
-        logger.info("[" + this.CLS + "] initialized App \"" + this.name + "\" on node: "
-            + (this.owner != null ? this.owner.getName() : "null"));
+        logger.info("[{}] initialized App \"{}\" on node: {}",
+                    this.CLS, this.name, (this.owner != null ? this.owner.getName() : "null"));
     }
 
     /**
@@ -48,11 +50,11 @@ public abstract class App {
      */
     public void setUsername(String newUsername) throws IllegalArgumentException {
         if (newUsername == null) {
-            logger.error("[" + this.CLS + "] invalid username (null)");
+            logger.error("[{}] invalid username (null)", this.CLS);
             throw new IllegalArgumentException(this.CLS + ": invalid username");
         }
         this.username = newUsername;
-        logger.info("[" + this.CLS + "] username set to \"" + this.username + "\"");
+        logger.info("[{}] username set to \"{}\"", this.CLS, this.username);
     }
 
     /**
@@ -78,6 +80,31 @@ public abstract class App {
      */
     public abstract void receive(ProtocolPipeline stack, byte[] data) throws IllegalArgumentException;
 
+    /**
+     * UDP port the App listens on. Nodes bind it in their demultiplexer when
+     * the App is installed, and UDP segments for it reach {@link #deliver}.
+     *
+     * @return the port, or null if the App takes raw IP payloads through
+     *         {@link #receive} instead
+     */
+    public Port getPort() {
+        return null;
+    }
+
+    /**
+     * Receives a UDP segment demultiplexed from the wire by destination port;
+     * everything the App needs is in the bytes, no pipeline comes with them.
+     * Apps that return a port from {@link #getPort()} must override this.
+     *
+     * @param source  source address of the datagram
+     * @param segment the raw UDP segment (non-null)
+     * @throws UnsupportedOperationException if the App has no wire receive path
+     */
+    public void deliver(IPv4 source, byte[] segment) {
+        logger.error("[{}] cannot receive segments from the wire", this.CLS);
+        throw new UnsupportedOperationException(this.CLS + ": no wire receive path");
+    }
+
     /**
      * Prints a message to the console prefixed by the App’s name.
      *
@@ -91,7 +118,7 @@ public abstract class App {
         }
 
         System.out.println(this.name + "** " + message);
-        logger.info("[" + this.CLS + "] printed message: " + message.replace("\n", "\\n"));
+        logger.info("[{}] printed message: {}", this.CLS, message.replace("\n", "\\n"));
     }
 
         /**
@@ -108,7 +135,7 @@ public abstract class App {
         }
 
         System.out.print(this.name + "** " + message);
-        logger.info("[" + this.CLS + "] printed message: " + message.replace("\n", "\\n"));
+        logger.info("[{}] printed message: {}", this.CLS, message.replace("\n", "\\n"));
     }
 
     /**
@@ -141,15 +168,15 @@ public abstract class App {
      */
     public Command getCommand(String cmdName) throws IllegalArgumentException {
         if (cmdName == null) {
-            logger.error("[" + this.CLS + "] command name cannot be null");
+            logger.error("[{}] command name cannot be null", this.CLS);
             throw new IllegalArgumentException(this.CLS + ": command name cannot be null");
         }
         Command cmd = this.commands.get(cmdName);
         if (cmd == null) {
-            logger.error("[" + this.CLS + "] no command found for: " + cmdName);
+            logger.error("[{}] no command found for: {}", this.CLS, cmdName);
             throw new IllegalArgumentException(this.CLS + ": no command found for \"" + cmdName + "\"");
         }
-        logger.info("[" + this.CLS + "] getCommand(\"" + cmdName + "\") => " + cmd.name());
+        logger.info("[{}] getCommand(\"{}\") => {}", this.CLS, cmdName, cmd.name());
         return cmd;
     }
 }
\ No newline at end of file
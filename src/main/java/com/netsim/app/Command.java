@@ -6,7 +6,7 @@ import com.netsim.utils.Logger;
  * Base class for a user‐invokable command within an App.
  */
 public abstract class Command {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Command.class);
     private final String CLS = this.getClass().getSimpleName();
 
     protected final String name;
@@ -19,11 +19,11 @@ public abstract class Command {
      */
     protected Command(String name) throws IllegalArgumentException {
         if (name == null) {
-            logger.error("[" + this.CLS + "] invalid argument: name cannot be null");
+            logger.error("[{}] invalid argument: name cannot be null", this.CLS);
             throw new IllegalArgumentException(this.CLS + ": name cannot be null");
         }
         this.name = name;
-        logger.info("[" + this.CLS + "] created command \"" + this.name + "\"");
+        logger.info("[{}] created command \"{}\"", this.CLS, this.name);
     }
 
     /**
@@ -49,7 +49,7 @@ public abstract class Command {
      * @return the command name
      */
     public String name() {
-        logger.info("[" + this.CLS + "] name() => " + this.name);
+        logger.info("[{}] name() => {}", this.CLS, this.name);
         return this.name;
     }
 }
\ No newline at end of file
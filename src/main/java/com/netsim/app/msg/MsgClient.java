@@ -4,11 +4,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Port;
 import com.netsim.app.App;
 import com.netsim.app.Command;
 import com.netsim.network.NetworkNode;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.MSG.MSGHeader;
 import com.netsim.protocols.MSG.MSGProtocol;
 import com.netsim.protocols.UDP.UDPProtocol;
 import com.netsim.utils.Logger;
@@ -18,7 +21,7 @@ import com.netsim.utils.Logger;
  * over UDP/IP from a specified server.
  */
 public class MsgClient extends App {
-    private final Logger              logger   = Logger.getInstance();
+    private final Logger              logger   = Logger.getInstance(MsgClient.class);
     private final Scanner             input;
     private final IPv4                serverIP;
     private static final String       CLS       = MsgClient.class.getSimpleName();
@@ -37,12 +40,12 @@ public class MsgClient extends App {
               node);
         if (serverIP == null) {
             String msg = "invalid server IP: null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(CLS + ": " + msg);
         }
         this.serverIP = serverIP;
         this.input    = new Scanner(System.in);
-        logger.info("[" + CLS + "] initialized for server " + this.serverIP.stringRepresentation());
+        logger.info("[{}] initialized for server {}", CLS, this.serverIP);
     }
 
     /**
@@ -65,7 +68,7 @@ public class MsgClient extends App {
         }
 
         this.printAppMessage("Hello " + this.username + "\n");
-        logger.info("[" + CLS + "] started for user: " + this.username);
+        logger.info("[{}] started for user: {}", CLS, this.username);
 
         while (true) {
             this.printAppMessageInLine("Write the command (type help for a list of commands): ");
@@ -77,9 +80,9 @@ public class MsgClient extends App {
             try {
                 Command cmd = this.commands.get(cmdIdentifier);
                 cmd.execute(this, params);
-                logger.info("[" + CLS + "] executed command: " + cmdIdentifier);
+                logger.info("[{}] executed command: {}", CLS, cmdIdentifier);
             } catch (RuntimeException e) {
-                logger.debug("[" + CLS + "] error executing `" + cmdIdentifier + "`: " + e.getLocalizedMessage());
+                logger.debug("[{}] error executing `{}`: {}", CLS, cmdIdentifier, e.getLocalizedMessage());
                 this.printAppMessage(e.getLocalizedMessage());
             }
         }
@@ -97,7 +100,7 @@ public class MsgClient extends App {
     public void receive(ProtocolPipeline stack, byte[] data) throws IllegalArgumentException, RuntimeException {
         if (stack == null || data == null || data.length == 0) {
             String msg = "receive: invalid arguments";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(CLS + ".receive: " + msg);
         }
 
@@ -106,7 +109,7 @@ public class MsgClient extends App {
             Protocol p1 = stack.pop();
             if (!(p1 instanceof UDPProtocol)) {
                 String msg = "receive: expected UDP protocol";
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new RuntimeException(CLS + ".receive: " + msg);
             }
             UDPProtocol udpProto = (UDPProtocol) p1;
@@ -116,7 +119,7 @@ public class MsgClient extends App {
             Protocol p2 = stack.pop();
             if (!(p2 instanceof MSGProtocol)) {
                 String msg = "receive: expected MSG protocol";
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new RuntimeException(CLS + ".receive: " + msg);
             }
             MSGProtocol msgProto = (MSGProtocol) p2;
@@ -126,14 +129,37 @@ public class MsgClient extends App {
             String sender  = msgProto.getUser();
             String message = new String(payloadBytes, StandardCharsets.UTF_8);
             this.printAppMessage("from " + sender + ": " + message + "\n");
-            logger.info("[" + CLS + "] received message from: " + sender);
+            logger.info("[{}] received message from: {}", CLS, sender);
 
         } catch (RuntimeException e) {
-            logger.debug("[" + CLS + "] receive failed: " + e.getLocalizedMessage());
+            logger.debug("[{}] receive failed: {}", CLS, e.getLocalizedMessage());
             throw e;
         }
     }
 
+    /**
+     * @return the MSG port, where the server's replies arrive
+     */
+    @Override
+    public Port getPort() {
+        return MSGProtocol.port();
+    }
+
+    /**
+     * Handles a UDP segment straight from the wire: UDP and MSG are both
+     * parsed from the bytes, so no pipeline is needed.
+     *
+     * @param source  address of the sender
+     * @param segment the raw UDP segment (non-null)
+     * @throws IllegalArgumentException if the segment is malformed
+     */
+    @Override
+    public void deliver(IPv4 source, byte[] segment) throws IllegalArgumentException {
+        MSGHeader msg = MSGProtocol.parse(UDPProtocol.payloadOf(segment));
+        this.printAppMessage("from " + msg.getNameString() + ": " + msg.getMessageString() + "\n");
+        logger.info("[{}] received message from: {}", CLS, msg.getNameString());
+    }
+
     /**
      * Sends data to the configured server via UDP & IP.
      *
@@ -146,12 +172,12 @@ public class MsgClient extends App {
     public void send(ProtocolPipeline stack, byte[] data) throws IllegalArgumentException, RuntimeException {
         if (stack == null || data == null || data.length == 0) {
             String msg = "send: invalid arguments";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(CLS + ": " + msg);
         }
         if (this.owner == null) {
             String msg = "send: owner node is null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new RuntimeException(CLS + ": " + msg);
         }
 
@@ -162,14 +188,15 @@ public class MsgClient extends App {
                 this.owner.randomPort(),
                 MSGProtocol.port()
             );
-            byte[] encapsulated = udpProto.encapsulate(data);
+            // headers go into the buffer's headroom down to the DLL: one copy of data
+            PacketBuffer segment = udpProto.encapsulate(PacketBuffer.copyOf(data, NetworkNode.SEND_HEADROOM, 0));
 
             stack.push(udpProto);
-            this.owner.send(this.serverIP, stack, encapsulated);
-            logger.info("[" + CLS + "] sent message to server " + this.serverIP.stringRepresentation());
+            this.owner.send(this.serverIP, stack, segment);
+            logger.info("[{}] sent message to server {}", CLS, this.serverIP);
 
         } catch (RuntimeException e) {
-            logger.debug("[" + CLS + "] send failed: " + e.getLocalizedMessage());
+            logger.debug("[{}] send failed: {}", CLS, e.getLocalizedMessage());
             throw e;
         }
     }
@@ -188,8 +215,8 @@ public class MsgClient extends App {
         MsgCommandFactory factory = new MsgCommandFactory();
         Command sendCmd = factory.get("send");
 
-        logger.info("[" + CLS + "] registering with server, sending IP " + myIp);
+        logger.info("[{}] registering with server, sending IP {}", CLS, myIp);
         sendCmd.execute(this, myIp);
-        logger.info("[" + CLS + "] registration message sent successfully");
+        logger.info("[{}] registration message sent successfully", CLS);
     }
 }
\ No newline at end of file
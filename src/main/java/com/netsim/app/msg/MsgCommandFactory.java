@@ -10,7 +10,7 @@ import com.netsim.utils.Logger;
  * Factory for MSG application commands.
  */
 public class MsgCommandFactory implements CommandFactory {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(MsgCommandFactory.class);
     private static final String CLS    = MsgCommandFactory.class.getSimpleName();
 
     /**
@@ -24,20 +24,20 @@ public class MsgCommandFactory implements CommandFactory {
     public Command get(String cmd) throws IllegalArgumentException {
         if (cmd == null) {
             String msg = "command name cannot be null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(CLS + ": " + msg);
         }
 
         switch (cmd.toLowerCase()) {
             case "help":
-                logger.info("[" + CLS + "] creating Help command");
+                logger.info("[{}] creating Help command", CLS);
                 return new Help();
             case "send":
-                logger.info("[" + CLS + "] creating Send command");
+                logger.info("[{}] creating Send command", CLS);
                 return new Send();
             default:
                 String msg = "no command found for \"" + cmd + "\"";
-                logger.error("[" + CLS + "] " + msg);
+                logger.error("[{}] {}", CLS, msg);
                 throw new IllegalArgumentException(CLS + ": " + msg);
         }
     }
@@ -5,10 +5,13 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Port;
 import com.netsim.app.App;
 import com.netsim.app.Command;
 import com.netsim.network.NetworkNode;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.MSG.MSGHeader;
 import com.netsim.protocols.MSG.MSGProtocol;
 import com.netsim.protocols.UDP.UDPProtocol;
 import com.netsim.utils.Logger;
@@ -18,7 +21,7 @@ import com.netsim.utils.Logger;
  * registers new users, and routes messages to recipients.
  */
 public class MsgServer extends App {
-    private static final Logger        logger      = Logger.getInstance();
+    private static final Logger        logger      = Logger.getInstance(MsgServer.class);
     private static final String        CLS         = MsgServer.class.getSimpleName();
 
     private final Map<String, IPv4>    users       = new HashMap<>();
@@ -40,10 +43,10 @@ public class MsgServer extends App {
         );
         if (node == null) {
             String msg = "node cannot be null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException(CLS + ": " + msg);
         }
-        logger.info("[" + CLS + "] initialized on node: " + this.getOwner().getName());
+        logger.info("[{}] initialized on node: {}", CLS, this.getOwner().getName());
     }
 
     /** No‐op for server; CLI not used. */
@@ -63,16 +66,46 @@ public class MsgServer extends App {
     @Override
     public void receive(ProtocolPipeline stack, byte[] data)
             throws IllegalArgumentException, RuntimeException {
-        logger.info("[" + CLS + "] receive called");
+        logger.info("[{}] receive called", CLS);
         validateArgs(stack, data);
 
         byte[] afterUdp = stripUDP(stack, data);
         byte[] afterMsg = stripMSG(stack, afterUdp);
 
-        String user    = lastMsgProto.getUser();
-        String payload = new String(afterMsg, StandardCharsets.UTF_8);
-        logger.info("[" + CLS + "] message from user \"" + user + "\": " + payload);
+        this.handle(lastMsgProto.getUser(), new String(afterMsg, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the MSG port clients send to
+     */
+    @Override
+    public Port getPort() {
+        return MSGProtocol.port();
+    }
 
+    /**
+     * Processes a UDP segment straight from the wire: the user name and the
+     * message are parsed from the bytes, so no pipeline is needed.
+     *
+     * @param source  address of the client
+     * @param segment the raw UDP segment (non‐null)
+     * @throws IllegalArgumentException if the segment is malformed
+     * @throws RuntimeException         on registration or routing failures
+     */
+    @Override
+    public void deliver(IPv4 source, byte[] segment) throws IllegalArgumentException, RuntimeException {
+        MSGHeader msg = MSGProtocol.parse(UDPProtocol.payloadOf(segment));
+        this.handle(msg.getNameString(), msg.getMessageString());
+    }
+
+    /**
+     * Registers an unknown user or routes a known user's message.
+     *
+     * @param user    the sender's name
+     * @param payload the message text
+     */
+    private void handle(String user, String payload) {
+        logger.info("[{}] message from user \"{}\": {}", CLS, user, payload);
         if (!users.containsKey(user)) {
             register(user, payload);
         } else {
@@ -91,11 +124,11 @@ public class MsgServer extends App {
     @Override
     public void send(ProtocolPipeline stack, byte[] data)
             throws IllegalArgumentException, RuntimeException {
-        logger.info("[" + CLS + "] send called");
+        logger.info("[{}] send called", CLS);
         validateArgs(stack, data);
         if (pendingDest == null) {
             String msg = "no destination set";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new RuntimeException("MsgServerApp: " + msg);
         }
 
@@ -106,11 +139,11 @@ public class MsgServer extends App {
             node.randomPort(),
             MSGProtocol.port()
         );
-        byte[] udpBytes = udp.encapsulate(data);
+        PacketBuffer segment = udp.encapsulate(PacketBuffer.copyOf(data, NetworkNode.SEND_HEADROOM, 0));
 
         stack.push(udp);
-        logger.info("[" + CLS + "] sending UDP to " + pendingDest.stringRepresentation());
-        node.send(pendingDest, stack, udpBytes);
+        logger.info("[{}] sending UDP to {}", CLS, pendingDest);
+        node.send(pendingDest, stack, segment);
         pendingDest = null;
     }
 
@@ -127,7 +160,7 @@ public class MsgServer extends App {
             throws IllegalArgumentException {
         if (stack == null || data == null || data.length == 0) {
             String msg = "invalid arguments to receive/send";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new IllegalArgumentException("MsgServerApp: " + msg);
         }
     }
@@ -175,7 +208,7 @@ public class MsgServer extends App {
      * @throws RuntimeException if IP parsing or send fails
      */
     private void register(String user, String payload) {
-        logger.info("[" + CLS + "] registering user \"" + user + "\" with IP \"" + payload + "\"");
+        logger.info("[{}] registering user \"{}\" with IP \"{}\"", CLS, user, payload);
         try {
             int mask = getOwner().getInterfaces().get(0).getIP().getMask();
             IPv4 ip = new IPv4(payload, mask);
@@ -191,10 +224,10 @@ public class MsgServer extends App {
             send(pipeline, framed);
 
             printAppMessage("Registered " + user + " at " + ip.stringRepresentation() + "\n");
-            logger.info("[" + CLS + "] user \"" + user + "\" registered at " + ip.stringRepresentation());
+            logger.info("[{}] user \"{}\" registered at {}", CLS, user, ip);
         } catch (Exception e) {
             String msg = "invalid IP format for registration: " + payload;
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             logger.debug(e.getLocalizedMessage());
             throw new RuntimeException("MsgServerApp: " + msg, e);
         }
@@ -207,11 +240,11 @@ public class MsgServer extends App {
      * @param payload the "recipient:message" payload
      */
     private void route(String sender, String payload) {
-        logger.info("[" + CLS + "] routing from \"" + sender + "\": " + payload);
+        logger.info("[{}] routing from \"{}\": {}", CLS, sender, payload);
         int sep = payload.indexOf(':');
         if (sep < 1) {
             String msg = "malformed payload, missing ':'";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new RuntimeException("MsgServerApp: " + msg);
         }
 
@@ -221,7 +254,7 @@ public class MsgServer extends App {
 
         if (destIp == null) {
             // destinatario non conosciuto → rispondiamo al mittente
-            logger.error("[" + CLS + "] unknown recipient: " + recipient);
+            logger.error("[{}] unknown recipient: {}", CLS, recipient);
 
             IPv4 senderIp = users.get(sender);
 
@@ -234,14 +267,14 @@ public class MsgServer extends App {
             pendingDest = senderIp;
             send(pipeline, framedErr);
 
-            logger.info("[" + CLS + "] sent 'utente non trovato' to " + sender);
+            logger.info("[{}] sent 'utente non trovato' to {}", CLS, sender);
             return;
         }
 
         // destinazione valida → inoltro normale
         pendingDest = destIp;
         setUsername(sender);
-        logger.info("[" + CLS + "] will forward to " + recipient + "@" + destIp.stringRepresentation());
+        logger.info("[{}] will forward to {}@{}", CLS, recipient, destIp);
 
         Command sendCmd = this.commands.get("send");
         sendCmd.execute(this, body);
@@ -12,7 +12,7 @@ import com.netsim.utils.Logger;
  * Displays a list of available MSG commands with brief descriptions.
  */
 public class Help extends Command {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Help.class);
 
     /**
      * Constructs the Help command.
@@ -33,7 +33,7 @@ public class Help extends Command {
         String cls = this.getClass().getSimpleName();
         if (!args.equals("")) {
             String msg = "Unexpected parameters: \"" + args + "\"";
-            logger.error("[" + cls + "] " + msg);
+            logger.error("[{}] {}", cls, msg);
             throw new IllegalArgumentException(cls + ": expected no parameters");
         }
 
@@ -46,9 +46,9 @@ public class Help extends Command {
                 helpMsg.append(cmd.name()).append(": ").append(cmd.help()).append("\n");
             }
             this.print(app, helpMsg.toString());
-            logger.info("[" + cls + "] executed successfully");
+            logger.info("[{}] executed successfully", cls);
         } catch (RuntimeException e) {
-            logger.debug("[" + cls + "] exception generating help: " + e.getMessage());
+            logger.debug("[{}] exception generating help: {}", cls, e.getMessage());
             throw e;
         }
     }
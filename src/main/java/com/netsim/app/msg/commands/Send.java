@@ -12,7 +12,7 @@ import com.netsim.utils.Logger;
  * Command to send a text message via the MSG application protocol.
  */
 public class Send extends Command {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Send.class);
 
     /**
      * Constructs the Send command.
@@ -36,7 +36,7 @@ public class Send extends Command {
 
         if (args == null || args.isEmpty()) {
             String msg = "Message cannot be null or empty";
-            logger.error("[" + cls + "] " + msg);
+            logger.error("[{}] {}", cls, msg);
             throw new IllegalArgumentException(cls + ": " + msg);
         }
 
@@ -53,9 +53,9 @@ public class Send extends Command {
             // hand off to app.send (adds UDP, IP, DLL, etc.)
             app.send(pipeline, encapsulated);
 
-            logger.info("[" + cls + "] Message sent successfully by user " + this.getUsername(app));
+            logger.info("[{}] Message sent successfully by user {}", cls, this.getUsername(app));
         } catch (RuntimeException e) {
-            logger.debug("[" + cls + "] Exception during send: " + e.getMessage());
+            logger.debug("[{}] Exception during send: {}", cls, e.getMessage());
             throw e;
         }
     }
@@ -1,25 +1,95 @@
 package com.netsim.network;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.netsim.addresses.Address;
 import com.netsim.addresses.Mac;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.ARP.ARPPacket;
 import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.simulation.EventType;
+import com.netsim.simulation.Mailbox;
+import com.netsim.simulation.Simulator;
 import com.netsim.utils.Logger;
+import com.netsim.utils.PcapWriter;
 
 /**
  * Represents a point‐to‐point network adapter for sending/receiving raw frames.
+ * <p>
+ * When a {@link Simulator} is attached, the outgoing direction of the cable is
+ * modelled as a link with a bandwidth, a propagation delay and a bounded FIFO
+ * transmit queue: frames are serialised one at a time in virtual time and
+ * frames arriving at a full queue are tail-dropped. A batch sent through
+ * {@link #sendBatch} occupies the link as one transmission. Without a
+ * simulator, a frame for an adapter with a {@link Mailbox} goes into the
+ * adapter's bounded {@link MpscRing} receive queue, and a single task posted
+ * to the mailbox drains every frame queued by then on the owner's loop
+ * thread; a frame finding the ring full is dropped. Without either, the
+ * frame is received at once.
+ * <p>
+ * With a {@link PcapWriter} attached through {@link #setCapture}, every frame
+ * the adapter puts on the wire or takes off it while up is also written to
+ * the capture, stamped with virtual time under a simulator and wall-clock
+ * time otherwise.
  */
 public final class CabledAdapter implements NetworkAdapter {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(CabledAdapter.class);
     private static final String CLS    = CabledAdapter.class.getSimpleName();
 
+    /** transmit queue length used until {@link #setLink(long, long, int)} is called */
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    /** frames an adapter with a mailbox holds for its owner's loop before dropping */
+    public static final int RECEIVE_QUEUE_CAPACITY = 1024;
+
+    private static final int DLL_HEADER = 12;
+
     private final String       name;
     private final int          MTU;
     private final Mac          macAddress;
     private       CabledAdapter remote;
     private       Node          owner;
     private       boolean       isUp;
+    private       Simulator     simulator;
+    private       int           context;
+    private volatile Mailbox    mailbox;
+
+    private volatile MpscRing<PendingFrame> rxQueue;
+    private final    AtomicBoolean          drainPosted;
+    private final    AtomicLong             receiveDrops;
+    private final    TrafficCounters        counters;
+    private volatile PcapWriter             capture;
+
+    private final ArrayDeque<PendingFrame> txQueue;
+    private       long                     bandwidth;
+    private       long                     propagationDelay;
+    private       int                      queueCapacity;
+    private       boolean                  transmitting;
+    private       long                     framesSent;
+    private       long                     bytesSent;
+    private       long                     tailDrops;
+    private       long                     busyTime;
+    private       long                     queueingDelay;
+    private       long                     framesQueued;
+
+    /** A framed packet, or a batch of them, waiting for the transmitter. */
+    private static final class PendingFrame {
+        private final ProtocolPipeline stack;
+        private final byte[]           frame;
+        private final boolean          batch;
+        private final long             enqueuedAt;
+
+        private PendingFrame(ProtocolPipeline stack, byte[] frame, boolean batch, long enqueuedAt) {
+            this.stack      = stack;
+            this.frame      = frame;
+            this.batch      = batch;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
 
     /**
      * Constructs a new NetworkAdapter.
@@ -31,21 +101,28 @@ public final class CabledAdapter implements NetworkAdapter {
      */
     public CabledAdapter(String name, int MTU, Mac macAddress) {
         if (name == null) {
-            logger.error("[" + CLS + "] name cannot be null");
+            logger.error("[{}] name cannot be null", CLS);
             throw new IllegalArgumentException("NetworkAdapter: name cannot be null");
         }
         if (macAddress == null) {
-            logger.error("[" + CLS + "] macAddress cannot be null");
+            logger.error("[{}] macAddress cannot be null", CLS);
             throw new IllegalArgumentException("NetworkAdapter: mac address cannot be null");
         }
-        this.name       = name;
-        this.MTU        = MTU;
-        this.macAddress = macAddress;
-        this.remote     = null;
-        this.isUp       = true;
-        logger.info("[" + CLS + "] created adapter \"" + this.name
-            + "\" with MTU=" + this.MTU
-            + " and MAC=" + this.macAddress.stringRepresentation());
+        this.name             = name;
+        this.MTU              = MTU;
+        this.macAddress       = macAddress;
+        this.remote           = null;
+        this.isUp             = true;
+        this.context          = Simulator.EXTERNAL;
+        this.txQueue          = new ArrayDeque<>();
+        this.bandwidth        = 0L;
+        this.propagationDelay = 0L;
+        this.queueCapacity    = DEFAULT_QUEUE_CAPACITY;
+        this.drainPosted      = new AtomicBoolean();
+        this.receiveDrops     = new AtomicLong();
+        this.counters         = new TrafficCounters();
+        logger.info(() -> "[" + CLS + "] created adapter \"" + this.name + "\" with MTU=" + this.MTU + " and MAC="
+                          + this.macAddress);
     }
 
     public Node getOwner() {
@@ -60,12 +137,11 @@ public final class CabledAdapter implements NetworkAdapter {
      */
     public void setOwner(Node newOwner) {
         if (newOwner == null) {
-            logger.error("[" + CLS + "] cannot set null owner");
+            logger.error("[{}] cannot set null owner", CLS);
             throw new IllegalArgumentException("NetworkAdapter: node owner cannot be null");
         }
         this.owner = newOwner;
-        logger.info("[" + CLS + "] adapter \"" + this.name
-            + "\" owner set to node \"" + this.owner.getName() + "\"");
+        logger.info("[{}] adapter \"{}\" owner set to node \"{}\"", CLS, this.name, this.owner.getName());
     }
 
     /**
@@ -76,7 +152,7 @@ public final class CabledAdapter implements NetworkAdapter {
      */
     public Node getNode() {
         if (this.owner == null) {
-            logger.error("[" + CLS + "] owner not set");
+            logger.error("[{}] owner not set", CLS);
             throw new NullPointerException("NetworkAdapter: node owner not set");
         }
         return this.owner;
@@ -90,18 +166,17 @@ public final class CabledAdapter implements NetworkAdapter {
      */
     public void setRemoteAdapter(NetworkAdapter newRemoteAdapter) {
         if (newRemoteAdapter == null) {
-            logger.error("[" + CLS + "] cannot set null remote adapter");
+            logger.error("[{}] cannot set null remote adapter", CLS);
             throw new IllegalArgumentException("NetworkAdapter: remote adapter cannot be null");
         }
         
         if (!(newRemoteAdapter instanceof CabledAdapter)) {
-            logger.error("[" + CLS + "] expected CabledAdapter got " + newRemoteAdapter.getClass().getSimpleName());
+            logger.error("[{}] expected CabledAdapter got {}", CLS, newRemoteAdapter.getClass().getSimpleName());
             throw new IllegalArgumentException("NetworkAdapter: expected remote adapter");
         }
 
         this.remote = (CabledAdapter) newRemoteAdapter;
-        logger.info("[" + CLS + "] adapter \"" + this.name
-            + "\" linked to remote adapter \"" + this.remote.getName() + "\"");
+        logger.info("[{}] adapter \"{}\" linked to remote adapter \"{}\"", CLS, this.name, this.remote.getName());
     }
 
     /**
@@ -112,12 +187,19 @@ public final class CabledAdapter implements NetworkAdapter {
      */
     public CabledAdapter getLinkedAdapter() {
         if (this.remote == null) {
-            logger.error("[" + CLS + "] no remote adapter connected");
+            logger.error("[{}] no remote adapter connected", CLS);
             throw new NullPointerException("NetworkAdapter: remote adapter not connected");
         }
         return this.remote;
     }
 
+    /**
+     * @return true if a remote adapter is connected
+     */
+    public boolean isLinked() {
+        return this.remote != null;
+    }
+
     /** @return adapter name */
     public String getName() {
         return this.name;
@@ -141,17 +223,83 @@ public final class CabledAdapter implements NetworkAdapter {
     /** Brings the adapter up. */
     public void setUp() {
         this.isUp = true;
-        logger.info("[" + CLS + "] adapter \"" + this.name + "\" is UP");
+        logger.info("[{}] adapter \"{}\" is UP", CLS, this.name);
     }
 
     /** Brings the adapter down. */
     public void setDown() {
         this.isUp = false;
-        logger.info("[" + CLS + "] adapter \"" + this.name + "\" is DOWN");
+        logger.info("[{}] adapter \"{}\" is DOWN", CLS, this.name);
+    }
+
+    /**
+     * Attaches the event loop used to deliver frames to the linked adapter.
+     *
+     * @param simulator the simulator, or null for synchronous delivery
+     */
+    public void setSimulator(Simulator simulator) {
+        this.setSimulator(simulator, simulator == null ? Simulator.EXTERNAL : simulator.register());
+    }
+
+    /**
+     * Attaches the event loop and the context the adapter's events run in.
+     *
+     * @param simulator the simulator, or null for synchronous delivery
+     * @param context   context id handed out by the simulator
+     */
+    public void setSimulator(Simulator simulator, int context) {
+        this.simulator = simulator;
+        this.context   = context;
+    }
+
+    /**
+     * Attaches the inbox frames sent to this adapter are drained on; the
+     * receive ring is allocated on first use.
+     *
+     * @param mailbox the owner's mailbox, or null to receive on the sender's thread
+     */
+    public void setMailbox(Mailbox mailbox) {
+        if (mailbox != null && this.rxQueue == null) {
+            this.rxQueue = new MpscRing<>(RECEIVE_QUEUE_CAPACITY);
+        }
+        this.mailbox = mailbox;
+    }
+
+    /** @return the attached mailbox, or null */
+    public Mailbox getMailbox() {
+        return this.mailbox;
+    }
+
+    /**
+     * Starts or stops capturing the frames the adapter sends and receives.
+     * A writer may be shared by several adapters.
+     *
+     * @param capture the capture to write to, or null to stop capturing
+     */
+    public void setCapture(PcapWriter capture) {
+        this.capture = capture;
+    }
+
+    /** @return the attached capture, or null */
+    public PcapWriter getCapture() {
+        return this.capture;
+    }
+
+    /** @return context the adapter's events run in */
+    public int getContext() {
+        return this.context;
+    }
+
+    /** @return the attached simulator, or null */
+    public Simulator getSimulator() {
+        return this.simulator;
     }
 
     /**
      * Sends a raw frame to the linked adapter using DLL framing.
+     * With a simulator attached the frame goes through the link model and the
+     * remote receive is posted as a RECEIVE event instead of being called directly;
+     * a frame that finds the transmit queue full is dropped.
      *
      * @param stack protocol pipeline (non‐null)
      * @param frame payload bytes (non‐empty)
@@ -160,23 +308,389 @@ public final class CabledAdapter implements NetworkAdapter {
      */
     public void send(ProtocolPipeline stack, byte[] frame) {
         if (stack == null || frame == null || frame.length == 0) {
-            logger.error("[" + CLS + "] invalid arguments to send");
+            logger.error("[{}] invalid arguments to send", CLS);
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
+        this.send(stack, frame, this.getLinkedAdapter().getMacAddress());
+    }
+
+    /**
+     * Sends a raw frame to the linked adapter with an explicit destination MAC;
+     * the remote adapter drops it unless the MAC is its own or broadcast.
+     *
+     * @param stack       protocol pipeline (non‐null)
+     * @param frame       payload bytes (non‐empty)
+     * @param destination destination MAC (non‐null)
+     * @throws IllegalArgumentException if an argument is null or frame is empty
+     * @throws RuntimeException         if adapter is down or unlinked
+     */
+    public void send(ProtocolPipeline stack, byte[] frame, Mac destination) {
+        if (stack == null || frame == null || frame.length == 0 || destination == null) {
+            logger.error("[{}] invalid arguments to send", CLS);
             throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
         }
         if (!this.isUp) {
-            logger.error("[" + CLS + "] adapter \"" + this.name + "\" is down");
+            this.counters.dropped(DropReason.ADAPTER_DOWN);
+            logger.error("[{}] adapter \"{}\" is down", CLS, this.name);
             throw new RuntimeException("NetworkAdapter: adapter is down");
         }
-        SimpleDLLProtocol framingProtocol = new SimpleDLLProtocol(
-            this.macAddress,
-            this.getLinkedAdapter().getMacAddress()
-        );
+        SimpleDLLProtocol framingProtocol = new SimpleDLLProtocol(this.macAddress, destination);
         byte[] encapsulated = framingProtocol.encapsulate(frame);
         stack.push(framingProtocol);
-        logger.info("[" + CLS + "] adapter \"" + this.name + "\" sent frame ("
-            + encapsulated.length + " bytes) to adapter \""
-            + this.getLinkedAdapter().getName() + "\"");
-        this.getLinkedAdapter().receive(stack, encapsulated);
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" sent frame (" + encapsulated.length
+                          + " bytes) to adapter \"" + this.remote.getName() + "\"");
+        this.transmitFrame(stack, encapsulated, false);
+    }
+
+    /**
+     * Frames a buffered packet in place and puts it on the cable; the remote
+     * adapter drops it unless the MAC is its own or broadcast. When the buffer
+     * has exactly the room for the DLL header its array becomes the frame.
+     *
+     * @param stack       protocol pipeline (non‐null)
+     * @param packet      buffer holding the packet or its fragments (non‐empty)
+     * @param destination destination MAC (non‐null)
+     * @throws IllegalArgumentException if an argument is null or packet is empty
+     * @throws RuntimeException         if adapter is down or unlinked
+     */
+    public void send(ProtocolPipeline stack, PacketBuffer packet, Mac destination) {
+        if (stack == null || packet == null || packet.isEmpty() || destination == null) {
+            logger.error("[{}] invalid arguments to send", CLS);
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
+        if (!this.isUp) {
+            this.counters.dropped(DropReason.ADAPTER_DOWN);
+            logger.error("[{}] adapter \"{}\" is down", CLS, this.name);
+            throw new RuntimeException("NetworkAdapter: adapter is down");
+        }
+        SimpleDLLProtocol framingProtocol = new SimpleDLLProtocol(this.macAddress, destination);
+        byte[]            encapsulated    = wire(framingProtocol.encapsulate(packet));
+        stack.push(framingProtocol);
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" sent frame (" + encapsulated.length
+                          + " bytes) to adapter \"" + this.getLinkedAdapter().getName() + "\"");
+        this.transmitFrame(stack, encapsulated, false);
+    }
+
+    /**
+     * Frames a batch of IP packets for one MAC into a single buffer, with one
+     * framing protocol and one log line for the whole batch, and puts it on
+     * the cable; the remote adapter takes it through {@link #receiveBatch}.
+     *
+     * @param stack       protocol pipeline (non‐null)
+     * @param packets     concatenated IP packets of one flow (non‐empty)
+     * @param destination destination MAC (non‐null)
+     * @throws IllegalArgumentException if an argument is null, packets is empty or malformed
+     * @throws RuntimeException         if adapter is down or unlinked
+     */
+    public void sendBatch(ProtocolPipeline stack, byte[] packets, Mac destination) {
+        if (stack == null || packets == null || packets.length == 0 || destination == null) {
+            logger.error("[{}] invalid arguments to sendBatch", CLS);
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
+        if (!this.isUp) {
+            this.counters.dropped(DropReason.ADAPTER_DOWN);
+            logger.error("[{}] adapter \"{}\" is down", CLS, this.name);
+            throw new RuntimeException("NetworkAdapter: adapter is down");
+        }
+        SimpleDLLProtocol framingProtocol = new SimpleDLLProtocol(this.macAddress, destination);
+        byte[]            frames          = wire(framingProtocol.encapsulate(PacketBuffer.wrap(packets)));
+        stack.push(framingProtocol);
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" sent batch (" + frames.length
+                          + " bytes) to adapter \"" + this.getLinkedAdapter().getName() + "\"");
+        this.transmitFrame(stack, frames, true);
+    }
+
+    /**
+     * Puts an already framed frame on the cable unchanged, as a switch does
+     * when it relays a frame. The frame goes through the same link model as
+     * {@link #send(ProtocolPipeline, byte[])}.
+     *
+     * @param stack pipeline travelling with the frame, DLL on top (non‐null)
+     * @param frame the framed bytes (non‐empty)
+     * @throws IllegalArgumentException if stack or frame is null/empty
+     * @throws RuntimeException         if adapter is down or unlinked
+     */
+    public void forward(ProtocolPipeline stack, byte[] frame) {
+        if (stack == null || frame == null || frame.length == 0) {
+            logger.error("[{}] invalid arguments to forward", CLS);
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
+        if (!this.isUp) {
+            this.counters.dropped(DropReason.ADAPTER_DOWN);
+            logger.error("[{}] adapter \"{}\" is down", CLS, this.name);
+            throw new RuntimeException("NetworkAdapter: adapter is down");
+        }
+        this.transmitFrame(stack, frame, false);
+    }
+
+    /** @return the buffer's array when the frames fill it, otherwise a copy of them */
+    private static byte[] wire(PacketBuffer framed) {
+        return framed.offset() == 0 && framed.length() == framed.array().length
+            ? framed.array() : framed.toByteArray();
+    }
+
+    private void transmitFrame(ProtocolPipeline stack, byte[] encapsulated, boolean batch) {
+        if (this.simulator == null) {
+            this.counters.transmitted(frameCount(encapsulated), encapsulated.length);
+            this.capture(encapsulated);
+            CabledAdapter peer  = this.getLinkedAdapter();
+            Mailbox       inbox = peer.mailbox;
+            if (inbox == null || inbox.isLoopThread()) {
+                receiveAt(peer, stack, encapsulated, batch);
+            } else {
+                peer.enqueue(inbox, new PendingFrame(stack, encapsulated, batch, 0L));
+            }
+            return;
+        }
+        if (this.transmitting) {
+            if (this.txQueue.size() >= this.queueCapacity) {
+                this.tailDrops++;
+                this.counters.dropped(DropReason.QUEUE_FULL, frameCount(encapsulated));
+                logger.debug(() -> "[" + CLS + "] adapter \"" + this.name
+                                   + "\" transmit queue full, dropped frame (" + encapsulated.length + " bytes)");
+                return;
+            }
+            this.txQueue.addLast(new PendingFrame(stack, encapsulated, batch, this.simulator.now()));
+            return;
+        }
+        this.startTransmission(stack, encapsulated, batch);
+    }
+
+    /**
+     * Queues a frame for the owner's loop; the first frame queued after a
+     * drain started posts the next drain, later ones ride along with it.
+     */
+    private void enqueue(Mailbox inbox, PendingFrame frame) {
+        if (!this.rxQueue.offer(frame)) {
+            this.receiveDrops.incrementAndGet();
+            this.counters.dropped(DropReason.QUEUE_FULL, frameCount(frame.frame));
+            logger.debug("[{}] adapter \"{}\" receive queue full, dropped frame", CLS, this.name);
+            return;
+        }
+        if (this.drainPosted.compareAndSet(false, true) && !inbox.post(() -> this.drainReceived(inbox))) {
+            logger.debug("[{}] mailbox of \"{}\" closed, dropped frame", CLS, this.name);
+        }
+    }
+
+    /**
+     * Receives the queued frames on the loop thread. The flag is cleared
+     * before draining so a frame queued meanwhile posts a new drain; a run
+     * cut short by a limit or a failing receive posts one as well.
+     */
+    private void drainReceived(Mailbox inbox) {
+        this.drainPosted.set(false);
+        try {
+            this.rxQueue.drain(f -> receiveAt(this, f.stack, f.frame, f.batch), RECEIVE_QUEUE_CAPACITY);
+        } finally {
+            if (!this.rxQueue.isEmpty() && this.drainPosted.compareAndSet(false, true)) {
+                inbox.post(() -> this.drainReceived(inbox));
+            }
+        }
+    }
+
+    /**
+     * Counts the DLL frames in a buffer from their IPv4 or ARP lengths; a
+     * fragmented packet travels as one frame per fragment. A malformed tail
+     * ends the walk.
+     */
+    private static int frameCount(byte[] frames) {
+        int n  = 0;
+        int at = 0;
+        while (frames.length - at >= DLL_HEADER + 4) {
+            int body = at + DLL_HEADER;
+            int len  = ARPPacket.isArp(frames, body) ? ARPPacket.LENGTH
+                                                     : ((frames[body + 2] & 0xFF) << 8) | (frames[body + 3] & 0xFF);
+            if (len < 4) {
+                break;
+            }
+            n++;
+            at = body + len;
+        }
+        return Math.max(n, 1);
+    }
+
+    /**
+     * Writes each DLL frame of a buffer to the capture, if any. A frame whose
+     * length cannot be read is written with the rest of the buffer.
+     */
+    private void capture(byte[] frames) {
+        PcapWriter pcap = this.capture;
+        if (pcap == null) {
+            return;
+        }
+        Simulator sim = this.simulator;
+        long      now = sim != null ? sim.now() : pcap.now();
+        int       at  = 0;
+        while (frames.length - at >= DLL_HEADER + 4) {
+            int     body = at + DLL_HEADER;
+            boolean arp  = ARPPacket.isArp(frames, body);
+            int     len  = arp ? ARPPacket.LENGTH : ((frames[body + 2] & 0xFF) << 8) | (frames[body + 3] & 0xFF);
+            if (len < 4 || len > frames.length - body) {
+                len = frames.length - body;
+            }
+            pcap.write(now, frames, at, DLL_HEADER + len,
+                       arp ? PcapWriter.ETHERTYPE_ARP : PcapWriter.ETHERTYPE_IPV4);
+            at = body + len;
+        }
+    }
+
+    private static void receiveAt(CabledAdapter peer, ProtocolPipeline stack, byte[] encapsulated, boolean batch) {
+        if (batch) {
+            peer.receiveBatch(stack, encapsulated);
+        } else {
+            peer.receive(stack, encapsulated);
+        }
+    }
+
+    /**
+     * Puts a frame on the wire: it occupies the transmitter for its serialisation
+     * time and reaches the remote adapter one propagation delay after its last bit.
+     */
+    private void startTransmission(ProtocolPipeline stack, byte[] encapsulated, boolean batch) {
+        CabledAdapter peer   = this.getLinkedAdapter();
+        long          txTime = this.serialisationTime(encapsulated.length);
+        this.framesSent++;
+        this.bytesSent += encapsulated.length;
+        this.counters.transmitted(frameCount(encapsulated), encapsulated.length);
+        this.capture(encapsulated);
+        if (txTime == 0L) {
+            this.deliver(peer, stack, encapsulated, batch);
+            return;
+        }
+        this.transmitting = true;
+        this.simulator.schedule(txTime, EventType.TRANSMIT, this.context, () -> {
+            this.busyTime += txTime;
+            this.deliver(peer, stack, encapsulated, batch);
+            this.transmitNext();
+        });
+    }
+
+    /**
+     * Posts the receive at the far end, on the peer's simulator which may be
+     * another logical process of a parallel run.
+     */
+    private void deliver(CabledAdapter peer, ProtocolPipeline stack, byte[] encapsulated, boolean batch) {
+        Simulator target = peer.simulator != null ? peer.simulator : this.simulator;
+        this.simulator.scheduleOn(target, this.propagationDelay, EventType.RECEIVE, peer.context,
+                                  () -> receiveAt(peer, stack, encapsulated, batch));
+    }
+
+    private void transmitNext() {
+        PendingFrame next = this.txQueue.pollFirst();
+        if (next == null) {
+            this.transmitting = false;
+            return;
+        }
+        this.queueingDelay += this.simulator.now() - next.enqueuedAt;
+        this.framesQueued++;
+        this.startTransmission(next.stack, next.frame, next.batch);
+    }
+
+    private long serialisationTime(int bytes) {
+        if (this.bandwidth == 0L) {
+            return 0L;
+        }
+        // ceil(bits * 1e9 / bandwidth), frames are far below the overflow bound
+        long bits = bytes * 8L;
+        return (bits * 1_000_000_000L + this.bandwidth - 1) / this.bandwidth;
+    }
+
+    /**
+     * Configures the outgoing direction of the cable; the other direction is
+     * configured on the linked adapter. Only used when a simulator is attached.
+     *
+     * @param bandwidthBps          link rate in bits per second, 0 for unlimited
+     * @param propagationDelayNanos one-way delay in nanoseconds (&gt;= 0)
+     * @param queueCapacity         frames that may wait behind the one being sent (&gt;= 0)
+     * @throws IllegalArgumentException if any value is negative
+     */
+    public void setLink(long bandwidthBps, long propagationDelayNanos, int queueCapacity)
+            throws IllegalArgumentException {
+        if (bandwidthBps < 0 || propagationDelayNanos < 0 || queueCapacity < 0) {
+            logger.error("[{}] invalid link parameters for adapter \"{}\"", CLS, this.name);
+            throw new IllegalArgumentException("NetworkAdapter: invalid link parameters");
+        }
+        this.bandwidth        = bandwidthBps;
+        this.propagationDelay = propagationDelayNanos;
+        this.queueCapacity    = queueCapacity;
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" link set to " + bandwidthBps
+                          + " bps, delay " + propagationDelayNanos + " ns, queue " + queueCapacity);
+    }
+
+    /** @return link rate in bits per second, 0 if unlimited */
+    public long getBandwidth() {
+        return this.bandwidth;
+    }
+
+    /** @return one-way propagation delay in nanoseconds */
+    public long getPropagationDelay() {
+        return this.propagationDelay;
+    }
+
+    /** @return maximum number of frames waiting in the transmit queue */
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    /** @return frames currently waiting in the transmit queue */
+    public int getQueueLength() {
+        return this.txQueue.size();
+    }
+
+    /** @return frames put on the wire through the simulator */
+    public long getFramesSent() {
+        return this.framesSent;
+    }
+
+    /** @return bytes put on the wire through the simulator, DLL header included */
+    public long getBytesSent() {
+        return this.bytesSent;
+    }
+
+    /** @return frames dropped because the receive queue of a mailbox-driven adapter was full */
+    public long getReceiveDrops() {
+        return this.receiveDrops.get();
+    }
+
+    /**
+     * Snapshots the adapter's counters. Every DLL frame on the wire counts
+     * once, including each frame of a fragmented packet or a batch; the queue
+     * depth is the transmit queue plus the mailbox receive ring.
+     *
+     * @return an immutable snapshot
+     */
+    public TrafficStats getStats() {
+        MpscRing<PendingFrame> rx = this.rxQueue;
+        return this.counters.snapshot(this.txQueue.size() + (rx == null ? 0 : rx.size()));
+    }
+
+    /** @return frames dropped because the transmit queue was full */
+    public long getTailDrops() {
+        return this.tailDrops;
+    }
+
+    /** @return virtual nanoseconds the transmitter spent sending completed frames */
+    public long getBusyTime() {
+        return this.busyTime;
+    }
+
+    /**
+     * @return fraction of elapsed virtual time the transmitter was busy, in [0, 1];
+     *         0 without a simulator or before time has advanced
+     */
+    public double getUtilisation() {
+        if (this.simulator == null || this.simulator.now() == 0L) {
+            return 0.0;
+        }
+        return Math.min(1.0, (double) this.busyTime / this.simulator.now());
+    }
+
+    /**
+     * @return mean virtual nanoseconds a queued frame waited for the transmitter,
+     *         counting only frames that had to wait
+     */
+    public double getAverageQueueingDelay() {
+        return this.framesQueued == 0L ? 0.0 : (double) this.queueingDelay / this.framesQueued;
     }
 
     /**
@@ -189,35 +703,140 @@ public final class CabledAdapter implements NetworkAdapter {
      */
     public void receive(ProtocolPipeline stack, byte[] frame) {
         if (stack == null || frame == null || frame.length == 0) {
-            logger.error("[" + CLS + "] invalid arguments to receive");
+            logger.error("[{}] invalid arguments to receive", CLS);
             throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
         }
         if (!this.isUp) {
-            logger.debug("[" + CLS + "] adapter \"" + this.name + "\" is down, dropping frame");
+            this.counters.dropped(DropReason.ADAPTER_DOWN, frameCount(frame));
+            logger.debug("[{}] adapter \"{}\" is down, dropping frame", CLS, this.name);
             return;
         }
+        this.capture(frame);
         if (this.owner == null) {
-            logger.error("[" + CLS + "] owner node is null");
+            logger.error("[{}] owner node is null", CLS);
             throw new RuntimeException("NetworkAdapter: owner node is null");
         }
+        if (this.owner instanceof LinkLayerNode) {
+            this.counters.received(frameCount(frame), frame.length);
+            ((LinkLayerNode) this.owner).receiveFrame(this, stack, frame);
+            return;
+        }
         Protocol framingProtocol = stack.pop();
-        Address destAddr = framingProtocol.extractDestination(frame);
-        if (!(destAddr instanceof Mac)) {
-            logger.error("[" + CLS + "] expected DLL protocol, got "
-                + framingProtocol.getClass().getSimpleName());
-            throw new RuntimeException("NetworkAdapter: expected dll protocol");
+        long     destination;
+        if (framingProtocol instanceof SimpleDLLProtocol && frame.length >= 6) {
+            // the destination MAC leads the frame: read it without building a Mac
+            destination = Mac.decode(frame, 0);
+        } else {
+            Address destAddr = framingProtocol.extractDestination(frame);
+            if (!(destAddr instanceof Mac)) {
+                logger.error("[{}] expected DLL protocol, got {}", CLS, framingProtocol.getClass().getSimpleName());
+                throw new RuntimeException("NetworkAdapter: expected dll protocol");
+            }
+            destination = ((Mac) destAddr).toLong();
         }
-        Mac destMac = (Mac) destAddr;
-        if (!(destMac.equals(this.macAddress) || destMac.equals(Mac.broadcast()))) {
-            logger.debug("[" + CLS + "] frame not for this adapter (" 
-                + destMac.stringRepresentation() + ")");
+        if (destination != this.macAddress.toLong() && destination != Mac.BROADCAST_BITS) {
+            this.counters.dropped(DropReason.NOT_FOR_ME, frameCount(frame));
+            logger.debug(() -> "[" + CLS + "] frame not for this adapter (" + Long.toHexString(destination) + ")");
             return;
         }
+        this.counters.received(frameCount(frame), frame.length);
         byte[] next = framingProtocol.decapsulate(frame);
-        logger.info("[" + CLS + "] adapter \"" + this.name + "\" received frame, passing up");
+        if (ARPPacket.isArp(next, 0)) {
+            // resolution traffic stays below the IP layer
+            if (this.owner instanceof NetworkNode) {
+                ((NetworkNode) this.owner).receiveArp(this, next);
+            } else {
+                logger.debug("[{}] adapter \"{}\" owner does not speak ARP, dropping", CLS, this.name);
+            }
+            return;
+        }
+        logger.info("[{}] adapter \"{}\" received frame, passing up", CLS, this.name);
         this.owner.receive(stack, next);
     }
 
+    /**
+     * Receives a batch of frames: walks them once, skips those addressed to
+     * another MAC, strips the DLL header off the rest and passes their packets
+     * up to the owner in a single call. ARP packets in the batch are handled
+     * one by one as in {@link #receive}. A walk that meets a malformed frame
+     * keeps the packets before it.
+     *
+     * @param stack  protocol pipeline, DLL on top (non‐null)
+     * @param frames concatenated frames (non‐empty)
+     * @throws IllegalArgumentException if stack or frames is null/empty
+     * @throws RuntimeException         if the owner is unset or the pipeline has no DLL on top
+     */
+    public void receiveBatch(ProtocolPipeline stack, byte[] frames) {
+        if (stack == null || frames == null || frames.length == 0) {
+            logger.error("[{}] invalid arguments to receiveBatch", CLS);
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
+        if (!this.isUp) {
+            this.counters.dropped(DropReason.ADAPTER_DOWN, frameCount(frames));
+            logger.debug("[{}] adapter \"{}\" is down, dropping batch", CLS, this.name);
+            return;
+        }
+        this.capture(frames);
+        if (this.owner == null) {
+            logger.error("[{}] owner node is null", CLS);
+            throw new RuntimeException("NetworkAdapter: owner node is null");
+        }
+        if (this.owner instanceof LinkLayerNode) {
+            // every frame of a batch has the same destination
+            this.counters.received(frameCount(frames), frames.length);
+            ((LinkLayerNode) this.owner).receiveFrame(this, stack, frames);
+            return;
+        }
+        Protocol framingProtocol = stack.pop();
+        if (!(framingProtocol instanceof SimpleDLLProtocol)) {
+            logger.error("[{}] expected DLL protocol, got {}", CLS, framingProtocol.getClass().getSimpleName());
+            throw new RuntimeException("NetworkAdapter: expected dll protocol");
+        }
+        byte[] packets = new byte[frames.length];
+        int    length  = 0;
+        int    at      = 0;
+        while (at < frames.length) {
+            int body = at + DLL_HEADER;
+            if (frames.length - body < 4) {
+                this.counters.dropped(DropReason.BAD_FRAME);
+                logger.error("[{}] adapter \"{}\" dropped truncated frame in batch", CLS, this.name);
+                break;
+            }
+            boolean arp      = ARPPacket.isArp(frames, body);
+            int     totalLen = arp ? ARPPacket.LENGTH
+                                   : ((frames[body + 2] & 0xFF) << 8) | (frames[body + 3] & 0xFF);
+            if (!arp && totalLen < 20 || totalLen > frames.length - body) {
+                this.counters.dropped(DropReason.BAD_FRAME);
+                logger.error("[{}] adapter \"{}\" dropped malformed frame in batch", CLS, this.name);
+                break;
+            }
+            long destination = Mac.decode(frames, at);
+            if (destination != this.macAddress.toLong() && destination != Mac.BROADCAST_BITS) {
+                this.counters.dropped(DropReason.NOT_FOR_ME);
+                logger.debug(() -> "[" + CLS + "] frame not for this adapter (" + Long.toHexString(destination) + ")");
+                at = body + totalLen;
+                continue;
+            }
+            this.counters.received(1, DLL_HEADER + totalLen);
+            if (arp) {
+                if (this.owner instanceof NetworkNode) {
+                    ((NetworkNode) this.owner).receiveArp(this, Arrays.copyOfRange(frames, body, body + totalLen));
+                }
+            } else {
+                System.arraycopy(frames, body, packets, length, totalLen);
+                length += totalLen;
+            }
+            at = body + totalLen;
+        }
+        if (length == 0) {
+            return;
+        }
+        byte[] up = Arrays.copyOf(packets, length);
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" received batch, passing " + up.length
+                          + " bytes up");
+        this.owner.receive(stack, up);
+    }
+
     /**
      * Two adapters are equal if they share the same MAC.
      *
@@ -227,12 +846,12 @@ public final class CabledAdapter implements NetworkAdapter {
     @Override
     public boolean equals(Object obj) {
         if (obj == null || !(obj instanceof CabledAdapter)) {
-            logger.debug("[" + CLS + "] equals: object not a NetworkAdapter");
+            logger.debug("[{}] equals: object not a NetworkAdapter", CLS);
             return false;
         }
         CabledAdapter other = (CabledAdapter) obj;
         boolean eq = this.macAddress.equals(other.macAddress);
-        logger.debug("[" + CLS + "] equals: MAC comparison result=" + eq);
+        logger.debug("[{}] equals: MAC comparison result={}", CLS, eq);
         return eq;
     }
 
@@ -0,0 +1,135 @@
+package com.netsim.network;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Port;
+import com.netsim.app.App;
+import com.netsim.utils.Logger;
+
+/**
+ * Per-node demultiplexing registry: the IPv4 protocol number of a packet
+ * selects a {@link Handler}, and the UDP destination port of a segment
+ * selects an {@link App}.
+ * <p>
+ * Both keys are read from the packet bytes, so a node bound through this
+ * registry needs nothing but the wire image to deliver a packet; the
+ * {@link com.netsim.networkstack.ProtocolPipeline} travelling with it is
+ * ignored. Lookups are a bounds check and an array read for protocols, a
+ * map read for ports.
+ */
+public final class Demux {
+    private static final Logger logger = Logger.getInstance(Demux.class);
+    private static final String CLS    = Demux.class.getSimpleName();
+
+    /**
+     * Receives the reassembled payload of an IPv4 datagram.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @param source  source address read from the header
+         * @param payload the datagram payload (non-null)
+         */
+        void handle(IPv4 source, byte[] payload);
+    }
+
+    private final Handler[]         protocols;
+    private final Map<Integer, App> ports;
+
+    /**
+     * Creates an empty registry.
+     */
+    public Demux() {
+        this.protocols = new Handler[256];
+        this.ports     = new HashMap<>();
+    }
+
+    /**
+     * Binds a handler to an IPv4 protocol number.
+     *
+     * @param protocol protocol number (0–255)
+     * @param handler  the handler (non-null)
+     * @throws IllegalArgumentException if protocol is out of range, handler is null
+     *                                  or the number is already bound
+     */
+    public void bindProtocol(int protocol, Handler handler) throws IllegalArgumentException {
+        if (protocol < 0 || protocol > 255 || handler == null) {
+            logger.error("[{}] bindProtocol: invalid arguments", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid protocol binding");
+        }
+        if (this.protocols[protocol] != null) {
+            logger.error("[{}] bindProtocol: protocol {} already bound", CLS, protocol);
+            throw new IllegalArgumentException(CLS + ": protocol " + protocol + " already bound");
+        }
+        this.protocols[protocol] = handler;
+    }
+
+    /**
+     * @param protocol protocol number (0–255)
+     * @return the handler that was bound, or null
+     */
+    public Handler unbindProtocol(int protocol) {
+        if (protocol < 0 || protocol > 255) {
+            return null;
+        }
+        Handler previous = this.protocols[protocol];
+        this.protocols[protocol] = null;
+        return previous;
+    }
+
+    /**
+     * Binds an application to a UDP port.
+     *
+     * @param port the port (non-null)
+     * @param app  the application (non-null)
+     * @throws IllegalArgumentException if an argument is null or the port is taken
+     *                                  by another application
+     */
+    public void bindPort(Port port, App app) throws IllegalArgumentException {
+        if (port == null || app == null) {
+            logger.error("[{}] bindPort: arguments cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": port and app cannot be null");
+        }
+        App bound = this.ports.putIfAbsent(port.getPort(), app);
+        if (bound != null && bound != app) {
+            logger.error("[{}] bindPort: port {} already bound to {}", CLS, port, bound.getName());
+            throw new IllegalArgumentException(CLS + ": port " + port.getPort() + " already bound");
+        }
+        logger.info("[{}] app '{}' bound to port {}", CLS, app.getName(), port.getPort());
+    }
+
+    /**
+     * @param port the port (non-null)
+     * @return the application that was bound, or null
+     */
+    public App unbindPort(Port port) {
+        return port == null ? null : this.ports.remove(port.getPort());
+    }
+
+    /**
+     * @param port UDP port number
+     * @return the application bound to it, or null
+     */
+    public App app(int port) {
+        return this.ports.get(port);
+    }
+
+    /**
+     * Hands a datagram payload to the handler of its protocol.
+     *
+     * @param protocol protocol number read from the header
+     * @param source   source address read from the header
+     * @param payload  the reassembled payload
+     * @return false if no handler is bound to protocol
+     */
+    public boolean dispatch(int protocol, IPv4 source, byte[] payload) {
+        Handler handler = protocol >= 0 && protocol < 256 ? this.protocols[protocol] : null;
+        if (handler == null) {
+            return false;
+        }
+        handler.handle(source, payload);
+        return true;
+    }
+}
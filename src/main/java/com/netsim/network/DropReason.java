@@ -0,0 +1,22 @@
+package com.netsim.network;
+
+/**
+ * Why a node or an adapter discarded a frame or packet, as counted by
+ * {@link TrafficCounters}.
+ */
+public enum DropReason {
+    /** the adapter was down when the frame was sent or arrived */
+    ADAPTER_DOWN,
+    /** the routing table had no entry for the destination */
+    NO_ROUTE,
+    /** the packet arrived at a router with no TTL left */
+    TTL_EXPIRED,
+    /** the frame or packet was addressed to another MAC or IP */
+    NOT_FOR_ME,
+    /** the frame or packet was truncated or malformed */
+    BAD_FRAME,
+    /** a transmit or receive queue was full */
+    QUEUE_FULL,
+    /** the next hop never answered ARP */
+    UNRESOLVED
+}
@@ -7,7 +7,7 @@ import com.netsim.utils.Logger;
  * Represents a network interface binding a physical adapter to an IPv4 address.
  */
 public final class Interface {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Interface.class);
     private static final String CLS    = Interface.class.getSimpleName();
 
     private final NetworkAdapter adapter;
@@ -22,14 +22,12 @@ public final class Interface {
      */
     public Interface(NetworkAdapter adapter, IPv4 ip) {
         if (adapter == null || ip == null) {
-            logger.error("[" + CLS + "] constructor arguments cannot be null");
+            logger.error("[{}] constructor arguments cannot be null", CLS);
             throw new IllegalArgumentException("Interface: arguments cannot be null");
         }
         this.adapter = adapter;
         this.ip      = ip;
-        logger.info("[" + CLS + "] created for adapter \"" 
-            + this.adapter.getName() + "\" with IP " 
-            + this.ip.stringRepresentation());
+        logger.info("[{}] created for adapter \"{}\" with IP {}", CLS, this.adapter.getName(), this.ip);
     }
 
     /**
@@ -59,13 +57,13 @@ public final class Interface {
     @Override
     public boolean equals(Object obj) {
         if (obj == null || !(obj instanceof Interface)) {
-            logger.debug("[" + CLS + "] equals: object is not an Interface");
+            logger.debug("[{}] equals: object is not an Interface", CLS);
             return false;
         }
         Interface other = (Interface) obj;
         boolean result = other.getAdapter().equals(this.adapter)
                       && other.getIP().equals(this.ip);
-        logger.debug("[" + CLS + "] equals: comparison result=" + result);
+        logger.debug("[{}] equals: comparison result={}", CLS, result);
         return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.netsim.network;
+
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.simulation.Simulator;
+
+/**
+ * A node working on whole frames, such as a switch. Adapters owned by a
+ * link-layer node are promiscuous: they hand every frame up untouched,
+ * without filtering on the destination MAC or stripping the DLL header.
+ */
+public interface LinkLayerNode extends Node {
+    // no logger in interfaces per convention
+
+    /**
+     * Receives a frame exactly as it came off the wire.
+     *
+     * @param in    the adapter the frame arrived on (non‐null)
+     * @param stack protocol pipeline travelling with the frame, DLL on top (non‐null)
+     * @param frame the framed bytes (non‐empty)
+     */
+    void receiveFrame(CabledAdapter in, ProtocolPipeline stack, byte[] frame);
+
+    /**
+     * @return number of ports
+     */
+    int getPortCount();
+
+    /**
+     * @param index a port index
+     * @return the adapter of that port
+     * @throws IndexOutOfBoundsException if there is no such port
+     */
+    CabledAdapter getPort(int index) throws IndexOutOfBoundsException;
+
+    /**
+     * Attaches the node and all its ports to an event loop under one context.
+     *
+     * @param simulator the simulator, or null for synchronous relaying
+     * @param context   context id of the node
+     */
+    void setSimulator(Simulator simulator, int context);
+}
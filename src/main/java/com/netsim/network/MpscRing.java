@@ -0,0 +1,232 @@
+package com.netsim.network;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free, multi-producer single-consumer ring of frames.
+ * <p>
+ * Producers claim slots by advancing the tail sequence with a CAS, one slot
+ * or a run of slots at a time, then publish each element with a release
+ * store into its slot. The single consumer reads slots in order, clears them
+ * and moves the head sequence forward once per drained run, which is what
+ * frees the slots for producers. A claimed but not yet published slot stops
+ * the consumer until its producer stores the element.
+ * <p>
+ * Head and tail live on cache lines of their own so producers spinning on
+ * the tail do not invalidate the consumer's head, and producers keep a
+ * cached copy of the head to re-read it only when the ring looks full.
+ * {@link #poll()} and {@link #drain} must be called by one thread at a time;
+ * offers may come from any thread. Null elements are not allowed.
+ *
+ * @param <E> the element type
+ */
+public final class MpscRing<E> {
+    private static final String CLS = MpscRing.class.getSimpleName();
+
+    /** Padding ahead of the value so it does not share a line with the object header or neighbours. */
+    @SuppressWarnings("unused")
+    private static class LeftPad {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private static class Value extends LeftPad {
+        volatile long value;
+    }
+
+    /** A sequence alone on its cache line; superclass fields are laid out first. */
+    @SuppressWarnings("unused")
+    private static final class Sequence extends Value {
+        long p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Value.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final AtomicReferenceArray<E> slots;
+    private final int                     mask;
+    private final Sequence                head;
+    private final Sequence                tail;
+    private final Sequence                headCache;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two (&gt; 0)
+     * @throws IllegalArgumentException if capacity is not in 1..2^30
+     */
+    public MpscRing(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException(CLS + ": capacity must be in 1..2^30");
+        }
+        int size       = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots     = new AtomicReferenceArray<>(size);
+        this.mask      = size - 1;
+        this.head      = new Sequence();
+        this.tail      = new Sequence();
+        this.headCache = new Sequence();
+    }
+
+    /**
+     * Appends an element; never blocks.
+     *
+     * @param element the element (non-null)
+     * @return false if the ring was full and the element was not added
+     * @throws IllegalArgumentException if element is null
+     */
+    public boolean offer(E element) throws IllegalArgumentException {
+        if (element == null) {
+            throw new IllegalArgumentException(CLS + ": element cannot be null");
+        }
+        long t = this.claim(1);
+        if (t < 0) {
+            return false;
+        }
+        this.slots.lazySet((int) t & this.mask, element);
+        return true;
+    }
+
+    /**
+     * Appends a run of elements with a single claim on the tail: as many as
+     * fit, in order, the rest are left to the caller.
+     *
+     * @param elements array holding the elements (non-null, no nulls in the run)
+     * @param from     index of the first element to add
+     * @param count    number of elements to add (&gt;= 0)
+     * @return number of elements added, from the front of the run
+     * @throws IllegalArgumentException  if elements or one of the run's elements is null
+     * @throws IndexOutOfBoundsException if the run is outside the array
+     */
+    public int offer(E[] elements, int from, int count) throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (elements == null) {
+            throw new IllegalArgumentException(CLS + ": elements cannot be null");
+        }
+        if (from < 0 || count < 0 || from > elements.length - count) {
+            throw new IndexOutOfBoundsException(CLS + ": run " + from + "+" + count + " outside the array");
+        }
+        for (int i = from; i < from + count; i++) {
+            if (elements[i] == null) {
+                throw new IllegalArgumentException(CLS + ": element cannot be null");
+            }
+        }
+        int  capacity = this.mask + 1;
+        long t;
+        int  n;
+        do {
+            t = (long) VALUE.getVolatile(this.tail);
+            n = (int) Math.min(count, capacity - (t - this.cachedHead(t, count)));
+            if (n <= 0) {
+                return 0;
+            }
+        } while (!VALUE.compareAndSet(this.tail, t, t + n));
+        for (int i = 0; i < n; i++) {
+            this.slots.lazySet((int) (t + i) & this.mask, elements[from + i]);
+        }
+        return n;
+    }
+
+    /**
+     * Claims n slots at once.
+     *
+     * @return the first claimed sequence, or -1 if fewer than n slots are free
+     */
+    private long claim(int n) {
+        long t;
+        do {
+            t = (long) VALUE.getVolatile(this.tail);
+            if (t - this.cachedHead(t, n) > this.mask + 1 - n) {
+                return -1L;
+            }
+        } while (!VALUE.compareAndSet(this.tail, t, t + n));
+        return t;
+    }
+
+    /**
+     * Returns a head no older than needed to admit n slots after tail t:
+     * the cached head if it leaves room, else the current head, re-cached.
+     */
+    private long cachedHead(long t, int n) {
+        long h = (long) VALUE.getOpaque(this.headCache);
+        if (t - h > this.mask + 1 - n) {
+            h = (long) VALUE.getAcquire(this.head);
+            VALUE.setOpaque(this.headCache, h);
+        }
+        return h;
+    }
+
+    /**
+     * Removes the oldest element; consumer thread only.
+     *
+     * @return the element, or null if none is published yet
+     */
+    public E poll() {
+        long h    = (long) VALUE.getOpaque(this.head);
+        int  slot = (int) h & this.mask;
+        E    e    = this.slots.get(slot);
+        if (e == null) {
+            return null;
+        }
+        this.slots.lazySet(slot, null);
+        VALUE.setRelease(this.head, h + 1);
+        return e;
+    }
+
+    /**
+     * Hands the published elements, oldest first, to a sink and frees their
+     * slots with a single head update; consumer thread only. If the sink
+     * throws, the elements it was given stay removed.
+     *
+     * @param sink  receives each element (non-null)
+     * @param limit maximum number of elements to drain (&gt; 0)
+     * @return number of elements drained
+     * @throws IllegalArgumentException if sink is null or limit is not positive
+     */
+    public int drain(Consumer<? super E> sink, int limit) throws IllegalArgumentException {
+        if (sink == null || limit <= 0) {
+            throw new IllegalArgumentException(CLS + ": sink cannot be null and limit must be positive");
+        }
+        long h = (long) VALUE.getOpaque(this.head);
+        int  n = 0;
+        try {
+            while (n < limit) {
+                int slot = (int) (h + n) & this.mask;
+                E   e    = this.slots.get(slot);
+                if (e == null) {
+                    break;
+                }
+                this.slots.lazySet(slot, null);
+                n++;
+                sink.accept(e);
+            }
+        } finally {
+            if (n > 0) {
+                VALUE.setRelease(this.head, h + n);
+            }
+        }
+        return n;
+    }
+
+    /** @return number of slots */
+    public int capacity() {
+        return this.mask + 1;
+    }
+
+    /** @return elements claimed and not drained yet; a snapshot under concurrent offers */
+    public int size() {
+        long h = (long) VALUE.getVolatile(this.head);
+        long t = (long) VALUE.getVolatile(this.tail);
+        return (int) Math.max(0L, Math.min(t - h, this.mask + 1));
+    }
+
+    /** @return true if no element is claimed or waiting */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+}
@@ -1,7 +1,10 @@
 package com.netsim.network;
 
 import com.netsim.addresses.Mac;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.simulation.Mailbox;
+import com.netsim.simulation.Simulator;
 
 /**
  * Represents a data‐link layer network adapter that can send and receive raw frames.
@@ -79,6 +82,50 @@ public interface NetworkAdapter {
      */
     void setDown();
 
+    /**
+     * Attaches the event loop frames are delivered through; with none attached,
+     * {@link #send(ProtocolPipeline, byte[])} delivers synchronously.
+     *
+     * @param simulator the simulator to post into, or null to detach
+     */
+    void setSimulator(Simulator simulator);
+
+    /**
+     * Attaches the event loop and the context the adapter's events run in,
+     * normally the one of the owning node.
+     *
+     * @param simulator the simulator to post into, or null to detach
+     * @param context   context id handed out by the simulator
+     */
+    void setSimulator(Simulator simulator, int context);
+
+    /**
+     * @return the attached simulator, or null
+     */
+    Simulator getSimulator();
+
+    /**
+     * Attaches the inbox of the owning node when it runs on a {@link com.netsim.simulation.NodeRuntime}:
+     * without a simulator, frames sent to this adapter are then posted to the
+     * mailbox instead of being received on the sender's thread.
+     *
+     * @param mailbox the owner's mailbox, or null to detach
+     */
+    void setMailbox(Mailbox mailbox);
+
+    /**
+     * @return the attached mailbox, or null
+     */
+    Mailbox getMailbox();
+
+    /**
+     * Snapshots the adapter's traffic counters: frames and bytes on the wire,
+     * drops by reason and the frames waiting in its queues.
+     *
+     * @return an immutable snapshot
+     */
+    TrafficStats getStats();
+
     /**
      * Sends a raw frame through this link‐layer adapter.
      * <p>
@@ -92,6 +139,51 @@ public interface NetworkAdapter {
      */
     void send(ProtocolPipeline stack, byte[] frame);
 
+    /**
+     * Sends a raw frame addressed to a given MAC, as resolved by ARP.
+     *
+     * @param stack       the protocol pipeline to use for additional encapsulation (non‐null)
+     * @param frame       the payload bytes to transmit (non‐empty)
+     * @param destination the destination MAC, possibly broadcast (non‐null)
+     * @throws IllegalArgumentException if any argument is null or {@code frame} is empty
+     */
+    void send(ProtocolPipeline stack, byte[] frame, Mac destination);
+
+    /**
+     * Sends a buffered packet addressed to a given MAC. The DLL header is
+     * prepended into the buffer's headroom, so a buffer with just enough room
+     * goes on the cable without being copied. The adapter takes the buffer over.
+     *
+     * @param stack       the protocol pipeline to use for additional encapsulation (non‐null)
+     * @param packet      buffer holding the packet or its fragments (non‐empty)
+     * @param destination the destination MAC, possibly broadcast (non‐null)
+     * @throws IllegalArgumentException if any argument is null or {@code packet} is empty
+     */
+    void send(ProtocolPipeline stack, PacketBuffer packet, Mac destination);
+
+    /**
+     * Sends a batch of IP packets to one MAC. Every packet is framed into a
+     * single contiguous buffer and the whole buffer is handed to the remote
+     * adapter's {@link #receiveBatch(ProtocolPipeline, byte[])} at once.
+     *
+     * @param stack       the protocol pipeline travelling with the batch (non‐null)
+     * @param packets     concatenated IP packets of one flow (non‐empty)
+     * @param destination the destination MAC (non‐null)
+     * @throws IllegalArgumentException if any argument is null or {@code packets} is empty
+     */
+    void sendBatch(ProtocolPipeline stack, byte[] packets, Mac destination);
+
+    /**
+     * Receives a batch of frames sent by {@link #sendBatch(ProtocolPipeline, byte[], Mac)}.
+     * Frames not addressed to this adapter are skipped one by one; the packets
+     * of the others go up to the owner node together.
+     *
+     * @param stack  the protocol pipeline used for decapsulation (non‐null)
+     * @param frames the concatenated frames (non‐empty)
+     * @throws IllegalArgumentException if {@code stack} is null or {@code frames} is null/empty
+     */
+    void receiveBatch(ProtocolPipeline stack, byte[] frames);
+
     /**
      * Receives a raw frame from this link‐layer adapter.
      * <p>
@@ -2,27 +2,81 @@ package com.netsim.network;
 
 import java.util.List;
 import java.util.Random;
+import java.util.function.Consumer;
 
 import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
 import com.netsim.addresses.Port;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.Protocol;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.app.App;
+import com.netsim.protocols.ARP.ARPPacket;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.IPv4.IPv4Reassembler;
+import com.netsim.protocols.UDP.UDPProtocol;
+import com.netsim.simulation.Event;
+import com.netsim.simulation.EventType;
+import com.netsim.simulation.Mailbox;
+import com.netsim.simulation.Simulator;
 import com.netsim.table.ArpTable;
+import com.netsim.table.NeighbourCache;
 import com.netsim.table.RoutingInfo;
 import com.netsim.table.RoutingTable;
 import com.netsim.utils.Logger;
 
 /**
  * Base class for nodes implementing IP routing and ARP resolution.
+ * <p>
+ * Next hops are resolved from the static {@link ArpTable} first and then from
+ * a {@link NeighbourCache} filled by ARP requests sent on demand. Packets wait
+ * in the cache while their next hop resolves; with a simulator or a mailbox
+ * attached, requests are retransmitted on a timer and the cache is aged
+ * periodically, in virtual time or wall-clock time respectively.
+ * <p>
+ * Fragments addressed to the node are reassembled one at a time by an
+ * {@link IPv4Reassembler}; incomplete datagrams are timed out on a timer.
+ * Outgoing datagrams get identifications from one 16-bit counter per node.
+ * <p>
+ * Local delivery is driven by the packet bytes: the protocol number in the
+ * IPv4 header selects a handler in the node's {@link Demux}, and UDP segments
+ * go to the application bound to their destination port. Payloads of
+ * protocols with no handler fall back to the carried pipeline.
+ * <p>
+ * On a {@link com.netsim.simulation.NodeRuntime} the node owns a
+ * {@link Mailbox}: frames for it and sends requested from other threads are
+ * posted there, so only the mailbox's loop thread runs the node.
  */
 public abstract class NetworkNode implements Node {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(NetworkNode.class);
     private static final String CLS    = NetworkNode.class.getSimpleName();
 
-    protected final String         name;
-    protected final List<Interface> interfaces;
-    protected final RoutingTable   routingTable;
-    protected final ArpTable       arpTable;
+    /** nanoseconds between ARP requests for an unresolved neighbour */
+    public static final long ARP_RETRANSMIT = 1_000_000_000L;
+    /** ARP requests sent before an unresolved neighbour's packets are dropped */
+    public static final int  ARP_MAX_PROBES = 3;
+    /**
+     * headroom an application leaves in front of a payload it sends through
+     * {@link #send(IPv4, ProtocolPipeline, PacketBuffer)}: UDP, an IPv4 header
+     * without options and SimpleDLL, so the frame fills the buffer exactly
+     */
+    public static final int  SEND_HEADROOM  = 8 + 20 + 12;
+
+    protected final String                name;
+    protected final List<Interface>       interfaces;
+    protected final RoutingTable          routingTable;
+    protected final ArpTable              arpTable;
+    protected final NeighbourCache        neighbours;
+    protected final IPv4Reassembler       reassembler;
+    protected final Demux                 demux;
+    protected final TrafficCounters       counters;
+    protected       Simulator             simulator;
+    protected       int                   context;
+    protected volatile Mailbox            mailbox;
+    private         int                   identification;
+    private         Random                random;
+    private         boolean               agingScheduled;
+    private         boolean               reassemblyScheduled;
 
     /**
      * @param name         node identifier (non‐null)
@@ -39,15 +93,21 @@ public abstract class NetworkNode implements Node {
             || routingTable == null
             || arpTable == null
             || interfaces == null) {
-            logger.error("[" + CLS + "] invalid constructor arguments");
+            logger.error("[{}] invalid constructor arguments", CLS);
             throw new IllegalArgumentException(CLS + ": invalid arguments");
         }
-        this.name         = name;
-        this.routingTable = routingTable;
-        this.arpTable     = arpTable;
-        this.interfaces   = interfaces;
-        logger.info("[" + CLS + "] node '" + this.name
-            + "' created with " + this.interfaces.size() + " interfaces");
+        this.name            = name;
+        this.routingTable    = routingTable;
+        this.arpTable        = arpTable;
+        this.neighbours      = new NeighbourCache();
+        this.reassembler     = new IPv4Reassembler();
+        this.demux           = new Demux();
+        this.counters        = new TrafficCounters();
+        this.interfaces      = interfaces;
+        this.context         = Simulator.EXTERNAL;
+        this.demux.bindProtocol(IPv4Protocol.UDP, this::receiveUdp);
+        logger.info(() -> "[" + CLS + "] node '" + this.name + "' created with " + this.interfaces.size()
+                          + " interfaces");
     }
 
     /**
@@ -68,13 +128,11 @@ public abstract class NetworkNode implements Node {
     public Interface getInterface(IPv4 ip) {
         for (Interface iface : this.interfaces) {
             if (iface.getIP().equals(ip)) {
-                logger.debug("[" + CLS + "] found interface for IP "
-                    + ip.stringRepresentation());
+                logger.debug("[{}] found interface for IP {}", CLS, ip);
                 return iface;
             }
         }
-        logger.error("[" + CLS + "] Interface for IP "
-            + ip.stringRepresentation() + " not found");
+        logger.error("[{}] Interface for IP {} not found", CLS, ip);
         throw new RuntimeException("Interface for IP "
             + ip.stringRepresentation() + " not found");
     }
@@ -89,13 +147,11 @@ public abstract class NetworkNode implements Node {
     public Interface getInterface(NetworkAdapter adapter) {
         for (Interface iface : this.interfaces) {
             if (iface.getAdapter().equals(adapter)) {
-                logger.debug("[" + CLS + "] found interface for adapter "
-                    + adapter.getName());
+                logger.debug("[{}] found interface for adapter {}", CLS, adapter.getName());
                 return iface;
             }
         }
-        logger.error("[" + CLS + "] Interface for adapter "
-            + adapter.getName() + " not found");
+        logger.error("[{}] Interface for adapter {} not found", CLS, adapter.getName());
         throw new RuntimeException("Interface for adapter "
             + adapter.getName() + " not found");
     }
@@ -117,17 +173,32 @@ public abstract class NetworkNode implements Node {
     public RoutingInfo getRoute(IPv4 destination) {
         try {
             RoutingInfo info = this.routingTable.lookup(destination);
-            logger.debug("[" + CLS + "] route found for "
-                + destination.stringRepresentation());
+            logger.debug("[{}] route found for {}", CLS, destination);
             return info;
         } catch (NullPointerException e) {
-            logger.error("[" + CLS + "] route to "
-                + destination.stringRepresentation() + " not found");
+            logger.error("[{}] route to {} not found", CLS, destination);
             throw new RuntimeException("Route to "
                 + destination.stringRepresentation() + " not found");
         }
     }
 
+    /**
+     * Looks up the route of a packet the node is about to send; a miss counts
+     * the packet as dropped for {@link DropReason#NO_ROUTE}. Lookups that send
+     * nothing go through {@link #getRoute} and count nothing.
+     *
+     * @param destination the IPv4 destination (non‐null)
+     * @return the route, or null if there is none
+     */
+    protected RoutingInfo routeForPacket(IPv4 destination) {
+        try {
+            return this.getRoute(destination);
+        } catch (RuntimeException e) {
+            this.counters.dropped(DropReason.NO_ROUTE);
+            return null;
+        }
+    }
+
     /**
      * Looks up the MAC for a directly connected IP.
      *
@@ -138,46 +209,61 @@ public abstract class NetworkNode implements Node {
     public Mac getMac(IPv4 ip) {
         try {
             Mac mac = this.arpTable.lookup(ip);
-            logger.debug("[" + CLS + "] ARP lookup for "
-                + ip.stringRepresentation() + " → " + mac);
+            logger.debug("[{}] ARP lookup for {} → {}", CLS, ip, mac);
             return mac;
         } catch (NullPointerException e) {
-            logger.error("[" + CLS + "] MAC for "
-                + ip.stringRepresentation() + " not in ARP cache");
+            logger.error("[{}] MAC for {} not in ARP cache", CLS, ip);
             throw new RuntimeException("MAC for "
                 + ip.stringRepresentation() + " not in ARP cache");
         }
     }
 
     /**
-     * Determines whether a destination is on‐link and returns
-     * its MAC or the broadcast address.
+     * Returns the MAC frames to a destination are addressed to: the
+     * destination's own for on-link addresses, the gateway's otherwise.
+     * Only already resolved addresses are returned; nothing is sent.
      *
      * @param destination the IPv4 destination (non‐null)
-     * @return on‐link MAC or broadcast
+     * @return the next hop's MAC
      * @throws IllegalArgumentException if destination is null
+     * @throws RuntimeException         if there is no route or the next hop is unresolved
      */
     public Mac getDestinationMac(IPv4 destination) {
         if (destination == null) {
-            logger.error("[" + CLS + "] getDestinationMac: destination is null");
+            logger.error("[{}] getDestinationMac: destination is null", CLS);
             throw new IllegalArgumentException("destination cannot be null");
         }
-        for (Interface iface : this.interfaces) {
-            IPv4 local  = iface.getIP();
-            int  prefix = local.getMask();
-            String net  = local.stringRepresentation();
-            if (destination.isInSubnet(net, prefix)) {
-                Mac mac = this.getMac(destination);
-                logger.info("[" + CLS + "] destination "
-                    + destination.stringRepresentation()
-                    + " is on-link; MAC=" + mac);
-                return mac;
-            }
+        IPv4 hop = nextHop(this.getRoute(destination), destination);
+        Mac  mac = this.resolved(hop.toInt());
+        if (mac == null) {
+            logger.error("[{}] next hop {} of {} is not resolved", CLS, hop, destination);
+            throw new RuntimeException("MAC for " + hop.stringRepresentation() + " not resolved");
         }
-        logger.info("[" + CLS + "] destination "
-            + destination.stringRepresentation()
-            + " is off-link; using broadcast");
-        return Mac.broadcast();
+        logger.debug(() -> "[" + CLS + "] destination " + destination + " via " + hop + "; MAC=" + mac);
+        return mac;
+    }
+
+    /**
+     * @return the dynamic ARP cache of this node
+     */
+    public NeighbourCache getNeighbourCache() {
+        return this.neighbours;
+    }
+
+    /**
+     * @param route       the route chosen for destination (non-null)
+     * @param destination the packet's destination (non-null)
+     * @return the gateway of the route, or destination itself if it is on-link
+     */
+    protected static IPv4 nextHop(RoutingInfo route, IPv4 destination) {
+        IPv4 gateway = route.getNextHop();
+        return gateway == null ? destination : gateway;
+    }
+
+    /** @return the static or learnt MAC of a neighbour, or null */
+    private Mac resolved(int address) {
+        Mac mac = this.arpTable.find(address);
+        return mac != null ? mac : this.neighbours.lookup(address);
     }
 
     /**
@@ -190,9 +276,9 @@ public abstract class NetworkNode implements Node {
         for (Interface iface : this.interfaces) {
             mtu = Math.min(mtu, iface.getAdapter().getMTU());
         }
-        mtu = (mtu == Integer.MAX_VALUE ? 0 : mtu);
-        logger.debug("[" + CLS + "] computed MTU=" + mtu);
-        return mtu;
+        int computed = mtu == Integer.MAX_VALUE ? 0 : mtu;
+        logger.debug(() -> "[" + CLS + "] computed MTU=" + computed);
+        return computed;
     }
 
     /**
@@ -201,15 +287,639 @@ public abstract class NetworkNode implements Node {
      * @return a new Port instance
      */
     public Port randomPort() {
-        Random rnd      = new Random();
+        Random rnd      = this.getRandom();
         int    min      = 1024;
         int    max      = 0xFFFF;
         int    portNum  = rnd.nextInt(max - min + 1) + min;
-        Port   p        = new Port(Integer.toString(portNum));
-        logger.debug("[" + CLS + "] generated random port " + p.getPort());
+        Port   p        = Port.of(portNum);
+        logger.debug(() -> "[" + CLS + "] generated random port " + portNum);
         return p;
     }
 
+    /**
+     * Attaches this node and the adapters of all its interfaces to an event loop.
+     *
+     * @param simulator the simulator to post into, or null for synchronous calls
+     */
+    public void setSimulator(Simulator simulator) {
+        this.setSimulator(simulator, simulator == null ? Simulator.EXTERNAL : simulator.register());
+    }
+
+    /**
+     * Attaches this node and its adapters to an event loop under a given context.
+     * The node's random generator is reseeded from the simulator seed and context.
+     *
+     * @param simulator the simulator to post into, or null for synchronous calls
+     * @param context   context id of the node
+     */
+    public void setSimulator(Simulator simulator, int context) {
+        this.simulator = simulator;
+        this.context   = context;
+        this.random    = simulator == null ? null : simulator.randomFor(context);
+        for (Interface iface : this.interfaces) {
+            iface.getAdapter().setSimulator(simulator, context);
+        }
+        logger.info("[{}] node '{}' {} simulator as context {}", CLS, this.name,
+                    simulator == null ? "detached from" : "attached to", context);
+    }
+
+    /**
+     * Attaches this node and the adapters of all its interfaces to an inbox.
+     *
+     * @param mailbox the node's mailbox, or null to run on the callers' threads
+     */
+    public void setMailbox(Mailbox mailbox) {
+        this.mailbox = mailbox;
+        // an aging timer of the previous mailbox is cancelled with it
+        this.agingScheduled = false;
+        for (Interface iface : this.interfaces) {
+            iface.getAdapter().setMailbox(mailbox);
+        }
+    }
+
+    /**
+     * @return the attached mailbox, or null
+     */
+    public Mailbox getMailbox() {
+        return this.mailbox;
+    }
+
+    /**
+     * Snapshots the node's traffic counters: IP and ARP packets sent and
+     * received, one per fragment, drops by reason, and the tasks waiting in
+     * the node's mailbox.
+     *
+     * @return an immutable snapshot
+     */
+    public TrafficStats getStats() {
+        Mailbox inbox = this.mailbox;
+        return this.counters.snapshot(inbox == null ? 0 : inbox.pending());
+    }
+
+    /**
+     * Counts a packet received from an adapter; subclasses call it once per
+     * {@link #receive} before looking at the packets.
+     *
+     * @param packets concatenated IPv4 packets as passed up by the adapter
+     */
+    protected final void countReceived(byte[] packets) {
+        this.counters.received(packetCount(packets, 0, packets.length), packets.length);
+    }
+
+    /**
+     * @return number of IPv4 packets in a run of them, or 1 for an ARP packet
+     *         or a run too short to walk
+     */
+    private static int packetCount(byte[] packets, int offset, int length) {
+        if (ARPPacket.isArp(packets, offset)) {
+            return 1;
+        }
+        int n   = 0;
+        int at  = offset;
+        int end = offset + length;
+        while (end - at >= 20) {
+            int totalLen = ((packets[at + 2] & 0xFF) << 8) | (packets[at + 3] & 0xFF);
+            if (totalLen < 20) {
+                break;
+            }
+            n++;
+            at += totalLen;
+        }
+        return Math.max(n, 1);
+    }
+
+    /**
+     * Hands a task to the node's loop thread when called from any other thread.
+     *
+     * @param task the work to run on the node (non-null)
+     * @return true if the task was posted (or dropped by a closed mailbox) and
+     *         the caller must not run it; false if the caller is the node's thread
+     */
+    protected boolean postIfForeign(Runnable task) {
+        Mailbox inbox = this.mailbox;
+        if (inbox == null || inbox.isLoopThread()) {
+            return false;
+        }
+        if (!inbox.post(task)) {
+            logger.debug("[{}] node '{}' mailbox closed, dropped task", CLS, this.name);
+        }
+        return true;
+    }
+
+    /**
+     * @return context the node's events run in, {@link Simulator#EXTERNAL} if detached
+     */
+    public int getContext() {
+        return this.context;
+    }
+
+    /**
+     * Returns the node's random generator: seeded from the simulator when one is
+     * attached, so runs with the same seed draw the same numbers.
+     *
+     * @return the generator
+     */
+    public Random getRandom() {
+        if (this.random == null) {
+            this.random = new Random();
+        }
+        return this.random;
+    }
+
+    /**
+     * @return the attached simulator, or null
+     */
+    public Simulator getSimulator() {
+        return this.simulator;
+    }
+
+    /**
+     * Sends a payload held in a buffer. Nodes that originate packets override
+     * this to prepend their headers into the buffer's headroom; by default the
+     * payload is copied out and sent through
+     * {@link #send(IPv4, ProtocolPipeline, byte[])}. The node takes the buffer over.
+     *
+     * @param destination the IPv4 destination (non-null)
+     * @param stack       the protocol pipeline (non-null)
+     * @param data        buffer holding the payload (non-null, non-empty)
+     * @throws IllegalArgumentException if any argument is invalid
+     */
+    public void send(IPv4 destination, ProtocolPipeline stack, PacketBuffer data) throws IllegalArgumentException {
+        if (data == null || data.isEmpty()) {
+            logger.error("[{}] invalid arguments to send", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        this.send(destination, stack, data.toByteArray());
+    }
+
+    /**
+     * Hands a packet to an adapter: immediately when no simulator is attached,
+     * otherwise as a TRANSMIT event so the caller returns before the frame moves.
+     *
+     * @param adapter outgoing adapter (non-null)
+     * @param stack   protocol pipeline (non-null)
+     * @param packet  bytes to frame and send (non-empty)
+     * @throws IllegalArgumentException if any argument is invalid
+     */
+    protected void transmit(NetworkAdapter adapter, ProtocolPipeline stack, byte[] packet)
+            throws IllegalArgumentException {
+        if (adapter == null || stack == null || packet == null || packet.length == 0) {
+            logger.error("[{}] invalid arguments to transmit", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        if (this.simulator == null) {
+            adapter.send(stack, packet);
+        } else {
+            this.simulator.schedule(0L, EventType.TRANSMIT, this.context, () -> adapter.send(stack, packet));
+        }
+    }
+
+    /**
+     * Sends a packet to a next hop, resolving its MAC first. A resolved
+     * neighbour gets the packet at once; otherwise the packet waits in the
+     * neighbour cache and an ARP request is broadcast on the adapter.
+     *
+     * @param adapter outgoing adapter (non-null)
+     * @param nextHop neighbour the frame is addressed to (non-null)
+     * @param stack   protocol pipeline (non-null)
+     * @param packet  bytes to frame and send (non-empty)
+     * @throws IllegalArgumentException if any argument is invalid
+     */
+    protected void transmit(NetworkAdapter adapter, IPv4 nextHop, ProtocolPipeline stack, byte[] packet)
+            throws IllegalArgumentException {
+        this.transmit(adapter, nextHop, stack, packet, null, false);
+    }
+
+    /**
+     * Like {@link #transmit(NetworkAdapter, IPv4, ProtocolPipeline, byte[])}
+     * for a run of packets of one flow, handed to the adapter as a single
+     * batch once the next hop is resolved.
+     *
+     * @param adapter outgoing adapter (non-null)
+     * @param nextHop neighbour the frames are addressed to (non-null)
+     * @param stack   protocol pipeline (non-null)
+     * @param packets concatenated packets to frame and send (non-empty)
+     * @throws IllegalArgumentException if any argument is invalid
+     */
+    protected void transmitBatch(NetworkAdapter adapter, IPv4 nextHop, ProtocolPipeline stack, byte[] packets)
+            throws IllegalArgumentException {
+        this.transmit(adapter, nextHop, stack, packets, null, true);
+    }
+
+    /**
+     * Like {@link #transmit(NetworkAdapter, IPv4, ProtocolPipeline, byte[])}
+     * for a packet held in a buffer, which the adapter frames in place; the
+     * node takes the buffer over.
+     *
+     * @param adapter outgoing adapter (non-null)
+     * @param nextHop neighbour the frame is addressed to (non-null)
+     * @param stack   protocol pipeline (non-null)
+     * @param packet  buffer holding the packet or its fragments (non-empty)
+     * @throws IllegalArgumentException if any argument is invalid
+     */
+    protected void transmit(NetworkAdapter adapter, IPv4 nextHop, ProtocolPipeline stack, PacketBuffer packet)
+            throws IllegalArgumentException {
+        if (packet == null || packet.isEmpty()) {
+            logger.error("[{}] invalid arguments to transmit", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        this.transmit(adapter, nextHop, stack, null, packet, false);
+    }
+
+    /** Resolves the next hop, then sends either the array or the buffer. */
+    private void transmit(NetworkAdapter adapter, IPv4 nextHop, ProtocolPipeline stack, byte[] packet,
+                          PacketBuffer buffered, boolean batch) throws IllegalArgumentException {
+        if (adapter == null || nextHop == null || stack == null
+            || (buffered == null && (packet == null || packet.length == 0))) {
+            logger.error("[{}] invalid arguments to transmit", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        int hop = nextHop.toInt();
+        Mac mac = this.arpTable.find(hop);
+        if (mac != null) {
+            this.transmit(adapter, stack, packet, buffered, mac, batch);
+            return;
+        }
+        long now = this.now();
+        while (true) {
+            mac = this.neighbours.lookup(hop);
+            if (mac != null) {
+                if (this.neighbours.startProbe(hop, now)) {
+                    this.sendArpRequest(adapter, hop);
+                }
+                this.transmit(adapter, stack, packet, buffered, mac, batch);
+                return;
+            }
+            try {
+                Consumer<Mac>           send   = m -> this.transmit(adapter, stack, packet, buffered, m, batch);
+                NeighbourCache.Enqueued queued = this.neighbours.enqueue(hop, send, now);
+                if (queued == NeighbourCache.Enqueued.STARTED) {
+                    logger.debug("[{}] node '{}' resolving {}", CLS, this.name, nextHop);
+                    this.resolve(adapter, hop, 1);
+                } else if (queued == NeighbourCache.Enqueued.DROPPED) {
+                    this.counters.dropped(DropReason.QUEUE_FULL);
+                    logger.debug("[{}] node '{}' queue for {} full, dropped packet", CLS, this.name, nextHop);
+                }
+                return;
+            } catch (IllegalStateException resolvedMeanwhile) {
+                // a reply arrived between the lookup and the enqueue
+            }
+        }
+    }
+
+    /** Frames a packet, a buffer or a batch for a known MAC, through the event loop when attached. */
+    private void transmit(NetworkAdapter adapter, ProtocolPipeline stack, byte[] packet, PacketBuffer buffered,
+                          Mac destination, boolean batch) {
+        Runnable send;
+        if (buffered != null) {
+            send = () -> adapter.send(stack, buffered, destination);
+            this.counters.transmitted(packetCount(buffered.array(), buffered.offset(), buffered.length()),
+                                      buffered.length());
+        } else {
+            send = batch ? () -> adapter.sendBatch(stack, packet, destination)
+                         : () -> adapter.send(stack, packet, destination);
+            this.counters.transmitted(packetCount(packet, 0, packet.length), packet.length);
+        }
+        if (this.simulator == null) {
+            send.run();
+        } else {
+            this.simulator.schedule(0L, EventType.TRANSMIT, this.context, send);
+        }
+    }
+
+    /**
+     * Sends the probe-th request for a neighbour and arms the retransmission,
+     * on the simulator or as a wall-clock timer of the mailbox. Without either
+     * delivery is synchronous, so a neighbour still unresolved once the
+     * request returns will never answer.
+     */
+    private void resolve(NetworkAdapter adapter, int hop, int probe) {
+        this.sendArpRequest(adapter, hop);
+        Runnable retransmit = () -> {
+            if (this.neighbours.state(hop, this.now()) != NeighbourCache.State.INCOMPLETE) {
+                return;
+            }
+            if (probe >= ARP_MAX_PROBES) {
+                this.failResolution(hop);
+            } else {
+                this.resolve(adapter, hop, probe + 1);
+            }
+        };
+        if (!this.armTimer(ARP_RETRANSMIT, retransmit, true)
+            && this.neighbours.state(hop, this.now()) == NeighbourCache.State.INCOMPLETE) {
+            this.failResolution(hop);
+        }
+    }
+
+    private void failResolution(int hop) {
+        int dropped = this.neighbours.fail(hop);
+        this.counters.dropped(DropReason.UNRESOLVED, dropped);
+        logger.error("[{}] node '{}' could not resolve {}, dropped {} packet(s)",
+                    CLS, this.name, IPv4.intern(hop, 32), dropped);
+    }
+
+    private void sendArpRequest(NetworkAdapter adapter, int hop) {
+        int       self    = this.getInterface(adapter).getIP().toInt();
+        ARPPacket request = ARPPacket.request(adapter.getMacAddress(), self, hop);
+        this.transmit(adapter, new ProtocolPipeline(), request.toByte(), null, Mac.broadcast(), false);
+    }
+
+    /**
+     * Handles an ARP packet received on an adapter: learns the sender, releases
+     * packets waiting for it, and answers requests for the adapter's address.
+     * Senders of requests aimed elsewhere only refresh existing entries.
+     *
+     * @param in     adapter the packet arrived on (non-null)
+     * @param packet the ARP packet bytes (non-null)
+     */
+    void receiveArp(NetworkAdapter in, byte[] packet) {
+        this.counters.received(1, packet.length);
+        ARPPacket arp;
+        Interface iface;
+        try {
+            arp   = ARPPacket.fromBytes(packet, 0);
+            iface = this.getInterface(in);
+        } catch (RuntimeException e) {
+            logger.debug("[{}] node '{}' ignored ARP packet: {}", CLS, this.name, e.getLocalizedMessage());
+            return;
+        }
+        boolean forMe    = arp.getTargetIp() == iface.getIP().toInt();
+        Mac     sender   = arp.getSenderMac();
+        List<Consumer<Mac>> released = this.neighbours.confirm(arp.getSenderIp(), sender, this.now(), forMe);
+        logger.debug(() -> "[" + CLS + "] node '" + this.name + "' ARP " + (arp.isRequest() ? "request" : "reply")
+                           + " from " + arp.getSource() + " (" + sender + "), " + released.size()
+                           + " packet(s) released");
+        for (Consumer<Mac> send : released) {
+            send.accept(sender);
+        }
+        this.scheduleAging();
+        if (forMe && arp.isRequest()) {
+            ARPPacket reply = ARPPacket.replyTo(arp, in.getMacAddress());
+            this.transmit(in, new ProtocolPipeline(), reply.toByte(), null, sender, false);
+        }
+    }
+
+    /**
+     * @return the reassembler holding this node's incomplete datagrams
+     */
+    public IPv4Reassembler getReassembler() {
+        return this.reassembler;
+    }
+
+    /**
+     * Returns the identification for the next datagram sent by the node. One
+     * counter, wrapping at 16 bits, serves every source address, so
+     * concurrent datagrams from one node never share a reassembly key.
+     *
+     * @return identification in 0–65535
+     */
+    protected int nextIdentification() {
+        this.identification = (this.identification + 1) & 0xFFFF;
+        return this.identification;
+    }
+
+    /**
+     * @return the registry selecting local handlers by protocol and port
+     */
+    public Demux getDemux() {
+        return this.demux;
+    }
+
+    /**
+     * @param address packed IPv4 address
+     * @return true if one of the node's interfaces has that address
+     */
+    protected boolean isLocalAddress(int address) {
+        for (Interface iface : this.interfaces) {
+            if (iface.getIP().toInt() == address) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number for the protocol field of a datagram about to carry the top of
+     * stack, so that receivers can demultiplex from the header.
+     *
+     * @param stack the pipeline the payload was encapsulated with (non-null)
+     * @return {@link IPv4Protocol#UDP} for UDP payloads, 0 otherwise
+     */
+    protected static int protocolNumber(ProtocolPipeline stack) {
+        if (stack.size() == 0) {
+            return 0;
+        }
+        // pop and push back rather than peek, which copies the protocol
+        Protocol top = stack.pop();
+        stack.push(top);
+        return top instanceof UDPProtocol ? IPv4Protocol.UDP : 0;
+    }
+
+    /**
+     * Binds an application to its port when it is installed on the node, and
+     * releases the port of the application it replaces.
+     *
+     * @param previous the application being replaced, or null
+     * @param next     the application being installed (non-null)
+     * @throws IllegalArgumentException if the port belongs to another application
+     */
+    protected void bindApp(App previous, App next) throws IllegalArgumentException {
+        if (previous != null && previous.getPort() != null) {
+            this.demux.unbindPort(previous.getPort());
+        }
+        if (next.getPort() != null) {
+            this.demux.bindPort(next.getPort(), next);
+        }
+    }
+
+    /**
+     * Delivers datagrams addressed to this node. Fragments are reassembled,
+     * then the protocol number read from the header picks the handler; a
+     * payload whose protocol has none goes to fallback.
+     *
+     * @param packets  concatenated IPv4 fragments (non-null, at least one header)
+     * @param fallback receives payloads no handler claims
+     */
+    protected void receiveLocal(byte[] packets, Consumer<byte[]> fallback) {
+        int  protocol = IPv4Protocol.protocolOf(packets, 0);
+        IPv4 source   = IPv4.intern(IPv4Protocol.sourceOf(packets, 0), 32);
+        this.reassemble(packets, payload -> {
+            if (!this.demux.dispatch(protocol, source, payload)) {
+                fallback.accept(payload);
+            }
+        });
+    }
+
+    private void receiveUdp(IPv4 source, byte[] segment) {
+        if (segment.length < 8) {
+            this.counters.dropped(DropReason.BAD_FRAME);
+            logger.error("[{}] node '{}' dropped truncated UDP segment", CLS, this.name);
+            return;
+        }
+        int port = ((segment[2] & 0xFF) << 8) | (segment[3] & 0xFF);
+        App app  = this.demux.app(port);
+        if (app == null) {
+            logger.debug("[{}] node '{}' has no application on port {}", CLS, this.name, port);
+            return;
+        }
+        app.deliver(source, segment);
+    }
+
+    /**
+     * Feeds every fragment in packets to the reassembler and delivers each
+     * datagram they complete.
+     *
+     * @param packets concatenated IPv4 fragments (non-null)
+     * @param deliver receives the payload of each completed datagram
+     */
+    protected void reassemble(byte[] packets, Consumer<byte[]> deliver) {
+        long now = this.now();
+        int  at  = 0;
+        while (packets.length - at >= 20) {
+            int totalLen = ((packets[at + 2] & 0xFF) << 8) | (packets[at + 3] & 0xFF);
+            byte[] payload;
+            try {
+                payload = this.reassembler.accept(packets, at, now);
+            } catch (IllegalArgumentException malformed) {
+                this.counters.dropped(DropReason.BAD_FRAME);
+                logger.error("[{}] node '{}' dropped malformed fragment", CLS, this.name);
+                break;
+            }
+            if (payload != null) {
+                deliver.accept(payload);
+            }
+            at += totalLen;
+        }
+        this.scheduleReassemblyTimeout();
+    }
+
+    private void scheduleReassemblyTimeout() {
+        if (this.simulator == null || this.reassemblyScheduled || this.reassembler.isEmpty()) {
+            return;
+        }
+        this.reassemblyScheduled = true;
+        this.scheduleTimer(this.reassembler.getTimeout(), () -> {
+            this.reassemblyScheduled = false;
+            int removed = this.reassembler.expire(this.now());
+            if (removed > 0) {
+                logger.debug(() -> "[" + CLS + "] node '" + this.name + "' timed out " + removed
+                                   + " incomplete datagram(s)");
+            }
+            this.scheduleReassemblyTimeout();
+        });
+    }
+
+    /**
+     * Arms the periodic aging of the neighbour cache while it holds entries;
+     * the timer stops rearming once the cache is empty, so an idle network
+     * lets the simulation run out. On a mailbox the timer does not keep the
+     * node busy.
+     */
+    private void scheduleAging() {
+        if (this.agingScheduled || this.neighbours.isEmpty()) {
+            return;
+        }
+        this.agingScheduled = this.armTimer(this.neighbours.getReachableTime(), () -> {
+            this.agingScheduled = false;
+            int removed = this.neighbours.expire(this.now(),
+                                                 n -> this.counters.dropped(DropReason.UNRESOLVED, n));
+            if (removed > 0) {
+                logger.debug(() -> "[" + CLS + "] node '" + this.name + "' aged out " + removed + " neighbour(s)");
+            }
+            this.scheduleAging();
+        }, false);
+    }
+
+    /**
+     * Runs an action after a delay on the node's thread: a TIMER event with a
+     * simulator attached, otherwise a wall-clock timer of the mailbox.
+     *
+     * @param busy true if the mailbox counts the timer as pending work
+     * @return false if the node has neither, or its mailbox is closed
+     */
+    private boolean armTimer(long delay, Runnable action, boolean busy) {
+        if (this.simulator != null) {
+            this.scheduleTimer(delay, action);
+            return true;
+        }
+        Mailbox inbox = this.mailbox;
+        if (inbox == null) {
+            return false;
+        }
+        return busy ? inbox.schedule(delay, action) : inbox.scheduleDaemon(delay, action);
+    }
+
+    /** @return virtual time when attached, the monotonic clock otherwise */
+    private long now() {
+        return this.simulator != null ? this.simulator.now() : System.nanoTime();
+    }
+
+    /**
+     * Schedules a TIMER event on the attached simulator.
+     *
+     * @param delay  nanoseconds from now (&gt;= 0)
+     * @param action code to run when the timer expires (non-null)
+     * @return the scheduled event, cancellable through the simulator
+     * @throws IllegalArgumentException if delay is negative or action is null
+     * @throws RuntimeException         if no simulator is attached
+     */
+    public Event scheduleTimer(long delay, Runnable action) throws IllegalArgumentException, RuntimeException {
+        if (this.simulator == null) {
+            logger.error("[{}] node '{}' has no simulator for timers", CLS, this.name);
+            throw new RuntimeException(CLS + ": no simulator attached");
+        }
+        return this.simulator.schedule(delay, EventType.TIMER, this.context, action);
+    }
+
+    /**
+     * Sends many payloads to one destination as a single batch. The route,
+     * source address, MTU and next hop are resolved once for the whole batch;
+     * each payload becomes its own datagram, with its own identification,
+     * written straight into one buffer of packets that crosses every hop as
+     * one unit. One {@link IPv4Protocol} describing the batch is pushed on
+     * stack, which every payload shares.
+     *
+     * @param destination IPv4 destination (non‐null)
+     * @param stack       protocol pipeline the payloads were encapsulated with (non‐null)
+     * @param payloads    payload bytes, each non‐empty (non‐null, non‐empty)
+     * @throws IllegalArgumentException if an argument is null or empty
+     */
+    public void sendBatch(IPv4 destination, ProtocolPipeline stack, List<byte[]> payloads)
+            throws IllegalArgumentException {
+        if (destination == null || stack == null || payloads == null || payloads.isEmpty()) {
+            logger.error("[{}] invalid arguments to sendBatch", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        if (this.postIfForeign(() -> this.sendBatch(destination, stack, payloads))) {
+            return;
+        }
+        RoutingInfo route = this.routeForPacket(destination);
+        if (route == null) {
+            logger.error("[{}] routing failed for destination {}", CLS, destination);
+            return;
+        }
+        IPv4         source = this.getInterface(route.getDevice()).getIP();
+        IPv4Protocol ipProto = new IPv4Protocol(source, destination, 5, 0, 0, 0, 64,
+                                                protocolNumber(stack), this.getMTU());
+        int length = 0;
+        for (byte[] payload : payloads) {
+            if (payload == null || payload.length == 0) {
+                logger.error("[{}] sendBatch: payloads cannot be null or empty", CLS);
+                throw new IllegalArgumentException(CLS + ": invalid arguments");
+            }
+            length += ipProto.encapsulatedLength(payload.length);
+        }
+        byte[] packets = new byte[length];
+        int    at      = 0;
+        for (byte[] payload : payloads) {
+            at += ipProto.encapsulate(payload, this.nextIdentification(), packets, at);
+        }
+        stack.push(ipProto);
+        logger.info(() -> "[" + CLS + "] node '" + this.name + "' sending batch of " + payloads.size()
+                          + " datagrams to " + destination);
+        this.transmitBatch(route.getDevice(), nextHop(route, destination), stack, packets);
+    }
+
     /**
      * Send data to a destination via this node.
      *
@@ -16,7 +16,7 @@ import com.netsim.utils.Logger;
  * @param <T> the concrete NetworkNode type produced
  */
 public abstract class NetworkNodeBuilder<T extends NetworkNode> {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(NetworkNodeBuilder.class);
     private static final String  CLS    = NetworkNodeBuilder.class.getSimpleName();
 
     protected String         name;
@@ -31,7 +31,7 @@ public abstract class NetworkNodeBuilder<T extends NetworkNode> {
         this.routingTable = new RoutingTable();
         this.arpTable     = new ArpTable();
         this.interfaces   = new ArrayList<>();
-        logger.info("[" + CLS + "] new builder created");
+        logger.info("[{}] new builder created", CLS);
     }
 
     /**
@@ -43,11 +43,11 @@ public abstract class NetworkNodeBuilder<T extends NetworkNode> {
      */
     public NetworkNodeBuilder<T> setName(String name) throws IllegalArgumentException {
         if (name == null) {
-            logger.error("[" + CLS + "] name cannot be null");
+            logger.error("[{}] name cannot be null", CLS);
             throw new IllegalArgumentException(CLS + ": name cannot be null");
         }
         this.name = name;
-        logger.info("[" + CLS + "] name set to '" + this.name + "'");
+        logger.info("[{}] name set to '{}'", CLS, this.name);
         return this;
     }
 
@@ -60,13 +60,11 @@ public abstract class NetworkNodeBuilder<T extends NetworkNode> {
      */
     public NetworkNodeBuilder<T> addInterface(Interface iface) throws IllegalArgumentException {
         if (iface == null) {
-            logger.error("[" + CLS + "] interface cannot be null");
+            logger.error("[{}] interface cannot be null", CLS);
             throw new IllegalArgumentException(CLS + ": iface cannot be null");
         }
         this.interfaces.add(iface);
-        logger.info("[" + CLS + "] interface added: adapter="
-            + iface.getAdapter().getName()
-            + ", ip=" + iface.getIP().stringRepresentation());
+        logger.info("[{}] interface added: adapter={}, ip={}", CLS, iface.getAdapter().getName(), iface.getIP());
         return this;
     }
 
@@ -83,14 +81,14 @@ public abstract class NetworkNodeBuilder<T extends NetworkNode> {
                                           String adapterName,
                                           IPv4 nextHop) throws IllegalArgumentException {
         if (subnet == null || adapterName == null) {
-            logger.error("[" + CLS + "] route arguments cannot be null");
+            logger.error("[{}] route arguments cannot be null", CLS);
             throw new IllegalArgumentException(CLS + ": arguments cannot be null");
         }
         Interface iface = this.interfaces.stream()
             .filter(i -> i.getAdapter().getName().equals(adapterName))
             .findFirst()
             .orElseThrow(() -> {
-                logger.error("[" + CLS + "] no interface named " + adapterName);
+                logger.error("[{}] no interface named {}", CLS, adapterName);
                 return new IllegalArgumentException(
                     CLS + ": no interface named " + adapterName);
             });
@@ -117,13 +115,11 @@ public abstract class NetworkNodeBuilder<T extends NetworkNode> {
      */
     public NetworkNodeBuilder<T> addArpEntry(IPv4 ip, Mac mac) throws IllegalArgumentException {
         if (ip == null || mac == null) {
-            logger.error("[" + CLS + "] ARP entry arguments cannot be null");
+            logger.error("[{}] ARP entry arguments cannot be null", CLS);
             throw new IllegalArgumentException(CLS + ": arguments cannot be null");
         }
         this.arpTable.add(ip, mac);
-        logger.info("[" + CLS + "] ARP entry added: ip="
-            + ip.stringRepresentation()
-            + ", mac=" + mac.stringRepresentation());
+        logger.info("[{}] ARP entry added: ip={}, mac={}", CLS, ip, mac);
         return this;
     }
 
@@ -0,0 +1,94 @@
+package com.netsim.network;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live traffic counters of a node or an adapter: packets and bytes sent and
+ * received, and drops by {@link DropReason}.
+ * <p>
+ * Every counter is a {@link LongAdder}, so an update is a single uncontended
+ * CAS when one thread owns the node, as under a simulator or a mailbox loop,
+ * and spreads over striped cells instead of retrying when several threads
+ * count at once. Updates neither allocate nor log, so the counters stay on
+ * in every run. Readers take a {@link TrafficStats} snapshot.
+ */
+public final class TrafficCounters {
+    private static final DropReason[] REASONS = DropReason.values();
+
+    private final LongAdder   txPackets;
+    private final LongAdder   txBytes;
+    private final LongAdder   rxPackets;
+    private final LongAdder   rxBytes;
+    private final LongAdder[] drops;
+
+    public TrafficCounters() {
+        this.txPackets = new LongAdder();
+        this.txBytes   = new LongAdder();
+        this.rxPackets = new LongAdder();
+        this.rxBytes   = new LongAdder();
+        this.drops     = new LongAdder[REASONS.length];
+        for (int i = 0; i < REASONS.length; i++) {
+            this.drops[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param packets packets or frames sent
+     * @param bytes   their total length
+     */
+    public void transmitted(int packets, int bytes) {
+        this.txPackets.add(packets);
+        this.txBytes.add(bytes);
+    }
+
+    /**
+     * @param packets packets or frames accepted
+     * @param bytes   their total length
+     */
+    public void received(int packets, int bytes) {
+        this.rxPackets.add(packets);
+        this.rxBytes.add(bytes);
+    }
+
+    /**
+     * @param reason why one packet or frame was dropped (non-null)
+     */
+    public void dropped(DropReason reason) {
+        this.drops[reason.ordinal()].increment();
+    }
+
+    /**
+     * @param reason why the packets were dropped (non-null)
+     * @param count  number of packets dropped at once
+     */
+    public void dropped(DropReason reason, int count) {
+        this.drops[reason.ordinal()].add(count);
+    }
+
+    /**
+     * Reads every counter once. Counts updated while the snapshot is taken
+     * may or may not be included, so totals across counters are not atomic.
+     *
+     * @param queueDepth frames or tasks waiting at the time of the snapshot
+     * @return an immutable copy of the counters
+     */
+    public TrafficStats snapshot(int queueDepth) {
+        long[] dropped = new long[REASONS.length];
+        for (int i = 0; i < REASONS.length; i++) {
+            dropped[i] = this.drops[i].sum();
+        }
+        return new TrafficStats(this.txPackets.sum(), this.txBytes.sum(),
+                                this.rxPackets.sum(), this.rxBytes.sum(), dropped, queueDepth);
+    }
+
+    /** Zeroes every counter; not atomic against concurrent updates. */
+    public void reset() {
+        this.txPackets.reset();
+        this.txBytes.reset();
+        this.rxPackets.reset();
+        this.rxBytes.reset();
+        for (LongAdder d : this.drops) {
+            d.reset();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.netsim.network;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of a node's or an adapter's {@link TrafficCounters}.
+ * Adapters count frames, DLL header included; nodes count IP packets, one
+ * per fragment, and ARP packets.
+ */
+public final class TrafficStats {
+    private final long   txPackets;
+    private final long   txBytes;
+    private final long   rxPackets;
+    private final long   rxBytes;
+    private final long[] drops;
+    private final int    queueDepth;
+
+    TrafficStats(long txPackets, long txBytes, long rxPackets, long rxBytes, long[] drops, int queueDepth) {
+        this.txPackets  = txPackets;
+        this.txBytes    = txBytes;
+        this.rxPackets  = rxPackets;
+        this.rxBytes    = rxBytes;
+        this.drops      = drops;
+        this.queueDepth = queueDepth;
+    }
+
+    /** @return packets or frames sent */
+    public long getTxPackets() {
+        return this.txPackets;
+    }
+
+    /** @return bytes sent */
+    public long getTxBytes() {
+        return this.txBytes;
+    }
+
+    /** @return packets or frames accepted */
+    public long getRxPackets() {
+        return this.rxPackets;
+    }
+
+    /** @return bytes accepted */
+    public long getRxBytes() {
+        return this.rxBytes;
+    }
+
+    /**
+     * @param reason a drop reason (non-null)
+     * @return packets or frames dropped for that reason
+     */
+    public long getDrops(DropReason reason) {
+        return this.drops[reason.ordinal()];
+    }
+
+    /** @return packets or frames dropped for any reason */
+    public long getDrops() {
+        long total = 0L;
+        for (long d : this.drops) {
+            total += d;
+        }
+        return total;
+    }
+
+    /** @return frames or tasks waiting when the snapshot was taken */
+    public int getQueueDepth() {
+        return this.queueDepth;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder()
+            .append("tx=").append(this.txPackets).append('/').append(this.txBytes).append('B')
+            .append(" rx=").append(this.rxPackets).append('/').append(this.rxBytes).append('B')
+            .append(" queue=").append(this.queueDepth);
+        DropReason[] reasons = DropReason.values();
+        for (int i = 0; i < reasons.length; i++) {
+            if (this.drops[i] != 0L) {
+                sb.append(' ').append(reasons[i].name().toLowerCase()).append('=').append(this.drops[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof TrafficStats)) {
+            return false;
+        }
+        TrafficStats o = (TrafficStats) obj;
+        return this.txPackets == o.txPackets && this.txBytes == o.txBytes
+            && this.rxPackets == o.rxPackets && this.rxBytes == o.rxBytes
+            && this.queueDepth == o.queueDepth && Arrays.equals(this.drops, o.drops);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.drops) + Long.hashCode(this.txBytes ^ this.rxBytes);
+    }
+}
@@ -4,8 +4,10 @@ import java.util.List;
 
 import com.netsim.app.App;
 import com.netsim.addresses.IPv4;
+import com.netsim.network.DropReason;
 import com.netsim.network.Interface;
 import com.netsim.network.NetworkNode;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.protocols.IPv4.IPv4Protocol;
@@ -18,7 +20,7 @@ import com.netsim.utils.Logger;
  * Represents an end-host on the network capable of running a single App.
  */
 public class Host extends NetworkNode {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Host.class);
     private static final String CLS    = Host.class.getSimpleName();
 
     private App runningApp;
@@ -39,7 +41,7 @@ public class Host extends NetworkNode {
     {
         super(name, routingTable, arpTable, interfaces);
         this.runningApp = null;
-        logger.info("[" + CLS + "] initialized with " + interfaces.size() + " interface(s)");
+        logger.info(() -> "[" + CLS + "] initialized with " + interfaces.size() + " interface(s)");
     }
 
     /**
@@ -50,11 +52,12 @@ public class Host extends NetworkNode {
      */
     public void setApp(App newApp) throws IllegalArgumentException {
         if (newApp == null) {
-            logger.error("[" + CLS + "] cannot set null application");
+            logger.error("[{}] cannot set null application", CLS);
             throw new IllegalArgumentException(CLS + ": app cannot be null");
         }
+        this.bindApp(this.runningApp, newApp);
         this.runningApp = newApp;
-        logger.info("[" + CLS + "] application set successfully");
+        logger.info("[{}] application set successfully", CLS);
     }
 
     /**
@@ -64,10 +67,10 @@ public class Host extends NetworkNode {
      */
     public void runApp() throws IllegalArgumentException {
         if (this.runningApp == null) {
-            logger.error("[" + CLS + "] no application set");
+            logger.error("[{}] no application set", CLS);
             throw new IllegalArgumentException(CLS + ": no App set");
         }
-        logger.info("[" + CLS + "] starting application");
+        logger.info("[{}] starting application", CLS);
         this.runningApp.start();
     }
 
@@ -78,13 +81,7 @@ public class Host extends NetworkNode {
      * @return true if one of this host’s interfaces matches destination
      */
     public boolean isForMe(IPv4 destination) {
-        try {
-            this.getInterface(destination);
-            return true;
-        } catch (RuntimeException e) {
-            logger.debug("[" + CLS + "] " + e.getLocalizedMessage());
-            return false;
-        }
+        return this.isLocalAddress(destination.toInt());
     }
 
     /**
@@ -100,36 +97,82 @@ public class Host extends NetworkNode {
                      byte[] data) throws IllegalArgumentException
     {
         if (destination == null || stack == null || data == null || data.length == 0) {
-            logger.error("[" + CLS + "] invalid arguments to send");
+            logger.error("[{}] invalid arguments to send", CLS);
             throw new IllegalArgumentException(CLS + ": invalid arguments");
         }
+        if (this.postIfForeign(() -> this.send(destination, stack, data))) {
+            return;
+        }
 
-        RoutingInfo route;
-        try {
-            route = this.getRoute(destination);
-        } catch (RuntimeException e) {
-            logger.error("[" + CLS + "] routing failed for destination " 
-                         + destination.stringRepresentation());
-            logger.debug("[" + CLS + "] " + e.getLocalizedMessage());
+        RoutingInfo route = this.routeTo(destination);
+        if (route == null) {
             return;
         }
+        IPv4Protocol ipProto      = this.ipv4(route, destination, stack);
+        byte[]       encapsulated = ipProto.encapsulate(data);
+        stack.push(ipProto);
 
-        IPv4Protocol ipProto = new IPv4Protocol(
-            this.getInterface(route.getDevice()).getIP(),
+        logger.info("[{}] sending packet to {}", CLS, destination);
+        this.transmit(route.getDevice(), nextHop(route, destination), stack, encapsulated);
+    }
+
+    /**
+     * Sends a buffered payload: the IPv4 header, and then the DLL header, are
+     * prepended into the buffer's headroom instead of copying the payload.
+     *
+     * @param destination the IPv4 destination (non-null)
+     * @param stack       the protocol pipeline (non-null)
+     * @param data        buffer holding the payload (non-null, non-empty)
+     * @throws IllegalArgumentException if any argument invalid
+     */
+    @Override
+    public void send(IPv4 destination,
+                     ProtocolPipeline stack,
+                     PacketBuffer data) throws IllegalArgumentException
+    {
+        if (destination == null || stack == null || data == null || data.isEmpty()) {
+            logger.error("[{}] invalid arguments to send", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        if (this.postIfForeign(() -> this.send(destination, stack, data))) {
+            return;
+        }
+
+        RoutingInfo route = this.routeTo(destination);
+        if (route == null) {
+            return;
+        }
+        IPv4Protocol ipProto = this.ipv4(route, destination, stack);
+        PacketBuffer packet  = ipProto.encapsulate(data);
+        stack.push(ipProto);
+
+        logger.info("[{}] sending packet to {}", CLS, destination);
+        this.transmit(route.getDevice(), nextHop(route, destination), stack, packet);
+    }
+
+    /** @return the route to destination, or null after counting and logging the drop */
+    private RoutingInfo routeTo(IPv4 destination) {
+        RoutingInfo route = this.routeForPacket(destination);
+        if (route == null) {
+            logger.error("[{}] routing failed for destination {}", CLS, destination);
+        }
+        return route;
+    }
+
+    /** @return the IPv4 layer of a datagram leaving through route */
+    private IPv4Protocol ipv4(RoutingInfo route, IPv4 destination, ProtocolPipeline stack) {
+        IPv4 source = this.getInterface(route.getDevice()).getIP();
+        return new IPv4Protocol(
+            source,
             destination,
             5,          // IHL
             0,          // TOS
-            0,          // identification
+            this.nextIdentification(), // identification
             0,          // flags
             64,         // TTL
-            0,          // protocol
+            protocolNumber(stack), // protocol
             this.getMTU()
         );
-        byte[] encapsulated = ipProto.encapsulate(data);
-        stack.push(ipProto);
-
-        logger.info("[" + CLS + "] sending packet to " + destination.stringRepresentation());
-        route.getDevice().send(stack, encapsulated);
     }
 
     /**
@@ -144,32 +187,38 @@ public class Host extends NetworkNode {
             throws IllegalArgumentException, RuntimeException
     {
         if (stack == null || packets == null || packets.length == 0) {
-            logger.error("[" + CLS + "] invalid arguments to receive");
+            logger.error("[{}] invalid arguments to receive", CLS);
             throw new IllegalArgumentException(CLS + ": invalid arguments");
         }
         if (this.runningApp == null) {
-            logger.error("[" + CLS + "] no application set");
+            logger.error("[{}] no application set", CLS);
             throw new RuntimeException(CLS + ": no application set");
         }
 
-        Protocol p = stack.pop();
-        if (!(p instanceof IPv4Protocol)) {
-            logger.error("[" + CLS + "] expected IPv4 protocol, got "
-                         + p.getClass().getSimpleName());
-            throw new RuntimeException(CLS + ": expected IPv4 protocol");
+        this.countReceived(packets);
+        if (packets.length < 20) {
+            this.counters.dropped(DropReason.BAD_FRAME);
+            logger.error("[{}] dropped packet shorter than an IPv4 header", CLS);
+            return;
         }
-        IPv4Protocol ipProtocol = (IPv4Protocol) p;
-        IPv4 destination = ipProtocol.extractDestination(packets);
-
-        if (!this.isForMe(destination)) {
-            logger.error("[" + CLS + "] packet not for me (dest=" 
-                         + destination.stringRepresentation() + ")");
+        int destination = IPv4Protocol.destinationOf(packets, 0);
+        if (!this.isLocalAddress(destination)) {
+            this.counters.dropped(DropReason.NOT_FOR_ME);
+            logger.error("[{}] packet not for me (dest={})", CLS, IPv4.intern(destination, 32));
             return;
         }
 
-        byte[] transport = ipProtocol.decapsulate(packets);
-        logger.info("[" + CLS + "] received packet for " 
-                    + destination.stringRepresentation());
-        this.runningApp.receive(stack, transport);
+        this.receiveLocal(packets, transport -> {
+            // no handler for the protocol number: the app reads the pipeline,
+            // its own copy since a batch delivers several datagrams
+            ProtocolPipeline upper = stack.copy();
+            Protocol         p     = upper.pop();
+            if (!(p instanceof IPv4Protocol)) {
+                logger.error("[{}] expected IPv4 protocol, got {}", CLS, p.getClass().getSimpleName());
+                throw new RuntimeException(CLS + ": expected IPv4 protocol");
+            }
+            logger.info(() -> "[" + CLS + "] received packet for " + IPv4.intern(destination, 32));
+            this.runningApp.receive(upper, transport);
+        });
     }
 }
\ No newline at end of file
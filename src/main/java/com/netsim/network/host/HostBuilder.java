@@ -5,10 +5,11 @@ import com.netsim.utils.Logger;
 
 /**
  * Builder for creating Host instances.
- * Ensures that routing, ARP tables, and interfaces are configured before build().
+ * Ensures that routing table and interfaces are configured before build();
+ * ARP entries are optional, next hops without one are resolved dynamically.
  */
 public class HostBuilder extends NetworkNodeBuilder<Host> {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(HostBuilder.class);
     private static final String CLS = HostBuilder.class.getSimpleName();
 
     /**
@@ -16,26 +17,22 @@ public class HostBuilder extends NetworkNodeBuilder<Host> {
      */
     public HostBuilder() {
         super();
-        logger.info("[" + CLS + "] initialized");
+        logger.info("[{}] initialized", CLS);
     }
 
     /**
      * Builds and returns a Host.
      *
      * @return a fully configured Host instance
-     * @throws RuntimeException if routing table, ARP table, or interfaces list is empty
+     * @throws RuntimeException if routing table or interfaces list is empty
      */
     public Host build() throws RuntimeException {
         if (this.routingTable.isEmpty()) {
-            logger.error("[" + CLS + "] routing table cannot be empty");
+            logger.error("[{}] routing table cannot be empty", CLS);
             throw new RuntimeException("HostBuilder: routing table cannot be empty");
         }
-        if (this.arpTable.isEmpty()) {
-            logger.error("[" + CLS + "] ARP table cannot be empty");
-            throw new RuntimeException("HostBuilder: ARP table cannot be empty");
-        }
         if (this.interfaces.isEmpty()) {
-            logger.error("[" + CLS + "] interfaces must be at least one");
+            logger.error("[{}] interfaces must be at least one", CLS);
             throw new RuntimeException("HostBuilder: interfaces must be at least one");
         }
 
@@ -45,7 +42,7 @@ public class HostBuilder extends NetworkNodeBuilder<Host> {
             this.arpTable,
             this.interfaces
         );
-        logger.info("[" + CLS + "] built Host \"" + this.name + "\" successfully");
+        logger.info("[{}] built Host \"{}\" successfully", CLS, this.name);
         return host;
     }
 }
\ No newline at end of file
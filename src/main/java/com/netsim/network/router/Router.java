@@ -3,6 +3,7 @@ package com.netsim.network.router;
 import java.util.List;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.network.DropReason;
 import com.netsim.network.Interface;
 import com.netsim.network.NetworkAdapter;
 import com.netsim.network.NetworkNode;
@@ -18,9 +19,12 @@ import com.netsim.utils.Logger;
  * A router node that forwards IPv4 packets according to its routing table.
  */
 public class Router extends NetworkNode {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Router.class);
     private final String CLS = this.getClass().getSimpleName();
 
+    private static final int TTL_OFFSET = 8;   // 16-bit TTL, see IPv4Packet
+    private static final int DST_OFFSET = 16;
+
     /**
      * Constructs a Router with the given name, routing table, ARP table, and interfaces.
      *
@@ -33,7 +37,7 @@ public class Router extends NetworkNode {
     public Router(String name, RoutingTable routingTable, ArpTable arpTable, List<Interface> interfaces)
             throws IllegalArgumentException {
         super(name, routingTable, arpTable, interfaces);
-        logger.info("[" + this.CLS + "] initialized with " + this.interfaces.size() + " interface(s)");
+        logger.info(() -> "[" + this.CLS + "] initialized with " + this.interfaces.size() + " interface(s)");
     }
 
     /**
@@ -50,19 +54,33 @@ public class Router extends NetworkNode {
             logger.error("Router.send: invalid arguments");
             throw new IllegalArgumentException("Router.send: invalid arguments");
         }
+        if (this.postIfForeign(() -> this.send(destination, stack, data))) {
+            return;
+        }
+        RoutingInfo route = this.routeForPacket(destination);
+        if (route == null) {
+            logger.error("[{}] cannot forward to {}", this.CLS, destination);
+            return;
+        }
         try {
-            RoutingInfo route = this.getRoute(destination);
             NetworkAdapter outAdapter = route.getDevice();
-            outAdapter.send(stack, data);
-            logger.info("[" + this.CLS + "] forwarded packet to " + destination.stringRepresentation());
+            this.transmit(outAdapter, nextHop(route, destination), stack, data);
+            logger.info("[{}] forwarded packet to {}", this.CLS, destination);
         } catch (RuntimeException e) {
-            logger.error("[" + this.CLS + "] cannot forward to " + destination.stringRepresentation());
-            logger.debug("[" + this.CLS + "] routing failure: " + e.getLocalizedMessage());
+            logger.error("[{}] cannot forward to {}", this.CLS, destination);
+            logger.debug("[{}] routing failure: {}", this.CLS, e.getLocalizedMessage());
         }
     }
 
     /**
      * Receives an IPv4 packet, decrements its TTL, and forwards or drops it.
+     * <p>
+     * Transit packets take a fast path: destination and TTL are read straight
+     * from the header bytes, the TTL of every fragment is decremented in place
+     * and the same array goes to the egress adapter, so forwarding neither
+     * reassembles nor re-encapsulates the payload. The router therefore takes
+     * ownership of packets. Only packets addressed to one of the router's own
+     * interfaces are reassembled.
      *
      * @param stack    the protocol pipeline (non-null)
      * @param packets  the raw packet bytes (non-null, non-empty)
@@ -77,39 +95,93 @@ public class Router extends NetworkNode {
             throw new IllegalArgumentException("Router.receive: invalid arguments");
         }
 
+        this.countReceived(packets);
+        // pop and push back rather than peek, which copies the protocol
         Protocol p = stack.pop();
+        stack.push(p);
         if (!(p instanceof IPv4Protocol)) {
-            logger.error("[" + this.CLS + "] expected IPv4Protocol but got " + p.getClass().getSimpleName());
+            logger.error("[{}] expected IPv4Protocol but got {}", this.CLS, p.getClass().getSimpleName());
             throw new RuntimeException("Router.receive: expected IPv4Protocol");
         }
+        if (!validHeaders(packets)) {
+            this.counters.dropped(DropReason.BAD_FRAME);
+            logger.error("[{}] dropped malformed IPv4 packet", this.CLS);
+            return;
+        }
 
-        IPv4Protocol ipProtocol = (IPv4Protocol) p;
-        IPv4 dest = ipProtocol.extractDestination(packets);
-        byte[] payload = ipProtocol.decapsulate(packets);
-        int oldTTL = ipProtocol.getTtl();
+        int destination = readInt(packets, DST_OFFSET);
+        if (this.isLocalAddress(destination)) {
+            stack.pop();
+            this.receiveLocal(packets, payload ->
+                logger.info(() -> "[" + this.CLS + "] received " + payload.length + " bytes addressed to the router"));
+            return;
+        }
+
+        int ttl = readShort(packets, TTL_OFFSET);
+        if (ttl == 0) {
+            this.counters.dropped(DropReason.TTL_EXPIRED);
+            logger.error("[{}] dropped packet due to TTL=0", this.CLS);
+            return;
+        }
+        // IPv4Packet carries no checksum, so there is nothing to patch after the TTL
+        for (int at = 0; at < packets.length; at += readShort(packets, at + 2)) {
+            writeShort(packets, at + TTL_OFFSET, readShort(packets, at + TTL_OFFSET) - 1);
+        }
 
-        if (oldTTL == 0) {
-            logger.error("[" + this.CLS + "] dropped packet due to TTL=0");
+        IPv4        dest = IPv4.intern(destination, 32);
+        RoutingInfo route;
+        try {
+            // straight to the table, without getRoute's per-packet logging
+            route = this.routingTable.lookup(dest);
+        } catch (NullPointerException e) {
+            this.counters.dropped(DropReason.NO_ROUTE);
+            logger.error("[{}] cannot forward to {}", this.CLS, dest);
             return;
         }
+        try {
+            this.transmit(route.getDevice(), nextHop(route, dest), stack, packets);
+        } catch (RuntimeException e) {
+            logger.error("[{}] cannot forward to {}", this.CLS, dest);
+            logger.debug("[{}] routing failure: {}", this.CLS, e.getLocalizedMessage());
+        }
+    }
 
-        // Decrement TTL and rebuild header
-        IPv4Protocol newIp = new IPv4Protocol(
-            ipProtocol.getSource(),
-            dest,
-            ipProtocol.getIHL(),
-            ipProtocol.getTypeOfService(),
-            ipProtocol.getIdentification(),
-            ipProtocol.getFlags(),
-            oldTTL - 1,
-            ipProtocol.getProtocol(),
-            ipProtocol.getMTU()
-        );
-        byte[] encapsulated = newIp.encapsulate(payload);
+    /**
+     * @return true if packets is a run of whole IPv4 headers and payloads
+     *         sharing one TTL, as produced by {@link IPv4Protocol#encapsulate}
+     */
+    private static boolean validHeaders(byte[] packets) {
+        int ttl = -1;
+        int at  = 0;
+        while (at < packets.length) {
+            if (packets.length - at < 20) {
+                return false;
+            }
+            int headerLen = (packets[at] & 0x0F) * 4;
+            int totalLen  = readShort(packets, at + 2);
+            if (headerLen < 20 || totalLen < headerLen || totalLen > packets.length - at) {
+                return false;
+            }
+            int fragmentTtl = readShort(packets, at + TTL_OFFSET);
+            if (ttl >= 0 && fragmentTtl != ttl) {
+                return false;
+            }
+            ttl = fragmentTtl;
+            at += totalLen;
+        }
+        return true;
+    }
+
+    private static int readShort(byte[] b, int at) {
+        return ((b[at] & 0xFF) << 8) | (b[at + 1] & 0xFF);
+    }
+
+    private static void writeShort(byte[] b, int at, int value) {
+        b[at]     = (byte) (value >>> 8);
+        b[at + 1] = (byte) value;
+    }
 
-        stack.push(newIp);
-        logger.info("[" + this.CLS + "] received for " + dest.stringRepresentation()
-                    + ", TTL decremented from " + oldTTL + " to " + (oldTTL - 1));
-        this.send(dest, stack, encapsulated);
+    private static int readInt(byte[] b, int at) {
+        return (readShort(b, at) << 16) | readShort(b, at + 2);
     }
-}
\ No newline at end of file
+}
@@ -6,12 +6,12 @@ import com.netsim.utils.Logger;
 /**
  * Builder for creating {@link Router} instances.
  * <p>
- * Validates that the routing table, ARP table, and interfaces contain entries
- * before constructing the Router.
+ * Validates that the routing table and interfaces contain entries before
+ * constructing the Router; ARP entries are optional.
  * </p>
  */
 public class RouterBuilder extends NetworkNodeBuilder<Router> {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(RouterBuilder.class);
     private static final String CLS = RouterBuilder.class.getSimpleName();
 
     /**
@@ -20,13 +20,13 @@ public class RouterBuilder extends NetworkNodeBuilder<Router> {
      */
     public RouterBuilder() {
         super();
-        logger.info("[" + CLS + "] initialized");
+        logger.info("[{}] initialized", CLS);
     }
 
     /**
      * Builds and returns a {@link Router}.
      * <p>
-     * Ensures that routing table, ARP table, and interfaces are not empty.
+     * Ensures that routing table and interfaces are not empty.
      * </p>
      *
      * @return configured Router
@@ -35,15 +35,11 @@ public class RouterBuilder extends NetworkNodeBuilder<Router> {
     @Override
     public Router build() throws RuntimeException {
         if (this.routingTable.isEmpty()) {
-            logger.error("[" + CLS + "] routing table cannot be empty");
+            logger.error("[{}] routing table cannot be empty", CLS);
             throw new RuntimeException("RouterBuilder: routing table cannot be empty");
         }
-        if (this.arpTable.isEmpty()) {
-            logger.error("[" + CLS + "] ARP table cannot be empty");
-            throw new RuntimeException("RouterBuilder: ARP table cannot be empty");
-        }
         if (this.interfaces.isEmpty()) {
-            logger.error("[" + CLS + "] interfaces must be at least one");
+            logger.error("[{}] interfaces must be at least one", CLS);
             throw new RuntimeException("RouterBuilder: interfaces must be at least one");
         }
 
@@ -53,7 +49,7 @@ public class RouterBuilder extends NetworkNodeBuilder<Router> {
             this.arpTable,
             this.interfaces
         );
-        logger.info("[" + CLS + "] built Router \"" + this.name + "\" successfully");
+        logger.info("[{}] built Router \"{}\" successfully", CLS, this.name);
         return router;
     }
 }
\ No newline at end of file
@@ -4,8 +4,10 @@ import java.util.List;
 
 import com.netsim.addresses.IPv4;
 import com.netsim.app.App;
+import com.netsim.network.DropReason;
 import com.netsim.network.Interface;
 import com.netsim.network.NetworkNode;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.protocols.IPv4.IPv4Protocol;
@@ -19,7 +21,7 @@ import com.netsim.utils.Logger;
  * send/receive functionality.
  */
 public class Server<AppType extends App> extends NetworkNode {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(Server.class);
     private final String CLS = this.getClass().getSimpleName();
 
     private AppType app;
@@ -36,7 +38,7 @@ public class Server<AppType extends App> extends NetworkNode {
                   ArpTable arpTable,
                   List<Interface> interfaces) throws IllegalArgumentException {
         super(name, routingTable, arpTable, interfaces);
-        logger.info("[" + this.CLS + "] initialized with " + interfaces.size() + " interface(s)");
+        logger.info(() -> "[" + this.CLS + "] initialized with " + interfaces.size() + " interface(s)");
         this.app = null;
     }
 
@@ -48,12 +50,13 @@ public class Server<AppType extends App> extends NetworkNode {
      */
     public void setApp(AppType app) throws IllegalArgumentException {
         if (app == null) {
-            logger.error("[" + this.CLS + "] attempt to set null App");
+            logger.error("[{}] attempt to set null App", this.CLS);
             throw new IllegalArgumentException("Server: app cannot be null");
         }
+        this.bindApp(this.app, app);
         this.app = app;
         this.app.start();
-        logger.info("[" + this.CLS + "] application set and started");
+        logger.info("[{}] application set and started", this.CLS);
     }
 
     /**
@@ -63,13 +66,7 @@ public class Server<AppType extends App> extends NetworkNode {
      * @return true if the address matches an interface, false otherwise
      */
     public boolean isForMe(IPv4 destination) {
-        try {
-            this.getInterface(destination);
-            return true;
-        } catch (RuntimeException e) {
-            logger.debug("[" + this.CLS + "] isForMe check failed: " + e.getLocalizedMessage());
-            return false;
-        }
+        return this.isLocalAddress(destination.toInt());
     }
 
     /**
@@ -82,34 +79,84 @@ public class Server<AppType extends App> extends NetworkNode {
      */
     public void send(IPv4 destination, ProtocolPipeline stack, byte[] data) throws IllegalArgumentException {
         if (destination == null || stack == null || data == null || data.length == 0) {
-            logger.error("[" + this.CLS + "] invalid arguments to send");
+            logger.error("[{}] invalid arguments to send", this.CLS);
             throw new IllegalArgumentException("Server: invalid arguments");
         }
+        if (this.postIfForeign(() -> this.send(destination, stack, data))) {
+            return;
+        }
 
+        RoutingInfo route = this.routeForPacket(destination);
+        if (route == null) {
+            logger.error("[{}] routing failed for {}", this.CLS, destination);
+            return;
+        }
         try {
-            RoutingInfo route = this.getRoute(destination);
-            IPv4Protocol ipProto = new IPv4Protocol(
-                this.getInterface(route.getDevice()).getIP(),
-                destination,
-                5,  /* IHL */
-                0,  /* ToS */
-                0,  /* ID */
-                0,  /* flags */
-                64, /* TTL */
-                0,  /* protocol */
-                this.getMTU()
-            );
+            IPv4Protocol ipProto = this.ipv4(route, destination, stack);
             byte[] encapsulated = ipProto.encapsulate(data);
             stack.push(ipProto);
 
-            logger.info("[" + this.CLS + "] sending packet to " + destination.stringRepresentation());
-            route.getDevice().send(stack, encapsulated);
+            logger.info("[{}] sending packet to {}", this.CLS, destination);
+            this.transmit(route.getDevice(), nextHop(route, destination), stack, encapsulated);
+        } catch (RuntimeException e) {
+            logger.error("[{}] sending to {} failed", this.CLS, destination);
+            logger.debug("[{}] {}", this.CLS, e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Sends a buffered payload, prepending the IPv4 and DLL headers into the
+     * buffer's headroom instead of copying the payload.
+     *
+     * @param destination the target IPv4 address (non-null)
+     * @param stack       the protocol pipeline (non-null)
+     * @param data        buffer holding the payload (non-empty)
+     * @throws IllegalArgumentException if arguments are invalid
+     */
+    @Override
+    public void send(IPv4 destination, ProtocolPipeline stack, PacketBuffer data) throws IllegalArgumentException {
+        if (destination == null || stack == null || data == null || data.isEmpty()) {
+            logger.error("[{}] invalid arguments to send", this.CLS);
+            throw new IllegalArgumentException("Server: invalid arguments");
+        }
+        if (this.postIfForeign(() -> this.send(destination, stack, data))) {
+            return;
+        }
+
+        RoutingInfo route = this.routeForPacket(destination);
+        if (route == null) {
+            logger.error("[{}] routing failed for {}", this.CLS, destination);
+            return;
+        }
+        try {
+            IPv4Protocol ipProto = this.ipv4(route, destination, stack);
+            PacketBuffer packet  = ipProto.encapsulate(data);
+            stack.push(ipProto);
+
+            logger.info("[{}] sending packet to {}", this.CLS, destination);
+            this.transmit(route.getDevice(), nextHop(route, destination), stack, packet);
         } catch (RuntimeException e) {
-            logger.error("[" + this.CLS + "] routing failed for " + destination.stringRepresentation());
-            logger.debug("[" + this.CLS + "] " + e.getLocalizedMessage());
+            logger.error("[{}] sending to {} failed", this.CLS, destination);
+            logger.debug("[{}] {}", this.CLS, e.getLocalizedMessage());
         }
     }
 
+    /** @return the IPv4 layer of a datagram leaving through route */
+    private IPv4Protocol ipv4(RoutingInfo route, IPv4 destination, ProtocolPipeline stack) {
+        IPv4 source = this.getInterface(route.getDevice()).getIP();
+        return new IPv4Protocol(
+            source,
+            destination,
+            5,  /* IHL */
+            0,  /* ToS */
+            this.nextIdentification(),  /* ID */
+            0,  /* flags */
+            64, /* TTL */
+            protocolNumber(stack),  /* protocol */
+            this.getMTU()
+        );
+    }
+
     /**
      * Receives an IPv4‐encapsulated packet, decapsulates it, and forwards
      * the payload to the associated application.
@@ -121,32 +168,40 @@ public class Server<AppType extends App> extends NetworkNode {
      */
     public void receive(ProtocolPipeline stack, byte[] packets) throws IllegalArgumentException, RuntimeException {
         if (stack == null || packets == null || packets.length == 0) {
-            logger.error("[" + this.CLS + "] invalid arguments to receive");
+            logger.error("[{}] invalid arguments to receive", this.CLS);
             throw new IllegalArgumentException("Server: invalid arguments");
         }
 
         if (this.app == null) {
-            logger.error("[" + this.CLS + "] no application set to handle incoming packets");
+            logger.error("[{}] no application set to handle incoming packets", this.CLS);
             throw new RuntimeException("Server: no application set");
         }
 
-        Protocol p = stack.pop();
-        if (!(p instanceof IPv4Protocol)) {
-            logger.error("[" + this.CLS + "] expected IPv4Protocol but got " + p.getClass().getSimpleName());
-            throw new RuntimeException("Server: expected IPv4 protocol");
+        this.countReceived(packets);
+        if (packets.length < 20) {
+            this.counters.dropped(DropReason.BAD_FRAME);
+            logger.error("[{}] dropped packet shorter than an IPv4 header", this.CLS);
+            return;
         }
-
-        IPv4Protocol ipProtocol = (IPv4Protocol) p;
-        IPv4 destination = ipProtocol.extractDestination(packets);
-
-        if (!this.isForMe(destination)) {
-            logger.error("[" + this.CLS + "] packet not for this server: dest=" + destination.stringRepresentation());
+        int destination = IPv4Protocol.destinationOf(packets, 0);
+        if (!this.isLocalAddress(destination)) {
+            this.counters.dropped(DropReason.NOT_FOR_ME);
+            logger.error("[{}] packet not for this server: dest={}", this.CLS, IPv4.intern(destination, 32));
             return;
         }
 
-        byte[] transport = ipProtocol.decapsulate(packets);
-        logger.info("[" + this.CLS + "] received packet for " + destination.stringRepresentation()
-                    + ", handing up to App");
-        this.app.receive(stack, transport);
+        this.receiveLocal(packets, transport -> {
+            // no handler for the protocol number: the app reads the pipeline,
+            // its own copy since a batch delivers several datagrams
+            ProtocolPipeline upper = stack.copy();
+            Protocol         p     = upper.pop();
+            if (!(p instanceof IPv4Protocol)) {
+                logger.error("[{}] expected IPv4Protocol but got {}", this.CLS, p.getClass().getSimpleName());
+                throw new RuntimeException("Server: expected IPv4 protocol");
+            }
+            logger.info(() -> "[" + this.CLS + "] received packet for " + IPv4.intern(destination, 32)
+                              + ", handing up to App");
+            this.app.receive(upper, transport);
+        });
     }
 }
\ No newline at end of file
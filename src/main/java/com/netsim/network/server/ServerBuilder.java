@@ -7,8 +7,9 @@ import com.netsim.utils.Logger;
 /**
  * Builder for creating {@link Server} instances.
  * <p>
- * Validates that all required fields (name, routing table, ARP table,
- * and interfaces) are configured before building.
+ * Validates that all required fields (name, routing table and interfaces)
+ * are configured before building; the ARP table may stay empty, next hops
+ * are then resolved dynamically.
  * </p>
  *
  * @param <AppType> the application type for the Server
@@ -16,7 +17,7 @@ import com.netsim.utils.Logger;
 public class ServerBuilder<AppType extends App>
         extends NetworkNodeBuilder<Server<AppType>> {
 
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(ServerBuilder.class);
     private static final String CLS    = ServerBuilder.class.getSimpleName();
 
     /**
@@ -24,36 +25,31 @@ public class ServerBuilder<AppType extends App>
      */
     public ServerBuilder() {
         super();
-        logger.info("[" + CLS + "] initialized");
+        logger.info("[{}] initialized", CLS);
     }
 
     /**
      * Builds and returns a configured {@link Server}.
      *
      * @return the configured Server
-     * @throws RuntimeException if name is null, or if routing table,
-     *         ARP table, or interfaces are empty
+     * @throws RuntimeException if name is null, or if routing table
+     *         or interfaces are empty
      */
     @Override
     public Server<AppType> build() throws RuntimeException {
         if (this.name == null) {
             String msg = "name cannot be null";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new RuntimeException("ServerBuilder: " + msg);
         }
         if (this.routingTable.isEmpty()) {
             String msg = "routing table cannot be empty";
-            logger.error("[" + CLS + "] " + msg);
-            throw new RuntimeException("ServerBuilder: " + msg);
-        }
-        if (this.arpTable.isEmpty()) {
-            String msg = "ARP table cannot be empty";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new RuntimeException("ServerBuilder: " + msg);
         }
         if (this.interfaces.isEmpty()) {
             String msg = "interfaces must be at least one";
-            logger.error("[" + CLS + "] " + msg);
+            logger.error("[{}] {}", CLS, msg);
             throw new RuntimeException("ServerBuilder: " + msg);
         }
 
@@ -63,7 +59,7 @@ public class ServerBuilder<AppType extends App>
             this.arpTable,
             this.interfaces
         );
-        logger.info("[" + CLS + "] built Server \"" + this.name + "\" successfully");
+        logger.info("[{}] built Server \"{}\" successfully", CLS, this.name);
         return server;
     }
 }
\ No newline at end of file
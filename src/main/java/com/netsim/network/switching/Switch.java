@@ -0,0 +1,246 @@
+package com.netsim.network.switching;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.LinkLayerNode;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.simulation.Mailbox;
+import com.netsim.simulation.Simulator;
+import com.netsim.table.MacTable;
+import com.netsim.utils.Logger;
+
+/**
+ * A transparent learning bridge (IEEE 802.1D) joining many cables into one LAN.
+ * <p>
+ * Each frame's source MAC is learnt against the port it arrived on. A frame
+ * to a learnt unicast MAC goes out of that single port, or is filtered if the
+ * port is the one it came from; broadcast, multicast and unknown destinations
+ * are flooded to every other port that is up. Frames are relayed unchanged.
+ * Learnt entries age out of the {@link MacTable} after its aging time; stale
+ * entries are ignored at lookup and swept at most once per aging period.
+ * <p>
+ * The per-frame path reads the MACs as longs straight from the frame and
+ * consults the table's primitive map, so it neither logs nor allocates
+ * except when flooding.
+ */
+public class Switch implements LinkLayerNode {
+    private static final Logger logger = Logger.getInstance(Switch.class);
+    private static final String CLS    = Switch.class.getSimpleName();
+
+    private final String                      name;
+    private final MacTable                    macTable;
+    private final CabledAdapter[]             ports;
+    private final Map<CabledAdapter, Integer> portIndex;
+    private       Simulator                   simulator;
+    private       long                        lastSweep;
+    private       long                        forwarded;
+    private       long                        flooded;
+    private       long                        filtered;
+
+    /**
+     * Constructs a switch and takes ownership of its ports.
+     *
+     * @param name     the switch name (non-null)
+     * @param macTable forwarding table; its static entries may only refer to
+     *                 the given ports (non-null)
+     * @param ports    the switch ports (non-null, non-empty)
+     * @throws IllegalArgumentException if an argument is invalid
+     */
+    public Switch(String name, MacTable macTable, List<CabledAdapter> ports) throws IllegalArgumentException {
+        if (name == null || macTable == null || ports == null || ports.isEmpty()) {
+            logger.error("[{}] invalid constructor arguments", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        this.name      = name;
+        this.macTable  = macTable;
+        this.portIndex = new IdentityHashMap<>();
+        for (CabledAdapter port : ports) {
+            if (port == null) {
+                logger.error("[{}] port cannot be null", CLS);
+                throw new IllegalArgumentException(CLS + ": port cannot be null");
+            }
+            this.portIndex.put(port, macTable.addPort(port));
+        }
+        if (macTable.portCount() != this.portIndex.size()) {
+            logger.error("[{}] MAC table refers to adapters that are not ports", CLS);
+            throw new IllegalArgumentException(CLS + ": MAC table refers to foreign adapters");
+        }
+        this.ports = new CabledAdapter[macTable.portCount()];
+        for (Map.Entry<CabledAdapter, Integer> e : this.portIndex.entrySet()) {
+            this.ports[e.getValue()] = e.getKey();
+            e.getKey().setOwner(this);
+        }
+        logger.info(() -> "[" + CLS + "] switch '" + name + "' created with " + this.ports.length + " ports");
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the forwarding table
+     */
+    public MacTable getMacTable() {
+        return this.macTable;
+    }
+
+    /**
+     * @param index a port index
+     * @return the adapter of that port
+     * @throws IndexOutOfBoundsException if there is no such port
+     */
+    @Override
+    public CabledAdapter getPort(int index) throws IndexOutOfBoundsException {
+        return this.ports[index];
+    }
+
+    /** @return number of ports */
+    @Override
+    public int getPortCount() {
+        return this.ports.length;
+    }
+
+    /**
+     * Attaches the switch and its ports to an event loop; each port gets its
+     * own context so that frames relayed on different ports may overlap.
+     *
+     * @param simulator the simulator, or null for synchronous relaying
+     */
+    public void setSimulator(Simulator simulator) {
+        this.simulator = simulator;
+        for (CabledAdapter port : this.ports) {
+            port.setSimulator(simulator);
+        }
+        logger.info("[{}] switch '{}' {} simulator", CLS, this.name,
+                    simulator == null ? "detached from" : "attached to");
+    }
+
+    /**
+     * Attaches the switch and all its ports to an event loop under one context,
+     * e.g. a logical process of a parallel run.
+     *
+     * @param simulator the simulator, or null for synchronous relaying
+     * @param context   context id of the switch
+     */
+    @Override
+    public void setSimulator(Simulator simulator, int context) {
+        this.simulator = simulator;
+        for (CabledAdapter port : this.ports) {
+            port.setSimulator(simulator, context);
+        }
+    }
+
+    /**
+     * Attaches the inbox frames reaching any port are posted to.
+     *
+     * @param mailbox the switch's mailbox, or null to relay on the sender's thread
+     */
+    public void setMailbox(Mailbox mailbox) {
+        for (CabledAdapter port : this.ports) {
+            port.setMailbox(mailbox);
+        }
+    }
+
+    /**
+     * Learns the source, then forwards, filters or floods the frame.
+     *
+     * @param in    the port the frame arrived on (non-null)
+     * @param stack protocol pipeline travelling with the frame (non-null)
+     * @param frame the framed bytes (non-empty)
+     */
+    @Override
+    public void receiveFrame(CabledAdapter in, ProtocolPipeline stack, byte[] frame) {
+        Integer inPort = this.portIndex.get(in);
+        if (inPort == null || frame == null || frame.length < 12) {
+            logger.error("[{}] switch '{}' dropped malformed or foreign frame", CLS, this.name);
+            return;
+        }
+        long now = this.simulator != null ? this.simulator.now() : System.nanoTime();
+        long dst = Mac.decode(frame, 0);
+        long src = Mac.decode(frame, 6);
+        if (!isGroup(src)) {
+            this.macTable.learn(src, inPort, now);
+        }
+        if (now - this.lastSweep >= this.macTable.getAgingTime()) {
+            this.lastSweep = now;
+            this.macTable.expire(now);
+        }
+
+        int out = isGroup(dst) ? -1 : this.macTable.port(dst, now);
+        if (out < 0) {
+            this.flood(inPort, stack, frame);
+        } else if (out == inPort) {
+            this.filtered++;
+        } else if (this.ports[out].isUp() && this.ports[out].isLinked()) {
+            this.forwarded++;
+            this.ports[out].forward(stack, frame);
+        } else {
+            this.filtered++;
+        }
+    }
+
+    private void flood(int inPort, ProtocolPipeline stack, byte[] frame) {
+        this.flooded++;
+        for (int p = 0; p < this.ports.length; p++) {
+            CabledAdapter port = this.ports[p];
+            // an uncabled port has nowhere to send to
+            if (p == inPort || !port.isUp() || !port.isLinked()) {
+                continue;
+            }
+            // every receiver pops the DLL protocol off its own stack
+            port.forward(stack.copy(), frame);
+        }
+    }
+
+    /** @return true if the group (multicast) bit of a MAC is set, broadcast included */
+    private static boolean isGroup(long mac) {
+        return (mac & 0x0100_0000_0000L) != 0;
+    }
+
+    /** @return unicast frames sent out of a single port */
+    public long getForwarded() {
+        return this.forwarded;
+    }
+
+    /** @return frames flooded to every other port */
+    public long getFlooded() {
+        return this.flooded;
+    }
+
+    /**
+     * @return frames dropped because their destination sits behind the ingress
+     *         port or a port that is down or not cabled
+     */
+    public long getFiltered() {
+        return this.filtered;
+    }
+
+    /**
+     * A switch only relays frames; it has no address to send from.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) {
+        logger.error("[{}] switch '{}' cannot originate packets", CLS, this.name);
+        throw new UnsupportedOperationException(CLS + ": a switch does not originate packets");
+    }
+
+    /**
+     * Frames reach a switch through {@link #receiveFrame}; its ports never
+     * strip the DLL header.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void receive(ProtocolPipeline protocols, byte[] data) {
+        logger.error("[{}] switch '{}' received a decapsulated packet", CLS, this.name);
+        throw new UnsupportedOperationException(CLS + ": a switch only handles whole frames");
+    }
+}
@@ -0,0 +1,120 @@
+package com.netsim.network.switching;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+import com.netsim.table.MacTable;
+import com.netsim.utils.Logger;
+
+/**
+ * Builder for creating {@link Switch} instances.
+ * <p>
+ * Validates that the switch has a name and at least one port before building.
+ * Static MAC entries are optional; the switch learns the rest.
+ * </p>
+ */
+public class SwitchBuilder {
+    private static final Logger logger = Logger.getInstance(SwitchBuilder.class);
+    private static final String CLS    = SwitchBuilder.class.getSimpleName();
+
+    private       String              name;
+    private final List<CabledAdapter> ports;
+    private final MacTable            macTable;
+
+    /**
+     * Initializes a builder with no ports and an empty MAC table.
+     */
+    public SwitchBuilder() {
+        this.ports    = new ArrayList<>();
+        this.macTable = new MacTable();
+        logger.info("[{}] initialized", CLS);
+    }
+
+    /**
+     * @param name the switch name (non-null)
+     * @return this builder
+     * @throws IllegalArgumentException if name is null
+     */
+    public SwitchBuilder setName(String name) throws IllegalArgumentException {
+        if (name == null) {
+            logger.error("[{}] name cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": name cannot be null");
+        }
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Adds a port; ports are numbered in the order they are added.
+     *
+     * @param port the adapter (non-null)
+     * @return this builder
+     * @throws IllegalArgumentException if port is null
+     */
+    public SwitchBuilder addPort(CabledAdapter port) throws IllegalArgumentException {
+        if (port == null) {
+            logger.error("[{}] port cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": port cannot be null");
+        }
+        this.ports.add(port);
+        this.macTable.addPort(port);
+        logger.info("[{}] port added: {}", CLS, port.getName());
+        return this;
+    }
+
+    /**
+     * Adds a static entry that never ages out.
+     *
+     * @param mac      the station's MAC (non-null)
+     * @param portName name of an added port (non-null)
+     * @return this builder
+     * @throws IllegalArgumentException if an argument is null or no port has that name
+     */
+    public SwitchBuilder addStaticEntry(Mac mac, String portName) throws IllegalArgumentException {
+        if (mac == null || portName == null) {
+            logger.error("[{}] static entry arguments cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": arguments cannot be null");
+        }
+        CabledAdapter port = this.ports.stream()
+            .filter(p -> p.getName().equals(portName))
+            .findFirst()
+            .orElseThrow(() -> {
+                logger.error("[{}] no port named {}", CLS, portName);
+                return new IllegalArgumentException(CLS + ": no port named " + portName);
+            });
+        this.macTable.add(mac, port);
+        return this;
+    }
+
+    /**
+     * @param agingTime nanoseconds a learnt entry lives without traffic (&gt; 0)
+     * @return this builder
+     * @throws IllegalArgumentException if agingTime is not positive
+     */
+    public SwitchBuilder setAgingTime(long agingTime) throws IllegalArgumentException {
+        this.macTable.setAgingTime(agingTime);
+        return this;
+    }
+
+    /**
+     * Builds and returns a {@link Switch}.
+     *
+     * @return the configured Switch
+     * @throws RuntimeException if the name is missing or no port was added
+     */
+    public Switch build() throws RuntimeException {
+        if (this.name == null) {
+            logger.error("[{}] name cannot be null", CLS);
+            throw new RuntimeException("SwitchBuilder: name cannot be null");
+        }
+        if (this.ports.isEmpty()) {
+            logger.error("[{}] ports must be at least one", CLS);
+            throw new RuntimeException("SwitchBuilder: ports must be at least one");
+        }
+        Switch sw = new Switch(this.name, this.macTable, this.ports);
+        logger.info("[{}] built Switch \"{}\" successfully", CLS, this.name);
+        return sw;
+    }
+}
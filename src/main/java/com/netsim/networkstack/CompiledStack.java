@@ -0,0 +1,251 @@
+package com.netsim.networkstack;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.MSG.MSGProtocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.protocols.UDP.UDPProtocol;
+import com.netsim.utils.Logger;
+
+/**
+ * A MSG -&gt; UDP -&gt; IPv4 -&gt; SimpleDLL pipeline fused into a single encoder.
+ * <p>
+ * Every header field that does not depend on the payload (MSG prefix, ports,
+ * addresses, TTL, protocol, MACs) is rendered once, when the stack is
+ * compiled. Encapsulating a payload then only works out the segmentation and
+ * fragmentation plan from its length, MSS and MTU, and walks the output once:
+ * for each frame it copies the DLL and IPv4 header templates, patches the
+ * length and fragment fields, and copies the UDP headers and payload slices
+ * that fall inside the fragment. No intermediate layer output is built.
+ * <p>
+ * The bytes produced are the same as {@link ProtocolPipeline#encapsulate(byte[])}
+ * for the same stack, except that, as in the {@link PacketBuffer} path, the
+ * payload is taken as UTF-8 text and not re-encoded by MSG. The MSG layer is
+ * optional. A compiled stack is immutable and may be shared between threads.
+ */
+public final class CompiledStack {
+    private static final Logger logger = Logger.getInstance(CompiledStack.class);
+    private static final String CLS    = CompiledStack.class.getSimpleName();
+
+    private static final int DLL_HEADER = 12;
+    private static final int UDP_HEADER = 8;
+
+    private final byte[] prefix;
+    private final byte[] ports;
+    private final byte[] ipHeader;
+    private final byte[] dllHeader;
+    private final int    mss;
+    private final int    maxData;
+
+    /**
+     * Compiles a pipeline whose layers, from the top, are an optional
+     * {@link MSGProtocol}, then {@link UDPProtocol}, {@link IPv4Protocol} and
+     * {@link SimpleDLLProtocol}.
+     *
+     * @param pipeline the pipeline to compile (non-null)
+     * @return the fused encoder
+     * @throws IllegalArgumentException if pipeline is null or does not match the template
+     * @throws RuntimeException         if the MTU leaves no room for data
+     */
+    public static CompiledStack of(ProtocolPipeline pipeline) throws IllegalArgumentException, RuntimeException {
+        if (pipeline == null) {
+            logger.error("[{}] pipeline cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": pipeline cannot be null");
+        }
+        List<Protocol> layers = pipeline.layers();
+        int top = layers.size() == 4 && layers.get(0) instanceof MSGProtocol ? 1 : 0;
+        if (layers.size() - top != 3
+            || !(layers.get(top) instanceof UDPProtocol)
+            || !(layers.get(top + 1) instanceof IPv4Protocol)
+            || !(layers.get(top + 2) instanceof SimpleDLLProtocol)) {
+            logger.error("[{}] unsupported stack of {} layers", CLS, layers.size());
+            throw new IllegalArgumentException(CLS + ": stack must be [MSG,] UDP, IPv4, SimpleDLL");
+        }
+        return new CompiledStack(top == 1 ? (MSGProtocol) layers.get(0) : null,
+                                 (UDPProtocol) layers.get(top),
+                                 (IPv4Protocol) layers.get(top + 1),
+                                 (SimpleDLLProtocol) layers.get(top + 2));
+    }
+
+    private CompiledStack(MSGProtocol msg, UDPProtocol udp, IPv4Protocol ip, SimpleDLLProtocol dll)
+            throws IllegalArgumentException, RuntimeException {
+        int headerLen = ip.getIHL() * 4;
+        this.maxData  = ((ip.getMTU() - headerLen) / 8) * 8;
+        if (this.maxData <= 0) {
+            throw new RuntimeException("IP: MTU too small for header + payload");
+        }
+        if (ip.getProtocol() < 0 || ip.getProtocol() > 0xFFFF) {
+            throw new IllegalArgumentException("IPv4Packet: protocol must be 0–65535");
+        }
+        this.prefix = msg == null ? new byte[0] : (msg.getUser() + ": ").getBytes(StandardCharsets.UTF_8);
+        this.mss    = udp.getMSS();
+
+        this.ports = new byte[4];
+        System.arraycopy(udp.getSource().byteRepresentation(), 0, this.ports, 0, 2);
+        System.arraycopy(udp.getDestination().byteRepresentation(), 0, this.ports, 2, 2);
+
+        // length (2..3) and flags/offset (6..7) are patched per fragment
+        this.ipHeader = new byte[headerLen];
+        this.ipHeader[0] = (byte) (0x40 | ip.getIHL());
+        this.ipHeader[1] = (byte) ip.getTypeOfService();
+        writeShort(this.ipHeader, 4, ip.getIdentification());
+        writeShort(this.ipHeader, 8, ip.getTtl());
+        writeShort(this.ipHeader, 10, ip.getProtocol());
+        System.arraycopy(ip.getSource().byteRepresentation(), 0, this.ipHeader, 12, 4);
+        System.arraycopy(ip.getDestination().byteRepresentation(), 0, this.ipHeader, 16, 4);
+
+        this.dllHeader = new byte[DLL_HEADER];
+        dll.getDestination().encode(this.dllHeader, 0);
+        dll.getSource().encode(this.dllHeader, 6);
+        logger.info(() -> "[" + CLS + "] compiled: prefix=" + this.prefix.length + "B, MSS=" + this.mss
+                          + ", data per fragment=" + this.maxData);
+    }
+
+    /**
+     * Computes the size of the frames a payload encapsulates to.
+     *
+     * @param payloadLength payload length in bytes (&gt; 0)
+     * @return total length of the frames
+     * @throws IllegalArgumentException if payloadLength is not positive
+     */
+    public int length(int payloadLength) throws IllegalArgumentException {
+        if (payloadLength <= 0) {
+            throw new IllegalArgumentException(CLS + ": payload cannot be empty");
+        }
+        int stream    = this.streamLength(payloadLength);
+        int fragments = (stream + this.maxData - 1) / this.maxData;
+        return stream + fragments * (DLL_HEADER + this.ipHeader.length);
+    }
+
+    /**
+     * Encapsulates a payload into a new array.
+     *
+     * @param payload the payload bytes (non-null, non-empty)
+     * @return the concatenated frames
+     * @throws IllegalArgumentException if payload is null, empty or too large for the headers
+     */
+    public byte[] encapsulate(byte[] payload) throws IllegalArgumentException {
+        if (payload == null || payload.length == 0) {
+            logger.error("[{}] encapsulate failed: payload is null or empty", CLS);
+            throw new IllegalArgumentException(CLS + ": payload cannot be null or empty");
+        }
+        byte[] out = new byte[this.length(payload.length)];
+        this.encapsulate(payload, out, 0);
+        return out;
+    }
+
+    /**
+     * Encapsulates a payload into a caller-provided array.
+     *
+     * @param payload the payload bytes (non-null, non-empty)
+     * @param out     destination array (non-null)
+     * @param at      index of the first frame byte in out
+     * @return the number of bytes written, {@link #length(int)} of the payload
+     * @throws IllegalArgumentException  if payload is null, empty or too large for the headers,
+     *                                   or out is null
+     * @throws IndexOutOfBoundsException if the frames do not fit in out from at
+     */
+    public int encapsulate(byte[] payload, byte[] out, int at)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (payload == null || payload.length == 0 || out == null) {
+            throw new IllegalArgumentException(CLS + ": payload and output cannot be null or empty");
+        }
+        int message  = this.prefix.length + payload.length;
+        int segments = (message + this.mss - 1) / this.mss;
+        if ((UDP_HEADER + Math.min(message, this.mss)) * Byte.SIZE > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("UDPSegment: segment too large to encode length");
+        }
+        if (segments - 1 > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("UDPSegment: sequenceNumber must fit in 16 bits");
+        }
+        int stream    = message + segments * UDP_HEADER;
+        int headerLen = this.ipHeader.length;
+        if (headerLen + Math.min(stream, this.maxData) > 0xFFFF) {
+            throw new IllegalArgumentException("IPv4Packet: totalLength must be 0–65535");
+        }
+        int fragments = (stream + this.maxData - 1) / this.maxData;
+        if ((fragments - 1) * (this.maxData / 8) > 0x1FFF) {
+            throw new IllegalArgumentException("IPv4Packet: fragmentOffset must be 0–8191");
+        }
+        int total = stream + fragments * (DLL_HEADER + headerLen);
+        if (at < 0 || at > out.length - total) {
+            throw new IndexOutOfBoundsException(CLS + ": " + total + " bytes do not fit at " + at);
+        }
+
+        int pos = at;
+        for (int offset = 0; offset < stream; offset += this.maxData) {
+            int len = Math.min(this.maxData, stream - offset);
+            System.arraycopy(this.dllHeader, 0, out, pos, DLL_HEADER);
+            pos += DLL_HEADER;
+            System.arraycopy(this.ipHeader, 0, out, pos, headerLen);
+            writeShort(out, pos + 2, headerLen + len);
+            writeShort(out, pos + 6, (offset + len < stream ? 0x2000 : 0) | (offset / 8));
+            pos += headerLen;
+            this.copyStream(payload, message, offset, len, out, pos);
+            pos += len;
+        }
+        return total;
+    }
+
+    /**
+     * Writes bytes [from, from + len) of the UDP segment stream a message
+     * segments to, without materialising the stream.
+     */
+    private void copyStream(byte[] payload, int message, int from, int len, byte[] out, int at) {
+        int stride = this.mss + UDP_HEADER;
+        while (len > 0) {
+            int seq   = from / stride;
+            int inSeg = from - seq * stride;
+            int n;
+            if (inSeg < UDP_HEADER) {
+                int segLen = Math.min(this.mss, message - seq * this.mss);
+                int bits   = (UDP_HEADER + segLen) * Byte.SIZE;
+                n = Math.min(UDP_HEADER - inSeg, len);
+                for (int i = 0; i < n; i++) {
+                    int j = inSeg + i;
+                    out[at + i] = j < 4  ? this.ports[j]
+                                : j == 4 ? (byte) (seq >>> 8)
+                                : j == 5 ? (byte) seq
+                                : j == 6 ? (byte) (bits >>> 8)
+                                :          (byte) bits;
+                }
+            } else {
+                int k   = seq * this.mss + inSeg - UDP_HEADER;
+                int end = Math.min(message, (seq + 1) * this.mss);
+                n = Math.min(end - k, len);
+                this.copyMessage(payload, k, n, out, at);
+            }
+            from += n;
+            at   += n;
+            len  -= n;
+        }
+    }
+
+    /**
+     * Writes bytes [from, from + len) of the MSG prefix followed by the payload.
+     */
+    private void copyMessage(byte[] payload, int from, int len, byte[] out, int at) {
+        if (from < this.prefix.length) {
+            int n = Math.min(this.prefix.length - from, len);
+            System.arraycopy(this.prefix, from, out, at, n);
+            from += n;
+            at   += n;
+            len  -= n;
+        }
+        if (len > 0) {
+            System.arraycopy(payload, from - this.prefix.length, out, at, len);
+        }
+    }
+
+    private int streamLength(int payloadLength) {
+        int message = this.prefix.length + payloadLength;
+        return message + (message + this.mss - 1) / this.mss * UDP_HEADER;
+    }
+
+    private static void writeShort(byte[] b, int at, int value) {
+        b[at]     = (byte) (value >>> 8);
+        b[at + 1] = (byte) value;
+    }
+}
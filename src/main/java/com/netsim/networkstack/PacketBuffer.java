@@ -0,0 +1,299 @@
+package com.netsim.networkstack;
+
+import java.util.Arrays;
+
+/**
+ * A packet held in a byte array with free space before (headroom) and after
+ * (tailroom) the valid bytes, so that protocols can prepend headers and strip
+ * them in place instead of copying the payload into a new array at every layer.
+ * <p>
+ * Indexes taken by the accessors are relative to the first valid byte.
+ * Multi-byte values are big-endian. When a prepend or append does not fit, the
+ * backing array is replaced by a larger one; {@link #array()} must therefore be
+ * read again after changing the bounds.
+ */
+public final class PacketBuffer {
+    /** headroom reserved by {@link #copyOf(byte[])}: MSG, UDP, an optioned IPv4 header and SimpleDLL */
+    public static final int DEFAULT_HEADROOM = 128;
+
+    private byte[] data;
+    private int    start;
+    private int    end;
+
+    private PacketBuffer(byte[] data, int start, int end) {
+        this.data  = data;
+        this.start = start;
+        this.end   = end;
+    }
+
+    /**
+     * Allocates a zero-filled buffer.
+     *
+     * @param headroom bytes reserved in front (&gt;= 0)
+     * @param length   valid bytes (&gt;= 0)
+     * @param tailroom bytes reserved after (&gt;= 0)
+     * @return the new buffer
+     * @throws IllegalArgumentException if any size is negative
+     */
+    public static PacketBuffer allocate(int headroom, int length, int tailroom) throws IllegalArgumentException {
+        if (headroom < 0 || length < 0 || tailroom < 0) {
+            throw new IllegalArgumentException("PacketBuffer: sizes cannot be negative");
+        }
+        return new PacketBuffer(new byte[headroom + length + tailroom], headroom, headroom + length);
+    }
+
+    /**
+     * Copies a payload into a new buffer; this is the one copy of the payload
+     * an encapsulation through the buffer overloads makes.
+     *
+     * @param payload  bytes to copy (non-null)
+     * @param headroom bytes reserved in front (&gt;= 0)
+     * @param tailroom bytes reserved after (&gt;= 0)
+     * @return the new buffer
+     * @throws IllegalArgumentException if payload is null or a size negative
+     */
+    public static PacketBuffer copyOf(byte[] payload, int headroom, int tailroom) throws IllegalArgumentException {
+        if (payload == null) {
+            throw new IllegalArgumentException("PacketBuffer: payload cannot be null");
+        }
+        PacketBuffer buf = allocate(headroom, payload.length, tailroom);
+        System.arraycopy(payload, 0, buf.data, buf.start, payload.length);
+        return buf;
+    }
+
+    /**
+     * Copies a payload into a new buffer with {@link #DEFAULT_HEADROOM}.
+     *
+     * @param payload bytes to copy (non-null)
+     * @return the new buffer
+     * @throws IllegalArgumentException if payload is null
+     */
+    public static PacketBuffer copyOf(byte[] payload) throws IllegalArgumentException {
+        return copyOf(payload, DEFAULT_HEADROOM, 0);
+    }
+
+    /**
+     * Wraps an array without copying it; the buffer has no headroom or tailroom.
+     *
+     * @param bytes backing array (non-null)
+     * @return a buffer over the whole array
+     * @throws IllegalArgumentException if bytes is null
+     */
+    public static PacketBuffer wrap(byte[] bytes) throws IllegalArgumentException {
+        if (bytes == null) {
+            throw new IllegalArgumentException("PacketBuffer: bytes cannot be null");
+        }
+        return new PacketBuffer(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Wraps part of an array without copying it; the bytes around the range
+     * become headroom and tailroom.
+     *
+     * @param bytes  backing array (non-null)
+     * @param offset index of the first valid byte
+     * @param length number of valid bytes
+     * @return a buffer over the range
+     * @throws IllegalArgumentException if bytes is null or the range is out of bounds
+     */
+    public static PacketBuffer wrap(byte[] bytes, int offset, int length) throws IllegalArgumentException {
+        if (bytes == null || offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IllegalArgumentException("PacketBuffer: invalid range");
+        }
+        return new PacketBuffer(bytes, offset, offset + length);
+    }
+
+    /** @return the backing array, valid bytes start at {@link #offset()} */
+    public byte[] array() {
+        return this.data;
+    }
+
+    /** @return index in {@link #array()} of the first valid byte */
+    public int offset() {
+        return this.start;
+    }
+
+    /** @return number of valid bytes */
+    public int length() {
+        return this.end - this.start;
+    }
+
+    /** @return free bytes in front of the valid ones */
+    public int headroom() {
+        return this.start;
+    }
+
+    /** @return free bytes after the valid ones */
+    public int tailroom() {
+        return this.data.length - this.end;
+    }
+
+    /** @return true if there are no valid bytes */
+    public boolean isEmpty() {
+        return this.start == this.end;
+    }
+
+    /**
+     * Extends the valid bytes n positions to the front, growing the array if the
+     * headroom is too small. The new bytes keep whatever the array held.
+     *
+     * @param n bytes to add in front (&gt;= 0)
+     * @return index in {@link #array()} of the new first byte
+     * @throws IllegalArgumentException if n is negative
+     */
+    public int prepend(int n) throws IllegalArgumentException {
+        if (n < 0) {
+            throw new IllegalArgumentException("PacketBuffer: cannot prepend a negative length");
+        }
+        if (n > this.start) {
+            this.reallocate(n + DEFAULT_HEADROOM, this.tailroom());
+        }
+        this.start -= n;
+        return this.start;
+    }
+
+    /**
+     * Extends the valid bytes n positions to the back, growing the array if the
+     * tailroom is too small.
+     *
+     * @param n bytes to add at the end (&gt;= 0)
+     * @return index in {@link #array()} of the first added byte
+     * @throws IllegalArgumentException if n is negative
+     */
+    public int append(int n) throws IllegalArgumentException {
+        if (n < 0) {
+            throw new IllegalArgumentException("PacketBuffer: cannot append a negative length");
+        }
+        if (n > this.tailroom()) {
+            this.reallocate(this.start, Math.max(n, this.length()));
+        }
+        int at = this.end;
+        this.end += n;
+        return at;
+    }
+
+    /**
+     * Drops n bytes from the front, turning them into headroom.
+     *
+     * @param n bytes to drop (0..length())
+     * @throws IllegalArgumentException if n is out of range
+     */
+    public void trimFront(int n) throws IllegalArgumentException {
+        if (n < 0 || n > this.length()) {
+            throw new IllegalArgumentException("PacketBuffer: cannot trim " + n + " of " + this.length() + " bytes");
+        }
+        this.start += n;
+    }
+
+    /**
+     * Drops n bytes from the back, turning them into tailroom.
+     *
+     * @param n bytes to drop (0..length())
+     * @throws IllegalArgumentException if n is out of range
+     */
+    public void trimBack(int n) throws IllegalArgumentException {
+        if (n < 0 || n > this.length()) {
+            throw new IllegalArgumentException("PacketBuffer: cannot trim " + n + " of " + this.length() + " bytes");
+        }
+        this.end -= n;
+    }
+
+    /**
+     * Returns a buffer sharing this array whose valid bytes are a sub-range of
+     * these; bytes outside the range become its headroom and tailroom.
+     *
+     * @param from first byte, relative to this buffer
+     * @param to   end of the range (exclusive), relative to this buffer
+     * @return the slice
+     * @throws IllegalArgumentException if the range is out of bounds
+     */
+    public PacketBuffer slice(int from, int to) throws IllegalArgumentException {
+        this.check(from, to - from);
+        return new PacketBuffer(this.data, this.start + from, this.start + to);
+    }
+
+    /** @return unsigned byte at index i */
+    public int getUnsignedByte(int i) {
+        this.check(i, 1);
+        return this.data[this.start + i] & 0xFF;
+    }
+
+    /** @return unsigned big-endian 16-bit value at index i */
+    public int getUnsignedShort(int i) {
+        this.check(i, 2);
+        int at = this.start + i;
+        return ((this.data[at] & 0xFF) << 8) | (this.data[at + 1] & 0xFF);
+    }
+
+    /** @return big-endian 32-bit value at index i */
+    public int getInt(int i) {
+        this.check(i, 4);
+        int at = this.start + i;
+        return ((this.data[at] & 0xFF) << 24) | ((this.data[at + 1] & 0xFF) << 16)
+             | ((this.data[at + 2] & 0xFF) << 8) | (this.data[at + 3] & 0xFF);
+    }
+
+    /** Stores the low 8 bits of value at index i. */
+    public void putByte(int i, int value) {
+        this.check(i, 1);
+        this.data[this.start + i] = (byte) value;
+    }
+
+    /** Stores the low 16 bits of value big-endian at index i. */
+    public void putShort(int i, int value) {
+        this.check(i, 2);
+        int at = this.start + i;
+        this.data[at]     = (byte) (value >>> 8);
+        this.data[at + 1] = (byte) value;
+    }
+
+    /** Stores value big-endian at index i. */
+    public void putInt(int i, int value) {
+        this.check(i, 4);
+        int at = this.start + i;
+        this.data[at]     = (byte) (value >>> 24);
+        this.data[at + 1] = (byte) (value >>> 16);
+        this.data[at + 2] = (byte) (value >>> 8);
+        this.data[at + 3] = (byte) value;
+    }
+
+    /** Copies src into the buffer starting at index i. */
+    public void put(int i, byte[] src) {
+        this.check(i, src.length);
+        System.arraycopy(src, 0, this.data, this.start + i, src.length);
+    }
+
+    /**
+     * Compares the bytes at index i with expected.
+     *
+     * @return true if the buffer holds expected at i
+     */
+    public boolean regionMatches(int i, byte[] expected) {
+        if (i < 0 || i + expected.length > this.length()) {
+            return false;
+        }
+        return Arrays.equals(this.data, this.start + i, this.start + i + expected.length,
+                             expected, 0, expected.length);
+    }
+
+    /** @return a copy of the valid bytes */
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(this.data, this.start, this.end);
+    }
+
+    private void check(int i, int n) throws IndexOutOfBoundsException {
+        if (i < 0 || n < 0 || i + n > this.length()) {
+            throw new IndexOutOfBoundsException("PacketBuffer: index " + i + " length " + n
+                                                + " out of " + this.length() + " bytes");
+        }
+    }
+
+    private void reallocate(int headroom, int tailroom) {
+        int    length = this.length();
+        byte[] grown  = new byte[headroom + length + tailroom];
+        System.arraycopy(this.data, this.start, grown, headroom, length);
+        this.data  = grown;
+        this.start = headroom;
+        this.end   = headroom + length;
+    }
+}
@@ -25,6 +25,38 @@ public interface Protocol {
      */
     byte[] decapsulate(byte[] lowerLayerPDU) throws IllegalArgumentException;
 
+    /**
+     * Encapsulates the upper‐layer PDU held in a buffer, producing the same bytes
+     * as {@link #encapsulate(byte[])}. Implementations prepend their header into
+     * the buffer's headroom; this default falls back to the array form and copies.
+     *
+     * @param upperLayerPDU the buffer holding the upper‐layer PDU (non‐null, non‐empty)
+     * @return the buffer holding the encapsulated PDU, possibly the same instance
+     * @throws IllegalArgumentException if upperLayerPDU is null or empty
+     */
+    default PacketBuffer encapsulate(PacketBuffer upperLayerPDU) throws IllegalArgumentException {
+        if (upperLayerPDU == null) {
+            throw new IllegalArgumentException("Protocol: buffer cannot be null");
+        }
+        return PacketBuffer.copyOf(this.encapsulate(upperLayerPDU.toByteArray()));
+    }
+
+    /**
+     * Decapsulates the lower‐layer PDU held in a buffer, producing the same bytes
+     * as {@link #decapsulate(byte[])}. Implementations trim their header off in
+     * place; this default falls back to the array form and copies.
+     *
+     * @param lowerLayerPDU the buffer holding the lower‐layer PDU (non‐null, non‐empty)
+     * @return the buffer holding the decapsulated PDU, possibly the same instance
+     * @throws IllegalArgumentException if lowerLayerPDU is null or empty
+     */
+    default PacketBuffer decapsulate(PacketBuffer lowerLayerPDU) throws IllegalArgumentException {
+        if (lowerLayerPDU == null) {
+            throw new IllegalArgumentException("Protocol: buffer cannot be null");
+        }
+        return PacketBuffer.wrap(this.decapsulate(lowerLayerPDU.toByteArray()));
+    }
+
     /**
      * @return this protocol’s source Address, or null if not applicable
      */
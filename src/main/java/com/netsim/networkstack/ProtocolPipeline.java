@@ -10,7 +10,7 @@ import com.netsim.utils.Logger;
  * Manages a stack of Protocols for encapsulation and decapsulation.
  */
 public class ProtocolPipeline {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(ProtocolPipeline.class);
     private static final String CLS    = ProtocolPipeline.class.getSimpleName();
 
     private final List<Protocol> stack;
@@ -20,7 +20,7 @@ public class ProtocolPipeline {
      */
     public ProtocolPipeline() {
         this.stack = new ArrayList<>();
-        logger.info("[" + CLS + "] initialized empty pipeline");
+        logger.info("[{}] initialized empty pipeline", CLS);
     }
 
     /**
@@ -31,11 +31,11 @@ public class ProtocolPipeline {
      */
     public void push(Protocol protocol) throws IllegalArgumentException {
         if (protocol == null) {
-            logger.error("[" + CLS + "] push failed: protocol is null");
+            logger.error("[{}] push failed: protocol is null", CLS);
             throw new IllegalArgumentException("ProtocolPipeline: protocol cannot be null");
         }
         this.stack.add(0, protocol);
-        logger.info("[" + CLS + "] pushed protocol: " + protocol.getClass().getSimpleName());
+        logger.info("[{}] pushed protocol: {}", CLS, protocol.getClass().getSimpleName());
     }
 
     /**
@@ -46,11 +46,11 @@ public class ProtocolPipeline {
      */
     public Protocol pop() throws RuntimeException {
         if (this.stack.isEmpty()) {
-            logger.error("[" + CLS + "] pop failed: stack is empty");
+            logger.error("[{}] pop failed: stack is empty", CLS);
             throw new RuntimeException("ProtocolPipeline: nothing to pop");
         }
         Protocol p = this.stack.remove(0);
-        logger.info("[" + CLS + "] popped protocol: " + p.getClass().getSimpleName());
+        logger.info("[{}] popped protocol: {}", CLS, p.getClass().getSimpleName());
         return p;
     }
 
@@ -63,17 +63,18 @@ public class ProtocolPipeline {
      */
     public byte[] encapsulate(byte[] data) throws IllegalArgumentException {
         if (data == null || data.length == 0) {
-            logger.error("[" + CLS + "] encapsulate failed: data is null or empty");
+            logger.error("[{}] encapsulate failed: data is null or empty", CLS);
             throw new IllegalArgumentException("ProtocolPipeline: data cannot be null or empty");
         }
-        logger.info("[" + CLS + "] starting encapsulation, initial length=" + data.length);
+        logger.info(() -> "[" + CLS + "] starting encapsulation, initial length=" + data.length);
         byte[] result = data;
         for (Protocol proto : this.stack) {
             result = proto.encapsulate(result);
-            logger.debug("[" + CLS + "] applied " +
-                         proto.getClass().getSimpleName() + ", new length=" + result.length);
+            int length = result.length;
+            logger.debug(() -> "[" + CLS + "] applied " + proto.getClass().getSimpleName() + ", new length=" + length);
         }
-        logger.info("[" + CLS + "] encapsulation complete, final length=" + result.length);
+        int length = result.length;
+        logger.info(() -> "[" + CLS + "] encapsulation complete, final length=" + length);
         return result;
     }
 
@@ -86,19 +87,71 @@ public class ProtocolPipeline {
      */
     public byte[] decapsulate(byte[] data) throws IllegalArgumentException {
         if (data == null || data.length == 0) {
-            logger.error("[" + CLS + "] decapsulate failed: data is null or empty");
+            logger.error("[{}] decapsulate failed: data is null or empty", CLS);
             throw new IllegalArgumentException("ProtocolPipeline: data cannot be null or empty");
         }
-        logger.info("[" + CLS + "] starting decapsulation, initial length=" + data.length);
+        logger.info(() -> "[" + CLS + "] starting decapsulation, initial length=" + data.length);
         byte[] result = data;
         List<Protocol> reversed = new ArrayList<>(this.stack);
         Collections.reverse(reversed);
         for (Protocol proto : reversed) {
             result = proto.decapsulate(result);
-            logger.debug("[" + CLS + "] stripped " +
-                         proto.getClass().getSimpleName() + ", new length=" + result.length);
+            int length = result.length;
+            logger.debug(() -> "[" + CLS + "] stripped " + proto.getClass().getSimpleName() + ", new length=" + length);
         }
-        logger.info("[" + CLS + "] decapsulation complete, final length=" + result.length);
+        int length = result.length;
+        logger.info(() -> "[" + CLS + "] decapsulation complete, final length=" + length);
+        return result;
+    }
+
+    /**
+     * Encapsulates a buffer through all Protocols in stack order. With enough
+     * headroom every header is prepended in place and the payload is never copied.
+     *
+     * @param data the buffer holding the payload (non-null, non-empty)
+     * @return the buffer holding the fully encapsulated bytes
+     * @throws IllegalArgumentException if data is null or empty
+     */
+    public PacketBuffer encapsulate(PacketBuffer data) throws IllegalArgumentException {
+        if (data == null || data.isEmpty()) {
+            logger.error("[{}] encapsulate failed: buffer is null or empty", CLS);
+            throw new IllegalArgumentException("ProtocolPipeline: data cannot be null or empty");
+        }
+        logger.info(() -> "[" + CLS + "] starting buffer encapsulation, initial length=" + data.length());
+        PacketBuffer result = data;
+        for (Protocol proto : this.stack) {
+            result = proto.encapsulate(result);
+            int length = result.length();
+            logger.debug(() -> "[" + CLS + "] applied " + proto.getClass().getSimpleName() + ", new length=" + length);
+        }
+        int length = result.length();
+        logger.info(() -> "[" + CLS + "] buffer encapsulation complete, final length=" + length);
+        return result;
+    }
+
+    /**
+     * Decapsulates a buffer through all Protocols in reverse stack order,
+     * trimming headers off in place where the protocols allow it.
+     *
+     * @param data the buffer holding the encapsulated bytes (non-null, non-empty)
+     * @return the buffer holding the payload
+     * @throws IllegalArgumentException if data is null or empty
+     */
+    public PacketBuffer decapsulate(PacketBuffer data) throws IllegalArgumentException {
+        if (data == null || data.isEmpty()) {
+            logger.error("[{}] decapsulate failed: buffer is null or empty", CLS);
+            throw new IllegalArgumentException("ProtocolPipeline: data cannot be null or empty");
+        }
+        logger.info(() -> "[" + CLS + "] starting buffer decapsulation, initial length=" + data.length());
+        PacketBuffer result = data;
+        for (int i = this.stack.size() - 1; i >= 0; i--) {
+            Protocol proto = this.stack.get(i);
+            result = proto.decapsulate(result);
+            int length = result.length();
+            logger.debug(() -> "[" + CLS + "] stripped " + proto.getClass().getSimpleName() + ", new length=" + length);
+        }
+        int length = result.length();
+        logger.info(() -> "[" + CLS + "] buffer decapsulation complete, final length=" + length);
         return result;
     }
 
@@ -109,7 +162,7 @@ public class ProtocolPipeline {
      */
     public int size() {
         int sz = this.stack.size();
-        logger.debug("[" + CLS + "] size() = " + sz);
+        logger.debug(() -> "[" + CLS + "] size() = " + sz);
         return sz;
     }
 
@@ -120,7 +173,7 @@ public class ProtocolPipeline {
      */
     public boolean isEmpty() {
         boolean empty = this.stack.isEmpty();
-        logger.debug("[" + CLS + "] isEmpty() = " + empty);
+        logger.debug("[{}] isEmpty() = {}", CLS, empty);
         return empty;
     }
 
@@ -132,11 +185,43 @@ public class ProtocolPipeline {
      */
     public Protocol peek() throws RuntimeException {
         if (this.stack.isEmpty()) {
-            logger.error("[" + CLS + "] peek failed: stack is empty");
+            logger.error("[{}] peek failed: stack is empty", CLS);
             throw new RuntimeException("ProtocolPipeline: stack is empty");
         }
         Protocol p = this.stack.get(0).copy();
-        logger.debug("[" + CLS + "] peek() = " + p.getClass().getSimpleName());
+        logger.debug("[{}] peek() = {}", CLS, p.getClass().getSimpleName());
         return p;
     }
-}
\ No newline at end of file
+
+    /**
+     * Fuses this pipeline into a single-pass encoder; see {@link CompiledStack}.
+     * Later pushes and pops do not affect the compiled stack.
+     *
+     * @return the compiled stack
+     * @throws IllegalArgumentException if the stack is not [MSG,] UDP, IPv4, SimpleDLL
+     * @throws RuntimeException         if the MTU leaves no room for data
+     */
+    public CompiledStack compile() throws IllegalArgumentException, RuntimeException {
+        return CompiledStack.of(this);
+    }
+
+    /**
+     * @return read-only view of the Protocols, top of the stack first
+     */
+    List<Protocol> layers() {
+        return Collections.unmodifiableList(this.stack);
+    }
+
+    /**
+     * Returns a pipeline holding the same Protocols in the same order. The
+     * Protocols themselves are shared; only the stack is independent, so a
+     * frame sent to several receivers can be popped by each of them.
+     *
+     * @return the copy
+     */
+    public ProtocolPipeline copy() {
+        ProtocolPipeline copy = new ProtocolPipeline();
+        copy.stack.addAll(this.stack);
+        return copy;
+    }
+}
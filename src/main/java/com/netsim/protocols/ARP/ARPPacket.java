@@ -0,0 +1,195 @@
+package com.netsim.protocols.ARP;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.networkstack.PDU;
+import com.netsim.utils.Logger;
+
+/**
+ * An ARP request or reply for IPv4 over MAC (RFC 826), carried directly in a
+ * SimpleDLL frame:
+ * [htype(2)=1][ptype(2)=0x0800][hlen(1)=6][plen(1)=4][oper(2)]
+ * [sha(6)][spa(4)][tha(6)][tpa(4)].
+ * <p>
+ * SimpleDLL has no type field; an ARP packet is told apart from an IPv4 one by
+ * its first byte, which is 0 for ARP and carries version 4 for IPv4.
+ */
+public final class ARPPacket extends PDU {
+    private static final Logger logger = Logger.getInstance(ARPPacket.class);
+    private static final String CLS    = ARPPacket.class.getSimpleName();
+
+    /** size of an IPv4-over-MAC ARP packet */
+    public static final int LENGTH  = 28;
+    /** operation code of a request */
+    public static final int REQUEST = 1;
+    /** operation code of a reply */
+    public static final int REPLY   = 2;
+
+    private static final int HTYPE_ETHERNET = 1;
+    private static final int PTYPE_IPV4     = 0x0800;
+
+    private final int operation;
+    private final Mac senderMac;
+    private final int senderIp;
+    private final Mac targetMac;
+    private final int targetIp;
+
+    /**
+     * Constructs an ARP packet.
+     *
+     * @param operation {@link #REQUEST} or {@link #REPLY}
+     * @param senderMac hardware address of the sender (non-null)
+     * @param senderIp  protocol address of the sender
+     * @param targetMac hardware address of the target, zero in a request (non-null)
+     * @param targetIp  protocol address of the target
+     * @throws IllegalArgumentException if the operation is unknown or a MAC is null
+     */
+    public ARPPacket(int operation, Mac senderMac, int senderIp, Mac targetMac, int targetIp)
+            throws IllegalArgumentException {
+        super(IPv4.intern(senderIp, 32), IPv4.intern(targetIp, 32));
+        if (operation != REQUEST && operation != REPLY) {
+            logger.error("[{}] unknown operation {}", CLS, operation);
+            throw new IllegalArgumentException("ARPPacket: unknown operation " + operation);
+        }
+        if (senderMac == null || targetMac == null) {
+            logger.error("[{}] hardware addresses cannot be null", CLS);
+            throw new IllegalArgumentException("ARPPacket: hardware addresses cannot be null");
+        }
+        this.operation = operation;
+        this.senderMac = senderMac;
+        this.senderIp  = senderIp;
+        this.targetMac = targetMac;
+        this.targetIp  = targetIp;
+    }
+
+    /**
+     * Builds a request asking who holds targetIp.
+     *
+     * @param senderMac hardware address of the sender (non-null)
+     * @param senderIp  protocol address of the sender
+     * @param targetIp  protocol address being resolved
+     * @return the request
+     * @throws IllegalArgumentException if senderMac is null
+     */
+    public static ARPPacket request(Mac senderMac, int senderIp, int targetIp) throws IllegalArgumentException {
+        return new ARPPacket(REQUEST, senderMac, senderIp, Mac.fromLong(0L), targetIp);
+    }
+
+    /**
+     * Builds the reply to a request.
+     *
+     * @param request   the request being answered (non-null)
+     * @param senderMac hardware address of the replying interface (non-null)
+     * @return the reply, addressed to the requester
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public static ARPPacket replyTo(ARPPacket request, Mac senderMac) throws IllegalArgumentException {
+        if (request == null) {
+            throw new IllegalArgumentException("ARPPacket: request cannot be null");
+        }
+        return new ARPPacket(REPLY, senderMac, request.targetIp, request.senderMac, request.senderIp);
+    }
+
+    /**
+     * Checks whether bytes at offset start an IPv4-over-MAC ARP packet.
+     *
+     * @param bytes  the buffer to inspect (non-null)
+     * @param offset index of the first byte
+     * @return true if a complete ARP packet starts at offset
+     */
+    public static boolean isArp(byte[] bytes, int offset) {
+        return offset >= 0
+            && bytes.length - offset >= LENGTH
+            && bytes[offset] == 0 && bytes[offset + 1] == HTYPE_ETHERNET
+            && bytes[offset + 2] == (byte) (PTYPE_IPV4 >>> 8) && bytes[offset + 3] == 0
+            && bytes[offset + 4] == 6 && bytes[offset + 5] == 4;
+    }
+
+    /**
+     * Parses an ARP packet.
+     *
+     * @param bytes  the buffer holding the packet (non-null)
+     * @param offset index of the first byte
+     * @return the parsed packet
+     * @throws IllegalArgumentException if no valid ARP packet starts at offset
+     */
+    public static ARPPacket fromBytes(byte[] bytes, int offset) throws IllegalArgumentException {
+        if (bytes == null || !isArp(bytes, offset)) {
+            logger.error("[{}] fromBytes: not an IPv4 ARP packet", CLS);
+            throw new IllegalArgumentException("ARPPacket: not an IPv4 ARP packet");
+        }
+        int operation = ((bytes[offset + 6] & 0xFF) << 8) | (bytes[offset + 7] & 0xFF);
+        return new ARPPacket(operation,
+                             Mac.intern(bytes, offset + 8),
+                             readInt(bytes, offset + 14),
+                             Mac.intern(bytes, offset + 18),
+                             readInt(bytes, offset + 24));
+    }
+
+    /** @return {@link #REQUEST} or {@link #REPLY} */
+    public int getOperation() {
+        return this.operation;
+    }
+
+    /** @return true if this is a request */
+    public boolean isRequest() {
+        return this.operation == REQUEST;
+    }
+
+    /** @return hardware address of the sender */
+    public Mac getSenderMac() {
+        return this.senderMac;
+    }
+
+    /** @return protocol address of the sender */
+    public int getSenderIp() {
+        return this.senderIp;
+    }
+
+    /** @return hardware address of the target, zero in a request */
+    public Mac getTargetMac() {
+        return this.targetMac;
+    }
+
+    /** @return protocol address of the target */
+    public int getTargetIp() {
+        return this.targetIp;
+    }
+
+    /**
+     * ARP has no payload: the header is the whole packet.
+     *
+     * @return the {@link #LENGTH} bytes of the packet
+     */
+    @Override
+    public byte[] getHeader() {
+        byte[] out = new byte[LENGTH];
+        out[1] = HTYPE_ETHERNET;
+        out[2] = (byte) (PTYPE_IPV4 >>> 8);
+        out[4] = 6;
+        out[5] = 4;
+        out[6] = (byte) (this.operation >>> 8);
+        out[7] = (byte) this.operation;
+        this.senderMac.encode(out, 8);
+        writeInt(out, 14, this.senderIp);
+        this.targetMac.encode(out, 18);
+        writeInt(out, 24, this.targetIp);
+        return out;
+    }
+
+    @Override
+    public byte[] toByte() {
+        return this.getHeader();
+    }
+
+    private static int readInt(byte[] b, int at) {
+        return ((b[at] & 0xFF) << 24) | ((b[at + 1] & 0xFF) << 16) | ((b[at + 2] & 0xFF) << 8) | (b[at + 3] & 0xFF);
+    }
+
+    private static void writeInt(byte[] b, int at, int value) {
+        b[at]     = (byte) (value >>> 24);
+        b[at + 1] = (byte) (value >>> 16);
+        b[at + 2] = (byte) (value >>> 8);
+        b[at + 3] = (byte) value;
+    }
+}
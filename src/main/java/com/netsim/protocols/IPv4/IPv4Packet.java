@@ -11,7 +11,7 @@ import com.netsim.utils.Logger;
  * with 16-bit TTL and Protocol fields, and no checksum.
  */
 public class IPv4Packet extends PDU {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(IPv4Packet.class);
     private static final String CLS    = IPv4Packet.class.getSimpleName();
 
     private final VersionIHL versionAndIHL;
@@ -55,60 +55,59 @@ public class IPv4Packet extends PDU {
         super(source, destination);
 
         if (source == null || destination == null) {
-            logger.error("[" + CLS + "] source/destination cannot be null");
+            logger.error("[{}] source/destination cannot be null", CLS);
             throw new IllegalArgumentException("IPv4Packet: source/destination cannot be null");
         }
         this.versionAndIHL = new VersionIHL(version, IHL);
 
         if (typeOfService < 0 || typeOfService > 0xFF) {
-            logger.error("[" + CLS + "] TOS out of range");
+            logger.error("[{}] TOS out of range", CLS);
             throw new IllegalArgumentException("IPv4Packet: TOS must be 0–255");
         }
         this.tos = (byte) typeOfService;
 
         if (totalLength < 0 || totalLength > 0xFFFF) {
-            logger.error("[" + CLS + "] totalLength out of range");
+            logger.error("[{}] totalLength out of range", CLS);
             throw new IllegalArgumentException("IPv4Packet: totalLength must be 0–65535");
         }
         this.totalLength = (short) totalLength;
 
         if (identification < 0 || identification > 0xFFFF) {
-            logger.error("[" + CLS + "] identification out of range");
+            logger.error("[{}] identification out of range", CLS);
             throw new IllegalArgumentException("IPv4Packet: identification must be 0–65535");
         }
         this.identification = (short) identification;
 
         if (flags < 0 || flags > 0x7) {
-            logger.error("[" + CLS + "] flags out of range");
+            logger.error("[{}] flags out of range", CLS);
             throw new IllegalArgumentException("IPv4Packet: flags must be 0–7");
         }
         if (fragmentOffset < 0 || fragmentOffset > 0x1FFF) {
-            logger.error("[" + CLS + "] fragmentOffset out of range");
+            logger.error("[{}] fragmentOffset out of range", CLS);
             throw new IllegalArgumentException("IPv4Packet: fragmentOffset must be 0–8191");
         }
         this.flagsAndFragmentOffset = (short) (((flags & 0x7) << 13) | (fragmentOffset & 0x1FFF));
 
         if (ttl < 0 || ttl > 0xFFFF) {
-            logger.error("[" + CLS + "] TTL out of range");
+            logger.error("[{}] TTL out of range", CLS);
             throw new IllegalArgumentException("IPv4Packet: TTL must be 0–65535");
         }
         this.ttl = (short) ttl;
 
         if (protocol < 0 || protocol > 0xFFFF) {
-            logger.error("[" + CLS + "] protocol out of range");
+            logger.error("[{}] protocol out of range", CLS);
             throw new IllegalArgumentException("IPv4Packet: protocol must be 0–65535");
         }
         this.protocol = (short) protocol;
 
         if (payload == null || payload.length == 0) {
-            logger.error("[" + CLS + "] payload cannot be null or empty");
+            logger.error("[{}] payload cannot be null or empty", CLS);
             throw new IllegalArgumentException("IPv4Packet: payload cannot be null or empty");
         }
         this.payload = payload;
 
-        logger.info("[" + CLS + "] constructed: src=" + this.getSource().stringRepresentation() +
-                    " dst=" + this.getDestination().stringRepresentation() +
-                    " ttl=" + this.ttl);
+        logger.info(() -> "[" + CLS + "] constructed: src=" + this.getSource() + " dst=" + this.getDestination()
+                          + " ttl=" + this.ttl);
     }
 
     /**
@@ -118,7 +117,7 @@ public class IPv4Packet extends PDU {
      */
     @Override
     public byte[] getHeader() {
-        logger.debug("[" + CLS + "] getHeader()");
+        logger.debug("[{}] getHeader()", CLS);
         int headerLen = this.versionAndIHL.getIhl() * 4;
         ByteBuffer buf = ByteBuffer.allocate(headerLen);
         buf.put(this.versionAndIHL.toByte());
@@ -131,7 +130,7 @@ public class IPv4Packet extends PDU {
         buf.put(this.getSource().byteRepresentation());
         buf.put(this.getDestination().byteRepresentation());
         byte[] header = buf.array();
-        logger.debug("[" + CLS + "] header built, length=" + header.length);
+        logger.debug(() -> "[" + CLS + "] header built, length=" + header.length);
         return header;
     }
 
@@ -142,12 +141,12 @@ public class IPv4Packet extends PDU {
      */
     @Override
     public byte[] toByte() {
-        logger.info("[" + CLS + "] toByte()");
+        logger.info("[{}] toByte()", CLS);
         byte[] header = this.getHeader();
         ByteBuffer buf = ByteBuffer.allocate(header.length + this.payload.length);
         buf.put(header).put(this.payload);
         byte[] packet = buf.array();
-        logger.info("[" + CLS + "] serialized packet, total length=" + packet.length);
+        logger.info(() -> "[" + CLS + "] serialized packet, total length=" + packet.length);
         return packet;
     }
 }
\ No newline at end of file
@@ -1,12 +1,10 @@
 package com.netsim.protocols.IPv4;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
 import com.netsim.utils.Logger;
 
@@ -15,9 +13,12 @@ import com.netsim.utils.Logger;
  * one or more IPv4Packet fragments and reassembles them.
  */
 public class IPv4Protocol implements Protocol {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(IPv4Protocol.class);
     private static final String CLS    = IPv4Protocol.class.getSimpleName();
 
+    /** Protocol number of UDP (IANA). */
+    public static final int UDP = 17;
+
     private final IPv4 source;
     private final IPv4 destination;
     private final int  version;
@@ -52,16 +53,11 @@ public class IPv4Protocol implements Protocol {
                         int ttl,
                         int protocol,
                         int MTU) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] instantiating: src="
-                    + (source != null ? source.stringRepresentation() : "null")
-                    + " dst="
-                    + (destination != null ? destination.stringRepresentation() : "null")
-                    + " IHL=" + IHL
-                    + " TTL=" + ttl
-                    + " MTU=" + MTU);
+        logger.info(() -> "[" + CLS + "] instantiating: src=" + source + " dst=" + destination
+                          + " IHL=" + IHL + " TTL=" + ttl + " MTU=" + MTU);
 
         if (source == null || destination == null) {
-            logger.error("[" + CLS + "] source/destination cannot be null");
+            logger.error("[{}] source/destination cannot be null", CLS);
             throw new IllegalArgumentException("IP: source/destination cannot be null");
         }
         if (IHL < 5 || IHL > 15) {
@@ -106,8 +102,10 @@ public class IPv4Protocol implements Protocol {
     @Override
     public byte[] encapsulate(byte[] upperLayerPDU)
             throws IllegalArgumentException, RuntimeException {
-        logger.info("[" + CLS + "] encapsulate called, data length="
-                    + (upperLayerPDU != null ? upperLayerPDU.length : 0));
+        // guarded: a boxed length or a capturing Supplier would allocate per packet with INFO off
+        if (logger.isInfoEnabled()) {
+            logger.info("[{}] encapsulate called, data length={}", CLS, upperLayerPDU != null ? upperLayerPDU.length : 0);
+        }
 
         if (upperLayerPDU == null || upperLayerPDU.length == 0) {
             throw new IllegalArgumentException("IP: upperLayerPDU cannot be null or empty");
@@ -131,7 +129,7 @@ public class IPv4Protocol implements Protocol {
             int thisTotalLen       = headerLen + thisFragDataLen;
             int mfFlag             = ((offsetBytes + thisFragDataLen) < upperLayerPDU.length) ? 1 : 0;
             int fragOffset         = offsetBytes / fragmentUnit;
-            int flagsValue         = (mfFlag << 1);
+            int flagsValue         = mfFlag;  // MF is the low flag bit (RFC 791)
 
             byte[] fragmentData = Arrays.copyOfRange(
                 upperLayerPDU, offsetBytes, offsetBytes + thisFragDataLen);
@@ -156,7 +154,9 @@ public class IPv4Protocol implements Protocol {
         }
 
         byte[] result = out.toByteArray();
-        logger.info("[" + CLS + "] encapsulate produced " + result.length + " bytes");
+        if (logger.isInfoEnabled()) {
+            logger.info("[{}] encapsulate produced {} bytes", CLS, result.length);
+        }
         return result;
     }
 
@@ -169,87 +169,271 @@ public class IPv4Protocol implements Protocol {
      */
     @Override
     public byte[] decapsulate(byte[] lowerLayerPDU) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] decapsulate called, data length="
-                    + (lowerLayerPDU != null ? lowerLayerPDU.length : 0));
+        if (logger.isInfoEnabled()) {
+            logger.info("[{}] decapsulate called, data length={}", CLS, lowerLayerPDU != null ? lowerLayerPDU.length : 0);
+        }
 
         if (lowerLayerPDU == null || lowerLayerPDU.length == 0) {
             throw new IllegalArgumentException("IP: lowerLayerPDU cannot be null or empty");
         }
 
+        // first pass sizes the payload, second copies each fragment into place
         final int MIN_IPV4_HEADER = 20;
-        ByteArrayInputStream in = new ByteArrayInputStream(lowerLayerPDU);
-        List<Fragment> fragments = new ArrayList<>();
-
-        while (in.available() >= MIN_IPV4_HEADER) {
-            in.mark(4);
-            byte[] first4 = new byte[4];
-            in.read(first4, 0, 4);
-            in.reset();
-
-            int ihl       = first4[0] & 0x0F;
-            int headerLen = ihl * 4;
+        int totalLen = 0;
+        int end      = 0;
+        for (int at = 0; lowerLayerPDU.length - at >= MIN_IPV4_HEADER; at = end) {
+            int headerLen = (lowerLayerPDU[at] & 0x0F) * 4;
+            int length    = ((lowerLayerPDU[at + 2] & 0xFF) << 8) | (lowerLayerPDU[at + 3] & 0xFF);
+            if (headerLen < MIN_IPV4_HEADER || length < headerLen || length > lowerLayerPDU.length - at) {
+                break;
+            }
+            int offset = (((lowerLayerPDU[at + 6] & 0xFF) << 8 | (lowerLayerPDU[at + 7] & 0xFF)) & 0x1FFF) * 8;
+            totalLen   = Math.max(totalLen, offset + length - headerLen);
+            end        = at + length;
+        }
+        byte[] reassembled = new byte[totalLen];
+        for (int at = 0; at < end; ) {
+            int headerLen = (lowerLayerPDU[at] & 0x0F) * 4;
+            int length    = ((lowerLayerPDU[at + 2] & 0xFF) << 8) | (lowerLayerPDU[at + 3] & 0xFF);
+            int offset    = (((lowerLayerPDU[at + 6] & 0xFF) << 8 | (lowerLayerPDU[at + 7] & 0xFF)) & 0x1FFF) * 8;
+            System.arraycopy(lowerLayerPDU, at + headerLen, reassembled, offset, length - headerLen);
+            at += length;
+        }
 
-            byte[] header = new byte[headerLen];
-            in.read(header, 0, headerLen);
+        if (logger.isInfoEnabled()) {
+            logger.info("[{}] decapsulate reassembled to {} bytes", CLS, reassembled.length);
+        }
+        return reassembled;
+    }
 
-            int totalLen         = ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
-            int flagsAndOffset   = ((header[6] & 0xFF) << 8) | (header[7] & 0xFF);
-            int fragOffsetBytes  = (flagsAndOffset & 0x1FFF) * 8;
-            int dataLen          = totalLen - headerLen;
+    /**
+     * Fragments a buffered payload. A payload that fits in one packet gets its
+     * header prepended in place; a longer one is written once into a new buffer
+     * with the same headroom, one header per fragment.
+     *
+     * @param upperLayerPDU buffer holding the payload (non-null, non-empty)
+     * @return the buffer holding the concatenated fragments
+     * @throws IllegalArgumentException if payload is null/empty or a header field out of range
+     * @throws RuntimeException         if MTU too small for header
+     */
+    @Override
+    public PacketBuffer encapsulate(PacketBuffer upperLayerPDU) throws IllegalArgumentException, RuntimeException {
+        if (upperLayerPDU == null || upperLayerPDU.isEmpty()) {
+            throw new IllegalArgumentException("IP: upperLayerPDU cannot be null or empty");
+        }
+        int headerLen = this.IHL * 4;
+        int maxData   = ((this.MTU - headerLen) / 8) * 8;
+        if (maxData <= 0) {
+            throw new RuntimeException("IP: MTU too small for header + payload");
+        }
+        if (this.protocol < 0 || this.protocol > 0xFFFF) {
+            throw new IllegalArgumentException("IPv4Packet: protocol must be 0–65535");
+        }
+        int length = upperLayerPDU.length();
+        if (headerLen + Math.min(length, maxData) > 0xFFFF) {
+            throw new IllegalArgumentException("IPv4Packet: totalLength must be 0–65535");
+        }
+        if (length <= maxData) {
+            upperLayerPDU.prepend(headerLen);
+            this.writeHeader(upperLayerPDU, 0, this.identification, headerLen + length, 0, 0);
+            logger.info(() -> "[" + CLS + "] encapsulate produced " + upperLayerPDU.length() + " bytes");
+            return upperLayerPDU;
+        }
 
-            byte[] chunk = new byte[dataLen];
-            in.read(chunk, 0, dataLen);
+        int fragments = (length + maxData - 1) / maxData;
+        if ((fragments - 1) * (maxData / 8) > 0x1FFF) {
+            throw new IllegalArgumentException("IPv4Packet: fragmentOffset must be 0–8191");
+        }
+        PacketBuffer out = PacketBuffer.allocate(upperLayerPDU.headroom(),
+                                                 length + fragments * headerLen,
+                                                 upperLayerPDU.tailroom());
+        int at = 0;
+        for (int offset = 0; offset < length; offset += maxData) {
+            int len = Math.min(maxData, length - offset);
+            int mf  = offset + len < length ? 1 : 0;
+            this.writeHeader(out, at, this.identification, headerLen + len, mf, offset / 8);
+            System.arraycopy(upperLayerPDU.array(), upperLayerPDU.offset() + offset,
+                             out.array(), out.offset() + at + headerLen, len);
+            at += headerLen + len;
+        }
+        logger.info(() -> "[" + CLS + "] encapsulate produced " + out.length() + " bytes");
+        return out;
+    }
 
-            fragments.add(new Fragment(fragOffsetBytes, chunk));
+    /**
+     * Reassembles a buffered packet. A single unfragmented packet spanning the
+     * buffer is stripped in place; anything else goes through {@link #decapsulate(byte[])}.
+     *
+     * @param lowerLayerPDU buffer holding the fragments (non-null, non-empty)
+     * @return the buffer holding the reassembled payload
+     * @throws IllegalArgumentException if input is null or empty
+     */
+    @Override
+    public PacketBuffer decapsulate(PacketBuffer lowerLayerPDU) throws IllegalArgumentException {
+        if (lowerLayerPDU == null || lowerLayerPDU.isEmpty()) {
+            throw new IllegalArgumentException("IP: lowerLayerPDU cannot be null or empty");
+        }
+        if (lowerLayerPDU.length() >= 20) {
+            int headerLen      = (lowerLayerPDU.getUnsignedByte(0) & 0x0F) * 4;
+            int totalLen       = lowerLayerPDU.getUnsignedShort(2);
+            int flagsAndOffset = lowerLayerPDU.getUnsignedShort(6);
+            boolean whole      = (flagsAndOffset & 0x3FFF) == 0;  // MF clear, offset 0
+            if (headerLen >= 20 && totalLen == lowerLayerPDU.length() && headerLen <= totalLen && whole) {
+                lowerLayerPDU.trimFront(headerLen);
+                logger.info(() -> "[" + CLS + "] decapsulate reassembled to " + lowerLayerPDU.length() + " bytes");
+                return lowerLayerPDU;
+            }
         }
+        return PacketBuffer.wrap(this.decapsulate(lowerLayerPDU.toByteArray()));
+    }
 
-        fragments.sort((a, b) -> Integer.compare(a.offset, b.offset));
-        int totalLen = fragments.stream()
-                                .mapToInt(f -> f.offset + f.data.length)
-                                .max()
-                                .orElse(0);
-        byte[] reassembled = new byte[totalLen];
+    /**
+     * Computes the length of the fragments a payload encapsulates to.
+     *
+     * @param payloadLength payload length in bytes (&gt; 0)
+     * @return total length of the fragments, headers included
+     * @throws IllegalArgumentException if payloadLength is not positive
+     * @throws RuntimeException         if MTU too small for header
+     */
+    public int encapsulatedLength(int payloadLength) throws IllegalArgumentException, RuntimeException {
+        if (payloadLength <= 0) {
+            throw new IllegalArgumentException("IP: upperLayerPDU cannot be null or empty");
+        }
+        int headerLen = this.IHL * 4;
+        int maxData   = ((this.MTU - headerLen) / 8) * 8;
+        if (maxData <= 0) {
+            throw new RuntimeException("IP: MTU too small for header + payload");
+        }
+        return payloadLength + (payloadLength + maxData - 1) / maxData * headerLen;
+    }
 
-        for (Fragment f : fragments) {
-            System.arraycopy(f.data, 0, reassembled, f.offset, f.data.length);
+    /**
+     * Fragments a payload straight into a caller's array, like
+     * {@link #encapsulate(byte[])} but under the given identification, so
+     * that one instance can frame many datagrams of the same flow.
+     *
+     * @param upperLayerPDU  the payload bytes (non-null, non-empty)
+     * @param identification Identification field of these fragments (0–65535)
+     * @param out            destination array (non-null)
+     * @param at             index of the first header byte in out
+     * @return the number of bytes written, {@link #encapsulatedLength(int)} of the payload
+     * @throws IllegalArgumentException  if an argument or a header field is out of range
+     * @throws IndexOutOfBoundsException if the fragments do not fit in out from at
+     * @throws RuntimeException          if MTU too small for header
+     */
+    public int encapsulate(byte[] upperLayerPDU, int identification, byte[] out, int at)
+            throws IllegalArgumentException, IndexOutOfBoundsException, RuntimeException {
+        if (upperLayerPDU == null || upperLayerPDU.length == 0 || out == null) {
+            throw new IllegalArgumentException("IP: upperLayerPDU cannot be null or empty");
         }
+        if (identification < 0 || identification > 0xFFFF) {
+            throw new IllegalArgumentException("IP: identification must be between 0 and 65535");
+        }
+        if (this.protocol < 0 || this.protocol > 0xFFFF) {
+            throw new IllegalArgumentException("IPv4Packet: protocol must be 0–65535");
+        }
+        int total     = this.encapsulatedLength(upperLayerPDU.length);
+        int headerLen = this.IHL * 4;
+        int maxData   = ((this.MTU - headerLen) / 8) * 8;
+        int length    = upperLayerPDU.length;
+        if (headerLen + Math.min(length, maxData) > 0xFFFF) {
+            throw new IllegalArgumentException("IPv4Packet: totalLength must be 0–65535");
+        }
+        if ((length - 1) / maxData * (maxData / 8) > 0x1FFF) {
+            throw new IllegalArgumentException("IPv4Packet: fragmentOffset must be 0–8191");
+        }
+        if (at < 0 || at > out.length - total) {
+            throw new IndexOutOfBoundsException("IP: " + total + " bytes do not fit at " + at);
+        }
+        PacketBuffer buf = PacketBuffer.wrap(out);
+        for (int offset = 0; offset < length; offset += maxData) {
+            int len = Math.min(maxData, length - offset);
+            int mf  = offset + len < length ? 1 : 0;
+            this.writeHeader(buf, at, identification, headerLen + len, mf, offset / 8);
+            System.arraycopy(upperLayerPDU, offset, out, at + headerLen, len);
+            at += headerLen + len;
+        }
+        return total;
+    }
 
-        logger.info("[" + CLS + "] decapsulate reassembled to " + reassembled.length + " bytes");
-        return reassembled;
+    /**
+     * Writes the header of one packet at index at of buf, options zeroed.
+     */
+    private void writeHeader(PacketBuffer buf, int at, int identification, int totalLen, int flags, int fragOffset) {
+        int headerLen = this.IHL * 4;
+        buf.putByte(at, (this.version << 4) | this.IHL);
+        buf.putByte(at + 1, this.typeOfService);
+        buf.putShort(at + 2, totalLen);
+        buf.putShort(at + 4, identification);
+        buf.putShort(at + 6, ((flags & 0x7) << 13) | (fragOffset & 0x1FFF));
+        buf.putShort(at + 8, this.ttl);
+        buf.putShort(at + 10, this.protocol);
+        buf.put(at + 12, this.source.byteRepresentation());
+        buf.put(at + 16, this.destination.byteRepresentation());
+        for (int i = 20; i < headerLen; i++) {
+            buf.putByte(at + i, 0);
+        }
     }
 
     /**
-     * Extracts the destination IPv4 address from a packet.
+     * Reads the destination address from a packet's header.
      *
      * @param packet the full IPv4 packet bytes
-     * @return the configured destination address
+     * @return the destination address, as a /32
      * @throws IllegalArgumentException if packet is too short
      */
     @Override
     public IPv4 extractDestination(byte[] packet) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] extractDestination()");
-        if (packet == null || packet.length < this.IHL * 4) {
+        if (packet == null || packet.length < 20) {
             throw new IllegalArgumentException("IPv4Protocol.extractDestination: packet too short");
         }
-        logger.debug("[" + CLS + "] destination=" + this.destination.stringRepresentation());
-        return this.destination;
+        return IPv4.intern(destinationOf(packet, 0), 32);
     }
 
     /**
-     * Extracts the source IPv4 address from a packet.
+     * Reads the source address from a packet's header.
      *
      * @param packet the full IPv4 packet bytes
-     * @return the configured source address
+     * @return the source address, as a /32
      * @throws IllegalArgumentException if packet is too short
      */
     @Override
     public IPv4 extractSource(byte[] packet) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] extractSource()");
-        if (packet == null || packet.length < this.IHL * 4) {
+        if (packet == null || packet.length < 20) {
             throw new IllegalArgumentException("IPv4Protocol.extractSource: packet too short");
         }
-        logger.debug("[" + CLS + "] source=" + this.source.stringRepresentation());
-        return this.source;
+        return IPv4.intern(sourceOf(packet, 0), 32);
+    }
+
+    /**
+     * @param packet bytes holding an IPv4 header at index at (at least 20 bytes)
+     * @param at     index of the header
+     * @return the packed source address
+     */
+    public static int sourceOf(byte[] packet, int at) {
+        return readInt(packet, at + 12);
+    }
+
+    /**
+     * @param packet bytes holding an IPv4 header at index at (at least 20 bytes)
+     * @param at     index of the header
+     * @return the packed destination address
+     */
+    public static int destinationOf(byte[] packet, int at) {
+        return readInt(packet, at + 16);
+    }
+
+    /**
+     * @param packet bytes holding an IPv4 header at index at (at least 20 bytes)
+     * @param at     index of the header
+     * @return the upper-layer protocol number
+     */
+    public static int protocolOf(byte[] packet, int at) {
+        return ((packet[at + 10] & 0xFF) << 8) | (packet[at + 11] & 0xFF);
+    }
+
+    private static int readInt(byte[] b, int at) {
+        return (b[at] & 0xFF) << 24 | (b[at + 1] & 0xFF) << 16 | (b[at + 2] & 0xFF) << 8 | (b[at + 3] & 0xFF);
     }
 
     /**
@@ -259,7 +443,7 @@ public class IPv4Protocol implements Protocol {
      */
     @Override
     public Protocol copy() {
-        logger.debug("[" + CLS + "] copy()");
+        logger.debug("[{}] copy()", CLS);
         return new IPv4Protocol(
             this.source,
             this.destination,
@@ -273,17 +457,6 @@ public class IPv4Protocol implements Protocol {
         );
     }
 
-    // Internal holder for fragment data
-    private static class Fragment {
-        final int    offset;
-        final byte[] data;
-
-        Fragment(int offset, byte[] data) {
-            this.offset = offset;
-            this.data   = data;
-        }
-    }
-
     public IPv4 getSource()      { return this.source; }
     public IPv4 getDestination() { return this.destination; }
     public int  getTtl()         { return this.ttl; }
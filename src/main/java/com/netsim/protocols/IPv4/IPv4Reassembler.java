@@ -0,0 +1,306 @@
+package com.netsim.protocols.IPv4;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Incremental IPv4 reassembly: accepts fragments one at a time, in any
+ * order, and hands back a datagram's payload once its last hole is filled.
+ * <p>
+ * Datagrams are told apart by (source, destination, identification,
+ * protocol) as in RFC 791. Each one keeps a hole list (RFC 815) and a single
+ * buffer every fragment is copied straight into; the buffer is cut to the
+ * exact payload size as soon as the last fragment reveals it. Unfragmented
+ * packets bypass the table entirely.
+ * <p>
+ * Incomplete datagrams are dropped {@link #getTimeout()} nanoseconds after
+ * their first fragment, and the buffers of all pending datagrams together
+ * never exceed the memory limit: the oldest datagrams are evicted to make
+ * room. Not thread-safe; each node owns its reassembler.
+ */
+public final class IPv4Reassembler {
+    /** Default lifetime of an incomplete datagram: 30 s, as in Linux. */
+    public static final long DEFAULT_TIMEOUT      = 30_000_000_000L;
+    /** Default cap on buffered bytes: 4 MiB. */
+    public static final int  DEFAULT_MEMORY_LIMIT = 4 << 20;
+
+    private static final int MAX_PAYLOAD = 0xFFFF;
+
+    /** (source, destination, identification, protocol) of a datagram. */
+    private static final class Key {
+        final int source;
+        final int destination;
+        final int idAndProtocol;
+
+        Key(int source, int destination, int identification, int protocol) {
+            this.source        = source;
+            this.destination   = destination;
+            this.idAndProtocol = identification << 16 | protocol;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return this.source == k.source && this.destination == k.destination
+                   && this.idAndProtocol == k.idAndProtocol;
+        }
+
+        @Override
+        public int hashCode() {
+            return (this.source * 31 + this.destination) * 31 + this.idAndProtocol;
+        }
+    }
+
+    /** A datagram being reassembled. Holes are inclusive [first, last] byte ranges. */
+    private static final class Datagram {
+        final long created;
+        byte[]     buffer;
+        int        total;
+        int        received;
+        int[]      holes;
+        int        holeCount;
+
+        Datagram(long created) {
+            this.created   = created;
+            this.buffer    = new byte[0];
+            this.total     = -1;
+            this.holes     = new int[] {0, Integer.MAX_VALUE, 0, 0};
+            this.holeCount = 1;
+        }
+
+        /**
+         * Punches the range [first, last] out of the hole list.
+         *
+         * @param more whether more fragments follow this one
+         */
+        void fill(int first, int last, boolean more) {
+            int[] next  = new int[(this.holeCount + 1) * 2];
+            int   count = 0;
+            for (int h = 0; h < this.holeCount; h++) {
+                int holeFirst = this.holes[2 * h];
+                int holeLast  = this.holes[2 * h + 1];
+                if (first > holeLast || last < holeFirst) {
+                    next[2 * count]     = holeFirst;
+                    next[2 * count + 1] = holeLast;
+                    count++;
+                    continue;
+                }
+                if (first > holeFirst) {
+                    next[2 * count]     = holeFirst;
+                    next[2 * count + 1] = first - 1;
+                    count++;
+                }
+                if (last < holeLast && more) {
+                    next[2 * count]     = last + 1;
+                    next[2 * count + 1] = holeLast;
+                    count++;
+                }
+            }
+            this.holes     = next;
+            this.holeCount = count;
+        }
+    }
+
+    private final Map<Key, Datagram> pending;
+    private final long               timeout;
+    private final int                memoryLimit;
+    private       long               buffered;
+    private       long               timedOut;
+    private       long               evicted;
+
+    /**
+     * Creates a reassembler with the default timeout and memory limit.
+     */
+    public IPv4Reassembler() {
+        this(DEFAULT_TIMEOUT, DEFAULT_MEMORY_LIMIT);
+    }
+
+    /**
+     * @param timeout     nanoseconds an incomplete datagram is kept (&gt; 0)
+     * @param memoryLimit bytes all pending buffers may take together (&gt; 0)
+     * @throws IllegalArgumentException if an argument is not positive
+     */
+    public IPv4Reassembler(long timeout, int memoryLimit) throws IllegalArgumentException {
+        if (timeout <= 0 || memoryLimit <= 0) {
+            throw new IllegalArgumentException("IPv4Reassembler: timeout and memory limit must be positive");
+        }
+        // insertion order is arrival order of first fragments: oldest first
+        this.pending     = new LinkedHashMap<>();
+        this.timeout     = timeout;
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Takes one fragment.
+     *
+     * @param packet array holding the fragment (non-null)
+     * @param offset index of the fragment's first header byte
+     * @param now    current time in nanoseconds
+     * @return the whole payload if this fragment completed its datagram, else null
+     * @throws IllegalArgumentException if the fragment header is malformed
+     */
+    public byte[] accept(byte[] packet, int offset, long now) throws IllegalArgumentException {
+        if (packet == null || offset < 0 || packet.length - offset < 20) {
+            throw new IllegalArgumentException("IPv4Reassembler: fragment shorter than a header");
+        }
+        int headerLen      = (packet[offset] & 0x0F) * 4;
+        int totalLen       = readShort(packet, offset + 2);
+        int flagsAndOffset = readShort(packet, offset + 6);
+        if (headerLen < 20 || totalLen < headerLen || totalLen > packet.length - offset) {
+            throw new IllegalArgumentException("IPv4Reassembler: inconsistent fragment lengths");
+        }
+        int     first  = (flagsAndOffset & 0x1FFF) * 8;
+        int     length = totalLen - headerLen;
+        boolean more   = (flagsAndOffset & 0x2000) != 0;
+        int     data   = offset + headerLen;
+
+        if (first == 0 && !more) {
+            return Arrays.copyOfRange(packet, data, data + length);
+        }
+        this.expire(now);
+        if (length == 0 || first + length > MAX_PAYLOAD) {
+            return null;
+        }
+
+        Key key = new Key(readInt(packet, offset + 12), readInt(packet, offset + 16),
+                          readShort(packet, offset + 4), readShort(packet, offset + 10));
+        Datagram d = this.pending.get(key);
+        if (d == null) {
+            d = new Datagram(now);
+            this.pending.put(key, d);
+        }
+
+        int end = first + length;
+        if (d.total >= 0 && end > d.total || !more && (d.total >= 0 && end != d.total || end < d.received)) {
+            // data past the end, or two different ends: the datagram is corrupt
+            this.discard(key, d);
+            return null;
+        }
+        int capacity = d.buffer.length;
+        if (!more) {
+            capacity = end;
+        } else if (end > capacity) {
+            capacity = d.total >= 0 ? d.total : Math.max(end, Math.min(MAX_PAYLOAD, capacity * 2));
+        }
+        if (capacity != d.buffer.length) {
+            if (!this.reserve(key, d, capacity - d.buffer.length)) {
+                return null;
+            }
+            d.buffer = Arrays.copyOf(d.buffer, capacity);
+        }
+        if (!more) {
+            d.total = end;
+        }
+        d.received = Math.max(d.received, end);
+        System.arraycopy(packet, data, d.buffer, first, length);
+        d.fill(first, end - 1, more);
+
+        if (d.holeCount > 0) {
+            return null;
+        }
+        this.pending.remove(key);
+        this.buffered -= d.buffer.length;
+        return d.buffer;
+    }
+
+    /**
+     * Makes room for extra bytes by evicting the oldest other datagrams.
+     *
+     * @return false if even that was not enough and d itself was dropped
+     */
+    private boolean reserve(Key key, Datagram d, long extra) {
+        Iterator<Map.Entry<Key, Datagram>> it = this.pending.entrySet().iterator();
+        while (this.buffered + extra > this.memoryLimit && it.hasNext()) {
+            Map.Entry<Key, Datagram> e = it.next();
+            if (e.getValue() == d) {
+                continue;
+            }
+            this.buffered -= e.getValue().buffer.length;
+            this.evicted++;
+            it.remove();
+        }
+        if (this.buffered + extra > this.memoryLimit) {
+            this.discard(key, d);
+            return false;
+        }
+        this.buffered += extra;
+        return true;
+    }
+
+    private void discard(Key key, Datagram d) {
+        this.pending.remove(key);
+        this.buffered -= d.buffer.length;
+        this.evicted++;
+    }
+
+    /**
+     * Drops incomplete datagrams whose first fragment is older than the timeout.
+     *
+     * @param now current time in nanoseconds
+     * @return the number of datagrams dropped
+     */
+    public int expire(long now) {
+        int removed = 0;
+        Iterator<Datagram> it = this.pending.values().iterator();
+        while (it.hasNext()) {
+            Datagram d = it.next();
+            if (now - d.created < this.timeout) {
+                break;  // the rest arrived later
+            }
+            this.buffered -= d.buffer.length;
+            it.remove();
+            removed++;
+        }
+        this.timedOut += removed;
+        return removed;
+    }
+
+    /** @return number of incomplete datagrams */
+    public int pending() {
+        return this.pending.size();
+    }
+
+    /** @return true if no datagram is incomplete */
+    public boolean isEmpty() {
+        return this.pending.isEmpty();
+    }
+
+    /** @return bytes held by incomplete datagrams */
+    public long getBuffered() {
+        return this.buffered;
+    }
+
+    /** @return datagrams dropped because they did not complete in time */
+    public long getTimedOut() {
+        return this.timedOut;
+    }
+
+    /** @return datagrams dropped to respect the memory limit or because they were inconsistent */
+    public long getEvicted() {
+        return this.evicted;
+    }
+
+    /** @return nanoseconds an incomplete datagram is kept */
+    public long getTimeout() {
+        return this.timeout;
+    }
+
+    /** Drops every incomplete datagram. */
+    public void clear() {
+        this.pending.clear();
+        this.buffered = 0;
+    }
+
+    private static int readShort(byte[] b, int at) {
+        return ((b[at] & 0xFF) << 8) | (b[at + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] b, int at) {
+        return (readShort(b, at) << 16) | readShort(b, at + 2);
+    }
+}
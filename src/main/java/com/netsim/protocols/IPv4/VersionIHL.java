@@ -6,7 +6,7 @@ import com.netsim.utils.Logger;
  * Encapsulates a 4-bit IP version and 4-bit IHL (Internet Header Length) in one byte.
  */
 public final class VersionIHL {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(VersionIHL.class);
     private static final String CLS    = VersionIHL.class.getSimpleName();
 
     private byte b;
@@ -20,15 +20,15 @@ public final class VersionIHL {
      */
     public VersionIHL(int version, int ihl) throws IllegalArgumentException {
         if (version < 0 || version > 0xF) {
-            logger.error("[" + CLS + "] version out of range: " + version);
+            logger.error("[{}] version out of range: {}", CLS, version);
             throw new IllegalArgumentException("VersionIHL: version must be 0…15");
         }
         if (ihl < 5 || ihl > 0xF) {
-            logger.error("[" + CLS + "] IHL out of range: " + ihl);
+            logger.error("[{}] IHL out of range: {}", CLS, ihl);
             throw new IllegalArgumentException("VersionIHL: IHL must be 5…15");
         }
         this.b = (byte) ((version << 4) | (ihl & 0xF));
-        logger.info("[" + CLS + "] constructed byte=0x" + String.format("%02X", this.b));
+        logger.info(() -> "[" + CLS + "] constructed byte=0x" + String.format("%02X", this.b));
     }
 
     /**
@@ -38,7 +38,7 @@ public final class VersionIHL {
      */
     public int getVersion() {
         int version = (this.b >>> 4) & 0xF;
-        logger.debug("[" + CLS + "] getVersion() → " + version);
+        logger.debug("[{}] getVersion() → {}", CLS, version);
         return version;
     }
 
@@ -49,7 +49,7 @@ public final class VersionIHL {
      */
     public int getIhl() {
         int ihl = this.b & 0xF;
-        logger.debug("[" + CLS + "] getIhl() → " + ihl);
+        logger.debug("[{}] getIhl() → {}", CLS, ihl);
         return ihl;
     }
 
@@ -59,7 +59,7 @@ public final class VersionIHL {
      * @return the byte combining version and IHL
      */
     public byte toByte() {
-        logger.debug("[" + CLS + "] toByte() → 0x" + String.format("%02X", this.b));
+        logger.debug(() -> "[" + CLS + "] toByte() → 0x" + String.format("%02X", this.b));
         return this.b;
     }
 
@@ -73,8 +73,8 @@ public final class VersionIHL {
     public static VersionIHL fromByte(byte raw) throws IllegalArgumentException {
         int version = (raw >>> 4) & 0xF;
         int ihl     = raw & 0xF;
-        logger.debug("[" + CLS + "] fromByte(raw=0x" + String.format("%02X", raw) +
-                     ") → version=" + version + ", IHL=" + ihl);
+        logger.debug(() -> "[" + CLS + "] fromByte(raw=0x" + String.format("%02X", raw)
+                           + ") → version=" + version + ", IHL=" + ihl);
         return new VersionIHL(version, ihl);
     }
 }
\ No newline at end of file
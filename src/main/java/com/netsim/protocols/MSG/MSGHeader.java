@@ -11,7 +11,7 @@ import java.util.Objects;
  * is "name: message".
  */
 public class MSGHeader extends PDU {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(MSGHeader.class);
     private static final String CLS    = MSGHeader.class.getSimpleName();
 
     private final String name;
@@ -26,9 +26,9 @@ public class MSGHeader extends PDU {
      */
     public MSGHeader(String name, String message) throws IllegalArgumentException {
         super(null, null);
-        logger.info("[" + CLS + "] constructing header for name=\"" + name + "\" message=\"" + message + "\"");
+        logger.info("[{}] constructing header for name=\"{}\" message=\"{}\"", CLS, name, message);
         if (name == null || message == null) {
-            logger.error("[" + CLS + "] name or message is null");
+            logger.error("[{}] name or message is null", CLS);
             throw new IllegalArgumentException("MSGHeader: name and message must be non-null");
         }
         this.name    = name;
@@ -42,9 +42,9 @@ public class MSGHeader extends PDU {
      */
     @Override
     public byte[] getHeader() {
-        logger.debug("[" + CLS + "] getHeader()");
+        logger.debug("[{}] getHeader()", CLS);
         byte[] hdr = this.name.getBytes(StandardCharsets.UTF_8);
-        logger.info("[" + CLS + "] header length=" + hdr.length);
+        logger.info(() -> "[" + CLS + "] header length=" + hdr.length);
         return hdr;
     }
 
@@ -55,10 +55,10 @@ public class MSGHeader extends PDU {
      */
     @Override
     public byte[] toByte() {
-        logger.debug("[" + CLS + "] toByte()");
+        logger.debug("[{}] toByte()", CLS);
         String line = this.name + ": " + this.message;
         byte[] full = line.getBytes(StandardCharsets.UTF_8);
-        logger.info("[" + CLS + "] full PDU length=" + full.length);
+        logger.info(() -> "[" + CLS + "] full PDU length=" + full.length);
         return full;
     }
 
@@ -86,12 +86,12 @@ public class MSGHeader extends PDU {
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof MSGHeader)) {
-            logger.debug("[" + CLS + "] equals: not an MSGHeader");
+            logger.debug("[{}] equals: not an MSGHeader", CLS);
             return false;
         }
         MSGHeader that = (MSGHeader) o;
         boolean eq = this.name.equals(that.name) && this.message.equals(that.message);
-        logger.debug("[" + CLS + "] equals() → " + eq);
+        logger.debug("[{}] equals() → {}", CLS, eq);
         return eq;
     }
 
@@ -101,7 +101,7 @@ public class MSGHeader extends PDU {
     @Override
     public int hashCode() {
         int h = Objects.hash(this.name, this.message);
-        logger.debug("[" + CLS + "] hashCode() = " + h);
+        logger.debug(() -> "[" + CLS + "] hashCode() = " + h);
         return h;
     }
 }
\ No newline at end of file
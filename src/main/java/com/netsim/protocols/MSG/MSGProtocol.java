@@ -1,5 +1,6 @@
 package com.netsim.protocols.MSG;
 
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
 import com.netsim.addresses.Address;
 import com.netsim.addresses.Port;
@@ -16,12 +17,13 @@ import java.util.Objects;
  * </p>
  */
 public class MSGProtocol implements Protocol {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(MSGProtocol.class);
     private static final String CLS    = MSGProtocol.class.getSimpleName();
     private final static int    port   = 9696;
 
     private static final int MAX_HEADER_LENGTH = 20;
     private final String name;
+    private final byte[] prefix;
 
     /**
      * Constructs a new MSGProtocol instance.
@@ -30,16 +32,17 @@ public class MSGProtocol implements Protocol {
      * @throws IllegalArgumentException if name is null or too long
      */
     public MSGProtocol(String name) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] constructing with name=\"" + name + "\"");
+        logger.info("[{}] constructing with name=\"{}\"", CLS, name);
         if (name == null) {
-            logger.error("[" + CLS + "] name cannot be null");
+            logger.error("[{}] name cannot be null", CLS);
             throw new IllegalArgumentException("MSGProtocol: name cannot be null");
         }
         if (name.length() > MAX_HEADER_LENGTH) {
-            logger.error("[" + CLS + "] name is too long: " + name.length() + " > " + MAX_HEADER_LENGTH);
+            logger.error("[{}] name is too long: {} > {}", CLS, name.length(), MAX_HEADER_LENGTH);
             throw new IllegalArgumentException("MSGProtocol: name is too long (max " + MAX_HEADER_LENGTH + " chars)");
         }
-        this.name = name;
+        this.name   = name;
+        this.prefix = (name + ": ").getBytes(StandardCharsets.UTF_8);
     }
 
     /**
@@ -51,17 +54,17 @@ public class MSGProtocol implements Protocol {
      */
     @Override
     public byte[] encapsulate(byte[] upperLayerPDU) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] encapsulate called, payload length=" +
-                     (upperLayerPDU == null ? "null" : upperLayerPDU.length));
+        logger.debug(() -> "[" + CLS + "] encapsulate called, payload length="
+                           + (upperLayerPDU == null ? "null" : upperLayerPDU.length));
         if (upperLayerPDU == null || upperLayerPDU.length == 0) {
-            logger.error("[" + CLS + "] payload cannot be null or empty");
+            logger.error("[{}] payload cannot be null or empty", CLS);
             throw new IllegalArgumentException("MSGProtocol: payload cannot be null or empty");
         }
 
         String message = new String(upperLayerPDU, StandardCharsets.UTF_8);
         String framed  = this.name + ": " + message;
         byte[] out     = framed.getBytes(StandardCharsets.UTF_8);
-        logger.info("[" + CLS + "] encapsulated length=" + out.length);
+        logger.info(() -> "[" + CLS + "] encapsulated length=" + out.length);
         return out;
     }
 
@@ -74,26 +77,68 @@ public class MSGProtocol implements Protocol {
      */
     @Override
     public byte[] decapsulate(byte[] lowerLayerPDU) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] decapsulate called, input length=" +
-                     (lowerLayerPDU == null ? "null" : lowerLayerPDU.length));
+        logger.debug(() -> "[" + CLS + "] decapsulate called, input length="
+                           + (lowerLayerPDU == null ? "null" : lowerLayerPDU.length));
         if (lowerLayerPDU == null || lowerLayerPDU.length == 0) {
-            logger.error("[" + CLS + "] input cannot be null or empty");
+            logger.error("[{}] input cannot be null or empty", CLS);
             throw new IllegalArgumentException("MSGProtocol: input cannot be null or empty");
         }
 
         String full   = new String(lowerLayerPDU, StandardCharsets.UTF_8);
         String prefix = this.name + ": ";
         if (!full.startsWith(prefix)) {
-            logger.error("[" + CLS + "] missing prefix \"" + prefix + "\"");
+            logger.error("[{}] missing prefix \"{}\"", CLS, prefix);
             throw new IllegalArgumentException("MSGProtocol: expected prefix \"" + prefix + "\"");
         }
 
         String message = full.substring(prefix.length());
         byte[] out     = message.getBytes(StandardCharsets.UTF_8);
-        logger.info("[" + CLS + "] decapsulated length=" + out.length);
+        logger.info(() -> "[" + CLS + "] decapsulated length=" + out.length);
         return out;
     }
 
+    /**
+     * Prepends "name: " into the buffer's headroom. The payload is taken as
+     * UTF-8 text, as in {@link #encapsulate(byte[])}, and is not re-encoded.
+     *
+     * @param upperLayerPDU buffer holding the application payload (non-null, non-empty)
+     * @return the same buffer, extended by the header
+     * @throws IllegalArgumentException if payload is null or empty
+     */
+    @Override
+    public PacketBuffer encapsulate(PacketBuffer upperLayerPDU) throws IllegalArgumentException {
+        if (upperLayerPDU == null || upperLayerPDU.isEmpty()) {
+            logger.error("[{}] payload cannot be null or empty", CLS);
+            throw new IllegalArgumentException("MSGProtocol: payload cannot be null or empty");
+        }
+        upperLayerPDU.prepend(this.prefix.length);
+        upperLayerPDU.put(0, this.prefix);
+        logger.info(() -> "[" + CLS + "] encapsulated length=" + upperLayerPDU.length());
+        return upperLayerPDU;
+    }
+
+    /**
+     * Strips the "name: " prefix off the buffer in place.
+     *
+     * @param lowerLayerPDU buffer holding the received bytes (non-null, non-empty)
+     * @return the same buffer, trimmed to the payload
+     * @throws IllegalArgumentException if input is null, empty, or missing prefix
+     */
+    @Override
+    public PacketBuffer decapsulate(PacketBuffer lowerLayerPDU) throws IllegalArgumentException {
+        if (lowerLayerPDU == null || lowerLayerPDU.isEmpty()) {
+            logger.error("[{}] input cannot be null or empty", CLS);
+            throw new IllegalArgumentException("MSGProtocol: input cannot be null or empty");
+        }
+        if (!lowerLayerPDU.regionMatches(0, this.prefix)) {
+            logger.error("[{}] missing prefix \"{}: \"", CLS, this.name);
+            throw new IllegalArgumentException("MSGProtocol: expected prefix \"" + this.name + ": \"");
+        }
+        lowerLayerPDU.trimFront(this.prefix.length);
+        logger.info(() -> "[" + CLS + "] decapsulated length=" + lowerLayerPDU.length());
+        return lowerLayerPDU;
+    }
+
     /**
      * Retrieves the user name associated with this protocol.
      *
@@ -103,13 +148,35 @@ public class MSGProtocol implements Protocol {
         return this.name;
     }
 
+    /**
+     * Splits a raw MSG PDU into sender name and message, reading the name
+     * from the bytes rather than from a protocol instance.
+     *
+     * @param pdu the received bytes, "name: message" (non-null, non-empty)
+     * @return the parsed header
+     * @throws IllegalArgumentException if input is null, empty, or has no name prefix
+     */
+    public static MSGHeader parse(byte[] pdu) throws IllegalArgumentException {
+        if (pdu == null || pdu.length == 0) {
+            logger.error("[{}] input cannot be null or empty", CLS);
+            throw new IllegalArgumentException("MSGProtocol: input cannot be null or empty");
+        }
+        String full = new String(pdu, StandardCharsets.UTF_8);
+        int    sep  = full.indexOf(": ");
+        if (sep < 0 || sep > MAX_HEADER_LENGTH) {
+            logger.error("[{}] missing name prefix", CLS);
+            throw new IllegalArgumentException("MSGProtocol: missing name prefix");
+        }
+        return new MSGHeader(full.substring(0, sep), full.substring(sep + 2));
+    }
+
     /**
      * Returns the well‐known port for MSGProtocol.
      *
      * @return a Port instance for this protocol
      */
     public static Port port() {
-        return new Port(Integer.toString(port));
+        return Port.of(port);
     }
 
     @Override
@@ -142,7 +209,7 @@ public class MSGProtocol implements Protocol {
         }
         MSGProtocol that = (MSGProtocol) obj;
         boolean eq = Objects.equals(this.name, that.name);
-        logger.debug("[" + CLS + "] equals() → " + eq);
+        logger.debug("[{}] equals() → {}", CLS, eq);
         return eq;
     }
 
@@ -154,7 +221,7 @@ public class MSGProtocol implements Protocol {
     @Override
     public int hashCode() {
         int h = Objects.hash(this.name);
-        logger.debug("[" + CLS + "] hashCode() = " + h);
+        logger.debug(() -> "[" + CLS + "] hashCode() = " + h);
         return h;
     }
 
@@ -165,7 +232,7 @@ public class MSGProtocol implements Protocol {
      */
     @Override
     public Protocol copy() {
-        logger.info("[" + CLS + "] copying protocol instance");
+        logger.info("[{}] copying protocol instance", CLS);
         return new MSGProtocol(this.name);
     }
 }
\ No newline at end of file
@@ -11,7 +11,7 @@ import java.nio.ByteBuffer;
  * to an encapsulated PDU payload.
  */
 public final class SimpleDLLFrame extends PDU {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(SimpleDLLFrame.class);
     private static final String CLS    = SimpleDLLFrame.class.getSimpleName();
 
     private final byte[] payload;
@@ -27,19 +27,19 @@ public final class SimpleDLLFrame extends PDU {
     public SimpleDLLFrame(Mac srcMac, Mac dstMac, byte[] payload) throws IllegalArgumentException {
         super(srcMac, dstMac);
         if (srcMac == null) {
-            logger.error("[" + CLS + "] srcMac cannot be null");
+            logger.error("[{}] srcMac cannot be null", CLS);
             throw new IllegalArgumentException("SimpleDLLFrame: srcMac cannot be null");
         }
         if (dstMac == null) {
-            logger.error("[" + CLS + "] dstMac cannot be null");
+            logger.error("[{}] dstMac cannot be null", CLS);
             throw new IllegalArgumentException("SimpleDLLFrame: dstMac cannot be null");
         }
         if (payload == null || payload.length == 0) {
-            logger.error("[" + CLS + "] payload cannot be null or empty");
+            logger.error("[{}] payload cannot be null or empty", CLS);
             throw new IllegalArgumentException("SimpleDLLFrame: payload cannot be null or empty");
         }
         this.payload = payload.clone();
-        logger.info("[" + CLS + "] constructed with payload length=" + this.payload.length);
+        logger.info(() -> "[" + CLS + "] constructed with payload length=" + this.payload.length);
     }
 
     /**
@@ -50,13 +50,11 @@ public final class SimpleDLLFrame extends PDU {
      */
     @Override
     public byte[] getHeader() {
-        logger.debug("[" + CLS + "] getHeader()");
-        byte[] dstBytes = this.destination.byteRepresentation();
-        byte[] srcBytes = this.source.byteRepresentation();
-        ByteBuffer buf = ByteBuffer.allocate(dstBytes.length + srcBytes.length);
-        buf.put(dstBytes).put(srcBytes);
-        byte[] header = buf.array();
-        logger.debug("[" + CLS + "] header built, length=" + header.length);
+        logger.debug("[{}] getHeader()", CLS);
+        byte[] header = new byte[12];
+        ((Mac) this.destination).encode(header, 0);
+        ((Mac) this.source).encode(header, 6);
+        logger.debug(() -> "[" + CLS + "] header built, length=" + header.length);
         return header;
     }
 
@@ -67,13 +65,13 @@ public final class SimpleDLLFrame extends PDU {
      */
     @Override
     public byte[] toByte() {
-        logger.debug("[" + CLS + "] toByte()");
+        logger.debug("[{}] toByte()", CLS);
         byte[] header = this.getHeader();
         byte[] body   = this.payload;
         ByteBuffer buf = ByteBuffer.allocate(header.length + body.length);
         buf.put(header).put(body);
         byte[] frame = buf.array();
-        logger.info("[" + CLS + "] serialized frame, total length=" + frame.length);
+        logger.info(() -> "[" + CLS + "] serialized frame, total length=" + frame.length);
         return frame;
     }
 }
\ No newline at end of file
@@ -4,17 +4,22 @@ import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 
 import com.netsim.addresses.Mac;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
+import com.netsim.protocols.ARP.ARPPacket;
 import com.netsim.utils.Logger;
 
 /**
  * A Data Link Layer protocol that fragments or reassembles raw IP packets
- * into Ethernet‐like frames using MAC addresses.
+ * into Ethernet‐like frames using MAC addresses. ARP packets are framed the
+ * same way; they are recognised by their leading bytes (see {@link ARPPacket}).
  */
 public class SimpleDLLProtocol implements Protocol {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(SimpleDLLProtocol.class);
     private static final String CLS    = SimpleDLLProtocol.class.getSimpleName();
 
+    private static final int HEADER_LEN = 12;
+
     private final Mac source;
     private final Mac destination;
 
@@ -27,17 +32,16 @@ public class SimpleDLLProtocol implements Protocol {
      */
     public SimpleDLLProtocol(Mac source, Mac destination) {
         if (source == null) {
-            logger.error("[" + CLS + "] source MAC cannot be null");
+            logger.error("[{}] source MAC cannot be null", CLS);
             throw new IllegalArgumentException("SimpleDLLProtocol: source MAC cannot be null");
         }
         if (destination == null) {
-            logger.error("[" + CLS + "] destination MAC cannot be null");
+            logger.error("[{}] destination MAC cannot be null", CLS);
             throw new IllegalArgumentException("SimpleDLLProtocol: destination MAC cannot be null");
         }
         this.source      = source;
         this.destination = destination;
-        logger.info("[" + CLS + "] instantiated with src=" + this.source.stringRepresentation()
-                    + " dst=" + this.destination.stringRepresentation());
+        logger.info("[{}] instantiated with src={} dst={}", CLS, this.source, this.destination);
     }
 
     /**
@@ -50,36 +54,41 @@ public class SimpleDLLProtocol implements Protocol {
     @Override
     public byte[] encapsulate(byte[] ipPackets) {
         if (ipPackets == null || ipPackets.length == 0) {
-            logger.error("[" + CLS + "] encapsulate: ipPackets cannot be null or empty");
+            logger.error("[{}] encapsulate: ipPackets cannot be null or empty", CLS);
             throw new IllegalArgumentException("SimpleDLLProtocol: ipPackets cannot be null or empty");
         }
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         int offset = 0;
         while (offset < ipPackets.length) {
             if (offset + 4 > ipPackets.length) {
-                logger.error("[" + CLS + "] encapsulate: truncated IP packet at offset " + offset);
+                logger.error("[{}] encapsulate: truncated IP packet at offset {}", CLS, offset);
                 throw new IllegalArgumentException("SimpleDLLProtocol: truncated IP packet");
             }
-            int ihl         = ipPackets[offset] & 0x0F;
-            int headerBytes = ihl * 4;
-            if (ihl < 5 || offset + headerBytes > ipPackets.length) {
-                logger.error("[" + CLS + "] encapsulate: invalid IHL or incomplete header");
-                throw new IllegalArgumentException("SimpleDLLProtocol: invalid IHL or incomplete header");
-            }
-            int totalLen = ((ipPackets[offset + 2] & 0xFF) << 8)
+            int totalLen;
+            if (ARPPacket.isArp(ipPackets, offset)) {
+                totalLen = ARPPacket.LENGTH;
+            } else {
+                int ihl         = ipPackets[offset] & 0x0F;
+                int headerBytes = ihl * 4;
+                if (ihl < 5 || offset + headerBytes > ipPackets.length) {
+                    logger.error("[{}] encapsulate: invalid IHL or incomplete header", CLS);
+                    throw new IllegalArgumentException("SimpleDLLProtocol: invalid IHL or incomplete header");
+                }
+                totalLen = ((ipPackets[offset + 2] & 0xFF) << 8)
                          |  (ipPackets[offset + 3] & 0xFF);
-            if (totalLen < headerBytes || offset + totalLen > ipPackets.length) {
-                logger.error("[" + CLS + "] encapsulate: invalid total length=" + totalLen);
-                throw new IllegalArgumentException("SimpleDLLProtocol: invalid total length");
+                if (totalLen < headerBytes || offset + totalLen > ipPackets.length) {
+                    logger.error("[{}] encapsulate: invalid total length={}", CLS, totalLen);
+                    throw new IllegalArgumentException("SimpleDLLProtocol: invalid total length");
+                }
             }
             byte[] ipPkt = Arrays.copyOfRange(ipPackets, offset, offset + totalLen);
             SimpleDLLFrame frame = new SimpleDLLFrame(this.source, this.destination, ipPkt);
             out.write(frame.toByte(), 0, frame.toByte().length);
-            logger.debug("[" + CLS + "] encapsulate: framed IP packet length=" + totalLen);
+            logger.debug(() -> "[" + CLS + "] encapsulate: framed IP packet length=" + totalLen);
             offset += totalLen;
         }
         byte[] result = out.toByteArray();
-        logger.info("[" + CLS + "] encapsulate: produced " + result.length + " bytes");
+        logger.info(() -> "[" + CLS + "] encapsulate: produced " + result.length + " bytes");
         return result;
     }
 
@@ -93,7 +102,7 @@ public class SimpleDLLProtocol implements Protocol {
     @Override
     public byte[] decapsulate(byte[] frames) {
         if (frames == null || frames.length < 12) {
-            logger.error("[" + CLS + "] decapsulate: frames too short");
+            logger.error("[{}] decapsulate: frames too short", CLS);
             throw new IllegalArgumentException("SimpleDLLProtocol: frames too short");
         }
         ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -101,30 +110,140 @@ public class SimpleDLLProtocol implements Protocol {
         while (offset + 12 <= frames.length) {
             int ipOffset    = offset + 12;
             if (ipOffset + 4 > frames.length) {
-                logger.error("[" + CLS + "] decapsulate: truncated IP header at offset " + ipOffset);
+                logger.error("[{}] decapsulate: truncated IP header at offset {}", CLS, ipOffset);
                 throw new IllegalArgumentException("SimpleDLLProtocol: truncated IP header");
             }
-            int ihl         = frames[ipOffset] & 0x0F;
-            int headerBytes = ihl * 4;
-            if (ihl < 5 || ipOffset + headerBytes > frames.length) {
-                logger.error("[" + CLS + "] decapsulate: invalid IP header");
-                throw new IllegalArgumentException("SimpleDLLProtocol: invalid IP header");
-            }
-            int totalLen = ((frames[ipOffset + 2] & 0xFF) << 8)
+            int totalLen;
+            if (ARPPacket.isArp(frames, ipOffset)) {
+                totalLen = ARPPacket.LENGTH;
+            } else {
+                int ihl         = frames[ipOffset] & 0x0F;
+                int headerBytes = ihl * 4;
+                if (ihl < 5 || ipOffset + headerBytes > frames.length) {
+                    logger.error("[{}] decapsulate: invalid IP header", CLS);
+                    throw new IllegalArgumentException("SimpleDLLProtocol: invalid IP header");
+                }
+                totalLen = ((frames[ipOffset + 2] & 0xFF) << 8)
                          |  (frames[ipOffset + 3] & 0xFF);
-            if (totalLen < headerBytes || ipOffset + totalLen > frames.length) {
-                logger.error("[" + CLS + "] decapsulate: invalid total length=" + totalLen);
-                throw new IllegalArgumentException("SimpleDLLProtocol: invalid total length");
+                if (totalLen < headerBytes || ipOffset + totalLen > frames.length) {
+                    logger.error("[{}] decapsulate: invalid total length={}", CLS, totalLen);
+                    throw new IllegalArgumentException("SimpleDLLProtocol: invalid total length");
+                }
             }
             out.write(frames, ipOffset, totalLen);
-            logger.debug("[" + CLS + "] decapsulate: extracted IP packet length=" + totalLen);
+            logger.debug(() -> "[" + CLS + "] decapsulate: extracted IP packet length=" + totalLen);
             offset += 12 + totalLen;
         }
         byte[] result = out.toByteArray();
-        logger.info("[" + CLS + "] decapsulate: reassembled " + result.length + " bytes");
+        logger.info(() -> "[" + CLS + "] decapsulate: reassembled " + result.length + " bytes");
         return result;
     }
 
+    /**
+     * Frames buffered IP packets. A single packet gets its header prepended in
+     * place; concatenated packets are written once into a new buffer with the
+     * same headroom, one header per packet.
+     *
+     * @param ipPackets buffer holding the IP packets (non-null, non-empty)
+     * @return the buffer holding the frames
+     * @throws IllegalArgumentException if ipPackets is null/empty or malformed
+     */
+    @Override
+    public PacketBuffer encapsulate(PacketBuffer ipPackets) throws IllegalArgumentException {
+        if (ipPackets == null || ipPackets.isEmpty()) {
+            logger.error("[{}] encapsulate: ipPackets cannot be null or empty", CLS);
+            throw new IllegalArgumentException("SimpleDLLProtocol: ipPackets cannot be null or empty");
+        }
+        int length  = ipPackets.length();
+        int packets = 0;
+        for (int offset = 0; offset < length; packets++) {
+            offset += packetLength(ipPackets, offset);
+        }
+        if (packets == 1) {
+            ipPackets.prepend(HEADER_LEN);
+            this.writeHeader(ipPackets, 0);
+            logger.info(() -> "[" + CLS + "] encapsulate: produced " + ipPackets.length() + " bytes");
+            return ipPackets;
+        }
+
+        PacketBuffer out = PacketBuffer.allocate(ipPackets.headroom(),
+                                                 length + packets * HEADER_LEN,
+                                                 ipPackets.tailroom());
+        int at = 0;
+        for (int offset = 0; offset < length; ) {
+            int totalLen = packetLength(ipPackets, offset);
+            this.writeHeader(out, at);
+            System.arraycopy(ipPackets.array(), ipPackets.offset() + offset,
+                             out.array(), out.offset() + at + HEADER_LEN, totalLen);
+            at     += HEADER_LEN + totalLen;
+            offset += totalLen;
+        }
+        logger.info(() -> "[" + CLS + "] encapsulate: produced " + out.length() + " bytes");
+        return out;
+    }
+
+    /**
+     * Strips the DLL header off a buffer holding one frame in place; several
+     * frames go through {@link #decapsulate(byte[])}.
+     *
+     * @param frames buffer holding the frames (non-null, length ≥12)
+     * @return the buffer holding the IP packets
+     * @throws IllegalArgumentException if frames is null, too short, or malformed
+     */
+    @Override
+    public PacketBuffer decapsulate(PacketBuffer frames) throws IllegalArgumentException {
+        if (frames == null || frames.length() < HEADER_LEN) {
+            logger.error("[{}] decapsulate: frames too short", CLS);
+            throw new IllegalArgumentException("SimpleDLLProtocol: frames too short");
+        }
+        if (frames.length() >= HEADER_LEN + 4) {
+            int ihl      = frames.getUnsignedByte(HEADER_LEN) & 0x0F;
+            int totalLen = frames.getUnsignedShort(HEADER_LEN + 2);
+            if (ihl >= 5 && totalLen >= ihl * 4 && HEADER_LEN + totalLen == frames.length()) {
+                frames.trimFront(HEADER_LEN);
+                logger.info(() -> "[" + CLS + "] decapsulate: reassembled " + frames.length() + " bytes");
+                return frames;
+            }
+        }
+        return PacketBuffer.wrap(this.decapsulate(frames.toByteArray()));
+    }
+
+    /**
+     * Validates the IP header at offset like {@link #encapsulate(byte[])} does.
+     *
+     * @return total length of the packet
+     */
+    private static int packetLength(PacketBuffer buf, int offset) throws IllegalArgumentException {
+        if (offset + 4 > buf.length()) {
+            logger.error("[{}] encapsulate: truncated IP packet at offset {}", CLS, offset);
+            throw new IllegalArgumentException("SimpleDLLProtocol: truncated IP packet");
+        }
+        if (ARPPacket.isArp(buf.array(), buf.offset() + offset)
+            && offset + ARPPacket.LENGTH <= buf.length()) {
+            return ARPPacket.LENGTH;
+        }
+        int ihl         = buf.getUnsignedByte(offset) & 0x0F;
+        int headerBytes = ihl * 4;
+        if (ihl < 5 || offset + headerBytes > buf.length()) {
+            logger.error("[{}] encapsulate: invalid IHL or incomplete header", CLS);
+            throw new IllegalArgumentException("SimpleDLLProtocol: invalid IHL or incomplete header");
+        }
+        int totalLen = buf.getUnsignedShort(offset + 2);
+        if (totalLen < headerBytes || offset + totalLen > buf.length()) {
+            logger.error("[{}] encapsulate: invalid total length={}", CLS, totalLen);
+            throw new IllegalArgumentException("SimpleDLLProtocol: invalid total length");
+        }
+        return totalLen;
+    }
+
+    private void writeHeader(PacketBuffer buf, int at) {
+        if (at < 0 || at + HEADER_LEN > buf.length()) {
+            throw new IndexOutOfBoundsException("SimpleDLLProtocol: no room for a header at " + at);
+        }
+        this.destination.encode(buf.array(), buf.offset() + at);
+        this.source.encode(buf.array(), buf.offset() + at + 6);
+    }
+
     @Override
     public Mac getSource() {
         return this.source;
@@ -145,12 +264,11 @@ public class SimpleDLLProtocol implements Protocol {
     @Override
     public Mac extractSource(byte[] frame) {
         if (frame == null || frame.length < 12) {
-            logger.error("[" + CLS + "] extractSource: frame too short");
+            logger.error("[{}] extractSource: frame too short", CLS);
             throw new IllegalArgumentException("SimpleDLLProtocol: frame too short");
         }
-        byte[] srcBytes = Arrays.copyOfRange(frame, 6, 12);
-        Mac mac = Mac.bytesToMac(srcBytes);
-        logger.debug("[" + CLS + "] extractSource: " + mac.stringRepresentation());
+        Mac mac = Mac.intern(frame, 6);
+        logger.debug("[{}] extractSource: {}", CLS, mac);
         return mac;
     }
 
@@ -164,12 +282,11 @@ public class SimpleDLLProtocol implements Protocol {
     @Override
     public Mac extractDestination(byte[] frame) {
         if (frame == null || frame.length < 6) {
-            logger.error("[" + CLS + "] extractDestination: frame too short");
+            logger.error("[{}] extractDestination: frame too short", CLS);
             throw new IllegalArgumentException("SimpleDLLProtocol: frame too short");
         }
-        byte[] dstBytes = Arrays.copyOfRange(frame, 0, 6);
-        Mac mac = Mac.bytesToMac(dstBytes);
-        logger.debug("[" + CLS + "] extractDestination: " + mac.stringRepresentation());
+        Mac mac = Mac.intern(frame, 0);
+        logger.debug("[{}] extractDestination: {}", CLS, mac);
         return mac;
     }
 
@@ -180,7 +297,7 @@ public class SimpleDLLProtocol implements Protocol {
      */
     @Override
     public Protocol copy() {
-        logger.debug("[" + CLS + "] copy()");
+        logger.debug("[{}] copy()", CLS);
         return new SimpleDLLProtocol(this.source, this.destination);
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import java.util.Comparator;
 import java.util.List;
 
 import com.netsim.addresses.Port;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
 import com.netsim.utils.Logger;
 
@@ -15,9 +16,11 @@ import com.netsim.utils.Logger;
  * Implements UDP segmentation and reassembly over an unreliable byte stream.
  */
 public class UDPProtocol implements Protocol {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(UDPProtocol.class);
     private static final String CLS    = UDPProtocol.class.getSimpleName();
 
+    private static final int HEADER_LEN = 8;
+
     private final int   MSS;
     private final Port  sourcePort;
     private final Port  destinationPort;
@@ -31,15 +34,13 @@ public class UDPProtocol implements Protocol {
      * @throws IllegalArgumentException if MSS ≤ 0 or any port is null
      */
     public UDPProtocol(int MSS, Port source, Port destination) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] constructing with MSS=" + MSS
-                    + ", src=" + (source != null ? source : "null")
-                    + ", dst=" + (destination != null ? destination : "null"));
+        logger.info(() -> "[" + CLS + "] constructing with MSS=" + MSS + ", src=" + source + ", dst=" + destination);
         if (MSS <= 0) {
-            logger.error("[" + CLS + "] MSS must be positive: " + MSS);
+            logger.error("[{}] MSS must be positive: {}", CLS, MSS);
             throw new IllegalArgumentException("UDPProtocol: MSS must be positive");
         }
         if (source == null || destination == null) {
-            logger.error("[" + CLS + "] source or destination port is null");
+            logger.error("[{}] source or destination port is null", CLS);
             throw new IllegalArgumentException("UDPProtocol: ports cannot be null");
         }
         this.MSS             = MSS;
@@ -56,10 +57,10 @@ public class UDPProtocol implements Protocol {
      */
     @Override
     public byte[] encapsulate(byte[] upperLayerPDU) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] encapsulate called, payload length="
-                     + (upperLayerPDU == null ? "null" : upperLayerPDU.length));
+        logger.debug(() -> "[" + CLS + "] encapsulate called, payload length="
+                           + (upperLayerPDU == null ? "null" : upperLayerPDU.length));
         if (upperLayerPDU == null || upperLayerPDU.length == 0) {
-            logger.error("[" + CLS + "] payload cannot be null or empty");
+            logger.error("[{}] payload cannot be null or empty", CLS);
             throw new IllegalArgumentException("UDPProtocol: payload cannot be null or empty");
         }
 
@@ -71,25 +72,25 @@ public class UDPProtocol implements Protocol {
             byte[] chunk = new byte[len];
             System.arraycopy(upperLayerPDU, offset, chunk, 0, len);
 
+            int sequence = sequenceNumber++;
             UDPSegment segment = new UDPSegment(
                 this.sourcePort,
                 this.destinationPort,
-                sequenceNumber++,
+                sequence,
                 chunk
             );
 
             try {
                 baos.write(segment.toByte());
-                logger.debug("[" + CLS + "] wrote segment seq=" + (sequenceNumber - 1)
-                             + ", payloadLen=" + len);
+                logger.debug(() -> "[" + CLS + "] wrote segment seq=" + sequence + ", payloadLen=" + len);
             } catch (IOException e) {
-                logger.error("[" + CLS + "] error during segment writing");
+                logger.error("[{}] error during segment writing", CLS);
                 throw new RuntimeException("UDPProtocol: error during segment writing", e);
             }
         }
 
         byte[] out = baos.toByteArray();
-        logger.info("[" + CLS + "] encapsulated total length=" + out.length);
+        logger.info(() -> "[" + CLS + "] encapsulated total length=" + out.length);
         return out;
     }
 
@@ -102,16 +103,29 @@ public class UDPProtocol implements Protocol {
      */
     @Override
     public byte[] decapsulate(byte[] lowerLayerPDU) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] decapsulate called, input length="
-                     + (lowerLayerPDU == null ? "null" : lowerLayerPDU.length));
+        logger.debug(() -> "[" + CLS + "] decapsulate called, input length="
+                           + (lowerLayerPDU == null ? "null" : lowerLayerPDU.length));
+        return payloadOf(lowerLayerPDU);
+    }
+
+    /**
+     * Reassembles the payload of raw UDP segments. Needs no protocol instance:
+     * everything is read from the segment headers, so receivers can strip UDP
+     * from the wire bytes alone.
+     *
+     * @param lowerLayerPDU the raw UDP segment bytes (non-null, non-empty)
+     * @return reassembled payload bytes
+     * @throws IllegalArgumentException if input is null, empty, or contains no valid segments
+     */
+    public static byte[] payloadOf(byte[] lowerLayerPDU) throws IllegalArgumentException {
         if (lowerLayerPDU == null || lowerLayerPDU.length == 0) {
-            logger.error("[" + CLS + "] received empty data");
+            logger.error("[{}] received empty data", CLS);
             throw new IllegalArgumentException("UDPProtocol: received empty data");
         }
 
         List<UDPSegment> segments = parseSegments(lowerLayerPDU);
         if (segments.isEmpty()) {
-            logger.error("[" + CLS + "] no valid segments found");
+            logger.error("[{}] no valid segments found", CLS);
             throw new IllegalArgumentException("UDPProtocol: no valid segments found");
         }
 
@@ -120,20 +134,101 @@ public class UDPProtocol implements Protocol {
         for (UDPSegment seg : segments) {
             try {
                 baos.write(seg.getPayload());
-                logger.debug("[" + CLS + "] reassembled segment seq="
-                             + seg.getSequenceNumber()
-                             + ", payloadLen=" + seg.getPayload().length);
+                logger.debug(() -> "[" + CLS + "] reassembled segment seq=" + seg.getSequenceNumber()
+                                   + ", payloadLen=" + seg.getPayload().length);
             } catch (IOException e) {
-                logger.error("[" + CLS + "] error reassembling payload");
+                logger.error("[{}] error reassembling payload", CLS);
                 throw new RuntimeException("UDPProtocol: error reassembling payload", e);
             }
         }
 
         byte[] out = baos.toByteArray();
-        logger.info("[" + CLS + "] decapsulated total length=" + out.length);
+        logger.info(() -> "[" + CLS + "] decapsulated total length=" + out.length);
+        return out;
+    }
+
+    /**
+     * Segments a buffered payload. A payload that fits in one segment gets its
+     * header prepended in place; a longer one is written once into a new buffer
+     * with the same headroom, headers interleaved.
+     *
+     * @param upperLayerPDU buffer holding the payload (non-null, non-empty)
+     * @return the buffer holding the concatenated segments
+     * @throws IllegalArgumentException if payload is null, empty or a segment too large
+     */
+    @Override
+    public PacketBuffer encapsulate(PacketBuffer upperLayerPDU) throws IllegalArgumentException {
+        if (upperLayerPDU == null || upperLayerPDU.isEmpty()) {
+            logger.error("[{}] payload cannot be null or empty", CLS);
+            throw new IllegalArgumentException("UDPProtocol: payload cannot be null or empty");
+        }
+        int length   = upperLayerPDU.length();
+        int segments = (length + this.MSS - 1) / this.MSS;
+        if ((HEADER_LEN + Math.min(length, this.MSS)) * Byte.SIZE > Short.MAX_VALUE) {
+            logger.error("[{}] segment too large to encode length", CLS);
+            throw new IllegalArgumentException("UDPSegment: segment too large to encode length");
+        }
+        if (segments - 1 > Short.MAX_VALUE) {
+            logger.error("[{}] too many segments: {}", CLS, segments);
+            throw new IllegalArgumentException("UDPSegment: sequenceNumber must fit in 16 bits");
+        }
+        if (segments == 1) {
+            upperLayerPDU.prepend(HEADER_LEN);
+            this.writeHeader(upperLayerPDU, 0, 0, length);
+            logger.info(() -> "[" + CLS + "] encapsulated total length=" + upperLayerPDU.length());
+            return upperLayerPDU;
+        }
+
+        PacketBuffer out = PacketBuffer.allocate(upperLayerPDU.headroom(),
+                                                 length + segments * HEADER_LEN,
+                                                 upperLayerPDU.tailroom());
+        int at = 0;
+        for (int seq = 0, offset = 0; offset < length; seq++, offset += this.MSS) {
+            int len = Math.min(this.MSS, length - offset);
+            this.writeHeader(out, at, seq, len);
+            System.arraycopy(upperLayerPDU.array(), upperLayerPDU.offset() + offset,
+                             out.array(), out.offset() + at + HEADER_LEN, len);
+            at += HEADER_LEN + len;
+        }
+        logger.info(() -> "[" + CLS + "] encapsulated total length=" + out.length());
         return out;
     }
 
+    /**
+     * Reassembles a buffered payload. A single segment spanning the buffer is
+     * stripped in place; anything else goes through {@link #decapsulate(byte[])}.
+     *
+     * @param lowerLayerPDU buffer holding the segments (non-null, non-empty)
+     * @return the buffer holding the reassembled payload
+     * @throws IllegalArgumentException if input is null, empty, or contains no valid segments
+     */
+    @Override
+    public PacketBuffer decapsulate(PacketBuffer lowerLayerPDU) throws IllegalArgumentException {
+        if (lowerLayerPDU == null || lowerLayerPDU.isEmpty()) {
+            logger.error("[{}] received empty data", CLS);
+            throw new IllegalArgumentException("UDPProtocol: received empty data");
+        }
+        if (lowerLayerPDU.length() > HEADER_LEN) {
+            int lengthBits = (short) lowerLayerPDU.getUnsignedShort(6);
+            if (lengthBits % Byte.SIZE == 0 && lengthBits / Byte.SIZE == lowerLayerPDU.length()) {
+                lowerLayerPDU.trimFront(HEADER_LEN);
+                logger.info(() -> "[" + CLS + "] decapsulated total length=" + lowerLayerPDU.length());
+                return lowerLayerPDU;
+            }
+        }
+        return PacketBuffer.wrap(this.decapsulate(lowerLayerPDU.toByteArray()));
+    }
+
+    /**
+     * Writes [srcPort][dstPort][seq][length in bits] at index at of buf.
+     */
+    private void writeHeader(PacketBuffer buf, int at, int seq, int payloadLength) {
+        buf.putShort(at, this.sourcePort.getPort());
+        buf.putShort(at + 2, this.destinationPort.getPort());
+        buf.putShort(at + 4, seq);
+        buf.putShort(at + 6, (HEADER_LEN + payloadLength) * Byte.SIZE);
+    }
+
     /**
      * Parses raw bytes into individual UDPSegment objects.
      *
@@ -141,17 +236,15 @@ public class UDPProtocol implements Protocol {
      * @return list of UDPSegment instances (possibly empty)
      * @throws IllegalArgumentException if data is null or malformed
      */
-    private List<UDPSegment> parseSegments(byte[] data) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] parseSegments called, data length="
-                     + (data == null ? "null" : data.length));
+    private static List<UDPSegment> parseSegments(byte[] data) throws IllegalArgumentException {
+        logger.debug(() -> "[" + CLS + "] parseSegments called, data length=" + (data == null ? "null" : data.length));
         if (data == null) {
-            logger.error("[" + CLS + "] null input to parseSegments");
+            logger.error("[{}] null input to parseSegments", CLS);
             throw new IllegalArgumentException("UDPProtocol: null input");
         }
 
         List<UDPSegment> list = new ArrayList<>();
         ByteBuffer bb = ByteBuffer.wrap(data);
-        final int HEADER_LEN = 8;
 
         while (bb.remaining() >= HEADER_LEN) {
             byte[] header = new byte[HEADER_LEN];
@@ -161,14 +254,14 @@ public class UDPProtocol implements Protocol {
             hbuf.position(6);
             short lengthBits = hbuf.getShort();
             if (lengthBits < HEADER_LEN * Byte.SIZE || (lengthBits % Byte.SIZE) != 0) {
-                logger.error("[" + CLS + "] invalid segment length: " + lengthBits);
+                logger.error("[{}] invalid segment length: {}", CLS, lengthBits);
                 throw new IllegalArgumentException("UDPProtocol: invalid segment length");
             }
 
             int totalBytes   = lengthBits / Byte.SIZE;
             int payloadBytes = totalBytes - HEADER_LEN;
             if (payloadBytes > bb.remaining()) {
-                logger.error("[" + CLS + "] truncated segment payload");
+                logger.error("[{}] truncated segment payload", CLS);
                 throw new IllegalArgumentException("UDPProtocol: truncated segment payload");
             }
 
@@ -178,9 +271,8 @@ public class UDPProtocol implements Protocol {
 
             UDPSegment seg = UDPSegment.fromBytes(fullSegment);
             list.add(seg);
-            logger.debug("[" + CLS + "] parsed segment seq="
-                         + seg.getSequenceNumber()
-                         + ", totalBytes=" + totalBytes);
+            logger.debug(() -> "[" + CLS + "] parsed segment seq=" + seg.getSequenceNumber() + ", totalBytes="
+                               + totalBytes);
         }
 
         return list;
@@ -205,12 +297,12 @@ public class UDPProtocol implements Protocol {
     @Override
     public Port extractSource(byte[] segment) throws IllegalArgumentException {
         if (segment == null || segment.length < 4) {
-            logger.error("[" + CLS + "] segment too short to extractSource");
+            logger.error("[{}] segment too short to extractSource", CLS);
             throw new IllegalArgumentException("UDPProtocol: segment too short");
         }
         int src = ((segment[0] & 0xFF) << 8) | (segment[1] & 0xFF);
-        logger.debug("[" + CLS + "] extractSource port=" + src);
-        return new Port(Integer.toString(src));
+        logger.debug("[{}] extractSource port={}", CLS, src);
+        return Port.of(src);
     }
 
     /**
@@ -223,12 +315,12 @@ public class UDPProtocol implements Protocol {
     @Override
     public Port extractDestination(byte[] segment) throws IllegalArgumentException {
         if (segment == null || segment.length < 4) {
-            logger.error("[" + CLS + "] segment too short to extractDestination");
+            logger.error("[{}] segment too short to extractDestination", CLS);
             throw new IllegalArgumentException("UDPProtocol: segment too short");
         }
         int dst = ((segment[2] & 0xFF) << 8) | (segment[3] & 0xFF);
-        logger.debug("[" + CLS + "] extractDestination port=" + dst);
-        return new Port(Integer.toString(dst));
+        logger.debug("[{}] extractDestination port={}", CLS, dst);
+        return Port.of(dst);
     }
 
     /**
@@ -238,7 +330,7 @@ public class UDPProtocol implements Protocol {
      */
     @Override
     public Protocol copy() {
-        logger.debug("[" + CLS + "] copy()");
+        logger.debug("[{}] copy()", CLS);
         return new UDPProtocol(this.MSS, this.sourcePort, this.destinationPort);
     }
 }
\ No newline at end of file
@@ -10,7 +10,7 @@ import java.nio.ByteBuffer;
  * Represents a simplified UDP segment without checksum.
  */
 public class UDPSegment extends PDU {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(UDPSegment.class);
     private static final String CLS    = UDPSegment.class.getSimpleName();
 
     private final short sequenceNumber;
@@ -28,25 +28,25 @@ public class UDPSegment extends PDU {
      */
     public UDPSegment(Port source, Port destination, int sequenceNumber, byte[] payload) throws IllegalArgumentException {
         super(source, destination);
-        logger.info("[" + CLS + "] creating segment seq=" + sequenceNumber
-                    + ", src=" + source + ", dst=" + destination
-                    + ", payloadLen=" + (payload == null ? "null" : payload.length));
+        logger.info(() -> "[" + CLS + "] creating segment seq=" + sequenceNumber + ", src=" + source
+                          + ", dst=" + destination
+                          + ", payloadLen=" + (payload == null ? "null" : payload.length));
         if (source == null || destination == null) {
-            logger.error("[" + CLS + "] source or destination is null");
+            logger.error("[{}] source or destination is null", CLS);
             throw new IllegalArgumentException("UDPSegment: source and destination must be non-null");
         }
         if (payload == null || payload.length == 0) {
-            logger.error("[" + CLS + "] payload is null or empty");
+            logger.error("[{}] payload is null or empty", CLS);
             throw new IllegalArgumentException("UDPSegment: payload must be non-null and non-empty");
         }
         if (sequenceNumber < 0 || sequenceNumber > Short.MAX_VALUE) {
-            logger.error("[" + CLS + "] sequenceNumber out of range: " + sequenceNumber);
+            logger.error("[{}] sequenceNumber out of range: {}", CLS, sequenceNumber);
             throw new IllegalArgumentException("UDPSegment: sequenceNumber must fit in 16 bits");
         }
         this.sequenceNumber = (short) sequenceNumber;
         this.payload        = payload.clone();
         this.length         = calculateLength();
-        logger.debug("[" + CLS + "] segment length (bits)=" + this.length);
+        logger.debug(() -> "[" + CLS + "] segment length (bits)=" + this.length);
     }
 
     /**
@@ -61,7 +61,7 @@ public class UDPSegment extends PDU {
         int totalBytes   = headerBytes + payloadBytes;
         int totalBits    = totalBytes * Byte.SIZE;
         if (totalBits > Short.MAX_VALUE) {
-            logger.error("[" + CLS + "] segment too large: " + totalBits + " bits");
+            logger.error("[{}] segment too large: {} bits", CLS, totalBits);
             throw new IllegalArgumentException("UDPSegment: segment too large to encode length");
         }
         return (short) totalBits;
@@ -108,7 +108,7 @@ public class UDPSegment extends PDU {
         byte[] header = getHeader();
         ByteBuffer buf = ByteBuffer.allocate(header.length + this.payload.length);
         buf.put(header).put(this.payload);
-        logger.debug("[" + CLS + "] toByte(): total bytes=" + buf.capacity());
+        logger.debug(() -> "[" + CLS + "] toByte(): total bytes=" + buf.capacity());
         return buf.array();
     }
 
@@ -120,20 +120,16 @@ public class UDPSegment extends PDU {
      * @throws IllegalArgumentException if data is null, too short, or inconsistent
      */
     public static UDPSegment fromBytes(byte[] data) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] fromBytes(): data length=" + (data == null ? "null" : data.length));
+        logger.info(() -> "[" + CLS + "] fromBytes(): data length="
+                          + (data == null ? "null" : data.length));
         if (data == null || data.length < 8) {
-            logger.error("[" + CLS + "] data is null or too short");
+            logger.error("[{}] data is null or too short", CLS);
             throw new IllegalArgumentException("UDPSegment: input must be at least 8 bytes");
         }
         ByteBuffer buf = ByteBuffer.wrap(data);
 
-        byte[] srcBytes = new byte[Short.BYTES];
-        buf.get(srcBytes);
-        Port source = Port.fromBytes(srcBytes);
-
-        byte[] dstBytes = new byte[Short.BYTES];
-        buf.get(dstBytes);
-        Port destination = Port.fromBytes(dstBytes);
+        Port source      = Port.of(Short.toUnsignedInt(buf.getShort()));
+        Port destination = Port.of(Short.toUnsignedInt(buf.getShort()));
 
         int seqNum      = Short.toUnsignedInt(buf.getShort());
         short lengthBits = buf.getShort();
@@ -141,7 +137,7 @@ public class UDPSegment extends PDU {
         int headerBytes  = 2 + 2 + 2 + 2;
         int payloadBytes = data.length - headerBytes;
         if (payloadBytes < 0) {
-            logger.error("[" + CLS + "] inconsistent buffer length");
+            logger.error("[{}] inconsistent buffer length", CLS);
             throw new IllegalArgumentException("UDPSegment: inconsistent data length");
         }
         byte[] payload = new byte[payloadBytes];
@@ -149,7 +145,7 @@ public class UDPSegment extends PDU {
 
         int totalBits = (headerBytes + payloadBytes) * Byte.SIZE;
         if (lengthBits != (short) totalBits) {
-            logger.error("[" + CLS + "] length field mismatch: " + lengthBits + " vs " + totalBits);
+            logger.error("[{}] length field mismatch: {} vs {}", CLS, lengthBits, totalBits);
             throw new IllegalArgumentException("UDPSegment: length field does not match payload size");
         }
 
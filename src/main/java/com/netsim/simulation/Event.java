@@ -0,0 +1,96 @@
+package com.netsim.simulation;
+
+/**
+ * An action scheduled at a point of virtual time.
+ * <p>
+ * Events are ordered by time, then by the context that scheduled them, then by
+ * how many events that context had scheduled before. The key does not depend on
+ * how contexts are spread over threads, so a sequential and a parallel run fire
+ * the events of every context in the same order.
+ */
+public final class Event implements Comparable<Event> {
+    private final long      time;
+    private final int       source;
+    private final long      sequence;
+    private final int       context;
+    private final EventType type;
+    private final Runnable  action;
+    private volatile boolean cancelled;
+
+    /**
+     * @param time     virtual time in nanoseconds
+     * @param source   context that scheduled the event
+     * @param sequence number of events the source scheduled before this one
+     * @param context  context the action runs in
+     * @param type     event kind (non-null)
+     * @param action   code run when the event fires (non-null)
+     * @throws IllegalArgumentException if type or action is null
+     */
+    Event(long time, int source, long sequence, int context, EventType type, Runnable action)
+            throws IllegalArgumentException {
+        if (type == null || action == null) {
+            throw new IllegalArgumentException("Event: type and action cannot be null");
+        }
+        this.time      = time;
+        this.source    = source;
+        this.sequence  = sequence;
+        this.context   = context;
+        this.type      = type;
+        this.action    = action;
+        this.cancelled = false;
+    }
+
+    /** @return virtual time in nanoseconds at which the event fires */
+    public long getTime() {
+        return this.time;
+    }
+
+    /** @return context that scheduled the event */
+    public int getSource() {
+        return this.source;
+    }
+
+    /** @return scheduling order of the event among those of its source */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /** @return context the event runs in */
+    public int getContext() {
+        return this.context;
+    }
+
+    /** @return the event kind */
+    public EventType getType() {
+        return this.type;
+    }
+
+    /** @return true if the event was cancelled before firing */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    void cancel() {
+        this.cancelled = true;
+    }
+
+    void fire() {
+        this.action.run();
+    }
+
+    @Override
+    public int compareTo(Event other) {
+        if (this.time != other.time) {
+            return Long.compare(this.time, other.time);
+        }
+        if (this.source != other.source) {
+            return Integer.compare(this.source, other.source);
+        }
+        return Long.compare(this.sequence, other.sequence);
+    }
+
+    @Override
+    public String toString() {
+        return this.type + "@" + this.time + "#" + this.source + "." + this.sequence;
+    }
+}
@@ -0,0 +1,13 @@
+package com.netsim.simulation;
+
+/**
+ * Kind of a scheduled {@link Event}.
+ */
+public enum EventType {
+    /** a node hands a frame to one of its adapters */
+    TRANSMIT,
+    /** a frame reaches the adapter at the other end of a link */
+    RECEIVE,
+    /** a timer set by a node or protocol expires */
+    TIMER
+}
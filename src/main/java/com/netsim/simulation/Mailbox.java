@@ -0,0 +1,292 @@
+package com.netsim.simulation;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Inbox of a node run by a {@link NodeRuntime}: a FIFO of tasks drained by a
+ * single loop thread. Adapters post the frames they deliver to the node and
+ * the node posts the sends its applications request, so all of the node's
+ * state is touched by its loop thread only.
+ * <p>
+ * {@link #post} may be called from any thread. A task that throws is logged
+ * and dropped; the loop goes on with the next one.
+ * <p>
+ * Timers run in wall-clock time: {@link #schedule} and {@link #scheduleDaemon}
+ * post their task into the mailbox once the delay has passed, so it runs on
+ * the loop thread like any other. One daemon thread shared by every mailbox
+ * keeps the time. Closing the mailbox cancels its pending timers.
+ */
+public final class Mailbox {
+    private static final Logger logger = Logger.getInstance(Mailbox.class);
+    private static final String CLS    = Mailbox.class.getSimpleName();
+
+    private static final ScheduledExecutorService TIMERS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "netsim-mailbox-timers");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** A task waiting for its delay; whoever claims it first fires or cancels it. */
+    private final class Timer extends AtomicBoolean implements Runnable {
+        private final Runnable task;
+        private final boolean  busy;
+
+        private Timer(Runnable task, boolean busy) {
+            this.task = task;
+            this.busy = busy;
+        }
+
+        /** @return true if the caller won the timer and must fire or cancel it */
+        private boolean claim() {
+            return this.compareAndSet(false, true);
+        }
+
+        @Override
+        public void run() {
+            Mailbox.this.timers.remove(this);
+            if (!this.claim()) {
+                return;
+            }
+            if (this.busy) {
+                Mailbox.this.offer(this.task);
+            } else {
+                Mailbox.this.post(this.task);
+            }
+        }
+    }
+
+    private final String                  name;
+    private final BlockingQueue<Runnable> tasks;
+    private final AtomicLong              inFlight;
+    private final AtomicLong              processed;
+    private final AtomicLong              failed;
+    private final Set<Timer>              timers;
+    private volatile Thread               loop;
+    private volatile boolean              closed;
+
+    /**
+     * Creates a mailbox with its own in-flight counter.
+     *
+     * @param name name of the owning node (non-null)
+     * @throws IllegalArgumentException if name is null
+     */
+    public Mailbox(String name) throws IllegalArgumentException {
+        this(name, new AtomicLong());
+    }
+
+    /**
+     * @param name     name of the owning node (non-null)
+     * @param inFlight counter of posted tasks not yet finished, shared by the
+     *                 mailboxes of one runtime so it can tell when all are idle
+     */
+    Mailbox(String name, AtomicLong inFlight) throws IllegalArgumentException {
+        if (name == null) {
+            throw new IllegalArgumentException(CLS + ": name cannot be null");
+        }
+        this.name      = name;
+        this.tasks     = new LinkedBlockingQueue<>();
+        this.inFlight  = inFlight;
+        this.processed = new AtomicLong();
+        this.failed    = new AtomicLong();
+        this.timers    = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Queues a task for the loop thread.
+     *
+     * @param task code to run on the loop thread (non-null)
+     * @return false if the mailbox is closed and the task was dropped
+     * @throws IllegalArgumentException if task is null
+     */
+    public boolean post(Runnable task) throws IllegalArgumentException {
+        if (task == null) {
+            throw new IllegalArgumentException(CLS + ": task cannot be null");
+        }
+        if (this.closed) {
+            return false;
+        }
+        this.inFlight.incrementAndGet();
+        return this.offer(task);
+    }
+
+    /**
+     * Queues a task already counted in flight, and uncounts it if the mailbox
+     * is closed.
+     */
+    private boolean offer(Runnable task) {
+        if (this.closed) {
+            this.inFlight.decrementAndGet();
+            return false;
+        }
+        this.tasks.add(task);
+        // closed meanwhile: the loop may have discarded the queue already, so
+        // take the task back unless someone else took it
+        if (this.closed && this.tasks.remove(task)) {
+            this.inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Posts a task once a delay has passed. The timer counts as a task in
+     * flight while it waits, so {@link NodeRuntime#awaitIdle} waits for it:
+     * use it for work that still has to happen, like a retransmission.
+     *
+     * @param delay nanoseconds from now (&gt;= 0)
+     * @param task  code to run on the loop thread (non-null)
+     * @return false if the mailbox is closed and the timer was dropped
+     * @throws IllegalArgumentException if delay is negative or task is null
+     */
+    public boolean schedule(long delay, Runnable task) throws IllegalArgumentException {
+        return this.arm(delay, task, true);
+    }
+
+    /**
+     * Like {@link #schedule} for housekeeping that should not keep the
+     * mailbox busy, like periodic aging: the task counts in flight only once
+     * it is posted.
+     *
+     * @param delay nanoseconds from now (&gt;= 0)
+     * @param task  code to run on the loop thread (non-null)
+     * @return false if the mailbox is closed and the timer was dropped
+     * @throws IllegalArgumentException if delay is negative or task is null
+     */
+    public boolean scheduleDaemon(long delay, Runnable task) throws IllegalArgumentException {
+        return this.arm(delay, task, false);
+    }
+
+    private boolean arm(long delay, Runnable task, boolean busy) throws IllegalArgumentException {
+        if (delay < 0 || task == null) {
+            throw new IllegalArgumentException(CLS + ": invalid timer");
+        }
+        if (this.closed) {
+            return false;
+        }
+        Timer timer = new Timer(task, busy);
+        if (busy) {
+            this.inFlight.incrementAndGet();
+        }
+        this.timers.add(timer);
+        // same race as post: a close that missed the timer must not leave it counted
+        if (this.closed) {
+            this.cancel(timer);
+            return false;
+        }
+        TIMERS.schedule(timer, delay, TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    private void cancel(Timer timer) {
+        this.timers.remove(timer);
+        if (timer.claim() && timer.busy) {
+            this.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Runs the loop on the calling thread until {@link #close()}: takes each
+     * task in turn and runs it.
+     *
+     * @throws IllegalStateException if another thread already runs the loop
+     */
+    public void run() throws IllegalStateException {
+        synchronized (this) {
+            if (this.loop != null) {
+                throw new IllegalStateException(CLS + ": '" + this.name + "' already has a loop thread");
+            }
+            this.loop = Thread.currentThread();
+        }
+        try {
+            while (!this.closed) {
+                Runnable task;
+                try {
+                    task = this.tasks.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+                try {
+                    task.run();
+                    this.processed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    this.failed.incrementAndGet();
+                    logger.error("[{}] '{}' task failed: {}", CLS, this.name, e.getMessage());
+                } finally {
+                    this.inFlight.decrementAndGet();
+                }
+            }
+        } finally {
+            this.closed = true;
+            this.discard();
+        }
+    }
+
+    /**
+     * Stops the loop after the task it is running, drops the queued ones and
+     * cancels the pending timers; later posts are refused. A mailbox whose
+     * loop never ran drops its queued tasks at once.
+     */
+    public void close() {
+        this.closed = true;
+        for (Timer timer : this.timers) {
+            this.cancel(timer);
+        }
+        Thread t = this.loop;
+        if (t == null) {
+            this.discard();
+        } else if (t != Thread.currentThread()) {
+            t.interrupt();
+        }
+    }
+
+    private void discard() {
+        while (this.tasks.poll() != null) {
+            this.inFlight.decrementAndGet();
+        }
+    }
+
+    /** @return true if the calling thread is this mailbox's loop thread */
+    public boolean isLoopThread() {
+        return Thread.currentThread() == this.loop;
+    }
+
+    /** @return true once {@link #close()} was called */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /** @return name of the owning node */
+    public String getName() {
+        return this.name;
+    }
+
+    /** @return timers armed and not fired or cancelled yet */
+    public int pendingTimers() {
+        return this.timers.size();
+    }
+
+    /** @return tasks waiting for the loop */
+    public int pending() {
+        return this.tasks.size();
+    }
+
+    /** @return tasks run to completion */
+    public long getProcessed() {
+        return this.processed.get();
+    }
+
+    /** @return tasks that threw */
+    public long getFailed() {
+        return this.failed.get();
+    }
+}
@@ -0,0 +1,238 @@
+package com.netsim.simulation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.netsim.network.NetworkNode;
+import com.netsim.network.Node;
+import com.netsim.network.host.Host;
+import com.netsim.network.switching.Switch;
+import com.netsim.utils.Logger;
+
+/**
+ * Runs a topology concurrently in wall-clock time, one thread per node.
+ * <p>
+ * Each node gets a {@link Mailbox} and a thread draining it. Adapters post
+ * the frames they carry into the receiving node's mailbox, and sends called
+ * on a node from any other thread are posted to that node too, so a sender
+ * never runs the receiver's code and a node's state is only touched by its
+ * own thread. Applications are started on threads of their own through
+ * {@link #runApp} or {@link #spawn}.
+ * <p>
+ * Threads are virtual when the JVM offers them (Java 21 and later) and daemon
+ * platform threads otherwise, so thousands of nodes stay cheap where the
+ * platform allows it. Unlike {@link Simulator} there is no virtual time and
+ * no determinism: nodes must have no simulator attached. ARP requests are
+ * answered through the mailboxes and retransmitted on wall-clock timers of
+ * the mailboxes, which also age the neighbour caches; {@link #awaitIdle}
+ * waits for pending retransmissions.
+ */
+public class NodeRuntime implements AutoCloseable {
+    private static final Logger logger = Logger.getInstance(NodeRuntime.class);
+    private static final String CLS    = NodeRuntime.class.getSimpleName();
+
+    private static final ThreadFactory VIRTUAL = virtualThreads();
+
+    private final List<? extends Node> nodes;
+    private final Map<Node, Mailbox>   mailboxes;
+    private final List<Thread>         threads;
+    private final AtomicLong           inFlight;
+    private final ThreadFactory        factory;
+    private       boolean              started;
+    private       boolean              closed;
+
+    /**
+     * Gives every node a mailbox; nothing runs before {@link #start()}.
+     *
+     * @param nodes {@link NetworkNode}s and {@link Switch}es of the topology (non-null, non-empty)
+     * @throws IllegalArgumentException if nodes is null or empty, holds another kind of
+     *                                  node, a node twice, or a node attached to a simulator
+     */
+    public NodeRuntime(List<? extends Node> nodes) throws IllegalArgumentException {
+        if (nodes == null || nodes.isEmpty()) {
+            logger.error("[{}] nodes cannot be null or empty", CLS);
+            throw new IllegalArgumentException(CLS + ": nodes cannot be null or empty");
+        }
+        this.nodes     = List.copyOf(nodes);
+        this.mailboxes = new IdentityHashMap<>();
+        this.threads   = new ArrayList<>();
+        this.inFlight  = new AtomicLong();
+        this.factory   = VIRTUAL != null ? VIRTUAL : NodeRuntime::platformThread;
+        for (Node node : this.nodes) {
+            if (!(node instanceof NetworkNode || node instanceof Switch)) {
+                logger.error("[{}] unsupported node type {}", CLS, node.getClass().getSimpleName());
+                throw new IllegalArgumentException(CLS + ": unsupported node " + node.getName());
+            }
+            if (node instanceof NetworkNode && ((NetworkNode) node).getSimulator() != null) {
+                logger.error("[{}] node '{}' is attached to a simulator", CLS, node.getName());
+                throw new IllegalArgumentException(CLS + ": node " + node.getName() + " has a simulator");
+            }
+            if (this.mailboxes.put(node, new Mailbox(node.getName(), this.inFlight)) != null) {
+                logger.error("[{}] node '{}' listed twice", CLS, node.getName());
+                throw new IllegalArgumentException(CLS + ": node " + node.getName() + " listed twice");
+            }
+        }
+        logger.info("[{}] {} nodes on {} threads", CLS, this.nodes.size(), this.isVirtual() ? "virtual" : "platform");
+    }
+
+    /**
+     * @return a factory of virtual threads, or null before Java 21
+     */
+    private static ThreadFactory virtualThreads() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Thread platformThread(Runnable task) {
+        Thread t = new Thread(task);
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * Attaches the mailboxes and starts one loop thread per node.
+     *
+     * @throws IllegalStateException if already started or closed
+     */
+    public synchronized void start() throws IllegalStateException {
+        if (this.started || this.closed) {
+            throw new IllegalStateException(CLS + ": already started");
+        }
+        this.started = true;
+        for (Node node : this.nodes) {
+            Mailbox inbox = this.mailboxes.get(node);
+            attach(node, inbox);
+            this.spawn("netsim-node-" + node.getName(), inbox::run);
+        }
+        logger.info("[{}] started {} node loops", CLS, this.nodes.size());
+    }
+
+    private static void attach(Node node, Mailbox inbox) {
+        if (node instanceof NetworkNode) {
+            ((NetworkNode) node).setMailbox(inbox);
+        } else {
+            ((Switch) node).setMailbox(inbox);
+        }
+    }
+
+    /**
+     * Starts a host's application on a thread of its own; sends the
+     * application makes are posted to the host's loop.
+     *
+     * @param host a host of this runtime with an application set (non-null)
+     * @return the application thread
+     * @throws IllegalArgumentException if host is null or not part of this runtime
+     */
+    public Thread runApp(Host host) throws IllegalArgumentException {
+        if (host == null || !this.mailboxes.containsKey(host)) {
+            logger.error("[{}] runApp: host is not part of this runtime", CLS);
+            throw new IllegalArgumentException(CLS + ": unknown host");
+        }
+        return this.spawn("netsim-app-" + host.getName(), host::runApp);
+    }
+
+    /**
+     * Runs a task on a new runtime thread, e.g. an application driving a node.
+     *
+     * @param name the thread name (non-null)
+     * @param task the code to run (non-null)
+     * @return the started thread
+     * @throws IllegalArgumentException if an argument is null
+     * @throws IllegalStateException    if the runtime is closed
+     */
+    public synchronized Thread spawn(String name, Runnable task) throws IllegalArgumentException, IllegalStateException {
+        if (name == null || task == null) {
+            throw new IllegalArgumentException(CLS + ": name and task cannot be null");
+        }
+        if (this.closed) {
+            throw new IllegalStateException(CLS + ": closed");
+        }
+        Thread t = this.factory.newThread(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("[{}] thread '{}' failed: {}", CLS, name, e.getMessage());
+            }
+        });
+        t.setName(name);
+        this.threads.add(t);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Waits until every mailbox is empty, no node is running a task and no
+     * retransmission timer is pending. Application threads are not waited for.
+     *
+     * @param timeout how long to wait
+     * @param unit    unit of timeout (non-null)
+     * @return true if the nodes went idle, false on timeout
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (this.inFlight.get() > 0) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(100_000L);
+        }
+        return true;
+    }
+
+    /**
+     * @param node a node of this runtime
+     * @return its mailbox, or null if the node is not part of this runtime
+     */
+    public Mailbox getMailbox(Node node) {
+        return this.mailboxes.get(node);
+    }
+
+    /** @return true if the runtime threads are virtual */
+    public boolean isVirtual() {
+        return VIRTUAL != null;
+    }
+
+    /** @return tasks posted to any mailbox and not finished yet */
+    public long getInFlight() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * Stops every loop, interrupts the application threads and detaches the
+     * mailboxes, leaving the nodes to run on their callers' threads again.
+     * Tasks still queued are dropped.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        for (Node node : this.nodes) {
+            this.mailboxes.get(node).close();
+            if (this.started) {
+                attach(node, null);
+            }
+        }
+        for (Thread t : this.threads) {
+            t.interrupt();
+        }
+        logger.info("[{}] closed", CLS);
+    }
+}
@@ -0,0 +1,311 @@
+package com.netsim.simulation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Interface;
+import com.netsim.network.LinkLayerNode;
+import com.netsim.network.NetworkAdapter;
+import com.netsim.network.NetworkNode;
+import com.netsim.network.Node;
+import com.netsim.utils.Logger;
+
+/**
+ * Runs a topology on several threads. The nodes are split into logical
+ * processes (LPs), each owning a {@link Simulator} and a worker thread, by
+ * cutting a breadth-first ordering of the node graph into contiguous slices so
+ * that neighbours tend to share an LP.
+ * <p>
+ * Synchronisation is conservative: the propagation delay of the shortest link
+ * between two LPs is the lookahead, since no frame sent at time t can reach
+ * another LP before t + lookahead. In every round the workers agree on the
+ * earliest pending event T and each fires its own events before T + lookahead;
+ * frames for other LPs travel through their inboxes and are merged at the next
+ * barrier. Node i gets context i and events are ordered by a key that does not
+ * depend on the partitioning, so for the same seed every node sees exactly the
+ * events of a sequential {@link Simulator} run of the same node list, in the
+ * same order and at the same virtual times.
+ * <p>
+ * Link-layer nodes such as switches take part like any other node: one
+ * context for the node and all its ports, in the LP of its slice, and the
+ * links to their ports count towards the lookahead.
+ */
+public class ParallelSimulator {
+    private static final Logger logger = Logger.getInstance(ParallelSimulator.class);
+    private static final String CLS    = ParallelSimulator.class.getSimpleName();
+
+    private final List<? extends Node> nodes;
+    private final Simulator[]          processes;
+    private final int[]                partition;
+    private final long                 lookahead;
+    private final AtomicLong           externalSequence;
+
+    private volatile long    windowEnd;
+    private volatile boolean finished;
+    private          long    rounds;
+
+    /**
+     * Partitions the nodes and attaches each one to the simulator of its LP.
+     *
+     * @param nodes      the topology, network and link-layer nodes, node i gets
+     *                   context i (non-null, non-empty)
+     * @param partitions number of LPs and worker threads (&gt;= 1)
+     * @param seed       seed of the per-node random generators
+     * @throws IllegalArgumentException if arguments are invalid, a node is of
+     *                                  neither kind or two LPs are joined by a
+     *                                  link without propagation delay
+     */
+    public ParallelSimulator(List<? extends Node> nodes, int partitions, long seed)
+            throws IllegalArgumentException {
+        if (nodes == null || nodes.isEmpty() || partitions < 1) {
+            logger.error("[{}] invalid arguments", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        this.nodes            = nodes;
+        this.externalSequence = new AtomicLong();
+        this.processes        = new Simulator[Math.min(partitions, nodes.size())];
+        for (int i = 0; i < this.processes.length; i++) {
+            this.processes[i] = new Simulator(seed, this.externalSequence);
+        }
+        this.partition = partition(nodes, this.processes.length);
+        for (int i = 0; i < nodes.size(); i++) {
+            attach(nodes.get(i), this.processes[this.partition[i]], i);
+        }
+        this.lookahead = this.computeLookahead();
+        logger.info("[{}] {} nodes in {} logical processes, lookahead {} ns",
+                    CLS, nodes.size(), this.processes.length, this.lookahead);
+    }
+
+    /** @return number of logical processes */
+    public int getPartitions() {
+        return this.processes.length;
+    }
+
+    /**
+     * @param index position of a node in the list given to the constructor
+     * @return the LP the node was placed in
+     */
+    public int getPartition(int index) {
+        return this.partition[index];
+    }
+
+    /**
+     * @param partition LP index
+     * @return the simulator running that LP
+     */
+    public Simulator getSimulator(int partition) {
+        return this.processes[partition];
+    }
+
+    /** @return lookahead in nanoseconds, Long.MAX_VALUE if no link crosses LPs */
+    public long getLookahead() {
+        return this.lookahead;
+    }
+
+    /** @return synchronisation rounds of the last run */
+    public long getRounds() {
+        return this.rounds;
+    }
+
+    /** @return events fired by all LPs so far */
+    public long getProcessed() {
+        long total = 0L;
+        for (Simulator sim : this.processes) {
+            total += sim.getProcessed();
+        }
+        return total;
+    }
+
+    /**
+     * Runs every LP until no event is left anywhere.
+     *
+     * @return number of events fired
+     * @throws RuntimeException if a worker fails or the run is interrupted
+     */
+    public long run() throws RuntimeException {
+        long before = this.getProcessed();
+        this.rounds   = 0L;
+        this.finished = false;
+        if (this.processes.length == 1) {
+            this.processes[0].run();
+            return this.getProcessed() - before;
+        }
+
+        CyclicBarrier processed = new CyclicBarrier(this.processes.length);
+        CyclicBarrier drained   = new CyclicBarrier(this.processes.length, this::nextWindow);
+        Thread[]      workers   = new Thread[this.processes.length];
+        Throwable[]   failure   = new Throwable[1];
+        for (int i = 0; i < workers.length; i++) {
+            Simulator sim = this.processes[i];
+            workers[i] = new Thread(() -> {
+                try {
+                    while (true) {
+                        sim.drainInbox();
+                        drained.await();
+                        if (this.finished) {
+                            return;
+                        }
+                        sim.runBefore(this.windowEnd);
+                        processed.await();
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    // another worker failed and broke the barriers
+                } catch (RuntimeException | Error e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                    processed.reset();
+                    drained.reset();
+                }
+            }, "netsim-lp-" + i);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(CLS + ": interrupted");
+            }
+        }
+        synchronized (failure) {
+            if (failure[0] != null) {
+                logger.error("[{}] worker failed: {}", CLS, failure[0].getMessage());
+                throw new RuntimeException(CLS + ": worker failed", failure[0]);
+            }
+        }
+        long fired = this.getProcessed() - before;
+        logger.info("[{}] fired {} events in {} rounds", CLS, fired, this.rounds);
+        return fired;
+    }
+
+    /**
+     * Barrier action, runs once all inboxes are drained: the next window ends
+     * one lookahead after the earliest pending event.
+     */
+    private void nextWindow() {
+        long earliest = Long.MAX_VALUE;
+        for (Simulator sim : this.processes) {
+            earliest = Math.min(earliest, sim.nextEventTime());
+        }
+        if (earliest == Long.MAX_VALUE) {
+            this.finished = true;
+            return;
+        }
+        this.rounds++;
+        this.windowEnd = this.lookahead > Long.MAX_VALUE - earliest ? Long.MAX_VALUE
+                                                                     : earliest + this.lookahead;
+    }
+
+    private long computeLookahead() throws IllegalArgumentException {
+        Map<Node, Integer> index = indexOf(this.nodes);
+        long               min   = Long.MAX_VALUE;
+        for (int i = 0; i < this.nodes.size(); i++) {
+            for (NetworkAdapter adapter : adapters(this.nodes.get(i))) {
+                CabledAdapter peer = linked(adapter);
+                Integer       j    = peer == null ? null : index.get(peer.getOwner());
+                if (j == null || this.partition[j] == this.partition[i]) {
+                    continue;
+                }
+                long delay = ((CabledAdapter) adapter).getPropagationDelay();
+                if (delay <= 0L) {
+                    logger.error("[{}] link {} - {} crosses logical processes without delay",
+                                 CLS, adapter.getName(), peer.getName());
+                    throw new IllegalArgumentException(CLS + ": links between partitions need a propagation delay");
+                }
+                min = Math.min(min, delay);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Cuts a breadth-first ordering of the graph into contiguous, balanced slices.
+     *
+     * @return LP index of every node
+     * @throws IllegalArgumentException if a node is neither a network nor a link-layer node
+     */
+    static int[] partition(List<? extends Node> nodes, int partitions) throws IllegalArgumentException {
+        Map<Node, Integer> index   = indexOf(nodes);
+        int[]              order   = new int[nodes.size()];
+        boolean[]          visited = new boolean[nodes.size()];
+        int                filled  = 0;
+        for (int start = 0; start < nodes.size(); start++) {
+            if (visited[start]) {
+                continue;
+            }
+            ArrayDeque<Integer> frontier = new ArrayDeque<>();
+            frontier.add(start);
+            visited[start] = true;
+            while (!frontier.isEmpty()) {
+                int current = frontier.poll();
+                order[filled++] = current;
+                for (NetworkAdapter adapter : adapters(nodes.get(current))) {
+                    CabledAdapter peer = linked(adapter);
+                    Integer       next = peer == null ? null : index.get(peer.getOwner());
+                    if (next != null && !visited[next]) {
+                        visited[next] = true;
+                        frontier.add(next);
+                    }
+                }
+            }
+        }
+        int[] result = new int[nodes.size()];
+        for (int k = 0; k < order.length; k++) {
+            result[order[k]] = (int) ((long) k * partitions / order.length);
+        }
+        return result;
+    }
+
+    private static Map<Node, Integer> indexOf(List<? extends Node> nodes) {
+        Map<Node, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            index.put(nodes.get(i), i);
+        }
+        return index;
+    }
+
+    /**
+     * @return the adapters of a network node's interfaces or a link-layer node's ports
+     * @throws IllegalArgumentException if the node is of neither kind
+     */
+    private static List<NetworkAdapter> adapters(Node node) throws IllegalArgumentException {
+        List<NetworkAdapter> adapters = new ArrayList<>();
+        if (node instanceof NetworkNode) {
+            for (Interface iface : ((NetworkNode) node).getInterfaces()) {
+                adapters.add(iface.getAdapter());
+            }
+        } else if (node instanceof LinkLayerNode) {
+            LinkLayerNode bridge = (LinkLayerNode) node;
+            for (int p = 0; p < bridge.getPortCount(); p++) {
+                adapters.add(bridge.getPort(p));
+            }
+        } else {
+            logger.error("[{}] cannot schedule node '{}'", CLS, node == null ? null : node.getName());
+            throw new IllegalArgumentException(CLS + ": nodes must be network or link-layer nodes");
+        }
+        return adapters;
+    }
+
+    private static void attach(Node node, Simulator simulator, int context) {
+        if (node instanceof NetworkNode) {
+            ((NetworkNode) node).setSimulator(simulator, context);
+        } else {
+            ((LinkLayerNode) node).setSimulator(simulator, context);
+        }
+    }
+
+    private static CabledAdapter linked(NetworkAdapter adapter) {
+        if (!(adapter instanceof CabledAdapter) || !((CabledAdapter) adapter).isLinked()) {
+            return null;
+        }
+        return ((CabledAdapter) adapter).getLinkedAdapter();
+    }
+}
@@ -0,0 +1,350 @@
+package com.netsim.simulation;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Discrete-event scheduler on virtual time. Nodes and adapters post
+ * {@link Event}s instead of calling each other, so a packet crossing n hops
+ * runs as n short events from the loop rather than n nested calls.
+ * <p>
+ * Time is expressed in nanoseconds and only moves forward when an event fires.
+ * Every event runs in a context, an integer id handed out by {@link #register()}
+ * (one per node); events scheduled while it runs are keyed by that context.
+ * Not thread-safe: events must be scheduled from the thread running the loop,
+ * except through {@link #scheduleOn} which {@link ParallelSimulator} uses to
+ * hand events to another logical process.
+ */
+public class Simulator {
+    private static final Logger logger = Logger.getInstance(Simulator.class);
+    private static final String CLS    = Simulator.class.getSimpleName();
+
+    /** context of code running outside any event, e.g. the set-up of a scenario */
+    public static final int EXTERNAL = -1;
+
+    private final PriorityQueue<Event>         queue;
+    private final ConcurrentLinkedQueue<Event> inbox;
+    private final AtomicLong                   externalSequence;
+    private final long                         seed;
+    private       long[]                       sequences;
+    private       int                          nextContext;
+    private       int                          current;
+    private       long                         now;
+    private       long                         processed;
+
+    /**
+     * Creates an empty simulator at time 0 with seed 0.
+     */
+    public Simulator() {
+        this(0L);
+    }
+
+    /**
+     * Creates an empty simulator at time 0.
+     *
+     * @param seed seed of the per-context random generators
+     */
+    public Simulator(long seed) {
+        this(seed, new AtomicLong());
+    }
+
+    /**
+     * @param seed             seed of the per-context random generators
+     * @param externalSequence counter of events scheduled from outside any event,
+     *                         shared by the logical processes of a parallel run
+     */
+    Simulator(long seed, AtomicLong externalSequence) {
+        this.queue            = new PriorityQueue<>();
+        this.inbox            = new ConcurrentLinkedQueue<>();
+        this.externalSequence = externalSequence;
+        this.seed             = seed;
+        this.sequences        = new long[16];
+        this.nextContext      = 0;
+        this.current          = EXTERNAL;
+        this.now              = 0L;
+        this.processed        = 0L;
+    }
+
+    /** @return current virtual time in nanoseconds */
+    public long now() {
+        return this.now;
+    }
+
+    /** @return number of events waiting, cancelled ones included */
+    public int pending() {
+        return this.queue.size() + this.inbox.size();
+    }
+
+    /** @return number of events fired so far */
+    public long getProcessed() {
+        return this.processed;
+    }
+
+    /** @return seed of the per-context random generators */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /** @return context of the event being fired, or {@link #EXTERNAL} */
+    public int currentContext() {
+        return this.current;
+    }
+
+    /**
+     * Hands out the next context id. Contexts registered in the same order get
+     * the same ids, which is what makes two runs of a scenario comparable.
+     *
+     * @return a new context id
+     */
+    public int register() {
+        return this.nextContext++;
+    }
+
+    /**
+     * Returns a random generator that depends only on the seed and the context,
+     * so a node draws the same numbers whichever thread runs it.
+     *
+     * @param context context id (&gt;= 0)
+     * @return a new generator
+     */
+    public Random randomFor(int context) {
+        long mixed = (this.seed ^ 0x5DEECE66DL) * 0x9E3779B97F4A7C15L + context;
+        return new Random(mixed ^ (mixed >>> 29));
+    }
+
+    /**
+     * Schedules an action relative to the current time, in the current context.
+     *
+     * @param delay  nanoseconds from now (&gt;= 0)
+     * @param type   event kind (non-null)
+     * @param action code to run (non-null)
+     * @return the scheduled event, usable with {@link #cancel(Event)}
+     * @throws IllegalArgumentException if delay is negative or an argument is null
+     */
+    public Event schedule(long delay, EventType type, Runnable action) throws IllegalArgumentException {
+        return this.schedule(delay, type, this.current, action);
+    }
+
+    /**
+     * Schedules an action relative to the current time.
+     *
+     * @param delay   nanoseconds from now (&gt;= 0)
+     * @param type    event kind (non-null)
+     * @param context context the action runs in
+     * @param action  code to run (non-null)
+     * @return the scheduled event
+     * @throws IllegalArgumentException if delay is negative or an argument is null
+     */
+    public Event schedule(long delay, EventType type, int context, Runnable action)
+            throws IllegalArgumentException {
+        if (delay < 0) {
+            logger.error("[{}] negative delay {}", CLS, delay);
+            throw new IllegalArgumentException(CLS + ": delay cannot be negative");
+        }
+        return this.scheduleAt(this.now + delay, type, context, action);
+    }
+
+    /**
+     * Schedules an action at an absolute time, in the current context.
+     *
+     * @param time   virtual time in nanoseconds (&gt;= now())
+     * @param type   event kind (non-null)
+     * @param action code to run (non-null)
+     * @return the scheduled event
+     * @throws IllegalArgumentException if time is in the past or an argument is null
+     */
+    public Event scheduleAt(long time, EventType type, Runnable action) throws IllegalArgumentException {
+        return this.scheduleAt(time, type, this.current, action);
+    }
+
+    /**
+     * Schedules an action at an absolute time.
+     *
+     * @param time    virtual time in nanoseconds (&gt;= now())
+     * @param type    event kind (non-null)
+     * @param context context the action runs in
+     * @param action  code to run (non-null)
+     * @return the scheduled event
+     * @throws IllegalArgumentException if time is in the past or an argument is null
+     */
+    public Event scheduleAt(long time, EventType type, int context, Runnable action)
+            throws IllegalArgumentException {
+        Event event = this.newEvent(time, type, context, action);
+        this.queue.add(event);
+        return event;
+    }
+
+    /**
+     * Schedules an action on the simulator of another context, e.g. the receive at
+     * the far end of a cable. When target is a different logical process the
+     * event goes through its inbox and is picked up at the next synchronisation.
+     *
+     * @param target  simulator the context belongs to (non-null)
+     * @param delay   nanoseconds from now (&gt;= 0)
+     * @param type    event kind (non-null)
+     * @param context context the action runs in
+     * @param action  code to run (non-null)
+     * @return the scheduled event
+     * @throws IllegalArgumentException if target is null, delay negative or an argument null
+     */
+    public Event scheduleOn(Simulator target, long delay, EventType type, int context, Runnable action)
+            throws IllegalArgumentException {
+        if (target == null || delay < 0) {
+            logger.error("[{}] invalid target or delay for remote event", CLS);
+            throw new IllegalArgumentException(CLS + ": invalid target or delay");
+        }
+        if (target == this) {
+            return this.schedule(delay, type, context, action);
+        }
+        Event event = this.newEvent(this.now + delay, type, context, action);
+        target.inbox.add(event);
+        return event;
+    }
+
+    /**
+     * Cancels a scheduled event; it stays queued but is skipped when reached.
+     *
+     * @param event event returned by schedule (non-null)
+     * @throws IllegalArgumentException if event is null
+     */
+    public void cancel(Event event) throws IllegalArgumentException {
+        if (event == null) {
+            throw new IllegalArgumentException(CLS + ": event cannot be null");
+        }
+        event.cancel();
+    }
+
+    /**
+     * Fires the earliest pending event, advancing the clock to its time.
+     * A RuntimeException thrown by the action is logged and does not stop the loop.
+     *
+     * @return false if there was nothing left to run
+     */
+    public boolean step() {
+        this.drainInbox();
+        Event event = this.poll();
+        if (event == null) {
+            return false;
+        }
+        this.fire(event);
+        return true;
+    }
+
+    /**
+     * Runs until no event is left.
+     *
+     * @return number of events fired
+     */
+    public long run() {
+        long before = this.processed;
+        while (this.step()) {
+            // keep going
+        }
+        return this.processed - before;
+    }
+
+    /**
+     * Runs every event scheduled at or before the given time, then sets the clock to it.
+     *
+     * @param time virtual time in nanoseconds (&gt;= now())
+     * @return number of events fired
+     * @throws IllegalArgumentException if time is in the past
+     */
+    public long runUntil(long time) throws IllegalArgumentException {
+        if (time < this.now) {
+            logger.error("[{}] cannot run until {} before now={}", CLS, time, this.now);
+            throw new IllegalArgumentException(CLS + ": time is in the past");
+        }
+        this.drainInbox();
+        long fired = this.runBefore(time == Long.MAX_VALUE ? time : time + 1);
+        this.now = time;
+        return fired;
+    }
+
+    /**
+     * Fires every queued event strictly before bound, without looking at the inbox.
+     *
+     * @return number of events fired
+     */
+    long runBefore(long bound) {
+        long before = this.processed;
+        while (this.nextEventTime() < bound) {
+            this.fire(this.queue.poll());
+        }
+        return this.processed - before;
+    }
+
+    /**
+     * @return time of the earliest live queued event, or Long.MAX_VALUE
+     */
+    long nextEventTime() {
+        Event head = this.queue.peek();
+        while (head != null && head.isCancelled()) {
+            this.queue.poll();
+            head = this.queue.peek();
+        }
+        return head == null ? Long.MAX_VALUE : head.getTime();
+    }
+
+    /**
+     * Moves events posted by other logical processes into the queue.
+     *
+     * @throws IllegalStateException if one of them is already in the past
+     */
+    void drainInbox() throws IllegalStateException {
+        Event event = this.inbox.poll();
+        while (event != null) {
+            if (event.getTime() < this.now) {
+                logger.error("[{}] {} arrived after now={}", CLS, event, this.now);
+                throw new IllegalStateException(CLS + ": causality violation, lookahead too large");
+            }
+            this.queue.add(event);
+            event = this.inbox.poll();
+        }
+    }
+
+    private Event poll() {
+        Event event = this.queue.poll();
+        while (event != null && event.isCancelled()) {
+            event = this.queue.poll();
+        }
+        return event;
+    }
+
+    private void fire(Event event) {
+        this.now     = event.getTime();
+        this.current = event.getContext();
+        this.processed++;
+        try {
+            event.fire();
+        } catch (RuntimeException e) {
+            logger.error("[{}] {} failed: {}", CLS, event, e.getLocalizedMessage());
+        } finally {
+            this.current = EXTERNAL;
+        }
+    }
+
+    private Event newEvent(long time, EventType type, int context, Runnable action)
+            throws IllegalArgumentException {
+        if (time < this.now) {
+            logger.error("[{}] cannot schedule at {} before now={}", CLS, time, this.now);
+            throw new IllegalArgumentException(CLS + ": time is in the past");
+        }
+        int  source   = this.current;
+        long sequence = source == EXTERNAL ? this.externalSequence.getAndIncrement()
+                                           : this.nextSequence(source);
+        return new Event(time, source, sequence, context, type, action);
+    }
+
+    private long nextSequence(int context) {
+        if (context >= this.sequences.length) {
+            this.sequences = Arrays.copyOf(this.sequences, Math.max(context + 1, this.sequences.length * 2));
+        }
+        return this.sequences[context]++;
+    }
+}
@@ -12,17 +12,19 @@ import com.netsim.utils.Logger;
  * Ignores the NetworkAdapter parameter of NetworkTable, as ARP is per‐host.
  */
 public class ArpTable implements NetworkTable<IPv4, Mac> {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(ArpTable.class);
     private static final String CLS    = ArpTable.class.getSimpleName();
 
-    private final Map<IPv4, Mac> table;
+    private final Map<IPv4, Mac>    table;
+    private final IntObjectMap<Mac> byAddress;
 
     /**
      * Initializes an empty ARP table.
      */
     public ArpTable() {
-        this.table = new HashMap<>();
-        logger.info("[" + CLS + "] initialized");
+        this.table     = new HashMap<>();
+        this.byAddress = new IntObjectMap<>(16);
+        logger.info("[{}] initialized", CLS);
     }
 
     /**
@@ -33,12 +35,13 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
      */
     public void setGateway(Mac router) throws IllegalArgumentException {
         if (router == null) {
-            logger.error("[" + CLS + "] setGateway: router cannot be null");
+            logger.error("[{}] setGateway: router cannot be null", CLS);
             throw new IllegalArgumentException("ArpTable: router cannot be null");
         }
         IPv4 gw = new IPv4("0.0.0.0", 0);
         this.table.put(gw, router);
-        logger.info("[" + CLS + "] gateway set to " + router.stringRepresentation());
+        this.byAddress.put(gw.toInt(), router);
+        logger.info("[{}] gateway set to {}", CLS, router);
     }
 
     /**
@@ -50,11 +53,11 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
     public Mac gateway() throws RuntimeException {
         try {
             Mac mac = lookup(new IPv4("0.0.0.0", 0));
-            logger.info("[" + CLS + "] gateway lookup succeeded: " + mac.stringRepresentation());
+            logger.info("[{}] gateway lookup succeeded: {}", CLS, mac);
             return mac;
         } catch (NullPointerException e) {
-            logger.error("[" + CLS + "] gateway not set");
-            logger.debug("[" + CLS + "] " + e.getLocalizedMessage());
+            logger.error("[{}] gateway not set", CLS);
+            logger.debug("[{}] {}", CLS, e.getLocalizedMessage());
             throw new RuntimeException("ArpTable: default gateway not set");
         }
     }
@@ -70,19 +73,30 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
     @Override
     public Mac lookup(IPv4 key) throws IllegalArgumentException, NullPointerException {
         if (key == null) {
-            logger.error("[" + CLS + "] lookup: key cannot be null");
+            logger.error("[{}] lookup: key cannot be null", CLS);
             throw new IllegalArgumentException("ArpTable: key cannot be null");
         }
         Mac mac = this.table.get(key);
         if (mac == null) {
-            logger.error("[" + CLS + "] lookup failed for IP " + key.stringRepresentation());
+            logger.error("[{}] lookup failed for IP {}", CLS, key);
             throw new NullPointerException("ArpTable: no MAC entry for IP " + key.stringRepresentation());
         }
-        logger.info("[" + CLS + "] lookup succeeded for IP " 
-                    + key.stringRepresentation() + ": " + mac.stringRepresentation());
+        logger.info("[{}] lookup succeeded for IP {}: {}", CLS, key, mac);
         return mac;
     }
 
+    /**
+     * Looks up a static entry by address alone, ignoring the prefix length the
+     * entry was added with. Used on the send path, where a miss is not an
+     * error but a cue to resolve the address dynamically.
+     *
+     * @param address packed IPv4 address
+     * @return the MAC, or null if there is no static entry
+     */
+    public Mac find(int address) {
+        return this.byAddress.get(address);
+    }
+
     /**
      * Adds or updates an ARP entry mapping IPv4 → MAC.
      *
@@ -93,16 +107,16 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
     @Override
     public void add(IPv4 key, Mac value) throws IllegalArgumentException {
         if (key == null) {
-            logger.error("[" + CLS + "] add: key cannot be null");
+            logger.error("[{}] add: key cannot be null", CLS);
             throw new IllegalArgumentException("ArpTable.add: key cannot be null");
         }
         if (value == null) {
-            logger.error("[" + CLS + "] add: value cannot be null");
+            logger.error("[{}] add: value cannot be null", CLS);
             throw new IllegalArgumentException("ArpTable.add: value cannot be null");
         }
         this.table.put(key, value);
-        logger.info("[" + CLS + "] added entry: " 
-                    + key.stringRepresentation() + " -> " + value.stringRepresentation());
+        this.byAddress.put(key.toInt(), value);
+        logger.info("[{}] added entry: {} -> {}", CLS, key, value);
     }
 
     /**
@@ -115,17 +129,20 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
     @Override
     public void remove(IPv4 key) throws IllegalArgumentException, NullPointerException {
         if (key == null) {
-            logger.error("[" + CLS + "] remove: key cannot be null");
+            logger.error("[{}] remove: key cannot be null", CLS);
             throw new IllegalArgumentException("ArpTable.remove: key cannot be null");
         }
         Mac removed = this.table.remove(key);
+        if (removed != null) {
+            this.byAddress.remove(key.toInt());
+        }
         if (removed == null) {
-            logger.error("[" + CLS + "] remove failed for IP " + key.stringRepresentation());
+            logger.error("[{}] remove failed for IP {}", CLS, key);
             throw new NullPointerException(
                 "ArpTable.remove: no entry for IP " + key.stringRepresentation()
             );
         }
-        logger.info("[" + CLS + "] removed entry for IP " + key.stringRepresentation());
+        logger.info("[{}] removed entry for IP {}", CLS, key);
     }
 
     /**
@@ -136,7 +153,7 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
     @Override
     public boolean isEmpty() {
         boolean empty = this.table.isEmpty();
-        logger.debug("[" + CLS + "] isEmpty = " + empty);
+        logger.debug("[{}] isEmpty = {}", CLS, empty);
         return empty;
     }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.netsim.table;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.utils.Logger;
+
+/**
+ * An {@link ArpTable} that may be read and updated from different threads.
+ * <p>
+ * Like {@link ConcurrentRoutingTable}, readers resolve addresses in an
+ * immutable snapshot behind one volatile reference and never lock; writers
+ * are serialised, copy the entries, apply their changes and publish the copy.
+ * Use {@link #update} to publish many changes at once.
+ */
+public class ConcurrentArpTable extends ArpTable {
+    private static final Logger logger = Logger.getInstance(ConcurrentArpTable.class);
+    private static final String CLS    = ConcurrentArpTable.class.getSimpleName();
+
+    /** An immutable ARP state, indexed both by subnet and by bare address. */
+    private static final class Snapshot {
+        final Map<IPv4, Mac>    table;
+        final IntObjectMap<Mac> byAddress;
+
+        Snapshot(Map<IPv4, Mac> table) {
+            // never written once built, so readers may probe it without locking
+            IntObjectMap<Mac> byAddress = new IntObjectMap<>(table.size());
+            for (Map.Entry<IPv4, Mac> e : table.entrySet()) {
+                byAddress.put(e.getKey().toInt(), e.getValue());
+            }
+            this.table     = Map.copyOf(table);
+            this.byAddress = byAddress;
+        }
+    }
+
+    /**
+     * A set of changes applied to a private copy of the entries; nothing is
+     * visible to readers until the enclosing {@link #update} returns.
+     */
+    public static final class Batch {
+        private final Map<IPv4, Mac> table;
+
+        private Batch(Map<IPv4, Mac> table) {
+            this.table = table;
+        }
+
+        /**
+         * Adds or updates an entry.
+         *
+         * @param key   the IPv4 address (non-null)
+         * @param value the MAC address (non-null)
+         * @return this batch
+         * @throws IllegalArgumentException if key or value is null
+         */
+        public Batch add(IPv4 key, Mac value) throws IllegalArgumentException {
+            if (key == null || value == null) {
+                logger.error("[{}] add: arguments cannot be null", CLS);
+                throw new IllegalArgumentException(CLS + ": key and value cannot be null");
+            }
+            this.table.put(key, value);
+            return this;
+        }
+
+        /**
+         * Removes an entry.
+         *
+         * @param key the IPv4 address (non-null)
+         * @return this batch
+         * @throws IllegalArgumentException if key is null
+         * @throws NullPointerException     if no entry exists for key
+         */
+        public Batch remove(IPv4 key) throws IllegalArgumentException, NullPointerException {
+            if (key == null) {
+                logger.error("[{}] remove: key cannot be null", CLS);
+                throw new IllegalArgumentException(CLS + ": key cannot be null");
+            }
+            if (this.table.remove(key) == null) {
+                logger.error("[{}] remove failed for IP {}", CLS, key);
+                throw new NullPointerException(CLS + ": no entry for IP " + key.stringRepresentation());
+            }
+            return this;
+        }
+
+        /**
+         * Removes every entry.
+         *
+         * @return this batch
+         */
+        public Batch clear() {
+            this.table.clear();
+            return this;
+        }
+    }
+
+    private final Object      writeLock;
+    private volatile Snapshot current;
+
+    /**
+     * Initializes an empty table.
+     */
+    public ConcurrentArpTable() {
+        super();
+        this.writeLock = new Object();
+        this.current   = new Snapshot(Map.of());
+    }
+
+    /**
+     * Applies a batch of changes and publishes them as one snapshot. If the
+     * batch throws, nothing is published.
+     *
+     * @param changes callback filling in the batch (non-null)
+     * @throws IllegalArgumentException if changes is null
+     */
+    public void update(Consumer<Batch> changes) throws IllegalArgumentException {
+        if (changes == null) {
+            logger.error("[{}] update: changes cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": changes cannot be null");
+        }
+        synchronized (this.writeLock) {
+            Map<IPv4, Mac> table = new HashMap<>(this.current.table);
+            changes.accept(new Batch(table));
+            this.current = new Snapshot(table);
+        }
+        logger.debug("[{}] update: published snapshot with {} entries", CLS, this.current.table.size());
+    }
+
+    @Override
+    public void setGateway(Mac router) throws IllegalArgumentException {
+        if (router == null) {
+            logger.error("[{}] setGateway: router cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": router cannot be null");
+        }
+        this.update(batch -> batch.add(new IPv4("0.0.0.0", 0), router));
+        logger.info("[{}] gateway set to {}", CLS, router);
+    }
+
+    /**
+     * Looks up a MAC in the current snapshot without locking.
+     *
+     * @param key the IPv4 address to resolve (non-null)
+     * @return the corresponding MAC address
+     * @throws IllegalArgumentException if key is null
+     * @throws NullPointerException     if no entry exists for key
+     */
+    @Override
+    public Mac lookup(IPv4 key) throws IllegalArgumentException, NullPointerException {
+        if (key == null) {
+            logger.error("[{}] lookup: key cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": key cannot be null");
+        }
+        Mac mac = this.current.table.get(key);
+        if (mac == null) {
+            logger.error("[{}] lookup failed for IP {}", CLS, key);
+            throw new NullPointerException(CLS + ": no MAC entry for IP " + key.stringRepresentation());
+        }
+        return mac;
+    }
+
+    @Override
+    public Mac find(int address) {
+        return this.current.byAddress.get(address);
+    }
+
+    @Override
+    public void add(IPv4 key, Mac value) throws IllegalArgumentException {
+        this.update(batch -> batch.add(key, value));
+        logger.info("[{}] added entry: {} -> {}", CLS, key, value);
+    }
+
+    @Override
+    public void remove(IPv4 key) throws IllegalArgumentException, NullPointerException {
+        this.update(batch -> batch.remove(key));
+        logger.info("[{}] removed entry for IP {}", CLS, key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.current.table.isEmpty();
+    }
+}
@@ -0,0 +1,256 @@
+package com.netsim.table;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.utils.Logger;
+
+/**
+ * A {@link RoutingTable} that may be read and updated from different threads.
+ * <p>
+ * Readers look routes up in an immutable snapshot reached through a single
+ * volatile reference, so a lookup never takes a lock and never waits for a
+ * writer. Writers are serialised; each one copies the current routes, applies
+ * its changes and builds a fresh {@link Fib}, then publishes it with one
+ * volatile write (read-copy-update). Old snapshots are simply left to the
+ * garbage collector once no reader holds them.
+ * <p>
+ * Every update rebuilds the whole FIB from scratch, so it costs as much as
+ * filling an empty engine with all the routes: with {@link Dir248Fib} that is
+ * a fresh 64 MB first-level array per update. Each single-route call
+ * publishes its own snapshot; use {@link #update} to apply many changes at
+ * the cost of one rebuild, and atomically: a reader sees either none of them
+ * or all of them.
+ * <p>
+ * The FIB inherited from {@link RoutingTable} is an empty {@link PatriciaFib}
+ * that is never used.
+ */
+public class ConcurrentRoutingTable extends RoutingTable {
+    private static final Logger logger = Logger.getInstance(ConcurrentRoutingTable.class);
+    private static final String CLS    = ConcurrentRoutingTable.class.getSimpleName();
+
+    /** An immutable routing state: the FIB readers query and the routes it was built from. */
+    private static final class Snapshot {
+        final Fib<RoutingInfo>       fib;
+        final Map<Long, RoutingInfo> routes;
+
+        Snapshot(Fib<RoutingInfo> fib, Map<Long, RoutingInfo> routes) {
+            this.fib    = fib;
+            this.routes = routes;
+        }
+    }
+
+    /**
+     * A set of changes applied to a private copy of the routes; nothing is
+     * visible to readers until the enclosing {@link #update} returns.
+     */
+    public static final class Batch {
+        private final Map<Long, RoutingInfo> routes;
+
+        private Batch(Map<Long, RoutingInfo> routes) {
+            this.routes = routes;
+        }
+
+        /**
+         * Adds a route.
+         *
+         * @param destination the IPv4 subnet (non-null)
+         * @param route       the RoutingInfo (non-null)
+         * @return this batch
+         * @throws IllegalArgumentException if an argument is null
+         * @throws RuntimeException         if a route for this subnet already exists
+         */
+        public Batch add(IPv4 destination, RoutingInfo route) throws IllegalArgumentException, RuntimeException {
+            if (destination == null || route == null) {
+                logger.error("[{}] add: arguments cannot be null", CLS);
+                throw new IllegalArgumentException(CLS + ": destination and route cannot be null");
+            }
+            if (this.routes.putIfAbsent(key(destination), route) != null) {
+                logger.error("[{}] add: route for {} already exists", CLS, destination);
+                throw new RuntimeException(CLS + ": route already contained");
+            }
+            return this;
+        }
+
+        /**
+         * Sets or replaces the default (0.0.0.0/0) route.
+         *
+         * @param route the RoutingInfo (non-null)
+         * @return this batch
+         * @throws IllegalArgumentException if route is null
+         */
+        public Batch setDefault(RoutingInfo route) throws IllegalArgumentException {
+            if (route == null) {
+                logger.error("[{}] setDefault: route cannot be null", CLS);
+                throw new IllegalArgumentException(CLS + ": route cannot be null");
+            }
+            this.routes.put(key(0, 0), route);
+            return this;
+        }
+
+        /**
+         * Removes a route.
+         *
+         * @param destination the IPv4 subnet (non-null)
+         * @return this batch
+         * @throws IllegalArgumentException if destination is null
+         * @throws NullPointerException     if no such route exists
+         */
+        public Batch remove(IPv4 destination) throws IllegalArgumentException, NullPointerException {
+            if (destination == null) {
+                logger.error("[{}] remove: destination cannot be null", CLS);
+                throw new IllegalArgumentException(CLS + ": destination cannot be null");
+            }
+            if (this.routes.remove(key(destination)) == null) {
+                logger.error("[{}] remove: no route for {}", CLS, destination);
+                throw new NullPointerException(CLS + ": unable to remove " + destination.stringRepresentation());
+            }
+            return this;
+        }
+
+        /**
+         * Removes every route.
+         *
+         * @return this batch
+         */
+        public Batch clear() {
+            this.routes.clear();
+            return this;
+        }
+    }
+
+    private final Supplier<Fib<RoutingInfo>> engine;
+    private final Object                     writeLock;
+    private volatile Snapshot                current;
+
+    /**
+     * Constructs an empty table whose snapshots are {@link PatriciaFib}s.
+     */
+    public ConcurrentRoutingTable() {
+        this(PatriciaFib::new);
+    }
+
+    /**
+     * Constructs an empty table whose snapshots are built by the given engine.
+     *
+     * @param engine factory of empty FIBs (non-null)
+     * @throws IllegalArgumentException if engine is null or yields a null or non-empty FIB
+     */
+    public ConcurrentRoutingTable(Supplier<Fib<RoutingInfo>> engine) throws IllegalArgumentException {
+        super(unused(engine));
+        Fib<RoutingInfo> first = engine.get();
+        if (first == null || first.size() != 0) {
+            logger.error("[{}] constructor: engine must yield empty FIBs", CLS);
+            throw new IllegalArgumentException(CLS + ": engine must yield empty FIBs");
+        }
+        this.engine    = engine;
+        this.writeLock = new Object();
+        this.current   = new Snapshot(first, Map.of());
+        logger.info("[{}] initialized", CLS);
+    }
+
+    /**
+     * Checks the engine and returns the FIB handed to the superclass: every
+     * operation is served by the snapshots, so it is an empty PatriciaFib,
+     * which costs one object, rather than one built by the engine.
+     */
+    private static Fib<RoutingInfo> unused(Supplier<Fib<RoutingInfo>> engine) {
+        if (engine == null) {
+            logger.error("[{}] constructor: engine cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": engine cannot be null");
+        }
+        return new PatriciaFib<>();
+    }
+
+    private static long key(IPv4 subnet) {
+        return key(subnet.toInt(), subnet.getMask());
+    }
+
+    private static long key(int network, int length) {
+        return (long) (network & Fib.netmask(length)) << 6 | length;
+    }
+
+    /**
+     * Applies a batch of changes and publishes them as one snapshot. If the
+     * batch throws, nothing is published.
+     *
+     * @param changes callback filling in the batch (non-null)
+     * @throws IllegalArgumentException if changes is null
+     */
+    public void update(Consumer<Batch> changes) throws IllegalArgumentException {
+        if (changes == null) {
+            logger.error("[{}] update: changes cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": changes cannot be null");
+        }
+        synchronized (this.writeLock) {
+            Map<Long, RoutingInfo> routes = new HashMap<>(this.current.routes);
+            changes.accept(new Batch(routes));
+            Fib<RoutingInfo> fib = this.engine.get();
+            for (Map.Entry<Long, RoutingInfo> e : routes.entrySet()) {
+                long k = e.getKey();
+                fib.put((int) (k >>> 6), (int) (k & 0x3f), e.getValue());
+            }
+            this.current = new Snapshot(fib, Map.copyOf(routes));
+        }
+        logger.debug("[{}] update: published snapshot with {} routes", CLS, this.current.routes.size());
+    }
+
+    /**
+     * Looks up the best-matching route in the current snapshot without locking.
+     *
+     * @param destination the IPv4 address to route (non-null)
+     * @return the {@link RoutingInfo} for the best match
+     * @throws IllegalArgumentException if destination is null
+     * @throws NullPointerException     if no route matches
+     */
+    @Override
+    public RoutingInfo lookup(IPv4 destination) throws IllegalArgumentException, NullPointerException {
+        if (destination == null) {
+            logger.error("[{}] lookup: destination cannot be null", CLS);
+            throw new IllegalArgumentException(CLS + ": destination cannot be null");
+        }
+        RoutingInfo bestMatch = this.current.fib.lookup(destination.toInt());
+        if (bestMatch == null) {
+            logger.error("[{}] lookup: no route found for {}", CLS, destination);
+            throw new NullPointerException(CLS + ": no route found for " + destination.stringRepresentation());
+        }
+        return bestMatch;
+    }
+
+    @Override
+    public void add(IPv4 destination, RoutingInfo route) throws IllegalArgumentException, RuntimeException {
+        this.update(batch -> batch.add(destination, route));
+        logger.info("[{}] add: added route to {}", CLS, destination);
+    }
+
+    @Override
+    public void setDefault(RoutingInfo route) throws IllegalArgumentException {
+        this.update(batch -> batch.setDefault(route));
+        logger.info("[{}] setDefault: set default route via {}", CLS, route.getDevice().getName());
+    }
+
+    @Override
+    public void remove(IPv4 destination) throws IllegalArgumentException, NullPointerException {
+        this.update(batch -> batch.remove(destination));
+        logger.info("[{}] remove: removed route to {}", CLS, destination);
+    }
+
+    @Override
+    public int size() {
+        return this.current.routes.size();
+    }
+
+    @Override
+    public void clear() {
+        this.update(Batch::clear);
+        logger.info("[{}] clear: all routes removed", CLS);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.current.routes.isEmpty();
+    }
+}
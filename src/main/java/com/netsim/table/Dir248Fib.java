@@ -0,0 +1,226 @@
+package com.netsim.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link Fib} backed by a DIR-24-8 table (Gupta, Lin, McKeown): a directly
+ * indexed table of 2^24 entries covers the top 24 bits of the address, and
+ * each /24 holding a longer prefix points to a 256-entry second-level chunk.
+ * A lookup is one or two array reads regardless of the number of prefixes.
+ * <p>
+ * The price is memory and update cost: the first level alone is 64 MB, and
+ * inserting a /n with n &lt;= 24 rewrites 2^(24-n) entries. Use it for routers
+ * with large tables; {@link PatriciaFib} is the better choice for small ones.
+ * <p>
+ * Table entries hold a route slot + 1 (0 is "no route"), or the negated chunk
+ * index - 1 for a pointer to the second level. The prefix length of the route
+ * in a slot decides whether a later insert or remove may overwrite the entry.
+ *
+ * @param <V> the value type
+ */
+public final class Dir248Fib<V> implements Fib<V> {
+    private static final int CHUNK = 256;
+
+    private final int[]              tbl24;
+    private int[]                    tblLong;
+    private int                      chunks;
+    private final List<Integer>      freeChunks;
+    private final List<V>            values;
+    private int[]                    lengths;
+    private final List<Integer>      freeSlots;
+    private final Map<Long, Integer> routes;
+
+    /**
+     * Constructs an empty table, allocating the 2^24-entry first level.
+     */
+    public Dir248Fib() {
+        this.tbl24      = new int[1 << 24];
+        this.tblLong    = new int[16 * CHUNK];
+        this.chunks     = 0;
+        this.freeChunks = new ArrayList<>();
+        this.values     = new ArrayList<>();
+        this.lengths    = new int[16];
+        this.freeSlots  = new ArrayList<>();
+        this.routes     = new HashMap<>();
+    }
+
+    @Override
+    public V put(int network, int length, V value) throws IllegalArgumentException {
+        Fib.checkLength(length);
+        if (value == null) {
+            throw new IllegalArgumentException("Dir248Fib: value cannot be null");
+        }
+        network &= Fib.netmask(length);
+        Integer existing = this.routes.get(key(network, length));
+        if (existing != null) {
+            return this.values.set(existing, value);
+        }
+
+        int slot = this.allocateSlot(value, length);
+        this.routes.put(key(network, length), slot);
+        if (length <= 24) {
+            int from = network >>> 8;
+            int to   = from + (1 << (24 - length));
+            for (int i = from; i < to; i++) {
+                int e = this.tbl24[i];
+                if (e < 0) {
+                    this.fillChunk(-e - 1, 0, CHUNK, slot, length);
+                } else if (e == 0 || this.lengths[e - 1] <= length) {
+                    this.tbl24[i] = slot + 1;
+                }
+            }
+        } else {
+            int i = network >>> 8;
+            int e = this.tbl24[i];
+            if (e >= 0) {
+                int chunk = this.allocateChunk(e);
+                this.tbl24[i] = -chunk - 1;
+                e = this.tbl24[i];
+            }
+            int from = network & 0xFF;
+            this.fillChunk(-e - 1, from, from + (1 << (32 - length)), slot, length);
+        }
+        return null;
+    }
+
+    @Override
+    public V get(int network, int length) throws IllegalArgumentException {
+        Fib.checkLength(length);
+        Integer slot = this.routes.get(key(network & Fib.netmask(length), length));
+        return slot == null ? null : this.values.get(slot);
+    }
+
+    @Override
+    public V remove(int network, int length) throws IllegalArgumentException {
+        Fib.checkLength(length);
+        network &= Fib.netmask(length);
+        Integer removed = this.routes.remove(key(network, length));
+        if (removed == null) {
+            return null;
+        }
+        int slot = removed;
+
+        // entries written by this route fall back to the longest shorter prefix covering it
+        int replacement = 0;
+        for (int l = length - 1; l >= 0; l--) {
+            Integer cover = this.routes.get(key(network & Fib.netmask(l), l));
+            if (cover != null) {
+                replacement = cover + 1;
+                break;
+            }
+        }
+
+        if (length <= 24) {
+            int from = network >>> 8;
+            int to   = from + (1 << (24 - length));
+            for (int i = from; i < to; i++) {
+                int e = this.tbl24[i];
+                if (e < 0) {
+                    this.restoreChunk(i, -e - 1, 0, CHUNK, slot, replacement);
+                } else if (e == slot + 1) {
+                    this.tbl24[i] = replacement;
+                }
+            }
+        } else {
+            int i    = network >>> 8;
+            int from = network & 0xFF;
+            this.restoreChunk(i, -this.tbl24[i] - 1, from, from + (1 << (32 - length)), slot, replacement);
+        }
+
+        V value = this.values.set(slot, null);
+        this.freeSlots.add(slot);
+        return value;
+    }
+
+    @Override
+    public V lookup(int address) {
+        int e = this.tbl24[address >>> 8];
+        if (e < 0) {
+            e = this.tblLong[(-e - 1) * CHUNK + (address & 0xFF)];
+        }
+        return e == 0 ? null : this.values.get(e - 1);
+    }
+
+    @Override
+    public int size() {
+        return this.routes.size();
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.tbl24, 0);
+        this.chunks = 0;
+        this.freeChunks.clear();
+        this.values.clear();
+        this.freeSlots.clear();
+        this.routes.clear();
+    }
+
+    private void fillChunk(int chunk, int from, int to, int slot, int length) {
+        int base = chunk * CHUNK;
+        for (int j = base + from; j < base + to; j++) {
+            int e = this.tblLong[j];
+            if (e == 0 || this.lengths[e - 1] <= length) {
+                this.tblLong[j] = slot + 1;
+            }
+        }
+    }
+
+    private void restoreChunk(int index24, int chunk, int from, int to, int slot, int replacement) {
+        int base = chunk * CHUNK;
+        for (int j = base + from; j < base + to; j++) {
+            if (this.tblLong[j] == slot + 1) {
+                this.tblLong[j] = replacement;
+            }
+        }
+        // a chunk whose entries all agree again folds back into the first level
+        int first = this.tblLong[base];
+        for (int j = base + 1; j < base + CHUNK; j++) {
+            if (this.tblLong[j] != first) {
+                return;
+            }
+        }
+        if (first == 0 || this.lengths[first - 1] <= 24) {
+            this.tbl24[index24] = first;
+            this.freeChunks.add(chunk);
+        }
+    }
+
+    private int allocateChunk(int fill) {
+        int chunk;
+        if (!this.freeChunks.isEmpty()) {
+            chunk = this.freeChunks.remove(this.freeChunks.size() - 1);
+        } else {
+            chunk = this.chunks++;
+            if (this.chunks * CHUNK > this.tblLong.length) {
+                this.tblLong = Arrays.copyOf(this.tblLong, this.tblLong.length * 2);
+            }
+        }
+        Arrays.fill(this.tblLong, chunk * CHUNK, (chunk + 1) * CHUNK, fill);
+        return chunk;
+    }
+
+    private int allocateSlot(V value, int length) {
+        int slot;
+        if (!this.freeSlots.isEmpty()) {
+            slot = this.freeSlots.remove(this.freeSlots.size() - 1);
+            this.values.set(slot, value);
+        } else {
+            slot = this.values.size();
+            this.values.add(value);
+            if (slot >= this.lengths.length) {
+                this.lengths = Arrays.copyOf(this.lengths, this.lengths.length * 2);
+            }
+        }
+        this.lengths[slot] = length;
+        return slot;
+    }
+
+    private static long key(int network, int length) {
+        return ((long) length << 32) | (network & 0xFFFFFFFFL);
+    }
+}
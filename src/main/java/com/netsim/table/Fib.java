@@ -0,0 +1,86 @@
+package com.netsim.table;
+
+/**
+ * Forwarding information base: longest-prefix-match storage over IPv4
+ * addresses held as 32-bit ints (most significant byte first).
+ * <p>
+ * A prefix is identified by its network bits and length; bits of the network
+ * beyond the length are ignored, so 10.1.2.3/8 and 10.0.0.0/8 name the same
+ * entry. Values are never null, a null return always means "no entry".
+ *
+ * @param <V> the value type
+ */
+public interface Fib<V> {
+    // no logger in interfaces per convention
+
+    /**
+     * Inserts or replaces the value of a prefix.
+     *
+     * @param network the network bits
+     * @param length  the prefix length (0–32)
+     * @param value   the value to store (non-null)
+     * @return the value previously stored for this prefix, or null
+     * @throws IllegalArgumentException if length is out of range or value is null
+     */
+    V put(int network, int length, V value) throws IllegalArgumentException;
+
+    /**
+     * Exact-match read of a prefix.
+     *
+     * @param network the network bits
+     * @param length  the prefix length (0–32)
+     * @return the value stored for this prefix, or null
+     * @throws IllegalArgumentException if length is out of range
+     */
+    V get(int network, int length) throws IllegalArgumentException;
+
+    /**
+     * Removes a prefix.
+     *
+     * @param network the network bits
+     * @param length  the prefix length (0–32)
+     * @return the removed value, or null if the prefix was not stored
+     * @throws IllegalArgumentException if length is out of range
+     */
+    V remove(int network, int length) throws IllegalArgumentException;
+
+    /**
+     * Longest-prefix match.
+     *
+     * @param address the address to match
+     * @return the value of the longest prefix covering address, or null
+     */
+    V lookup(int address);
+
+    /**
+     * @return the number of stored prefixes
+     */
+    int size();
+
+    /**
+     * Removes every prefix.
+     */
+    void clear();
+
+    /**
+     * Netmask of a prefix length: the top length bits set.
+     *
+     * @param length the prefix length (0–32)
+     * @return the netmask as an int
+     */
+    static int netmask(int length) {
+        return length == 0 ? 0 : -1 << (32 - length);
+    }
+
+    /**
+     * Validates a prefix length.
+     *
+     * @param length the prefix length
+     * @throws IllegalArgumentException if length is not in 0–32
+     */
+    static void checkLength(int length) throws IllegalArgumentException {
+        if (length < 0 || length > 32) {
+            throw new IllegalArgumentException("Fib: prefix length must be in 0-32, got " + length);
+        }
+    }
+}
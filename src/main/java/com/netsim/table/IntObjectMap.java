@@ -0,0 +1,201 @@
+package com.netsim.table;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from a packed IPv4 address (any int) to a non-null
+ * value.
+ * <p>
+ * Keys and values live in two parallel arrays probed linearly; a null value
+ * marks a free slot, so every int, 0.0.0.0 included, is a valid key. Lookups
+ * are a hash and a few array reads with no boxing and no allocation. Removal
+ * shifts the following entries of the cluster back instead of leaving
+ * tombstones. The table doubles when half full. Not thread-safe: callers
+ * sharing a map publish immutable copies, see {@link #copy()}.
+ *
+ * @param <V> the value type
+ */
+final class IntObjectMap<V> {
+    /** Selects entries for {@link #removeIf}. */
+    interface EntryFilter<V> {
+        boolean test(int key, V value);
+    }
+
+    private int[] keys;
+    private V[]   values;
+    private int   mask;
+    private int   size;
+
+    /**
+     * @param expected number of entries to size the table for (&gt;= 0)
+     */
+    IntObjectMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1;
+        this.allocate(capacity);
+    }
+
+    private IntObjectMap(IntObjectMap<V> other) {
+        this.keys   = other.keys.clone();
+        this.values = other.values.clone();
+        this.mask   = other.mask;
+        this.size   = other.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        this.keys   = new int[capacity];
+        this.values = (V[]) new Object[capacity];
+        this.mask   = capacity - 1;
+    }
+
+    private int slot(int key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & this.mask;
+    }
+
+    private int find(int key) {
+        for (int i = this.slot(key); ; i = (i + 1) & this.mask) {
+            if (this.values[i] == null) {
+                return -1;
+            }
+            if (this.keys[i] == key) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * @param key packed IPv4 address
+     * @return the value of key, or null
+     */
+    V get(int key) {
+        int i = this.find(key);
+        return i < 0 ? null : this.values[i];
+    }
+
+    /**
+     * Inserts or replaces an entry.
+     *
+     * @param key   packed IPv4 address
+     * @param value the value (non-null)
+     * @return the value previously stored for key, or null
+     * @throws IllegalArgumentException if value is null
+     */
+    V put(int key, V value) throws IllegalArgumentException {
+        if (value == null) {
+            throw new IllegalArgumentException("IntObjectMap: value cannot be null");
+        }
+        for (int i = this.slot(key); ; i = (i + 1) & this.mask) {
+            V v = this.values[i];
+            if (v == null) {
+                this.keys[i]   = key;
+                this.values[i] = value;
+                if (++this.size * 2 > this.keys.length) {
+                    this.grow();
+                }
+                return null;
+            }
+            if (this.keys[i] == key) {
+                this.values[i] = value;
+                return v;
+            }
+        }
+    }
+
+    /**
+     * @param key packed IPv4 address
+     * @return the value removed, or null if key was absent
+     */
+    V remove(int key) {
+        int i = this.find(key);
+        if (i < 0) {
+            return null;
+        }
+        V value = this.values[i];
+        this.deleteSlot(i);
+        return value;
+    }
+
+    /**
+     * Removes every entry a filter selects.
+     *
+     * @param filter selects the entries to remove (non-null)
+     * @return the number of entries removed
+     */
+    int removeIf(EntryFilter<? super V> filter) {
+        int removed = 0;
+        for (int i = 0; i < this.keys.length; ) {
+            if (this.values[i] != null && filter.test(this.keys[i], this.values[i])) {
+                // the shift may pull an unchecked entry into slot i: look at it again
+                this.deleteSlot(i);
+                removed++;
+            } else {
+                i++;
+            }
+        }
+        return removed;
+    }
+
+    /** @return an independent map with the same entries */
+    IntObjectMap<V> copy() {
+        return new IntObjectMap<>(this);
+    }
+
+    /** @return number of entries */
+    int size() {
+        return this.size;
+    }
+
+    /** @return true if the map holds no entry */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /** @return number of slots */
+    int capacity() {
+        return this.keys.length;
+    }
+
+    /** Removes every entry. */
+    void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /** Backward-shift deletion: moves later members of the cluster into the hole. */
+    private void deleteSlot(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & this.mask;
+            if (this.values[i] == null) {
+                break;
+            }
+            int home = this.slot(this.keys[i]);
+            // the entry may fill the hole only if its home slot is not cyclically in (hole, i]
+            if (((i - home) & this.mask) >= ((i - hole) & this.mask)) {
+                this.keys[hole]   = this.keys[i];
+                this.values[hole] = this.values[i];
+                hole = i;
+            }
+        }
+        this.values[hole] = null;
+        this.size--;
+    }
+
+    private void grow() {
+        int[] oldKeys   = this.keys;
+        V[]   oldValues = this.values;
+        this.allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int j = this.slot(oldKeys[i]);
+            while (this.values[j] != null) {
+                j = (j + 1) & this.mask;
+            }
+            this.keys[j]   = oldKeys[i];
+            this.values[j] = oldValues[i];
+        }
+    }
+}
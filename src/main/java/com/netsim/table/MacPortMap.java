@@ -0,0 +1,216 @@
+package com.netsim.table;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from a 48-bit MAC held in a long to a port index,
+ * with a last-seen timestamp per entry.
+ * <p>
+ * Keys, ports and timestamps live in three parallel primitive arrays probed
+ * linearly, so a lookup is a hash and a few array reads with no boxing and
+ * no allocation. Removal shifts the following entries of the cluster back
+ * instead of leaving tombstones. The table doubles when half full.
+ */
+final class MacPortMap {
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[]  ports;
+    private long[] stamps;
+    private int    mask;
+    private int    size;
+
+    /**
+     * @param expected number of entries to size the table for (&gt;= 0)
+     */
+    MacPortMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1;
+        this.allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.keys   = new long[capacity];
+        this.ports  = new int[capacity];
+        this.stamps = new long[capacity];
+        this.mask   = capacity - 1;
+        Arrays.fill(this.keys, EMPTY);
+    }
+
+    private int slot(long mac) {
+        long h = mac * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & this.mask;
+    }
+
+    private int find(long mac) {
+        for (int i = this.slot(mac); ; i = (i + 1) & this.mask) {
+            long k = this.keys[i];
+            if (k == mac) {
+                return i;
+            }
+            if (k == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Inserts or updates an entry.
+     *
+     * @param mac  48-bit MAC
+     * @param port port index (&gt;= 0)
+     * @param now  timestamp to record
+     * @return the port previously stored for mac, or -1
+     */
+    int put(long mac, int port, long now) {
+        for (int i = this.slot(mac); ; i = (i + 1) & this.mask) {
+            long k = this.keys[i];
+            if (k == mac) {
+                int previous   = this.ports[i];
+                this.ports[i]  = port;
+                this.stamps[i] = now;
+                return previous;
+            }
+            if (k == EMPTY) {
+                this.keys[i]   = mac;
+                this.ports[i]  = port;
+                this.stamps[i] = now;
+                if (++this.size * 2 > this.keys.length) {
+                    this.grow();
+                }
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @param mac 48-bit MAC
+     * @return the port of mac, or -1
+     */
+    int get(long mac) {
+        int i = this.find(mac);
+        return i < 0 ? -1 : this.ports[i];
+    }
+
+    /**
+     * Looks up a port and ignores entries last seen before a cutoff.
+     *
+     * @param mac    48-bit MAC
+     * @param cutoff oldest timestamp still valid
+     * @return the port of mac, or -1 if absent or older than cutoff
+     */
+    int get(long mac, long cutoff) {
+        int i = this.find(mac);
+        return i < 0 || this.stamps[i] < cutoff ? -1 : this.ports[i];
+    }
+
+    /**
+     * @param mac 48-bit MAC
+     * @return the port removed, or -1 if mac was absent
+     */
+    int remove(long mac) {
+        int i = this.find(mac);
+        if (i < 0) {
+            return -1;
+        }
+        int port = this.ports[i];
+        this.deleteSlot(i);
+        return port;
+    }
+
+    /**
+     * Removes every entry last seen before a cutoff.
+     *
+     * @param cutoff oldest timestamp kept
+     * @return the number of entries removed
+     */
+    int removeOlderThan(long cutoff) {
+        int removed = 0;
+        for (int i = 0; i < this.keys.length; ) {
+            if (this.keys[i] != EMPTY && this.stamps[i] < cutoff) {
+                // the shift may pull an unchecked entry into slot i: look at it again
+                this.deleteSlot(i);
+                removed++;
+            } else {
+                i++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every entry pointing at a port, e.g. when its link goes down.
+     *
+     * @param port port index
+     * @return the number of entries removed
+     */
+    int removePort(int port) {
+        int removed = 0;
+        for (int i = 0; i < this.keys.length; ) {
+            if (this.keys[i] != EMPTY && this.ports[i] == port) {
+                this.deleteSlot(i);
+                removed++;
+            } else {
+                i++;
+            }
+        }
+        return removed;
+    }
+
+    /** @return number of entries */
+    int size() {
+        return this.size;
+    }
+
+    /** @return number of slots */
+    int capacity() {
+        return this.keys.length;
+    }
+
+    /** Removes every entry. */
+    void clear() {
+        Arrays.fill(this.keys, EMPTY);
+        this.size = 0;
+    }
+
+    /** Backward-shift deletion: moves later members of the cluster into the hole. */
+    private void deleteSlot(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & this.mask;
+            long k = this.keys[i];
+            if (k == EMPTY) {
+                break;
+            }
+            int home = this.slot(k);
+            // k may fill the hole only if its home slot is not cyclically in (hole, i]
+            if (((i - home) & this.mask) >= ((i - hole) & this.mask)) {
+                this.keys[hole]   = k;
+                this.ports[hole]  = this.ports[i];
+                this.stamps[hole] = this.stamps[i];
+                hole = i;
+            }
+        }
+        this.keys[hole] = EMPTY;
+        this.size--;
+    }
+
+    private void grow() {
+        long[] oldKeys   = this.keys;
+        int[]  oldPorts  = this.ports;
+        long[] oldStamps = this.stamps;
+        this.allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k == EMPTY) {
+                continue;
+            }
+            int j = this.slot(k);
+            while (this.keys[j] != EMPTY) {
+                j = (j + 1) & this.mask;
+            }
+            this.keys[j]   = k;
+            this.ports[j]  = oldPorts[i];
+            this.stamps[j] = oldStamps[i];
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.netsim.table;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.netsim.addresses.Mac;
 import com.netsim.network.NetworkAdapter;
@@ -8,19 +9,165 @@ import com.netsim.utils.Logger;
 
 /**
  * Table mapping MAC addresses to their corresponding network adapters.
+ * <p>
+ * Adapters are numbered as ports and the table itself is a primitive
+ * {@link MacPortMap} from the MAC's long value to the port index, so the
+ * forwarding path of a switch ({@link #learn(long, int, long)} and
+ * {@link #port(long, long)}) neither boxes nor allocates. Learnt entries age
+ * out after the aging time; entries added through {@link #add(Mac, NetworkAdapter)}
+ * are static and never age, though learning may move them to another port.
  */
 public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(MacTable.class);
     private static final String CLS    = MacTable.class.getSimpleName();
 
-    private final HashMap<Mac, NetworkAdapter> table;
+    /** nanoseconds a learnt entry lives without traffic (IEEE 802.1D default, 300 s) */
+    public static final long DEFAULT_AGING_TIME = 300_000_000_000L;
+
+    private static final long STATIC = Long.MAX_VALUE;
+
+    private final List<NetworkAdapter> ports;
+    private final MacPortMap           table;
+    private       long                 agingTime;
 
     /**
-     * Initializes an empty MacTable.
+     * Initializes an empty MacTable with the default aging time.
      */
     public MacTable() {
-        this.table = new HashMap<>();
-        logger.info("[" + CLS + "] initialized");
+        this(DEFAULT_AGING_TIME);
+    }
+
+    /**
+     * Initializes an empty MacTable.
+     *
+     * @param agingTime nanoseconds a learnt entry lives without traffic (&gt; 0)
+     * @throws IllegalArgumentException if agingTime is not positive
+     */
+    public MacTable(long agingTime) throws IllegalArgumentException {
+        if (agingTime <= 0) {
+            logger.error("[{}] aging time must be positive", CLS);
+            throw new IllegalArgumentException("MacTable: aging time must be positive");
+        }
+        this.ports     = new ArrayList<>();
+        this.table     = new MacPortMap(64);
+        this.agingTime = agingTime;
+        logger.info("[{}] initialized", CLS);
+    }
+
+    /**
+     * Numbers an adapter as a port; an adapter already known keeps its number.
+     *
+     * @param adapter the adapter (non-null)
+     * @return the port index
+     * @throws IllegalArgumentException if adapter is null
+     */
+    public int addPort(NetworkAdapter adapter) throws IllegalArgumentException {
+        if (adapter == null) {
+            logger.error("[{}] addPort: adapter cannot be null", CLS);
+            throw new IllegalArgumentException("MacTable: adapter cannot be null");
+        }
+        int index = this.portIndex(adapter);
+        if (index >= 0) {
+            return index;
+        }
+        this.ports.add(adapter);
+        return this.ports.size() - 1;
+    }
+
+    /**
+     * @param adapter the adapter to look for
+     * @return its port index, or -1 if it is not a port
+     */
+    public int portIndex(NetworkAdapter adapter) {
+        for (int i = 0; i < this.ports.size(); i++) {
+            if (this.ports.get(i) == adapter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index a port index
+     * @return the adapter numbered index
+     * @throws IndexOutOfBoundsException if there is no such port
+     */
+    public NetworkAdapter getPort(int index) throws IndexOutOfBoundsException {
+        return this.ports.get(index);
+    }
+
+    /** @return number of ports */
+    public int portCount() {
+        return this.ports.size();
+    }
+
+    /**
+     * Records that a source MAC was seen on a port. Hot path: does not log.
+     *
+     * @param mac  the source MAC as a long
+     * @param port the port index it arrived on
+     * @param now  current time in nanoseconds
+     * @return the port mac was previously learnt on, or -1
+     */
+    public int learn(long mac, int port, long now) {
+        return this.table.put(mac, port, now);
+    }
+
+    /**
+     * Finds the port a destination MAC was learnt on. Hot path: does not log.
+     *
+     * @param mac the destination MAC as a long
+     * @param now current time in nanoseconds
+     * @return the port index, or -1 if unknown or aged out
+     */
+    public int port(long mac, long now) {
+        return this.table.get(mac, now - this.agingTime);
+    }
+
+    /**
+     * Removes learnt entries not refreshed within the aging time.
+     *
+     * @param now current time in nanoseconds
+     * @return the number of entries removed
+     */
+    public int expire(long now) {
+        int removed = this.table.removeOlderThan(now - this.agingTime);
+        if (removed > 0) {
+            logger.debug("[{}] aged out {} entries", CLS, removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Forgets every MAC learnt on a port, e.g. after its link went down.
+     *
+     * @param port the port index
+     * @return the number of entries removed
+     */
+    public int flushPort(int port) {
+        return this.table.removePort(port);
+    }
+
+    /** @return number of entries, static and learnt */
+    public int size() {
+        return this.table.size();
+    }
+
+    /** @return nanoseconds a learnt entry lives without traffic */
+    public long getAgingTime() {
+        return this.agingTime;
+    }
+
+    /**
+     * @param agingTime nanoseconds a learnt entry lives without traffic (&gt; 0)
+     * @throws IllegalArgumentException if agingTime is not positive
+     */
+    public void setAgingTime(long agingTime) throws IllegalArgumentException {
+        if (agingTime <= 0) {
+            logger.error("[{}] aging time must be positive", CLS);
+            throw new IllegalArgumentException("MacTable: aging time must be positive");
+        }
+        this.agingTime = agingTime;
     }
 
     /**
@@ -34,18 +181,18 @@ public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
     @Override
     public NetworkAdapter lookup(Mac key) throws IllegalArgumentException, NullPointerException {
         if (key == null) {
-            logger.error("[" + CLS + "] lookup: key cannot be null");
+            logger.error("[{}] lookup: key cannot be null", CLS);
             throw new IllegalArgumentException("MacTable: key cannot be null");
         }
-        NetworkAdapter adapter = this.table.get(key);
+        int port = this.table.get(key.toLong());
+        NetworkAdapter adapter = port < 0 ? null : this.ports.get(port);
         if (adapter == null) {
-            logger.error("[" + CLS + "] lookup failed for MAC " + key.stringRepresentation());
+            logger.error("[{}] lookup failed for MAC {}", CLS, key);
             throw new NullPointerException(
                 "MacTable: no network adapter associated with MAC " + key.stringRepresentation()
             );
         }
-        logger.info("[" + CLS + "] lookup succeeded for MAC " 
-                    + key.stringRepresentation() + " -> adapter " + adapter.getName());
+        logger.info("[{}] lookup succeeded for MAC {} -> adapter {}", CLS, key, adapter.getName());
         return adapter;
     }
 
@@ -59,16 +206,15 @@ public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
     @Override
     public void add(Mac address, NetworkAdapter adapter) throws IllegalArgumentException {
         if (address == null) {
-            logger.error("[" + CLS + "] add: address cannot be null");
+            logger.error("[{}] add: address cannot be null", CLS);
             throw new IllegalArgumentException("MacTable: address cannot be null");
         }
         if (adapter == null) {
-            logger.error("[" + CLS + "] add: adapter cannot be null");
+            logger.error("[{}] add: adapter cannot be null", CLS);
             throw new IllegalArgumentException("MacTable: adapter cannot be null");
         }
-        this.table.put(address, adapter);
-        logger.info("[" + CLS + "] added entry: MAC " 
-                    + address.stringRepresentation() + " -> adapter " + adapter.getName());
+        this.table.put(address.toLong(), this.addPort(adapter), STATIC);
+        logger.info("[{}] added entry: MAC {} -> adapter {}", CLS, address, adapter.getName());
     }
 
     /**
@@ -81,18 +227,17 @@ public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
     @Override
     public void remove(Mac address) throws IllegalArgumentException, NullPointerException {
         if (address == null) {
-            logger.error("[" + CLS + "] remove: address cannot be null");
+            logger.error("[{}] remove: address cannot be null", CLS);
             throw new IllegalArgumentException("MacTable: address cannot be null");
         }
-        NetworkAdapter removed = this.table.remove(address);
-        if (removed == null) {
-            logger.error("[" + CLS + "] remove failed: no adapter for MAC " 
-                         + address.stringRepresentation());
+        int removed = this.table.remove(address.toLong());
+        if (removed < 0) {
+            logger.error("[{}] remove failed: no adapter for MAC {}", CLS, address);
             throw new NullPointerException(
                 "MacTable: no network adapter associated with MAC " + address.stringRepresentation()
             );
         }
-        logger.info("[" + CLS + "] removed entry for MAC " + address.stringRepresentation());
+        logger.info("[{}] removed entry for MAC {}", CLS, address);
     }
 
     /**
@@ -102,8 +247,8 @@ public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
      */
     @Override
     public boolean isEmpty() {
-        boolean empty = this.table.isEmpty();
-        logger.debug("[" + CLS + "] isEmpty = " + empty);
+        boolean empty = this.table.size() == 0;
+        logger.debug("[{}] isEmpty = {}", CLS, empty);
         return empty;
     }
 }
\ No newline at end of file
@@ -0,0 +1,346 @@
+package com.netsim.table;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import com.netsim.addresses.Mac;
+
+/**
+ * Dynamic IPv4 → MAC cache filled by ARP, keyed by the packed int address.
+ * <p>
+ * An entry is INCOMPLETE while a request is outstanding; sends made in that
+ * state wait in a bounded per-entry queue and run once the reply arrives.
+ * A confirmed entry is REACHABLE for {@code reachableTime}, then STALE: still
+ * used, but the next send should re-probe it. A STALE entry that is not
+ * confirmed again within {@code staleTime} is removed by {@link #expire(long)}.
+ * Reachability is derived from the confirmation time, so lookups never write.
+ * <p>
+ * Entries are held in an open-addressing map keyed by the primitive address,
+ * so a lookup neither boxes nor allocates. Readers probe an immutable map
+ * behind one volatile reference and never lock; writers are serialised and
+ * publish a copy when they add or remove entries, which happens once per
+ * neighbour resolved or aged out, not per packet. The cache may be shared by
+ * threads. Queued sends are returned to the caller and never run under a lock.
+ */
+public final class NeighbourCache {
+    /** Neighbour Unreachability Detection states kept by the cache. */
+    public enum State {
+        INCOMPLETE,
+        REACHABLE,
+        STALE
+    }
+
+    /** What {@link #enqueue} did with a send. */
+    public enum Enqueued {
+        /** queued on a new INCOMPLETE entry: the caller sends the first request */
+        STARTED,
+        /** queued behind a resolution already running */
+        QUEUED,
+        /** dropped because the entry's queue was full */
+        DROPPED
+    }
+
+    /** nanoseconds a confirmed entry stays REACHABLE */
+    public static final long DEFAULT_REACHABLE_TIME = 30_000_000_000L;
+    /** nanoseconds a STALE entry is kept before it ages out */
+    public static final long DEFAULT_STALE_TIME     = 60_000_000_000L;
+    /** sends queued per unresolved neighbour before new ones are dropped */
+    public static final int  DEFAULT_QUEUE_LIMIT    = 16;
+
+    private static final class Entry {
+        volatile Mac                    mac;
+        volatile long                   confirmed;
+        volatile boolean                probing;
+        final long                      created;
+        /** guarded by the cache's write lock */
+        final ArrayDeque<Consumer<Mac>> pending;
+
+        Entry(long created) {
+            this.created = created;
+            this.pending = new ArrayDeque<>();
+        }
+    }
+
+    private final Object                 writeLock;
+    private volatile IntObjectMap<Entry> entries;
+    private final long                   reachableTime;
+    private final long                   staleTime;
+    private final int                    queueLimit;
+    private final AtomicLong             dropped;
+
+    /**
+     * Constructs a cache with the default timers and queue limit.
+     */
+    public NeighbourCache() {
+        this(DEFAULT_REACHABLE_TIME, DEFAULT_STALE_TIME, DEFAULT_QUEUE_LIMIT);
+    }
+
+    /**
+     * @param reachableTime nanoseconds a confirmation keeps an entry REACHABLE (&gt; 0)
+     * @param staleTime     nanoseconds a STALE entry survives (&gt;= 0)
+     * @param queueLimit    sends queued per unresolved neighbour (&gt; 0), so the
+     *                      send that starts a resolution is always kept
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public NeighbourCache(long reachableTime, long staleTime, int queueLimit) throws IllegalArgumentException {
+        if (reachableTime <= 0 || staleTime < 0 || queueLimit <= 0) {
+            throw new IllegalArgumentException("NeighbourCache: invalid timers or queue limit");
+        }
+        this.writeLock     = new Object();
+        this.entries       = new IntObjectMap<>(16);
+        this.reachableTime = reachableTime;
+        this.staleTime     = staleTime;
+        this.queueLimit    = queueLimit;
+        this.dropped       = new AtomicLong();
+    }
+
+    /**
+     * @param ip  packed IPv4 address
+     * @return the resolved MAC, REACHABLE or STALE, or null if unknown or INCOMPLETE
+     */
+    public Mac lookup(int ip) {
+        Entry e = this.entries.get(ip);
+        return e == null ? null : e.mac;
+    }
+
+    /**
+     * @param ip  packed IPv4 address
+     * @param now current time in nanoseconds
+     * @return the state of the entry, or null if there is none
+     */
+    public State state(int ip, long now) {
+        Entry e = this.entries.get(ip);
+        if (e == null) {
+            return null;
+        }
+        if (e.mac == null) {
+            return State.INCOMPLETE;
+        }
+        return now - e.confirmed < this.reachableTime ? State.REACHABLE : State.STALE;
+    }
+
+    /**
+     * Queues a send for a neighbour that is not resolved yet.
+     *
+     * @param ip   packed IPv4 address
+     * @param send action run with the MAC once resolved (non-null)
+     * @param now  current time in nanoseconds
+     * @return {@link Enqueued#STARTED} if this call created the INCOMPLETE
+     *         entry, in which case the caller must send the first request;
+     *         {@link Enqueued#QUEUED} if a resolution was already running;
+     *         {@link Enqueued#DROPPED} if the queue was full
+     * @throws IllegalArgumentException if send is null
+     * @throws IllegalStateException    if the neighbour is already resolved
+     */
+    public Enqueued enqueue(int ip, Consumer<Mac> send, long now)
+            throws IllegalArgumentException, IllegalStateException {
+        if (send == null) {
+            throw new IllegalArgumentException("NeighbourCache: send cannot be null");
+        }
+        synchronized (this.writeLock) {
+            Enqueued result = Enqueued.QUEUED;
+            Entry    e      = this.entries.get(ip);
+            if (e == null) {
+                e      = new Entry(now);
+                result = Enqueued.STARTED;
+                this.publishPut(ip, e);
+            } else if (e.mac != null) {
+                throw new IllegalStateException("NeighbourCache: neighbour already resolved");
+            }
+            if (e.pending.size() >= this.queueLimit) {
+                this.dropped.incrementAndGet();
+                return Enqueued.DROPPED;
+            }
+            e.pending.addLast(send);
+            return result;
+        }
+    }
+
+    /**
+     * Records a mapping learnt from ARP and marks it REACHABLE.
+     *
+     * @param ip     packed IPv4 address
+     * @param mac    the neighbour's MAC (non-null)
+     * @param now    current time in nanoseconds
+     * @param create true to add a missing entry, false to only refresh one that
+     *               exists (the RFC 826 merge rule for requests not aimed at us)
+     * @return the sends that were waiting for this neighbour, in order, for the
+     *         caller to run with mac; empty if none
+     * @throws IllegalArgumentException if mac is null
+     */
+    public List<Consumer<Mac>> confirm(int ip, Mac mac, long now, boolean create)
+            throws IllegalArgumentException {
+        if (mac == null) {
+            throw new IllegalArgumentException("NeighbourCache: mac cannot be null");
+        }
+        synchronized (this.writeLock) {
+            Entry e = this.entries.get(ip);
+            if (e == null) {
+                if (!create) {
+                    return new ArrayList<>(0);
+                }
+                e = new Entry(now);
+                // filled in before it becomes visible to readers
+                e.mac       = mac;
+                e.confirmed = now;
+                this.publishPut(ip, e);
+                return new ArrayList<>(0);
+            }
+            // confirmed first: a reader seeing the MAC must not see the entry STALE
+            e.confirmed = now;
+            e.mac       = mac;
+            e.probing   = false;
+            List<Consumer<Mac>> released = new ArrayList<>(e.pending);
+            e.pending.clear();
+            return released;
+        }
+    }
+
+    /**
+     * Tells whether a STALE neighbour should be re-probed, and marks the probe
+     * as sent so that only the first send after going STALE asks for one.
+     *
+     * @param ip  packed IPv4 address
+     * @param now current time in nanoseconds
+     * @return true if the caller should send a request now
+     */
+    public boolean startProbe(int ip, long now) {
+        Entry e = this.entries.get(ip);
+        if (e == null || e.mac == null || e.probing || now - e.confirmed < this.reachableTime) {
+            return false;
+        }
+        synchronized (e) {
+            if (e.probing) {
+                return false;
+            }
+            e.probing = true;
+            return true;
+        }
+    }
+
+    /**
+     * Gives up on an INCOMPLETE neighbour, dropping its queued sends.
+     *
+     * @param ip packed IPv4 address
+     * @return the number of sends dropped, 0 if the entry was not INCOMPLETE
+     */
+    public int fail(int ip) {
+        synchronized (this.writeLock) {
+            Entry e = this.entries.get(ip);
+            if (e == null || e.mac != null) {
+                return 0;
+            }
+            int count = e.pending.size();
+            this.publishRemove(ip);
+            this.dropped.addAndGet(count);
+            return count;
+        }
+    }
+
+    /**
+     * Ages the cache: removes STALE entries older than reachable + stale time
+     * and INCOMPLETE ones older than the reachable time, dropping their sends.
+     *
+     * @param now current time in nanoseconds
+     * @return the number of entries removed
+     */
+    public int expire(long now) {
+        return this.expire(now, n -> { });
+    }
+
+    /**
+     * Like {@link #expire(long)}, reporting the sends dropped with each
+     * INCOMPLETE entry removed so the caller can count them.
+     *
+     * @param now       current time in nanoseconds
+     * @param discarded receives the number of sends dropped with an entry (non-null)
+     * @return the number of entries removed
+     */
+    public int expire(long now, IntConsumer discarded) {
+        synchronized (this.writeLock) {
+            IntObjectMap<Entry> next = this.entries.copy();
+            int removed = next.removeIf((ip, e) -> {
+                boolean old = e.mac == null
+                    ? now - e.created >= this.reachableTime
+                    : now - e.confirmed >= this.reachableTime + this.staleTime;
+                if (old && !e.pending.isEmpty()) {
+                    this.dropped.addAndGet(e.pending.size());
+                    discarded.accept(e.pending.size());
+                }
+                return old;
+            });
+            if (removed > 0) {
+                this.entries = next;
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Removes an entry whatever its state, dropping queued sends.
+     *
+     * @param ip packed IPv4 address
+     * @return true if there was an entry
+     */
+    public boolean remove(int ip) {
+        synchronized (this.writeLock) {
+            Entry e = this.entries.get(ip);
+            if (e == null) {
+                return false;
+            }
+            this.publishRemove(ip);
+            this.dropped.addAndGet(e.pending.size());
+            return true;
+        }
+    }
+
+    /** @return number of entries, whatever their state */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /** @return true if the cache holds no entry */
+    public boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /** @return sends dropped because a queue was full or a resolution failed */
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    /** @return nanoseconds a confirmed entry stays REACHABLE */
+    public long getReachableTime() {
+        return this.reachableTime;
+    }
+
+    /** @return nanoseconds a STALE entry survives */
+    public long getStaleTime() {
+        return this.staleTime;
+    }
+
+    /** Removes every entry. */
+    public void clear() {
+        synchronized (this.writeLock) {
+            this.entries = new IntObjectMap<>(16);
+        }
+    }
+
+    /** Publishes a copy of the entries with ip mapped to e; holds the write lock. */
+    private void publishPut(int ip, Entry e) {
+        IntObjectMap<Entry> next = this.entries.copy();
+        next.put(ip, e);
+        this.entries = next;
+    }
+
+    /** Publishes a copy of the entries without ip; holds the write lock. */
+    private void publishRemove(int ip) {
+        IntObjectMap<Entry> next = this.entries.copy();
+        next.remove(ip);
+        this.entries = next;
+    }
+}
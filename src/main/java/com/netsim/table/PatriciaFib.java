@@ -0,0 +1,195 @@
+package com.netsim.table;
+
+/**
+ * {@link Fib} backed by a path-compressed binary trie (PATRICIA).
+ * <p>
+ * Every node stores the full prefix it stands for, so a chain of one-child
+ * nodes collapses into a single edge and a lookup visits at most one node per
+ * distinct prefix length on the path, never more than 33. Branch nodes without
+ * a value exist only where two prefixes diverge. Memory is proportional to the
+ * number of prefixes, which makes this the default engine of {@link RoutingTable}.
+ *
+ * @param <V> the value type
+ */
+public final class PatriciaFib<V> implements Fib<V> {
+    private static final class Node<V> {
+        final int network;
+        final int length;
+        V         value;
+        Node<V>   zero;
+        Node<V>   one;
+
+        Node(int network, int length, V value) {
+            this.network = network;
+            this.length  = length;
+            this.value   = value;
+        }
+
+        Node<V> child(int bit) {
+            return bit == 0 ? this.zero : this.one;
+        }
+
+        void setChild(int bit, Node<V> n) {
+            if (bit == 0) {
+                this.zero = n;
+            } else {
+                this.one = n;
+            }
+        }
+    }
+
+    private Node<V> root;
+    private int     size;
+
+    /**
+     * Constructs an empty trie.
+     */
+    public PatriciaFib() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    @Override
+    public V put(int network, int length, V value) throws IllegalArgumentException {
+        Fib.checkLength(length);
+        if (value == null) {
+            throw new IllegalArgumentException("PatriciaFib: value cannot be null");
+        }
+        network &= Fib.netmask(length);
+
+        Node<V> parent = null;
+        Node<V> n      = this.root;
+        while (n != null) {
+            int common = Math.min(Math.min(length, n.length), Integer.numberOfLeadingZeros(network ^ n.network));
+            if (common == n.length) {
+                if (length == n.length) {
+                    V previous = n.value;
+                    n.value = value;
+                    if (previous == null) {
+                        this.size++;
+                    }
+                    return previous;
+                }
+                parent = n;
+                n      = n.child(bit(network, n.length));
+                continue;
+            }
+            Node<V> inserted;
+            if (common == length) {
+                // the new prefix covers n: it becomes n's parent
+                inserted = new Node<>(network, length, value);
+                inserted.setChild(bit(n.network, length), n);
+            } else {
+                // the prefixes diverge after common bits: join them under a branch node
+                inserted = new Node<>(network & Fib.netmask(common), common, null);
+                inserted.setChild(bit(network, common), new Node<>(network, length, value));
+                inserted.setChild(bit(n.network, common), n);
+            }
+            this.replace(parent, n, inserted);
+            this.size++;
+            return null;
+        }
+        this.replace(parent, null, new Node<>(network, length, value));
+        this.size++;
+        return null;
+    }
+
+    @Override
+    public V get(int network, int length) throws IllegalArgumentException {
+        Fib.checkLength(length);
+        Node<V> n = this.find(network & Fib.netmask(length), length);
+        return n == null ? null : n.value;
+    }
+
+    @Override
+    public V remove(int network, int length) throws IllegalArgumentException {
+        Fib.checkLength(length);
+        network &= Fib.netmask(length);
+
+        Node<V> grandparent = null;
+        Node<V> parent      = null;
+        Node<V> n           = this.root;
+        while (n != null && n.length < length) {
+            if (((network ^ n.network) & Fib.netmask(n.length)) != 0) {
+                return null;
+            }
+            grandparent = parent;
+            parent      = n;
+            n           = n.child(bit(network, n.length));
+        }
+        if (n == null || n.length != length || n.network != network || n.value == null) {
+            return null;
+        }
+
+        V removed = n.value;
+        n.value = null;
+        this.size--;
+        if (n.zero != null && n.one != null) {
+            // still needed as a branch node
+            return removed;
+        }
+        Node<V> orphan = n.zero != null ? n.zero : n.one;
+        this.replace(parent, n, orphan);
+        if (orphan == null && parent != null && parent.value == null) {
+            // parent was a branch node and now has a single child
+            Node<V> sibling = parent.zero != null ? parent.zero : parent.one;
+            this.replace(grandparent, parent, sibling);
+        }
+        return removed;
+    }
+
+    @Override
+    public V lookup(int address) {
+        V       best = null;
+        Node<V> n    = this.root;
+        while (n != null && ((address ^ n.network) & Fib.netmask(n.length)) == 0) {
+            if (n.value != null) {
+                best = n.value;
+            }
+            if (n.length == 32) {
+                break;
+            }
+            n = n.child(bit(address, n.length));
+        }
+        return best;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    private Node<V> find(int network, int length) {
+        Node<V> n = this.root;
+        while (n != null && n.length < length) {
+            if (((network ^ n.network) & Fib.netmask(n.length)) != 0) {
+                return null;
+            }
+            n = n.child(bit(network, n.length));
+        }
+        return n != null && n.length == length && n.network == network ? n : null;
+    }
+
+    private void replace(Node<V> parent, Node<V> old, Node<V> with) {
+        if (parent == null) {
+            this.root = with;
+        } else if (parent.zero == old && old != null) {
+            parent.zero = with;
+        } else if (parent.one == old && old != null) {
+            parent.one = with;
+        } else {
+            // attaching a new leaf below parent
+            parent.setChild(bit(with.network, parent.length), with);
+        }
+    }
+
+    private static int bit(int value, int index) {
+        return (value >>> (31 - index)) & 1;
+    }
+}
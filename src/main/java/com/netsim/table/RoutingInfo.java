@@ -8,7 +8,7 @@ import com.netsim.utils.Logger;
  * Encapsulates the next-hop IP and outgoing device for a route.
  */
 public class RoutingInfo {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(RoutingInfo.class);
     private static final String CLS    = RoutingInfo.class.getSimpleName();
 
     private NetworkAdapter device;
@@ -23,15 +23,13 @@ public class RoutingInfo {
      */
     public RoutingInfo(NetworkAdapter device, IPv4 nextHop) throws IllegalArgumentException {
         if (device == null) {
-            logger.error("[" + CLS + "] constructor: device cannot be null");
+            logger.error("[{}] constructor: device cannot be null", CLS);
             throw new IllegalArgumentException("RoutingInfo: device cannot be null");
         }
         this.device  = device;
         this.nextHop = nextHop;
-        logger.info("[" + CLS + "] created with device=" + this.device.getName()
-                    + " nextHop=" + (this.nextHop == null
-                                     ? "direct"
-                                     : this.nextHop.stringRepresentation()));
+        logger.info("[{}] created with device={} nextHop={}",
+                    CLS, this.device.getName(), this.nextHop == null ? "direct" : this.nextHop);
     }
 
     /**
@@ -40,10 +38,7 @@ public class RoutingInfo {
      * @return the next-hop IPv4, or null
      */
     public IPv4 getNextHop() {
-        logger.debug("[" + CLS + "] getNextHop -> "
-                     + (this.nextHop == null
-                        ? "direct"
-                        : this.nextHop.stringRepresentation()));
+        logger.debug("[{}] getNextHop -> {}", CLS, this.nextHop == null ? "direct" : this.nextHop);
         return this.nextHop;
     }
 
@@ -53,7 +48,7 @@ public class RoutingInfo {
      * @return the NetworkAdapter
      */
     public NetworkAdapter getDevice() {
-        logger.debug("[" + CLS + "] getDevice -> " + this.device.getName());
+        logger.debug("[{}] getDevice -> {}", CLS, this.device.getName());
         return this.device;
     }
 
@@ -64,10 +59,7 @@ public class RoutingInfo {
      */
     public void setNextHop(IPv4 newNextHop) {
         this.nextHop = newNextHop;
-        logger.info("[" + CLS + "] nextHop set to "
-                    + (this.nextHop == null
-                       ? "direct"
-                       : this.nextHop.stringRepresentation()));
+        logger.info("[{}] nextHop set to {}", CLS, this.nextHop == null ? "direct" : this.nextHop);
     }
 
     /**
@@ -78,10 +70,10 @@ public class RoutingInfo {
      */
     public void setDevice(NetworkAdapter newDevice) throws IllegalArgumentException {
         if (newDevice == null) {
-            logger.error("[" + CLS + "] setDevice: newDevice cannot be null");
+            logger.error("[{}] setDevice: newDevice cannot be null", CLS);
             throw new IllegalArgumentException("RoutingInfo: newDevice cannot be null");
         }
         this.device = newDevice;
-        logger.info("[" + CLS + "] device set to " + this.device.getName());
+        logger.info("[{}] device set to {}", CLS, this.device.getName());
     }
 }
\ No newline at end of file
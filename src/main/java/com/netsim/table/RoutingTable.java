@@ -1,26 +1,42 @@
 package com.netsim.table;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.netsim.addresses.IPv4;
 import com.netsim.utils.Logger;
 
 /**
  * A routing table mapping IPv4 subnets to {@link RoutingInfo}.
+ * <p>
+ * Routes are stored in a {@link Fib} keyed by the subnet's network bits, so a
+ * lookup is a longest-prefix match over ints instead of a scan of every route.
+ * The host bits of a subnet are ignored: 10.0.0.7/24 and 10.0.0.0/24 are the
+ * same route.
  */
 public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
-    private static final Logger logger = Logger.getInstance();
+    private static final Logger logger = Logger.getInstance(RoutingTable.class);
     private static final String CLS    = RoutingTable.class.getSimpleName();
 
-    private final HashMap<IPv4, RoutingInfo> table;
+    private final Fib<RoutingInfo> table;
 
     /**
-     * Constructs an empty RoutingTable.
+     * Constructs an empty RoutingTable backed by a {@link PatriciaFib}.
      */
     public RoutingTable() {
-        this.table = new HashMap<>();
-        logger.info("[" + CLS + "] initialized");
+        this(new PatriciaFib<>());
+    }
+
+    /**
+     * Constructs an empty RoutingTable backed by the given FIB engine.
+     *
+     * @param fib an empty FIB (non-null)
+     * @throws IllegalArgumentException if fib is null or not empty
+     */
+    public RoutingTable(Fib<RoutingInfo> fib) throws IllegalArgumentException {
+        if (fib == null || fib.size() != 0) {
+            logger.error("[{}] constructor: fib must be non-null and empty", CLS);
+            throw new IllegalArgumentException("RoutingTable: fib must be non-null and empty");
+        }
+        this.table = fib;
+        logger.info("[{}] initialized with {}", CLS, fib.getClass().getSimpleName());
     }
 
     /**
@@ -33,34 +49,20 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
      */
     public RoutingInfo lookup(IPv4 destination) throws IllegalArgumentException, NullPointerException {
         if (destination == null) {
-            logger.error("[" + CLS + "] lookup: destination cannot be null");
+            logger.error("[{}] lookup: destination cannot be null", CLS);
             throw new IllegalArgumentException("RoutingTable: destination cannot be null");
         }
 
-        RoutingInfo bestMatch = null;
-        int         bestPrefix = -1;
-        for (Map.Entry<IPv4, RoutingInfo> e : this.table.entrySet()) {
-            IPv4 subnet = e.getKey();
-            int  prefix = subnet.getMask();
-            if (destination.isInSubnet(subnet.stringRepresentation(), prefix)
-                    && prefix > bestPrefix) {
-                bestMatch = e.getValue();
-                bestPrefix = prefix;
-            }
-        }
-
+        RoutingInfo bestMatch = this.table.lookup(destination.toInt());
         if (bestMatch == null) {
-            logger.error("[" + CLS + "] lookup: no route found for " + destination.stringRepresentation());
+            logger.error("[{}] lookup: no route found for {}", CLS, destination);
             throw new NullPointerException(
                 "RoutingTable: no route found for " + destination.stringRepresentation()
             );
         }
 
-        logger.debug("[" + CLS + "] lookup: selected route via "
-                     + bestMatch.getDevice().getName()
-                     + (bestMatch.getNextHop() != null
-                        ? " nextHop=" + bestMatch.getNextHop().stringRepresentation()
-                        : " direct"));
+        logger.debug("[{}] lookup: selected route via {} {}", CLS, bestMatch.getDevice().getName(),
+                     bestMatch.getNextHop() != null ? bestMatch.getNextHop() : "direct");
         return bestMatch;
     }
 
@@ -74,19 +76,20 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
      */
     public void add(IPv4 destination, RoutingInfo route) throws IllegalArgumentException, RuntimeException {
         if (destination == null) {
-            logger.error("[" + CLS + "] add: destination cannot be null");
+            logger.error("[{}] add: destination cannot be null", CLS);
             throw new IllegalArgumentException("RoutingTable: destination cannot be null");
         }
         if (route == null) {
-            logger.error("[" + CLS + "] add: route cannot be null");
+            logger.error("[{}] add: route cannot be null", CLS);
             throw new IllegalArgumentException("RoutingTable: route cannot be null");
         }
-        if (this.table.containsKey(destination)) {
-            logger.error("[" + CLS + "] add: route for " + destination.stringRepresentation() + " already exists");
+        int network = destination.toInt();
+        if (this.table.get(network, destination.getMask()) != null) {
+            logger.error("[{}] add: route for {} already exists", CLS, destination);
             throw new RuntimeException("RoutingTable: route already contained");
         }
-        this.table.put(destination, route);
-        logger.info("[" + CLS + "] add: added route to " + destination.stringRepresentation());
+        this.table.put(network, destination.getMask(), route);
+        logger.info("[{}] add: added route to {}", CLS, destination);
     }
 
     /**
@@ -97,16 +100,13 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
      */
     public void setDefault(RoutingInfo route) throws IllegalArgumentException {
         if (route == null) {
-            logger.error("[" + CLS + "] setDefault: route cannot be null");
+            logger.error("[{}] setDefault: route cannot be null", CLS);
             throw new IllegalArgumentException("RoutingTable: route cannot be null");
         }
-        IPv4 defaultIP = new IPv4("0.0.0.0", 0);
-        if (this.table.containsKey(defaultIP)) {
-            this.table.remove(defaultIP);
-            logger.debug("[" + CLS + "] setDefault: removed existing default route");
+        if (this.table.put(0, 0, route) != null) {
+            logger.debug("[{}] setDefault: replaced existing default route", CLS);
         }
-        this.table.put(defaultIP, route);
-        logger.info("[" + CLS + "] setDefault: set default route via " + route.getDevice().getName());
+        logger.info("[{}] setDefault: set default route via {}", CLS, route.getDevice().getName());
     }
 
     /**
@@ -118,17 +118,17 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
      */
     public void remove(IPv4 destination) throws IllegalArgumentException, NullPointerException {
         if (destination == null) {
-            logger.error("[" + CLS + "] remove: destination cannot be null");
+            logger.error("[{}] remove: destination cannot be null", CLS);
             throw new IllegalArgumentException("RoutingTable: destination cannot be null");
         }
-        RoutingInfo removed = this.table.remove(destination);
+        RoutingInfo removed = this.table.remove(destination.toInt(), destination.getMask());
         if (removed == null) {
-            logger.error("[" + CLS + "] remove: no route for " + destination.stringRepresentation());
+            logger.error("[{}] remove: no route for {}", CLS, destination);
             throw new NullPointerException(
                 "RoutingTable: unable to remove " + destination.stringRepresentation()
             );
         }
-        logger.info("[" + CLS + "] remove: removed route to " + destination.stringRepresentation());
+        logger.info("[{}] remove: removed route to {}", CLS, destination);
     }
 
     /**
@@ -143,13 +143,13 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
      */
     public void clear() {
         this.table.clear();
-        logger.info("[" + CLS + "] clear: all routes removed");
+        logger.info("[{}] clear: all routes removed", CLS);
     }
 
     /**
      * @return true if the table contains no entries
      */
     public boolean isEmpty() {
-        return this.table.isEmpty();
+        return this.table.size() == 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package com.netsim.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous log backend: producers enqueue formatted records into a bounded
+ * ring buffer and a single writer thread drains them in batches through one
+ * long-lived FileChannel.
+ * Cannot use {@link Logger} itself, failures are reported on stderr.
+ */
+public class AsyncLogWriter implements AutoCloseable {
+    private static final long POLL_MILLIS = 100L;
+
+    private final Path                         logFile;
+    private final ArrayBlockingQueue<String>   ring;
+    private final int                          batchSize;
+    private final OverflowPolicy               policy;
+    private final FileChannel                  channel;
+    private final AtomicLong                   enqueued;
+    private final AtomicLong                   dropped;
+    private final Object                       progress;
+    private final Thread                       writer;
+
+    private volatile long    written;
+    private volatile boolean running;
+    private long             droppedReported;
+
+    /**
+     * Opens the log file in append mode; the writer thread is not started
+     * until {@link #start()} is called.
+     *
+     * @param logFile   file to append to (non-null)
+     * @param capacity  ring buffer capacity in records (positive)
+     * @param batchSize maximum records written per channel write (positive)
+     * @param policy    overflow policy (non-null)
+     * @throws IllegalArgumentException if any argument is invalid
+     * @throws RuntimeException if the file cannot be opened
+     */
+    public AsyncLogWriter(Path logFile, int capacity, int batchSize, OverflowPolicy policy)
+                                                    throws IllegalArgumentException, RuntimeException {
+        if (logFile == null || policy == null) {
+            throw new IllegalArgumentException("AsyncLogWriter: file and policy cannot be null");
+        }
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("AsyncLogWriter: capacity and batch size must be positive");
+        }
+        try {
+            this.channel = FileChannel.open(logFile,
+                                            StandardOpenOption.CREATE,
+                                            StandardOpenOption.WRITE,
+                                            StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException("AsyncLogWriter: unable to open " + logFile + ": " + e.getMessage());
+        }
+        this.logFile   = logFile;
+        this.ring      = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.policy    = policy;
+        this.enqueued  = new AtomicLong();
+        this.dropped   = new AtomicLong();
+        this.progress  = new Object();
+        this.written   = 0L;
+        this.running   = false;
+        this.writer    = new Thread(this::drainLoop, "netsim-log-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread. Calling it twice has no effect.
+     */
+    public synchronized void start() {
+        if (this.running || this.writer.isAlive()) {
+            return;
+        }
+        this.running = true;
+        this.writer.start();
+    }
+
+    /**
+     * Enqueues one record, applying the overflow policy if the ring is full.
+     *
+     * @param record the line to write, without trailing newline (non-null)
+     * @return true if the record was accepted, false if it was dropped
+     */
+    public boolean append(String record) {
+        if (record == null) {
+            return false;
+        }
+        boolean accepted;
+        if (this.policy == OverflowPolicy.BLOCK && this.running) {
+            try {
+                this.ring.put(record);
+                accepted = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = this.ring.offer(record);
+        }
+        if (accepted) {
+            this.enqueued.incrementAndGet();
+        } else {
+            this.dropped.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    /**
+     * Blocks until every record accepted before this call has reached the file.
+     * Returns immediately if the writer thread is not running.
+     */
+    public void flush() {
+        long target = this.enqueued.get();
+        synchronized (this.progress) {
+            while (this.written < target && this.writer.isAlive()) {
+                try {
+                    this.progress.wait(POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drains whatever is left, stops the writer thread and closes the channel.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!this.running) {
+                closeChannel();
+                return;
+            }
+            this.running = false;
+        }
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeChannel();
+    }
+
+    /** @return records discarded because the ring was full */
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    /** @return records written to the file so far */
+    public long getWritten() {
+        return this.written;
+    }
+
+    /** @return the file this writer appends to */
+    public Path getLogFile() {
+        return this.logFile;
+    }
+
+    private void drainLoop() {
+        List<String>  batch = new ArrayList<>(this.batchSize);
+        StringBuilder sb    = new StringBuilder();
+        while (true) {
+            try {
+                String first = this.ring.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (!this.running && this.ring.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                this.ring.drainTo(batch, this.batchSize - 1);
+            } catch (InterruptedException e) {
+                this.ring.drainTo(batch);
+                this.running = false;
+            }
+            writeBatch(batch, sb);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<String> batch, StringBuilder sb) {
+        sb.setLength(0);
+        for (String record : batch) {
+            sb.append(record).append('\n');
+        }
+        if (this.policy == OverflowPolicy.COUNT_AND_DROP) {
+            long lost = this.dropped.get();
+            if (lost > this.droppedReported) {
+                sb.append(String.format("LOGGER %5s:\t%s", "WARN",
+                          "[AsyncLogWriter] dropped " + (lost - this.droppedReported) + " records"))
+                  .append('\n');
+                this.droppedReported = lost;
+            }
+        }
+        if (sb.length() > 0) {
+            ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            try {
+                while (buf.hasRemaining()) {
+                    this.channel.write(buf);
+                }
+            } catch (IOException e) {
+                System.err.println("AsyncLogWriter: write to " + this.logFile + " failed: " + e.getMessage());
+            }
+        }
+        synchronized (this.progress) {
+            this.written += batch.size();
+            this.progress.notifyAll();
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            if (this.channel.isOpen()) {
+                this.channel.force(false);
+                this.channel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("AsyncLogWriter: close of " + this.logFile + " failed: " + e.getMessage());
+        }
+    }
+}
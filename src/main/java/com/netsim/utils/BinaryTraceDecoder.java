@@ -0,0 +1,155 @@
+package com.netsim.utils;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline decoder for the segments written by {@link BinaryTraceSink}: prints every
+ * record in the same "LOGGER  INFO:\t..." format as the text log.
+ * <p>
+ * Usage: {@code java com.netsim.utils.BinaryTraceDecoder <directory> <baseName> [--timestamps]}
+ */
+public final class BinaryTraceDecoder {
+    private final Map<Integer, String> classes;
+    private final Map<Integer, String> templates;
+    private final Map<Integer, String> strings;
+    private final Path                 directory;
+    private final String               baseName;
+
+    /**
+     * Loads the dictionary of a trace.
+     *
+     * @param directory directory holding the trace (non-null)
+     * @param baseName  base name given to the sink (non-null)
+     * @throws IllegalArgumentException if an argument is null
+     * @throws IOException if the dictionary cannot be read
+     */
+    public BinaryTraceDecoder(Path directory, String baseName) throws IllegalArgumentException, IOException {
+        if (directory == null || baseName == null) {
+            throw new IllegalArgumentException("BinaryTraceDecoder: directory and base name are required");
+        }
+        this.directory = directory;
+        this.baseName  = baseName;
+        this.classes   = new HashMap<>();
+        this.templates = new HashMap<>();
+        this.strings   = new HashMap<>();
+        for (String line : Files.readAllLines(BinaryTraceSink.dictionaryFile(directory, baseName),
+                                              StandardCharsets.UTF_8)) {
+            String[] parts = line.split("\t", 3);
+            if (parts.length != 3) {
+                continue;
+            }
+            int    id   = Integer.parseInt(parts[1]);
+            String text = BinaryTraceSink.unescape(parts[2]);
+            switch (parts[0]) {
+                case "C": this.classes.put(id, text);   break;
+                case "T": this.templates.put(id, text); break;
+                case "S": this.strings.put(id, text);   break;
+                default:  break;
+            }
+        }
+    }
+
+    /**
+     * Decodes every segment still on disk, oldest first.
+     *
+     * @param out        destination of the text lines (non-null)
+     * @param timestamps prefix each line with the record's ISO-8601 timestamp
+     * @return number of records decoded
+     * @throws IOException if a segment cannot be read or is not a trace segment
+     */
+    public long decode(PrintStream out, boolean timestamps) throws IOException {
+        long count = 0;
+        for (Path segment : segments()) {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(segment));
+            if (buf.remaining() < BinaryTraceSink.HEADER_SIZE
+                || buf.getInt(0) != BinaryTraceSink.MAGIC
+                || buf.getShort(6) != BinaryTraceSink.RECORD_SIZE) {
+                throw new IOException("BinaryTraceDecoder: " + segment + " is not a trace segment");
+            }
+            for (int at = BinaryTraceSink.HEADER_SIZE;
+                 at + BinaryTraceSink.RECORD_SIZE <= buf.limit();
+                 at += BinaryTraceSink.RECORD_SIZE) {
+                int templateId = buf.getInt(at + 12);
+                if (templateId == 0) {
+                    break;
+                }
+                String line = decodeRecord(buf, at, templateId);
+                if (timestamps) {
+                    long nanos = buf.getLong(at);
+                    line = Instant.ofEpochSecond(0, nanos) + " " + line;
+                }
+                out.println(line);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private String decodeRecord(ByteBuffer buf, int at, int templateId) {
+        Level    level = Level.values()[buf.get(at + 8)];
+        int      count = buf.get(at + 9);
+        Object[] args  = new Object[count];
+        for (int i = 0; i < count; i++) {
+            byte kind  = buf.get(at + 16 + i);
+            long value = buf.getLong(at + 24 + i * 8);
+            switch (kind) {
+                case BinaryTraceSink.ARG_LONG:    args[i] = value; break;
+                case BinaryTraceSink.ARG_DOUBLE:  args[i] = Double.longBitsToDouble(value); break;
+                case BinaryTraceSink.ARG_BOOLEAN: args[i] = value != 0L; break;
+                case BinaryTraceSink.ARG_STRING:  args[i] = this.strings.get((int) value); break;
+                case BinaryTraceSink.ARG_NULL:    args[i] = null; break;
+                default:                          args[i] = "?"; break;
+            }
+        }
+        String template = this.templates.getOrDefault(templateId, "<unknown template " + templateId + ">");
+        String msg      = Logger.format(template, count, null, null, null, args);
+        return String.format("LOGGER %5s:\t%s", level.name(), msg);
+    }
+
+    /**
+     * @return class name interned under id, or null
+     */
+    public String className(int id) {
+        return this.classes.get(id);
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> found = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(this.directory, this.baseName + "-*.trc")) {
+            for (Path p : ds) {
+                found.add(p);
+            }
+        }
+        // zero-padded indexes sort lexicographically
+        Collections.sort(found);
+        return found;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args directory, base name and optional --timestamps
+     * @throws IOException if the trace cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BinaryTraceDecoder <directory> <baseName> [--timestamps]");
+            System.exit(2);
+        }
+        boolean timestamps = args.length > 2 && args[2].equals("--timestamps");
+        new BinaryTraceDecoder(Paths.get(args[0]), args[1]).decode(System.out, timestamps);
+    }
+}
@@ -0,0 +1,338 @@
+package com.netsim.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary log sink: every record is a fixed-size entry (timestamp, level, class id,
+ * template id, up to {@value #MAX_ARGS} numeric or interned arguments) written into
+ * memory-mapped segment files of fixed size that roll over when full.
+ * Class names, message templates and string arguments are interned once into a
+ * text dictionary next to the segments; {@link BinaryTraceDecoder} turns both back
+ * into the "LOGGER  INFO:" text format.
+ * Messages without arguments are not stored: most are formatted by the caller,
+ * through a Supplier or by concatenation, so each distinct text would cost a
+ * dictionary entry. {@link #write} refuses them and the logger writes them as
+ * text. Once {@value #MAX_STRINGS} distinct string arguments are interned,
+ * new ones are recorded as {@link #ARG_DROPPED} and counted.
+ * Cannot use {@link Logger} itself, failures are reported on stderr.
+ */
+public class BinaryTraceSink implements AutoCloseable {
+    /** segment file magic, "NSTR" */
+    public static final int MAGIC          = 0x4E535452;
+    public static final int VERSION        = 1;
+    public static final int HEADER_SIZE    = 16;
+    public static final int MAX_ARGS       = 4;
+    public static final int RECORD_SIZE    = 56;
+
+    public static final byte ARG_NONE      = 0;
+    public static final byte ARG_LONG      = 1;
+    public static final byte ARG_DOUBLE    = 2;
+    public static final byte ARG_STRING    = 3;
+    public static final byte ARG_NULL      = 4;
+    public static final byte ARG_BOOLEAN   = 5;
+    /** string argument not stored because the dictionary is full */
+    public static final byte ARG_DROPPED   = 6;
+
+    /** distinct templates, and distinct string arguments, the dictionary holds */
+    public static final int MAX_STRINGS    = 1 << 16;
+
+    private final Path                 directory;
+    private final String               baseName;
+    private final int                  segmentSize;
+    private final int                  maxSegments;
+    private final long                 epochNanos;
+    private final long                 startNanos;
+    private final Map<String, Integer> classes;
+    private final Map<String, Integer> templates;
+    private final Map<String, Integer> strings;
+    private final BufferedWriter       dictionary;
+
+    private long             droppedStrings;
+    private int              segmentIndex;
+    private FileChannel      channel;
+    private MappedByteBuffer segment;
+
+    /**
+     * Creates the trace directory, the dictionary file and the first segment.
+     *
+     * @param directory   directory holding segments and dictionary (non-null)
+     * @param baseName    file name prefix (non-null, non-empty)
+     * @param segmentSize bytes per segment, at least one header plus one record
+     * @param maxSegments segments kept on disk, older ones are deleted; 0 keeps all
+     * @throws IllegalArgumentException if any argument is invalid
+     * @throws RuntimeException if the files cannot be created
+     */
+    public BinaryTraceSink(Path directory, String baseName, int segmentSize, int maxSegments)
+                                                throws IllegalArgumentException, RuntimeException {
+        if (directory == null || baseName == null || baseName.isEmpty()) {
+            throw new IllegalArgumentException("BinaryTraceSink: directory and base name are required");
+        }
+        if (segmentSize < HEADER_SIZE + RECORD_SIZE || maxSegments < 0) {
+            throw new IllegalArgumentException("BinaryTraceSink: invalid segment size or count");
+        }
+        this.directory   = directory;
+        this.baseName    = baseName;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.epochNanos  = System.currentTimeMillis() * 1_000_000L;
+        this.startNanos  = System.nanoTime();
+        this.classes     = new HashMap<>();
+        this.templates   = new HashMap<>();
+        this.strings     = new HashMap<>();
+        try {
+            Files.createDirectories(directory);
+            this.dictionary = Files.newBufferedWriter(dictionaryFile(directory, baseName),
+                                                      StandardCharsets.UTF_8,
+                                                      StandardOpenOption.CREATE,
+                                                      StandardOpenOption.TRUNCATE_EXISTING,
+                                                      StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new RuntimeException("BinaryTraceSink: unable to create " + directory + ": " + e.getMessage());
+        }
+        this.segmentIndex = -1;
+        rollSegment();
+    }
+
+    /**
+     * @return path of the dictionary written next to the segments
+     */
+    public static Path dictionaryFile(Path directory, String baseName) {
+        return directory.resolve(baseName + ".dict");
+    }
+
+    /**
+     * @return path of the segment with the given index
+     */
+    public static Path segmentFile(Path directory, String baseName, int index) {
+        return directory.resolve(String.format("%s-%05d.trc", baseName, index));
+    }
+
+    /**
+     * Interns a class name.
+     *
+     * @param className the logging class (non-null)
+     * @return its id in the dictionary
+     */
+    public synchronized int internClass(String className) {
+        Integer id = this.classes.get(className);
+        if (id == null) {
+            id = this.classes.size();
+            this.classes.put(className, id);
+            writeEntry('C', id, className);
+        }
+        return id;
+    }
+
+    /**
+     * Writes one record whose arguments are a1..a3 (count &lt;= 3) or more.
+     *
+     * @param level    message level (non-null)
+     * @param classId  id returned by {@link #internClass(String)}
+     * @param template message template with "{}" placeholders (non-null)
+     * @param count    number of arguments
+     * @return false if the record could not be stored (no arguments, too many
+     *         arguments or template dictionary full), so the caller should fall
+     *         back to text
+     */
+    public synchronized boolean write(Level level, int classId, String template,
+                                      int count, Object a1, Object a2, Object a3, Object[] more) {
+        if (count == 0 || count > MAX_ARGS) {
+            return false;
+        }
+        Integer templateId = this.templates.get(template);
+        if (templateId == null) {
+            if (this.templates.size() >= MAX_STRINGS) {
+                return false;
+            }
+            templateId = this.templates.size() + 1;
+            this.templates.put(template, templateId);
+            writeEntry('T', templateId, template);
+        }
+        if (this.segment == null) {
+            return false;
+        }
+        if (this.segment.remaining() < RECORD_SIZE) {
+            rollSegment();
+            if (this.segment == null) {
+                return false;
+            }
+        }
+        int base = this.segment.position();
+        this.segment.putLong(base, this.epochNanos + (System.nanoTime() - this.startNanos));
+        this.segment.put(base + 8, (byte) level.ordinal());
+        this.segment.put(base + 9, (byte) count);
+        this.segment.putShort(base + 10, (short) classId);
+        this.segment.putInt(base + 12, templateId);
+        for (int i = 0; i < MAX_ARGS; i++) {
+            Object arg = i >= count ? null
+                       : more != null ? more[i]
+                       : i == 0 ? a1 : i == 1 ? a2 : a3;
+            encodeArg(base, i, i < count, arg);
+        }
+        this.segment.position(base + RECORD_SIZE);
+        return true;
+    }
+
+    /**
+     * Forces the current segment and the dictionary to disk.
+     */
+    public synchronized void flush() {
+        if (this.segment != null) {
+            this.segment.force();
+        }
+        try {
+            this.dictionary.flush();
+        } catch (IOException e) {
+            System.err.println("BinaryTraceSink: dictionary flush failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes and closes the current segment and the dictionary.
+     */
+    @Override
+    public synchronized void close() {
+        flush();
+        closeSegment();
+        try {
+            this.dictionary.close();
+        } catch (IOException e) {
+            System.err.println("BinaryTraceSink: dictionary close failed: " + e.getMessage());
+        }
+    }
+
+    /** @return string arguments recorded as {@link #ARG_DROPPED} because the dictionary was full */
+    public synchronized long getDroppedStrings() {
+        return this.droppedStrings;
+    }
+
+    /** @return index of the segment currently written */
+    public synchronized int getSegmentIndex() {
+        return this.segmentIndex;
+    }
+
+    private void encodeArg(int base, int slot, boolean present, Object arg) {
+        int  kindAt  = base + 16 + slot;
+        int  valueAt = base + 24 + slot * 8;
+        byte kind;
+        long value   = 0L;
+        if (!present) {
+            kind = ARG_NONE;
+        } else if (arg == null) {
+            kind = ARG_NULL;
+        } else if (arg instanceof Long || arg instanceof Integer
+                   || arg instanceof Short || arg instanceof Byte) {
+            kind  = ARG_LONG;
+            value = ((Number) arg).longValue();
+        } else if (arg instanceof Double || arg instanceof Float) {
+            kind  = ARG_DOUBLE;
+            value = Double.doubleToRawLongBits(((Number) arg).doubleValue());
+        } else if (arg instanceof Boolean) {
+            kind  = ARG_BOOLEAN;
+            value = ((Boolean) arg) ? 1L : 0L;
+        } else {
+            String  text = arg.toString();
+            Integer id   = this.strings.get(text);
+            if (id == null && this.strings.size() < MAX_STRINGS) {
+                id = this.strings.size();
+                this.strings.put(text, id);
+                writeEntry('S', id, text);
+            }
+            if (id == null && this.droppedStrings++ == 0) {
+                System.err.println("BinaryTraceSink: string dictionary full, new string arguments are dropped");
+            }
+            kind  = id == null ? ARG_DROPPED : ARG_STRING;
+            value = id == null ? 0L : id;
+        }
+        this.segment.put(kindAt, kind);
+        this.segment.putLong(valueAt, value);
+    }
+
+    private void writeEntry(char type, int id, String text) {
+        try {
+            this.dictionary.write(type + "\t" + id + "\t" + escape(text));
+            this.dictionary.newLine();
+            this.dictionary.flush();
+        } catch (IOException e) {
+            System.err.println("BinaryTraceSink: dictionary write failed: " + e.getMessage());
+        }
+    }
+
+    private void rollSegment() {
+        closeSegment();
+        this.segmentIndex++;
+        Path file = segmentFile(this.directory, this.baseName, this.segmentIndex);
+        try {
+            this.channel = FileChannel.open(file,
+                                            StandardOpenOption.CREATE,
+                                            StandardOpenOption.TRUNCATE_EXISTING,
+                                            StandardOpenOption.READ,
+                                            StandardOpenOption.WRITE);
+            this.segment = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+            this.segment.putInt(MAGIC);
+            this.segment.putShort((short) VERSION);
+            this.segment.putShort((short) RECORD_SIZE);
+            this.segment.putInt(this.segmentIndex);
+            this.segment.putInt(0);
+        } catch (IOException e) {
+            System.err.println("BinaryTraceSink: unable to map " + file + ": " + e.getMessage());
+            this.segment = null;
+        }
+        if (this.maxSegments > 0 && this.segmentIndex >= this.maxSegments) {
+            try {
+                Files.deleteIfExists(segmentFile(this.directory, this.baseName,
+                                                 this.segmentIndex - this.maxSegments));
+            } catch (IOException e) {
+                System.err.println("BinaryTraceSink: unable to delete old segment: " + e.getMessage());
+            }
+        }
+    }
+
+    private void closeSegment() {
+        if (this.segment != null) {
+            this.segment.force();
+            this.segment = null;
+        }
+        if (this.channel != null) {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                System.err.println("BinaryTraceSink: segment close failed: " + e.getMessage());
+            }
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Escapes backslashes and line breaks so each dictionary entry stays on one line.
+     */
+    static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    /**
+     * Inverse of {@link #escape(String)}.
+     */
+    static String unescape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char n = text.charAt(++i);
+                sb.append(n == 'n' ? '\n' : n == 'r' ? '\r' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
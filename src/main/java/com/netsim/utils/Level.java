@@ -0,0 +1,30 @@
+package com.netsim.utils;
+
+/**
+ * Logging levels in increasing order of severity; a threshold enables its own
+ * level and every more severe one. OFF disables a logger entirely.
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    ERROR,
+    OFF;
+
+    /**
+     * Parses a level name as found in application.properties (case-insensitive).
+     *
+     * @param value the configured value (non-null)
+     * @return the matching level
+     * @throws IllegalArgumentException if value is null or unknown
+     */
+    public static Level parse(String value) throws IllegalArgumentException {
+        if (value == null) {
+            throw new IllegalArgumentException("Level: value cannot be null");
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Level: unknown level " + value);
+        }
+    }
+}
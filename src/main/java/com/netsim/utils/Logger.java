@@ -6,11 +6,23 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Singleton logger utility that writes to a file (and optionally to console),
  * supporting INFO, ERROR, and DEBUG levels.
+ * With LOG_ASYNC=true records are handed to an {@link AsyncLogWriter} instead
+ * of opening the file for every message.
+ * Loggers obtained through {@link #getInstance(Class)} share the same output but
+ * honour the LOG_LEVEL.&lt;package&gt; threshold of their class. Messages can be
+ * passed as a {@link Supplier} or as a template with "{}" placeholders, so
+ * nothing is built while the level is disabled.
+ * With LOG_SINK=BINARY records go to a {@link BinaryTraceSink} instead of the
+ * text file; decode them with {@link BinaryTraceDecoder}.
  */
 public class Logger {
     private static final String RESET       = "\u001B[0m";
@@ -18,28 +30,54 @@ public class Logger {
     private static final String GREEN       = "\u001B[32m";
     private static final String YELLOW      = "\u001B[33m";
     private static final String BLUE        = "\u001B[34m";
+    private static final String LEVEL_KEY   = "LOG_LEVEL";
+    private static final Map<String, Logger> classLoggers = new ConcurrentHashMap<>();
     private static final Logger instance    = createInstance();
 
-    private final Path    logFile;
-    private final String  fileName;
-    private final boolean logOnConsole;
-    private final boolean debugLevelOn;
-    private final boolean errorLevelOn;
-    private final boolean infoLevelOn;
+    private final Path               logFile;
+    private final String             fileName;
+    private final boolean            logOnConsole;
+    private final boolean            debugLevelOn;
+    private final boolean            errorLevelOn;
+    private final boolean            infoLevelOn;
+    private final AsyncLogWriter     asyncWriter;
+    private final Map<String, Level> thresholds;
+    private final BinaryTraceSink    traceSink;
+    private final int                classId;
 
     private Logger(Path logFile,
                    String fileName,
                    boolean logOnConsole,
-                   boolean debugLevelOn,
-                   boolean errorLevelOn,
-                   boolean infoLevelOn) {
+                   Level threshold,
+                   Map<String, Level> thresholds,
+                   Properties props) {
         this.logFile       = logFile;
         this.fileName      = fileName;
         this.logOnConsole  = logOnConsole;
-        this.debugLevelOn  = debugLevelOn;
-        this.errorLevelOn  = errorLevelOn;
-        this.infoLevelOn   = infoLevelOn;
+        this.debugLevelOn  = threshold.compareTo(Level.DEBUG) <= 0;
+        this.errorLevelOn  = threshold.compareTo(Level.ERROR) <= 0;
+        this.infoLevelOn   = threshold.compareTo(Level.INFO) <= 0;
+        this.thresholds    = thresholds;
         cleanFile();
+        this.asyncWriter   = createAsyncWriter(logFile, props);
+        this.traceSink     = createTraceSink(props);
+        this.classId       = this.traceSink == null ? 0 : this.traceSink.internClass("root");
+    }
+
+    /**
+     * Child logger sharing the root's output with its own threshold.
+     */
+    private Logger(Logger root, String className, Level threshold) {
+        this.logFile       = root.logFile;
+        this.fileName      = root.fileName;
+        this.logOnConsole  = root.logOnConsole;
+        this.debugLevelOn  = threshold.compareTo(Level.DEBUG) <= 0;
+        this.errorLevelOn  = threshold.compareTo(Level.ERROR) <= 0;
+        this.infoLevelOn   = threshold.compareTo(Level.INFO) <= 0;
+        this.thresholds    = root.thresholds;
+        this.asyncWriter   = root.asyncWriter;
+        this.traceSink     = root.traceSink;
+        this.classId       = this.traceSink == null ? 0 : this.traceSink.internClass(className);
     }
 
     private static Logger createInstance() {
@@ -60,13 +98,84 @@ public class Logger {
             System.err.println("Unable to load application properties: " + e.getMessage());
         }
 
+        Map<String, Level> thresholds = readThresholds(props);
         Path logPath = Paths.get(fname);
         return new Logger(logPath,
                           fname,
                           consoleFlag,
-                          true,   // debugLevelOn
-                          true,   // errorLevelOn
-                          true);  // infoLevelOn
+                          thresholds.getOrDefault("", Level.DEBUG),
+                          thresholds,
+                          props);
+    }
+
+    /**
+     * Collects LOG_LEVEL (root, key "") and every LOG_LEVEL.&lt;prefix&gt; entry.
+     */
+    private static Map<String, Level> readThresholds(Properties props) {
+        Map<String, Level> thresholds = new TreeMap<>();
+        for (String key : props.stringPropertyNames()) {
+            if (!key.equals(LEVEL_KEY) && !key.startsWith(LEVEL_KEY + ".")) {
+                continue;
+            }
+            String prefix = key.equals(LEVEL_KEY) ? "" : key.substring(LEVEL_KEY.length() + 1);
+            try {
+                thresholds.put(prefix, Level.parse(props.getProperty(key)));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring " + key + ": " + e.getMessage());
+            }
+        }
+        return thresholds;
+    }
+
+    /**
+     * Builds and starts the asynchronous backend when LOG_ASYNC=true,
+     * registering a shutdown hook that drains it.
+     *
+     * @return the running writer, or null for synchronous logging
+     */
+    private static AsyncLogWriter createAsyncWriter(Path logPath, Properties props) {
+        if (!Boolean.parseBoolean(props.getProperty("LOG_ASYNC", "false").trim())) {
+            return null;
+        }
+        try {
+            int            capacity  = Integer.parseInt(props.getProperty("LOG_BUFFER_SIZE", "8192").trim());
+            int            batchSize = Integer.parseInt(props.getProperty("LOG_BATCH_SIZE", "256").trim());
+            OverflowPolicy policy    = OverflowPolicy.parse(props.getProperty("LOG_OVERFLOW_POLICY", "BLOCK"));
+
+            AsyncLogWriter writer = new AsyncLogWriter(logPath, capacity, batchSize, policy);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "netsim-log-shutdown"));
+            return writer;
+        } catch (RuntimeException e) {
+            System.err.println("Unable to start asynchronous logging, falling back to synchronous: "
+                               + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Opens the binary trace sink when LOG_SINK=BINARY, registering a shutdown
+     * hook that flushes it.
+     *
+     * @return the sink, or null for text logging
+     */
+    private static BinaryTraceSink createTraceSink(Properties props) {
+        if (!props.getProperty("LOG_SINK", "TEXT").trim().equalsIgnoreCase("BINARY")) {
+            return null;
+        }
+        try {
+            Path   dir         = Paths.get(props.getProperty("LOG_TRACE_DIR", "trace").trim());
+            String base        = props.getProperty("LOG_TRACE_NAME", "netsim").trim();
+            int    segmentSize = Integer.parseInt(props.getProperty("LOG_TRACE_SEGMENT_SIZE", "67108864").trim());
+            int    maxSegments = Integer.parseInt(props.getProperty("LOG_TRACE_MAX_SEGMENTS", "0").trim());
+
+            BinaryTraceSink sink = new BinaryTraceSink(dir, base, segmentSize, maxSegments);
+            Runtime.getRuntime().addShutdownHook(new Thread(sink::close, "netsim-trace-shutdown"));
+            return sink;
+        } catch (RuntimeException e) {
+            System.err.println("Unable to open binary trace, falling back to text: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -101,12 +210,67 @@ public class Logger {
         return instance;
     }
 
+    /**
+     * Returns the logger for a class: same output as {@link #getInstance()},
+     * with the threshold of the longest LOG_LEVEL.&lt;prefix&gt; matching the
+     * class name (falling back to LOG_LEVEL).
+     *
+     * @param owner the class that logs (non-null)
+     * @return the logger bound to owner's threshold
+     * @throws IllegalArgumentException if owner is null
+     */
+    public static Logger getInstance(Class<?> owner) throws IllegalArgumentException {
+        if (owner == null) {
+            throw new IllegalArgumentException("Logger: owner cannot be null");
+        }
+        return classLoggers.computeIfAbsent(owner.getName(),
+                                            name -> new Logger(instance, name,
+                                                                    resolveThreshold(instance.thresholds, name)));
+    }
+
+    /**
+     * @param thresholds configured thresholds by class-name prefix ("" for the root)
+     * @param className  fully qualified class name
+     * @return the most specific configured threshold for className
+     */
+    static Level resolveThreshold(Map<String, Level> thresholds, String className) {
+        String best = null;
+        for (String prefix : thresholds.keySet()) {
+            boolean matches = prefix.isEmpty()
+                              || className.equals(prefix)
+                              || className.startsWith(prefix + ".");
+            if (matches && (best == null || prefix.length() > best.length())) {
+                best = prefix;
+            }
+        }
+        return best == null ? Level.DEBUG : thresholds.get(best);
+    }
+
+    /** @return true if DEBUG messages are written by this logger */
+    public boolean isDebugEnabled() {
+        return this.debugLevelOn;
+    }
+
+    /** @return true if INFO messages are written by this logger */
+    public boolean isInfoEnabled() {
+        return this.infoLevelOn;
+    }
+
+    /** @return true if ERROR messages are written by this logger */
+    public boolean isErrorEnabled() {
+        return this.errorLevelOn;
+    }
+
     /**
      * Logs a raw message to the log file.
      *
      * @param msg the message to append (non-null)
      */
     public void log(String msg) {
+        if (this.asyncWriter != null) {
+            this.asyncWriter.append(msg);
+            return;
+        }
         try {
             Files.writeString(this.logFile,
                               msg + "\n",
@@ -123,13 +287,70 @@ public class Logger {
      * @param msg the message to log (non-null)
      */
     public void info(String msg) {
-        if (!this.infoLevelOn) {
-            return;
+        if (this.infoLevelOn) {
+            emit(Level.INFO, msg, 0, null, null, null, null);
         }
-        String logMsg = String.format("LOGGER %5s:\t%s", "INFO", msg);
-        log(logMsg);
-        if (this.logOnConsole) {
-            System.out.println(GREEN + logMsg + RESET);
+    }
+
+    /**
+     * Logs an INFO-level message built only if the level is enabled.
+     *
+     * @param msg supplier of the message (non-null)
+     */
+    public void info(Supplier<String> msg) {
+        if (this.infoLevelOn) {
+            info(msg.get());
+        }
+    }
+
+    /**
+     * Logs an INFO-level message replacing "{}" in template with arg.
+     *
+     * @param template message template (non-null)
+     * @param arg      placeholder value
+     */
+    public void info(String template, Object arg) {
+        if (this.infoLevelOn) {
+            emit(Level.INFO, template, 1, arg, null, null, null);
+        }
+    }
+
+    /**
+     * Logs an INFO-level message replacing the "{}" placeholders in order.
+     *
+     * @param template message template (non-null)
+     * @param arg1     first placeholder value
+     * @param arg2     second placeholder value
+     */
+    public void info(String template, Object arg1, Object arg2) {
+        if (this.infoLevelOn) {
+            emit(Level.INFO, template, 2, arg1, arg2, null, null);
+        }
+    }
+
+    /**
+     * Logs an INFO-level message replacing the "{}" placeholders in order.
+     *
+     * @param template message template (non-null)
+     * @param arg1     first placeholder value
+     * @param arg2     second placeholder value
+     * @param arg3     third placeholder value
+     */
+    public void info(String template, Object arg1, Object arg2, Object arg3) {
+        if (this.infoLevelOn) {
+            emit(Level.INFO, template, 3, arg1, arg2, arg3, null);
+        }
+    }
+
+    /**
+     * Logs an INFO-level message replacing the "{}" placeholders in order.
+     *
+     * @param template message template (non-null)
+     * @param args     placeholder values
+     */
+    public void info(String template, Object... args) {
+        if (this.infoLevelOn) {
+            emit(Level.INFO, template, args.length, null, null, null, args);
         }
     }
 
@@ -139,13 +360,70 @@ public class Logger {
      * @param err the error message to log (non-null)
      */
     public void error(String err) {
-        if (!this.errorLevelOn) {
-            return;
+        if (this.errorLevelOn) {
+            emit(Level.ERROR, err, 0, null, null, null, null);
         }
-        String logMsg = String.format("LOGGER %5s:\t%s", "ERROR", err);
-        log(logMsg);
-        if (this.logOnConsole) {
-            System.err.println(RED + logMsg + RESET);
+    }
+
+    /**
+     * Logs an ERROR-level message built only if the level is enabled.
+     *
+     * @param err supplier of the message (non-null)
+     */
+    public void error(Supplier<String> err) {
+        if (this.errorLevelOn) {
+            error(err.get());
+        }
+    }
+
+    /**
+     * Logs an ERROR-level message replacing "{}" in template with arg.
+     *
+     * @param template message template (non-null)
+     * @param arg      placeholder value
+     */
+    public void error(String template, Object arg) {
+        if (this.errorLevelOn) {
+            emit(Level.ERROR, template, 1, arg, null, null, null);
+        }
+    }
+
+    /**
+     * Logs an ERROR-level message replacing the "{}" placeholders in order.
+     *
+     * @param template message template (non-null)
+     * @param arg1     first placeholder value
+     * @param arg2     second placeholder value
+     */
+    public void error(String template, Object arg1, Object arg2) {
+        if (this.errorLevelOn) {
+            emit(Level.ERROR, template, 2, arg1, arg2, null, null);
+        }
+    }
+
+    /**
+     * Logs an ERROR-level message replacing the "{}" placeholders in order.
+     *
+     * @param template message template (non-null)
+     * @param arg1     first placeholder value
+     * @param arg2     second placeholder value
+     * @param arg3     third placeholder value
+     */
+    public void error(String template, Object arg1, Object arg2, Object arg3) {
+        if (this.errorLevelOn) {
+            emit(Level.ERROR, template, 3, arg1, arg2, arg3, null);
+        }
+    }
+
+    /**
+     * Logs an ERROR-level message replacing the "{}" placeholders in order.
+     *
+     * @param template message template (non-null)
+     * @param args     placeholder values
+     */
+    public void error(String template, Object... args) {
+        if (this.errorLevelOn) {
+            emit(Level.ERROR, template, args.length, null, null, null, args);
         }
     }
 
@@ -155,18 +433,150 @@ public class Logger {
      * @param msg the debug message to log (non-null)
      */
     public void debug(String msg) {
-        if (!this.debugLevelOn) {
+        if (this.debugLevelOn) {
+            emit(Level.DEBUG, msg, 0, null, null, null, null);
+        }
+    }
+
+    /**
+     * Logs a DEBUG-level message built only if the level is enabled.
+     *
+     * @param msg supplier of the message (non-null)
+     */
+    public void debug(Supplier<String> msg) {
+        if (this.debugLevelOn) {
+            debug(msg.get());
+        }
+    }
+
+    /**
+     * Logs a DEBUG-level message replacing "{}" in template with arg.
+     *
+     * @param template message template (non-null)
+     * @param arg      placeholder value
+     */
+    public void debug(String template, Object arg) {
+        if (this.debugLevelOn) {
+            emit(Level.DEBUG, template, 1, arg, null, null, null);
+        }
+    }
+
+    /**
+     * Logs a DEBUG-level message replacing the "{}" placeholders in order.
+     *
+     * @param template message template (non-null)
+     * @param arg1     first placeholder value
+     * @param arg2     second placeholder value
+     */
+    public void debug(String template, Object arg1, Object arg2) {
+        if (this.debugLevelOn) {
+            emit(Level.DEBUG, template, 2, arg1, arg2, null, null);
+        }
+    }
+
+    /**
+     * Logs a DEBUG-level message replacing the "{}" placeholders in order.
+     *
+     * @param template message template (non-null)
+     * @param arg1     first placeholder value
+     * @param arg2     second placeholder value
+     * @param arg3     third placeholder value
+     */
+    public void debug(String template, Object arg1, Object arg2, Object arg3) {
+        if (this.debugLevelOn) {
+            emit(Level.DEBUG, template, 3, arg1, arg2, arg3, null);
+        }
+    }
+
+    /**
+     * Logs a DEBUG-level message replacing the "{}" placeholders in order.
+     *
+     * @param template message template (non-null)
+     * @param args     placeholder values
+     */
+    public void debug(String template, Object... args) {
+        if (this.debugLevelOn) {
+            emit(Level.DEBUG, template, args.length, null, null, null, args);
+        }
+    }
+
+    /**
+     * Writes one enabled record: to the binary trace when configured (falling back
+     * to text if it cannot be stored there), otherwise formatted to the text log.
+     */
+    private void emit(Level level, String template, int count,
+                      Object a1, Object a2, Object a3, Object[] more) {
+        boolean traced = this.traceSink != null
+                         && this.traceSink.write(level, this.classId, template, count, a1, a2, a3, more);
+        if (traced && !this.logOnConsole) {
             return;
         }
-        String logMsg = String.format("LOGGER %5s:\t%s", "DEBUG", msg);
-        log(logMsg);
+        String msg    = count == 0 ? template : format(template, count, a1, a2, a3, more);
+        String logMsg = String.format("LOGGER %5s:\t%s", level.name(), msg);
+        if (!traced) {
+            log(logMsg);
+        }
         if (this.logOnConsole) {
-            System.out.println(BLUE + logMsg + RESET);
+            switch (level) {
+                case ERROR: System.err.println(RED + logMsg + RESET);   break;
+                case DEBUG: System.out.println(BLUE + logMsg + RESET);  break;
+                default:    System.out.println(GREEN + logMsg + RESET); break;
+            }
+        }
+    }
+
+    /**
+     * Substitutes "{}" placeholders left to right. Values come from more when it
+     * is non-null, from a1..a3 otherwise; surplus placeholders are kept verbatim.
+     */
+    static String format(String template, int count, Object a1, Object a2, Object a3, Object[] more) {
+        StringBuilder sb   = new StringBuilder(template.length() + 16 * count);
+        int           from = 0;
+        int           used = 0;
+        while (used < count) {
+            int at = template.indexOf("{}", from);
+            if (at < 0) {
+                break;
+            }
+            Object arg;
+            if (more != null) {
+                arg = more[used];
+            } else {
+                arg = used == 0 ? a1 : used == 1 ? a2 : a3;
+            }
+            sb.append(template, from, at).append(arg);
+            from = at + 2;
+            used++;
         }
+        return sb.append(template, from, template.length()).toString();
+    }
+
+    /**
+     * Blocks until every message logged so far has reached the log file, and
+     * forces the binary trace to disk when one is configured.
+     * No-op in synchronous text mode, where each message is written immediately.
+     */
+    public void flush() {
+        if (this.asyncWriter != null) {
+            this.asyncWriter.flush();
+        }
+        if (this.traceSink != null) {
+            this.traceSink.flush();
+        }
+    }
+
+    /** @return true if messages are written by the asynchronous backend */
+    public boolean isAsync() {
+        return this.asyncWriter != null;
+    }
+
+    /** @return messages discarded by the asynchronous backend's overflow policy */
+    public long getDroppedMessages() {
+        return this.asyncWriter == null ? 0L : this.asyncWriter.getDropped();
     }
 
     /** @return logging filenam */
     public String getFilename() {
         return this.fileName;
     }
-}
\ No newline at end of file
+}
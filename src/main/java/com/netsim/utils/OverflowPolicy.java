@@ -0,0 +1,34 @@
+package com.netsim.utils;
+
+/**
+ * What an {@link AsyncLogWriter} does with a record when its ring buffer is full.
+ */
+public enum OverflowPolicy {
+    /** the producer waits until the writer thread frees a slot */
+    BLOCK,
+    /** the record is silently discarded */
+    DROP,
+    /** the record is discarded and the writer later logs how many were lost */
+    COUNT_AND_DROP;
+
+    /**
+     * Parses a policy name as found in application.properties (case-insensitive,
+     * '-' accepted in place of '_').
+     *
+     * @param value the configured value (non-null)
+     * @return the matching policy
+     * @throws IllegalArgumentException if value is null or unknown
+     */
+    public static OverflowPolicy parse(String value) throws IllegalArgumentException {
+        if (value == null) {
+            throw new IllegalArgumentException("OverflowPolicy: value cannot be null");
+        }
+        String normalized = value.trim().toUpperCase().replace('-', '_');
+        for (OverflowPolicy p : values()) {
+            if (p.name().equals(normalized)) {
+                return p;
+            }
+        }
+        throw new IllegalArgumentException("OverflowPolicy: unknown policy " + value);
+    }
+}
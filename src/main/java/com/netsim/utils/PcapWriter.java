@@ -0,0 +1,269 @@
+package com.netsim.utils;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Packet capture in the classic pcap format, written through memory-mapped
+ * files of fixed size that roll over when full, as {@link BinaryTraceSink}
+ * does for log records.
+ * <p>
+ * Each file is mapped at its full size when opened, starts with a pcap global
+ * header (nanosecond timestamps, {@value #LINKTYPE_ETHERNET} link type) and
+ * is truncated to the bytes written when the next one is opened or the
+ * writer is closed, so closed files open in tcpdump and Wireshark. Frames are
+ * copied straight into the mapping with absolute writes: a record costs no
+ * allocation and no system call. At most {@code maxFiles} files are kept,
+ * the oldest being deleted, which makes a ring of captures.
+ * <p>
+ * Frames are written as Ethernet II: the two MACs, the given EtherType, then
+ * the body, cut to the snap length. Failures to open a file are logged and
+ * never reach the caller: frames are dropped while no file is open, and the
+ * same file is tried again after every {@value #REOPEN_INTERVAL} dropped
+ * frames, so a transient failure does not end the capture.
+ */
+public class PcapWriter implements AutoCloseable {
+    private static final Logger logger = Logger.getInstance(PcapWriter.class);
+    private static final String CLS    = PcapWriter.class.getSimpleName();
+
+    /** pcap magic for nanosecond timestamps */
+    public static final int MAGIC_NANOS         = 0xA1B23C4D;
+    public static final int GLOBAL_HEADER       = 24;
+    public static final int RECORD_HEADER       = 16;
+    public static final int LINKTYPE_ETHERNET   = 1;
+    public static final int ETHERTYPE_IPV4      = 0x0800;
+    public static final int ETHERTYPE_ARP       = 0x0806;
+    /** snap length used by tcpdump when none is given */
+    public static final int DEFAULT_SNAP_LENGTH = 262144;
+
+    private static final int MACS = 12;
+    /** frames dropped between two attempts to open a file that failed to open */
+    static final int REOPEN_INTERVAL = 64;
+
+    private final Path   directory;
+    private final String baseName;
+    private final int    fileSize;
+    private final int    maxFiles;
+    private final int    snapLength;
+    private final long   epochNanos;
+    private final long   startNanos;
+
+    private int              fileIndex;
+    private FileChannel      channel;
+    private MappedByteBuffer file;
+    private long             framesWritten;
+    private long             framesDropped;
+    private int              reopenIn;
+    private boolean          closed;
+
+    /**
+     * Creates the capture directory and the first file.
+     *
+     * @param directory  directory holding the capture files (non-null)
+     * @param baseName   file name prefix (non-null, non-empty)
+     * @param fileSize   bytes per file, room for the global header and one full record
+     * @param maxFiles   files kept on disk, older ones are deleted; 0 keeps all
+     * @param snapLength bytes of each frame kept, Ethernet header included (&gt;= 14)
+     * @throws IllegalArgumentException if any argument is invalid
+     * @throws RuntimeException         if the directory cannot be created
+     */
+    public PcapWriter(Path directory, String baseName, int fileSize, int maxFiles, int snapLength)
+            throws IllegalArgumentException, RuntimeException {
+        if (directory == null || baseName == null || baseName.isEmpty()) {
+            throw new IllegalArgumentException(CLS + ": directory and base name are required");
+        }
+        if (snapLength < MACS + 2 || maxFiles < 0
+            || fileSize < (long) GLOBAL_HEADER + RECORD_HEADER + snapLength) {
+            throw new IllegalArgumentException(CLS + ": invalid file size, file count or snap length");
+        }
+        this.directory  = directory;
+        this.baseName   = baseName;
+        this.fileSize   = fileSize;
+        this.maxFiles   = maxFiles;
+        this.snapLength = snapLength;
+        this.epochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.startNanos = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException(CLS + ": unable to create " + directory + ": " + e.getMessage());
+        }
+        this.fileIndex = -1;
+        this.rollFile();
+    }
+
+    /**
+     * @return path of the capture file with the given index
+     */
+    public static Path captureFile(Path directory, String baseName, int index) {
+        return directory.resolve(String.format("%s-%05d.pcap", baseName, index));
+    }
+
+    /**
+     * @return wall-clock time in nanoseconds since the epoch, for frames
+     *         captured outside a simulator
+     */
+    public long now() {
+        return this.epochNanos + (System.nanoTime() - this.startNanos);
+    }
+
+    /**
+     * Writes one frame as an Ethernet II record.
+     *
+     * @param timestampNanos capture time in nanoseconds
+     * @param frame          array holding the frame (non-null)
+     * @param offset         index of the destination MAC
+     * @param length         frame length: two MACs and the body (&gt;= 12)
+     * @param etherType      EtherType put between the MACs and the body
+     * @return false if no file is open and the frame was dropped
+     * @throws IndexOutOfBoundsException if the frame is outside the array
+     */
+    public synchronized boolean write(long timestampNanos, byte[] frame, int offset, int length, int etherType)
+            throws IndexOutOfBoundsException {
+        if (offset < 0 || length < MACS || offset > frame.length - length) {
+            throw new IndexOutOfBoundsException(CLS + ": frame " + offset + "+" + length + " outside the array");
+        }
+        if (this.file == null && !this.reopen()) {
+            this.framesDropped++;
+            return false;
+        }
+        int original = length + 2;
+        int included = Math.min(original, this.snapLength);
+        if (this.file.remaining() < RECORD_HEADER + included) {
+            this.rollFile();
+            if (this.file == null) {
+                this.framesDropped++;
+                return false;
+            }
+        }
+        int at = this.file.position();
+        this.file.putInt(at, (int) (timestampNanos / 1_000_000_000L));
+        this.file.putInt(at + 4, (int) (timestampNanos % 1_000_000_000L));
+        this.file.putInt(at + 8, included);
+        this.file.putInt(at + 12, original);
+        at += RECORD_HEADER;
+        this.file.put(at, frame, offset, MACS);
+        // EtherType is big-endian on the wire whatever the file's byte order
+        this.file.put(at + MACS, (byte) (etherType >>> 8));
+        this.file.put(at + MACS + 1, (byte) etherType);
+        this.file.put(at + MACS + 2, frame, offset + MACS, included - MACS - 2);
+        this.file.position(at + included);
+        this.framesWritten++;
+        return true;
+    }
+
+    /**
+     * Forces the current file to disk; it stays at its mapped size until
+     * rolled or closed.
+     */
+    public synchronized void flush() {
+        if (this.file != null) {
+            this.file.force();
+        }
+    }
+
+    /**
+     * Truncates and closes the current file; later writes are dropped.
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.closeFile();
+    }
+
+    /** @return index of the file currently written */
+    public synchronized int getFileIndex() {
+        return this.fileIndex;
+    }
+
+    /** @return frames written to every file so far */
+    public synchronized long getFramesWritten() {
+        return this.framesWritten;
+    }
+
+    /** @return frames dropped because no file could be opened or the writer was closed */
+    public synchronized long getFramesDropped() {
+        return this.framesDropped;
+    }
+
+    /** @return bytes of each frame kept */
+    public int getSnapLength() {
+        return this.snapLength;
+    }
+
+    /**
+     * Tries the file that failed to open again, once every
+     * {@link #REOPEN_INTERVAL} calls, rather than a system call per frame.
+     *
+     * @return true if a file is now open
+     */
+    private boolean reopen() {
+        if (this.closed || --this.reopenIn > 0) {
+            return false;
+        }
+        this.openFile();
+        return this.file != null;
+    }
+
+    private void rollFile() {
+        this.closeFile();
+        this.fileIndex++;
+        this.openFile();
+        if (this.maxFiles > 0 && this.fileIndex >= this.maxFiles) {
+            try {
+                Files.deleteIfExists(captureFile(this.directory, this.baseName, this.fileIndex - this.maxFiles));
+            } catch (IOException e) {
+                logger.error("[{}] unable to delete old capture: {}", CLS, e.getMessage());
+            }
+        }
+    }
+
+    /** Maps the file of the current index and writes its global header. */
+    private void openFile() {
+        Path path = captureFile(this.directory, this.baseName, this.fileIndex);
+        try {
+            this.channel = FileChannel.open(path,
+                                            StandardOpenOption.CREATE,
+                                            StandardOpenOption.TRUNCATE_EXISTING,
+                                            StandardOpenOption.READ,
+                                            StandardOpenOption.WRITE);
+            this.file = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.fileSize);
+            this.file.order(ByteOrder.LITTLE_ENDIAN);
+            this.file.putInt(MAGIC_NANOS);
+            this.file.putShort((short) 2);
+            this.file.putShort((short) 4);
+            this.file.putInt(0);                      // thiszone
+            this.file.putInt(0);                      // sigfigs
+            this.file.putInt(this.snapLength);
+            this.file.putInt(LINKTYPE_ETHERNET);
+        } catch (IOException e) {
+            logger.error("[{}] unable to map {}: {}", CLS, path, e.getMessage());
+            this.closeFile();
+            this.reopenIn = REOPEN_INTERVAL;
+        }
+    }
+
+    private void closeFile() {
+        int written = 0;
+        if (this.file != null) {
+            written = this.file.position();
+            this.file.force();
+            this.file = null;
+        }
+        if (this.channel != null) {
+            try {
+                // drop the unused tail of the mapping, readers stop at end of file
+                this.channel.truncate(written);
+                this.channel.close();
+            } catch (IOException e) {
+                logger.error("[{}] capture close failed: {}", CLS, e.getMessage());
+            }
+            this.channel = null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.netsim.addresses;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class AddressTest {
+    private static final int LOOKUPS = 100_000;
+
+    private static com.sun.management.ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    /** bytes allocated by the current thread while running body, minus the probe's own cost */
+    private static long allocatedBy(com.sun.management.ThreadMXBean threads, Runnable body) {
+        long id    = Thread.currentThread().getId();
+        long probe = -threads.getThreadAllocatedBytes(id) + threads.getThreadAllocatedBytes(id);
+        long start = threads.getThreadAllocatedBytes(id);
+        body.run();
+        return threads.getThreadAllocatedBytes(id) - start - probe;
+    }
+
+    @Test
+    public void equalsAndHashCodeFollowState() {
+        IPv4 a = new IPv4("10.0.0.1", 24);
+        IPv4 b = new IPv4("10.0.0.1", 24);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        b.setMask(16);
+        assertNotEquals(a, b);
+        b.setMask(24);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        Mac m = new Mac("AA:BB:CC:DD:EE:FF");
+        int before = m.hashCode();
+        m.setAddress("AA:BB:CC:DD:EE:00");
+        assertNotEquals(before, m.hashCode());
+        assertNotEquals(m, new IPv4("10.0.0.1", 24));
+    }
+
+    @Test
+    public void immutableInstancesCacheTheirHash() {
+        IPv4 shared = IPv4.intern(0xC0A80001, 24);
+        assertEquals(new IPv4("192.168.0.1", 24).hashCode(), shared.hashCode());
+        assertEquals(shared.hashCode(), shared.hashCode());
+        assertEquals(new Port("53").hashCode(), Port.of(53).hashCode());
+    }
+
+    @Test
+    public void hashMapLookupsDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads = threads();
+
+        Map<IPv4, String> byIp  = new HashMap<>();
+        Map<Mac, String>  byMac = new HashMap<>();
+        for (int i = 0; i < 64; i++) {
+            byIp.put(new IPv4(0x0A000000 | i, 24), "ip" + i);
+            byMac.put(Mac.intern(new byte[] { 2, 0, 0, 0, 0, (byte) i }, 0), "mac" + i);
+        }
+        // distinct, mutable probe keys: no identity shortcut, no cached hash
+        IPv4 ipKey  = new IPv4("10.0.0.42", 24);
+        Mac  macKey = new Mac("02:00:00:00:00:2A");
+
+        Runnable lookups = () -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                if (byIp.get(ipKey) == null || byMac.get(macKey) == null) {
+                    throw new AssertionError("lookup missed");
+                }
+            }
+        };
+        lookups.run(); // warm up
+        long bytes = allocatedBy(threads, lookups);
+        assertTrue("allocated " + bytes + " bytes over " + LOOKUPS + " lookups", bytes < LOOKUPS);
+    }
+}
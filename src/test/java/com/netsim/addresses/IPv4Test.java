@@ -128,4 +128,69 @@ public class IPv4Test {
         
         assertEquals(expectedBroadcast.stringRepresentation(), ip.subnetBroadcast().stringRepresentation());
     }
+
+    @Test
+    public void testIntConstructorMatchesString() {
+        IPv4 fromInt    = new IPv4(0xC0A80164, 24);
+        IPv4 fromString = new IPv4("192.168.1.100", 24);
+        assertEquals(fromString, fromInt);
+        assertEquals(fromString.hashCode(), fromInt.hashCode());
+        assertEquals("192.168.1.100", fromInt.stringRepresentation());
+        assertEquals(0xC0A80164, fromString.toInt());
+        assertEquals(0xFFFFFF00, fromString.getMaskBits());
+    }
+
+    @Test
+    public void testNetworkAndBroadcastOfHostAddress() {
+        IPv4 ip = new IPv4("10.20.30.40", 20);
+        assertEquals(new IPv4("10.20.16.0", 20), ip.network());
+        assertEquals(new IPv4("10.20.31.255", 20), ip.subnetBroadcast());
+        assertEquals(new IPv4("255.255.255.255", 0), new IPv4("1.2.3.4", 0).subnetBroadcast());
+    }
+
+    @Test
+    public void testSubnetWithAddress() {
+        IPv4 net = new IPv4("172.16.0.1", 12);
+        assertTrue(new IPv4("172.31.255.1", 32).isInSubnet(net));
+        assertFalse(new IPv4("172.32.0.1", 32).isInSubnet(net));
+        assertTrue(new IPv4("172.31.255.1", 32).isInSubnet(0xAC100000, 12));
+    }
+
+    @Test
+    public void testSetAddressUpdatesIntForm() {
+        IPv4 ip = new IPv4("10.0.0.1", 8);
+        ip.setAddress("11.0.0.1", 16);
+        assertEquals(0x0B000001, ip.toInt());
+        assertEquals(0xFFFF0000, ip.getMaskBits());
+        assertFalse(ip.isPrivate());
+    }
+
+    @Test
+    public void testCompareToIsUnsigned() {
+        IPv4 low  = new IPv4("10.0.0.1", 32);
+        IPv4 high = new IPv4("200.0.0.1", 32);
+        assertTrue(low.compareTo(high) < 0);
+        assertTrue(high.compareTo(low) > 0);
+        assertTrue(new IPv4("10.0.0.0", 8).compareTo(new IPv4("10.0.0.0", 24)) < 0);
+        assertEquals(0, low.compareTo(new IPv4("10.0.0.1", 32)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIntConstructorRejectsBadPrefix() {
+        new IPv4(0, 33);
+    }
+
+    @Test
+    public void testInternReturnsSharedInstance() {
+        IPv4 a = IPv4.intern(0x0A000001, 24);
+        assertTrue(a == IPv4.intern(0x0A000001, 24));
+        assertFalse(a == IPv4.intern(0x0A000001, 16));
+        assertEquals(new IPv4("10.0.0.1", 24), a);
+        assertTrue(a.isImmutable());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testInternedAddressCannotBeModified() {
+        IPv4.intern(0x0A000002, 24).setMask(16);
+    }
 }
@@ -0,0 +1,34 @@
+package com.netsim.addresses;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class InternCacheTest {
+    @Test
+    public void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(1, new InternCache<Port>(1).capacity());
+        assertEquals(8, new InternCache<Port>(5).capacity());
+        assertEquals(4096, new InternCache<Port>(4096).capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroCapacity() {
+        new InternCache<Port>(0);
+    }
+
+    @Test
+    public void slotsStayInRangeAndMissesOverwrite() {
+        InternCache<Port> cache = new InternCache<>(16);
+        for (int h = -1000; h < 1000; h++) {
+            int slot = cache.slot(h);
+            assertTrue(slot >= 0 && slot < 16);
+        }
+        int slot = cache.slot(42);
+        assertNull(cache.get(slot));
+        cache.set(slot, Port.of(1));
+        assertSame(Port.of(1), cache.get(slot));
+        cache.set(slot, Port.of(2));
+        assertSame(Port.of(2), cache.get(slot));
+    }
+}
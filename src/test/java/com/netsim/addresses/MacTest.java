@@ -73,4 +73,53 @@ public class MacTest {
         String repr = mac.stringRepresentation();
         assertEquals("Round-trip of stringRepresentation and parse should preserve value", original, repr);
     }
+
+    @Test
+    public void testInternReturnsSharedInstance() {
+        byte[] frame = new byte[] { 0, 0, (byte) 0xAA, 0x01, 0x02, 0x03, 0x04, 0x05, 0 };
+        Mac first  = Mac.intern(frame, 2);
+        Mac second = Mac.intern(frame.clone(), 2);
+        assertSame(first, second);
+        assertEquals(new Mac("AA:01:02:03:04:05"), first);
+        assertTrue(first.isImmutable());
+        assertSame(first, Mac.bytesToMac(new byte[] { (byte) 0xAA, 0x01, 0x02, 0x03, 0x04, 0x05 }));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testInternedMacCannotBeModified() {
+        Mac.intern(new byte[] { 1, 2, 3, 4, 5, 6 }, 0).setAddress("00:00:00:00:00:01");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInternRejectsShortInput() {
+        Mac.intern(new byte[] { 1, 2, 3, 4, 5, 6 }, 1);
+    }
+
+    @Test
+    public void testLongFormRoundTrip() {
+        Mac mac = new Mac("01:23:45:67:89:AB");
+        assertEquals(0x0123456789ABL, mac.toLong());
+        assertEquals(mac, Mac.fromLong(0x0123456789ABL));
+        byte[] frame = new byte[10];
+        mac.encode(frame, 3);
+        assertEquals(0x0123456789ABL, Mac.decode(frame, 3));
+        assertArrayEquals(mac.byteRepresentation(), java.util.Arrays.copyOfRange(frame, 3, 9));
+        mac.setAddress("00:00:00:00:00:01");
+        assertEquals(1L, mac.toLong());
+    }
+
+    @Test
+    public void testBroadcastIsSingleton() {
+        assertSame(Mac.broadcast(), Mac.broadcast());
+        assertSame(Mac.broadcast(), Mac.fromLong(Mac.BROADCAST_BITS));
+        assertTrue(Mac.broadcast().isBroadcast());
+        assertTrue(Mac.broadcast().isImmutable());
+        assertEquals("FF:FF:FF:FF:FF:FF", Mac.broadcast().stringRepresentation());
+        assertFalse(new Mac("FF:FF:FF:FF:FF:FE").isBroadcast());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromLongRejectsWideValues() {
+        Mac.fromLong(1L << 48);
+    }
 }
@@ -1,6 +1,7 @@
 package com.netsim.addresses;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
@@ -49,4 +50,20 @@ public class MaskTest {
                 fromString.byteRepresentation()
             );
         }
+
+        @Test
+        public void bitsFollowPrefix() {
+            Mask m = new Mask(20, 4);
+            assertEquals(0xFFFFF000, m.getBits());
+            assertEquals(0xFFFFFF00, new Mask("255.255.255.0", 4).getBits());
+            m.setPrefix(8);
+            assertEquals(0xFF000000, m.getBits());
+            assertArrayEquals(new byte[] { (byte) 0xFF, 0, 0, 0 }, m.byteRepresentation());
+            assertEquals(0, new Mask(0, 4).getBits());
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void prefixOutOfRangeIsRejected() {
+            new Mask(33, 4);
+        }
 }
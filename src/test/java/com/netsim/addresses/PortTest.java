@@ -75,4 +75,28 @@ public class PortTest {
         assertArrayEquals(data, p.byteRepresentation());
     }
 
+    @Test
+    public void testOfReturnsSharedImmutableInstance() {
+        Port p = Port.of(8080);
+        assertSame(p, Port.of(8080));
+        assertSame(p, Port.fromBytes(new byte[] { (byte) 0x1F, (byte) 0x90 }));
+        assertEquals(new Port("8080"), p);
+        assertTrue(p.isImmutable());
+        assertFalse(new Port("8080").isImmutable());
+        assertEquals(0, Port.of(0).getPort());
+        assertEquals(65535, Port.of(65535).getPort());
+    }
+
+    @Test
+    public void testSharedPortCannotBeModified() {
+        assertThrows(UnsupportedOperationException.class, () -> Port.of(80).setAddress(81));
+        assertThrows(UnsupportedOperationException.class, () -> Port.of(80).setAddress("81"));
+        assertEquals(80, Port.of(80).getPort());
+    }
+
+    @Test
+    public void testOfRejectsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> Port.of(-1));
+        assertThrows(IllegalArgumentException.class, () -> Port.of(0x10000));
+    }
 }
@@ -3,6 +3,19 @@ package com.netsim.network;
 import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.simulation.Mailbox;
+import com.netsim.simulation.Simulator;
+import com.netsim.utils.PcapWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -112,7 +125,251 @@ public class CabledAdapterTest {
         adapter1.receive(stack, new byte[]{0, 0, 0, 0});
     }
 
+    /** IPv4 packet of 20 + payload bytes, framed into 32 + payload bytes on the wire */
+    private static byte[] packet(int payload) {
+        IPv4Protocol ip = new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.0.2", 24),
+                                           5, 0, 0, 0, 64, 0, 1500);
+        return ip.encapsulate(new byte[payload]);
+    }
+
+    /** Links adapter1 to adapter2 through a simulator and records arrival times at adapter2. */
+    private List<Long> linkWithSimulator(Simulator sim) {
+        List<Long> arrivals = new ArrayList<>();
+        Node sink = new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) { arrivals.add(sim.now()); }
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        };
+        adapter1.setRemoteAdapter(adapter2);
+        adapter2.setRemoteAdapter(adapter1);
+        adapter2.setOwner(sink);
+        adapter1.setSimulator(sim);
+        adapter2.setSimulator(sim);
+        return arrivals;
+    }
+
+    @Test
+    public void frameArrivesAfterSerialisationAndPropagation() {
+        Simulator  sim      = new Simulator();
+        List<Long> arrivals = linkWithSimulator(sim);
+        adapter1.setLink(1_000_000L, 5_000L, 4);
+        adapter1.send(new ProtocolPipeline(), packet(93));  // 125 bytes = 1000 bits = 1 ms
+        sim.run();
+        assertEquals(List.of(1_005_000L), arrivals);
+        assertEquals(1, adapter1.getFramesSent());
+        assertEquals(125, adapter1.getBytesSent());
+        assertEquals(1_000_000L, adapter1.getBusyTime());
+    }
+
+    @Test
+    public void backToBackFramesQueueAndTailDrop() {
+        Simulator  sim      = new Simulator();
+        List<Long> arrivals = linkWithSimulator(sim);
+        adapter1.setLink(1_000_000L, 0L, 1);
+        for (int i = 0; i < 3; i++) {
+            adapter1.send(new ProtocolPipeline(), packet(93));
+        }
+        assertEquals(1, adapter1.getQueueLength());
+        assertEquals(1, adapter1.getTailDrops());
+        sim.run();
+        assertEquals(List.of(1_000_000L, 2_000_000L), arrivals);
+        assertEquals(1_000_000.0, adapter1.getAverageQueueingDelay(), 0.0);
+        assertEquals(1.0, adapter1.getUtilisation(), 1e-9);
+        sim.runUntil(4_000_000L);
+        assertEquals(0.5, adapter1.getUtilisation(), 1e-9);
+    }
+
+    @Test
+    public void unlimitedLinkOnlyAddsPropagationDelay() {
+        Simulator  sim      = new Simulator();
+        List<Long> arrivals = linkWithSimulator(sim);
+        adapter1.setLink(0L, 700L, 0);
+        adapter1.send(new ProtocolPipeline(), packet(10));
+        adapter1.send(new ProtocolPipeline(), packet(10));
+        sim.run();
+        assertEquals(List.of(700L, 700L), arrivals);
+        assertEquals(0, adapter1.getTailDrops());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setLinkRejectsNegativeValues() {
+        adapter1.setLink(-1L, 0L, 0);
+    }
+
+    @Test
+    public void mailboxDrainsQueuedFramesInOneTask() throws InterruptedException {
+        List<byte[]> arrivals = new CopyOnWriteArrayList<>();
+        adapter2.setOwner(new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) { arrivals.add(pdu); }
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        });
+        adapter1.setRemoteAdapter(adapter2);
+        adapter2.setRemoteAdapter(adapter1);
+        Mailbox inbox = new Mailbox("sink");
+        adapter2.setMailbox(inbox);
+        int frames = CabledAdapter.RECEIVE_QUEUE_CAPACITY + 1;
+        for (int i = 0; i < frames; i++) {
+            adapter1.send(new ProtocolPipeline(), packet(4));
+        }
+        assertEquals(1, inbox.pending());
+        assertEquals(1, adapter2.getReceiveDrops());
+        assertTrue(arrivals.isEmpty());
+
+        Thread loop = new Thread(inbox::run);
+        loop.start();
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (arrivals.size() < frames - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1L);
+        }
+        inbox.close();
+        loop.join(10_000L);
+        assertEquals(frames - 1, arrivals.size());
+        assertEquals(1, inbox.getProcessed());
+    }
+
+    @Test
+    public void statsCountFramesAndDropsByReason() {
+        Simulator  sim      = new Simulator();
+        List<Long> arrivals = linkWithSimulator(sim);
+        adapter1.setLink(1_000_000L, 0L, 1);
+        for (int i = 0; i < 3; i++) {
+            adapter1.send(new ProtocolPipeline(), packet(93));
+        }
+        TrafficStats queued = adapter1.getStats();
+        assertEquals(1, queued.getQueueDepth());
+        assertEquals(1, queued.getDrops(DropReason.QUEUE_FULL));
+        sim.run();
+
+        ProtocolPipeline stack = new ProtocolPipeline();
+        stack.push(new SimpleDLLProtocol(mac2, mac1));
+        adapter2.receive(stack, stack.peek().encapsulate(packet(4)));
+        adapter2.setDown();
+        adapter2.receive(new ProtocolPipeline(), new byte[] { 1 });
+
+        TrafficStats tx = adapter1.getStats();
+        TrafficStats rx = adapter2.getStats();
+        assertEquals(2, arrivals.size());
+        assertEquals(2, tx.getTxPackets());
+        assertEquals(250, tx.getTxBytes());
+        assertEquals(0, tx.getQueueDepth());
+        assertEquals(2, rx.getRxPackets());
+        assertEquals(250, rx.getRxBytes());
+        assertEquals(1, rx.getDrops(DropReason.NOT_FOR_ME));
+        assertEquals(1, rx.getDrops(DropReason.ADAPTER_DOWN));
+        assertEquals(2, rx.getDrops());
+    }
+
+    @Test
+    public void captureWritesEveryFrameBothWays() throws IOException {
+        Path dir = Files.createTempDirectory("netsim-pcap");
+        PcapWriter pcap = new PcapWriter(dir, "link", 1 << 20, 0, PcapWriter.DEFAULT_SNAP_LENGTH);
+        try {
+            Simulator sim = new Simulator();
+            linkWithSimulator(sim);
+            adapter1.setLink(0L, 700L, 4);
+            adapter1.setCapture(pcap);
+            adapter2.setCapture(pcap);
+            IPv4Protocol ip = new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.0.2", 24),
+                                               5, 0, 0, 0, 64, 0, 1500);
+            adapter1.send(new ProtocolPipeline(), ip.encapsulate(new byte[3000]));
+            sim.run();
+            // three fragments sent by adapter1, then received by adapter2
+            assertEquals(6, pcap.getFramesWritten());
+
+            adapter1.setCapture(null);
+            adapter1.send(new ProtocolPipeline(), packet(4));
+            sim.run();
+            assertEquals(7, pcap.getFramesWritten());
+        } finally {
+            pcap.close();
+            for (File f : dir.toFile().listFiles()) {
+                f.delete();
+            }
+            dir.toFile().delete();
+        }
+    }
+
     // Further testing send/receive interaction requires full protocol stack simulation,
     // which would be best tested as integration/system tests.
 
-}
\ No newline at end of file
+    @Test
+    public void receiveFiltersOnDestinationMac() {
+        List<byte[]> arrivals = new ArrayList<>();
+        adapter2.setOwner(new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) { arrivals.add(pdu); }
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        });
+        byte[] ip = packet(4);
+        for (Mac dst : new Mac[] { mac2, Mac.broadcast(), mac1 }) {
+            ProtocolPipeline stack = new ProtocolPipeline();
+            stack.push(new com.netsim.protocols.SimpleDLL.SimpleDLLProtocol(mac1, dst));
+            adapter2.receive(stack, stack.peek().encapsulate(ip));
+        }
+        // unicast to adapter2 and broadcast are accepted, the frame for mac1 is not
+        assertEquals(2, arrivals.size());
+    }
+
+    /** Links adapter1 to adapter2 and records what adapter2 passes up. */
+    private List<byte[]> linkWithRecorder() {
+        List<byte[]> arrivals = new ArrayList<>();
+        adapter2.setOwner(new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) { arrivals.add(pdu); }
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        });
+        adapter1.setRemoteAdapter(adapter2);
+        adapter2.setRemoteAdapter(adapter1);
+        return arrivals;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = java.util.Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    @Test
+    public void sendBatchPassesEveryPacketUpInOneCall() {
+        List<byte[]> arrivals = linkWithRecorder();
+        byte[] packets = concat(packet(10), packet(30));
+        ProtocolPipeline stack = new ProtocolPipeline();
+        adapter1.sendBatch(stack, packets, mac2);
+        assertEquals(1, arrivals.size());
+        assertArrayEquals(packets, arrivals.get(0));
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    public void sendBatchIsOneTransmissionOnTheLink() {
+        Simulator  sim      = new Simulator();
+        List<Long> arrivals = linkWithSimulator(sim);
+        adapter1.setLink(1_000_000L, 0L, 4);
+        adapter1.sendBatch(new ProtocolPipeline(), concat(packet(93), packet(93)), mac2);
+        sim.run();
+        assertEquals(List.of(2_000_000L), arrivals);
+        assertEquals(1, adapter1.getFramesSent());
+        assertEquals(250, adapter1.getBytesSent());
+    }
+
+    @Test
+    public void receiveBatchSkipsFramesForOtherMacs() {
+        List<byte[]> arrivals = linkWithRecorder();
+        byte[] mine   = packet(10);
+        byte[] theirs = packet(20);
+        byte[] frames = concat(new SimpleDLLProtocol(mac1, mac2).encapsulate(mine),
+                               new SimpleDLLProtocol(mac1, new Mac("aa:bb:cc:00:00:00")).encapsulate(theirs));
+        ProtocolPipeline stack = new ProtocolPipeline();
+        stack.push(new SimpleDLLProtocol(mac1, mac2));
+        adapter2.receiveBatch(stack, concat(frames, new SimpleDLLProtocol(mac1, mac2).encapsulate(mine)));
+        assertEquals(1, arrivals.size());
+        assertArrayEquals(concat(mine, mine), arrivals.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sendBatchRejectsNullDestination() {
+        adapter1.setRemoteAdapter(adapter2);
+        adapter1.sendBatch(new ProtocolPipeline(), packet(10), null);
+    }
+}
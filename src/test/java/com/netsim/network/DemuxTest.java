@@ -0,0 +1,70 @@
+package com.netsim.network;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Port;
+import com.netsim.app.App;
+import com.netsim.networkstack.ProtocolPipeline;
+
+public class DemuxTest {
+    private Demux demux;
+
+    private static App app(String name) {
+        return new App(name, "", cmd -> null, null) {
+            @Override public void start() {}
+            @Override public void send(ProtocolPipeline stack, byte[] data) {}
+            @Override public void receive(ProtocolPipeline stack, byte[] data) {}
+        };
+    }
+
+    @Before
+    public void setUp() {
+        demux = new Demux();
+    }
+
+    @Test
+    public void dispatchReachesBoundHandler() {
+        byte[][] seen = new byte[1][];
+        demux.bindProtocol(17, (src, payload) -> seen[0] = payload);
+        byte[] payload = {1, 2, 3};
+        assertTrue(demux.dispatch(17, new IPv4("10.0.0.1", 32), payload));
+        assertSame(payload, seen[0]);
+        assertFalse(demux.dispatch(6, new IPv4("10.0.0.1", 32), payload));
+        assertFalse(demux.dispatch(4096, new IPv4("10.0.0.1", 32), payload));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void protocolCannotBeBoundTwice() {
+        demux.bindProtocol(17, (src, payload) -> {});
+        demux.bindProtocol(17, (src, payload) -> {});
+    }
+
+    @Test
+    public void unboundProtocolCanBeRebound() {
+        Demux.Handler first = (src, payload) -> {};
+        demux.bindProtocol(17, first);
+        assertSame(first, demux.unbindProtocol(17));
+        demux.bindProtocol(17, (src, payload) -> {});
+    }
+
+    @Test
+    public void portsSelectApplications() {
+        App a = app("a");
+        demux.bindPort(Port.of(9000), a);
+        demux.bindPort(Port.of(9000), a);   // idempotent for the same app
+        assertSame(a, demux.app(9000));
+        assertNull(demux.app(9001));
+        assertSame(a, demux.unbindPort(Port.of(9000)));
+        assertNull(demux.app(9000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void portBelongsToOneApplication() {
+        demux.bindPort(Port.of(9000), app("a"));
+        demux.bindPort(Port.of(9000), app("b"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.netsim.network;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class MpscRingTest {
+    @Test
+    public void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(1, new MpscRing<Integer>(1).capacity());
+        assertEquals(8, new MpscRing<Integer>(5).capacity());
+        assertEquals(1024, new MpscRing<Integer>(1024).capacity());
+    }
+
+    @Test
+    public void keepsFifoOrderAndRejectsWhenFull() {
+        MpscRing<Integer> ring = new MpscRing<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+
+        assertEquals(Integer.valueOf(0), ring.poll());
+        assertTrue(ring.offer(4));
+        List<Integer> out = new ArrayList<>();
+        assertEquals(4, ring.drain(out::add, 10));
+        assertEquals(List.of(1, 2, 3, 4), out);
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void batchOfferTakesWhatFits() {
+        MpscRing<Integer> ring = new MpscRing<>(8);
+        Integer[] items = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+        assertEquals(6, ring.offer(items, 0, 6));
+        assertEquals(2, ring.offer(items, 6, 4));
+        assertEquals(0, ring.offer(items, 8, 2));
+
+        List<Integer> out = new ArrayList<>();
+        assertEquals(3, ring.drain(out::add, 3));
+        assertEquals(3, ring.offer(items, 7, 3));
+        ring.drain(out::add, 100);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 7, 8, 9), out);
+    }
+
+    @Test
+    public void drainThatThrowsKeepsTheRest() {
+        MpscRing<Integer> ring = new MpscRing<>(4);
+        ring.offer(1);
+        ring.offer(2);
+        ring.offer(3);
+        try {
+            ring.drain(e -> {
+                if (e == 2) {
+                    throw new IllegalStateException();
+                }
+            }, 10);
+            fail("sink exception swallowed");
+        } catch (IllegalStateException expected) {
+            // 1 and 2 were handed over
+        }
+        assertEquals(1, ring.size());
+        assertEquals(Integer.valueOf(3), ring.poll());
+    }
+
+    @Test
+    public void concurrentProducersLoseNothing() throws InterruptedException {
+        int producers = 4;
+        int perThread = 20_000;
+        MpscRing<Integer> ring    = new MpscRing<>(64);
+        CountDownLatch    start   = new CountDownLatch(1);
+        List<Thread>      threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perThread;
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                Integer[] pair = new Integer[2];
+                for (int i = 0; i < perThread; ) {
+                    if (i % 3 == 0 && i + 1 < perThread) {
+                        pair[0] = base + i;
+                        pair[1] = base + i + 1;
+                        // a partial batch leaves the second element to a single offer
+                        i += ring.offer(pair, 0, 2);
+                    } else if (ring.offer(base + i)) {
+                        i++;
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        start.countDown();
+
+        int[] next     = new int[producers];
+        int   received = 0;
+        int   total    = producers * perThread;
+        while (received < total) {
+            Integer e = ring.poll();
+            if (e == null) {
+                Thread.yield();
+                continue;
+            }
+            int p = e / perThread;
+            assertEquals("producer " + p + " out of order", p * perThread + next[p], e.intValue());
+            next[p]++;
+            received++;
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullElementThrows() {
+        new MpscRing<Integer>(4).offer((Integer) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacityThrows() {
+        new MpscRing<Integer>(0);
+    }
+}
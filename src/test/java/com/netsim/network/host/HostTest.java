@@ -2,20 +2,29 @@ package com.netsim.network.host;
 
 import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
 import com.netsim.app.App;
 import com.netsim.app.Command;
 import com.netsim.app.CommandFactory;
+import com.netsim.network.DropReason;
 import com.netsim.network.Interface;
 import com.netsim.network.CabledAdapter;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.UDP.UDPProtocol;
+import com.netsim.simulation.Simulator;
 import com.netsim.table.ArpTable;
+import com.netsim.table.NeighbourCache;
 import com.netsim.table.RoutingInfo;
 import com.netsim.table.RoutingTable;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -64,10 +73,213 @@ public class HostTest {
             assertFalse(host.isForMe(new IPv4("10.0.0.1", 24)));
       }
 
+      /** Builds a host on 10.0.0.0/24 with an empty ARP table and an on-link route. */
+      private static Host onLinkHost(String name, CabledAdapter a, String ip) {
+            IPv4 address = new IPv4(ip, 24);
+            RoutingTable rt = new RoutingTable();
+            rt.add(new IPv4("10.0.0.0", 24), new RoutingInfo(a, null));
+            Host h = new Host(name, rt, new ArpTable(), Collections.singletonList(new Interface(a, address)));
+            a.setOwner(h);
+            return h;
+      }
+
+      private static Host[] linkedHosts() {
+            CabledAdapter a1 = new CabledAdapter("h1-eth0", 1500, new Mac("02:00:00:00:00:01"));
+            CabledAdapter a2 = new CabledAdapter("h2-eth0", 1500, new Mac("02:00:00:00:00:02"));
+            a1.setRemoteAdapter(a2);
+            a2.setRemoteAdapter(a1);
+            return new Host[] { onLinkHost("h1", a1, "10.0.0.1"), onLinkHost("h2", a2, "10.0.0.2") };
+      }
+
+      @Test
+      public void sendResolvesNextHopWithArp() {
+            Host[] hosts = linkedHosts();
+            IPv4   dest  = new IPv4("10.0.0.2", 24);
+            TestApp app  = new TestApp();
+            hosts[1].setApp(app);
+            hosts[0].send(dest, new ProtocolPipeline(), "hi".getBytes());
+
+            assertArrayEquals("hi".getBytes(), app.receivedData);
+            assertEquals(new Mac("02:00:00:00:00:02"), hosts[0].getDestinationMac(dest));
+            // the target learnt the requester from the request itself
+            assertEquals(new Mac("02:00:00:00:00:01"),
+                         hosts[1].getNeighbourCache().lookup(new IPv4("10.0.0.1", 32).toInt()));
+      }
+
+      @Test
+      public void sendBatchDeliversEveryDatagram() {
+            Host[]  hosts = linkedHosts();
+            IPv4    dest  = new IPv4("10.0.0.2", 24);
+            TestApp app   = new TestApp();
+            hosts[1].setApp(app);
+            byte[] large = new byte[4000];  // three fragments at MTU 1500
+            for (int i = 0; i < large.length; i++) large[i] = (byte) i;
+            hosts[0].sendBatch(dest, new ProtocolPipeline(),
+                               List.of("a".getBytes(), large, "c".getBytes()));
+
+            assertEquals(3, app.received.size());
+            assertArrayEquals("a".getBytes(), app.received.get(0));
+            assertArrayEquals(large, app.received.get(1));
+            assertArrayEquals("c".getBytes(), app.received.get(2));
+            assertTrue(hosts[1].getReassembler().isEmpty());
+      }
+
+      @Test
+      public void bufferedSendDeliversLikeArraySend() {
+            Host[]  hosts = linkedHosts();
+            IPv4    dest  = new IPv4("10.0.0.2", 24);
+            TestApp app   = new TestApp();
+            hosts[1].setApp(app);
+            byte[] large = new byte[4000];  // three fragments at MTU 1500
+            for (int i = 0; i < large.length; i++) large[i] = (byte) i;
+            // room for the IPv4 and DLL headers only: no UDP in this pipeline
+            hosts[0].send(dest, new ProtocolPipeline(), PacketBuffer.copyOf("hi".getBytes(), 20 + 12, 0));
+            hosts[0].send(dest, new ProtocolPipeline(), PacketBuffer.copyOf(large, 20 + 12, 0));
+
+            assertEquals(2, app.received.size());
+            assertArrayEquals("hi".getBytes(), app.received.get(0));
+            assertArrayEquals(large, app.received.get(1));
+            // the ARP request, the small datagram and three fragments
+            assertEquals(5, hosts[0].getStats().getTxPackets());
+      }
+
+      @Test(expected = IllegalArgumentException.class)
+      public void sendBatchRejectsEmptyPayload() {
+            Host[] hosts = linkedHosts();
+            hosts[0].sendBatch(new IPv4("10.0.0.2", 24), new ProtocolPipeline(),
+                               List.of("a".getBytes(), new byte[0]));
+      }
+
+      @Test
+      public void packetsQueueWhileResolvingAndCacheAgesOut() {
+            Host[]    hosts = linkedHosts();
+            Simulator sim   = new Simulator();
+            hosts[0].setSimulator(sim);
+            hosts[1].setSimulator(sim);
+            IPv4    dest = new IPv4("10.0.0.2", 24);
+            TestApp app  = new TestApp();
+            hosts[1].setApp(app);
+            hosts[0].send(dest, new ProtocolPipeline(), "a".getBytes());
+            hosts[0].send(dest, new ProtocolPipeline(), "b".getBytes());
+            assertEquals(NeighbourCache.State.INCOMPLETE,
+                         hosts[0].getNeighbourCache().state(dest.toInt(), sim.now()));
+
+            sim.runUntil(1L);
+            assertArrayEquals("b".getBytes(), app.receivedData);
+            assertEquals(NeighbourCache.State.REACHABLE,
+                         hosts[0].getNeighbourCache().state(dest.toInt(), sim.now()));
+
+            sim.run();
+            assertTrue(hosts[0].getNeighbourCache().isEmpty());
+            assertTrue(hosts[1].getNeighbourCache().isEmpty());
+            assertTrue(sim.now() >= NeighbourCache.DEFAULT_REACHABLE_TIME + NeighbourCache.DEFAULT_STALE_TIME);
+      }
+
+      @Test
+      public void unresolvedNextHopDropsPacket() {
+            CabledAdapter a    = new CabledAdapter("h1-eth0", 1500, new Mac("02:00:00:00:00:01"));
+            CabledAdapter peer = new CabledAdapter("peer", 1500, new Mac("02:00:00:00:00:09"));
+            a.setRemoteAdapter(peer);
+            peer.setRemoteAdapter(a);
+            peer.setOwner(new Host("silent", new RoutingTable(), new ArpTable(), Collections.emptyList()));
+            Host h = onLinkHost("h1", a, "10.0.0.1");
+            h.send(new IPv4("10.0.0.2", 24), new ProtocolPipeline(), "x".getBytes());
+            assertTrue(h.getNeighbourCache().isEmpty());
+            assertEquals(1, h.getNeighbourCache().getDropped());
+            assertEquals(1, h.getStats().getDrops(DropReason.UNRESOLVED));
+      }
+
+      @Test
+      public void onlySendsWithoutARouteCountAsDrops() {
+            IPv4 unknown = new IPv4("172.16.0.5", 32);
+            try {
+                  host.getDestinationMac(unknown);
+                  fail("no route to " + unknown);
+            } catch (RuntimeException expected) {
+                  // nothing was sent, so nothing was dropped
+            }
+            assertEquals(0, host.getStats().getDrops(DropReason.NO_ROUTE));
+            host.send(unknown, new ProtocolPipeline(), "x".getBytes());
+            assertEquals(1, host.getStats().getDrops(DropReason.NO_ROUTE));
+      }
+
+      @Test
+      public void neighbourQueueOverflowIsCounted() {
+            Host[]    hosts = linkedHosts();
+            Simulator sim   = new Simulator();
+            hosts[0].setSimulator(sim);
+            hosts[1].setSimulator(sim);
+            IPv4    dest = new IPv4("10.0.0.2", 24);
+            TestApp app  = new TestApp();
+            hosts[1].setApp(app);
+            for (int i = 0; i < NeighbourCache.DEFAULT_QUEUE_LIMIT + 3; i++) {
+                  hosts[0].send(dest, new ProtocolPipeline(), "x".getBytes());
+            }
+            assertEquals(3, hosts[0].getStats().getDrops(DropReason.QUEUE_FULL));
+            assertEquals(3, hosts[0].getNeighbourCache().getDropped());
+      }
+
+      @Test
+      public void udpIsDemultiplexedFromTheBytesAlone() {
+            PortApp app = new PortApp(Port.of(9000));
+            host.setApp(app);
+            IPv4 peer = new IPv4("192.168.0.7", 24);
+            byte[] segment = new UDPProtocol(1000, Port.of(1234), Port.of(9000)).encapsulate("hi".getBytes());
+            byte[] packet  = new IPv4Protocol(peer, ip, 5, 0, 1, 0, 64, IPv4Protocol.UDP, 1500)
+                                 .encapsulate(segment);
+
+            // an empty pipeline: nothing but the wire image describes the packet
+            host.receive(new ProtocolPipeline(), packet);
+            assertArrayEquals(segment, app.segment);
+            assertEquals(peer.toInt(), app.source.toInt());
+            assertNull("pipeline path must not be used", app.receivedData);
+      }
+
+      @Test
+      public void segmentForUnboundPortIsDropped() {
+            PortApp app = new PortApp(Port.of(9000));
+            host.setApp(app);
+            byte[] segment = new UDPProtocol(1000, Port.of(1234), Port.of(9001)).encapsulate("hi".getBytes());
+            host.receive(new ProtocolPipeline(),
+                         new IPv4Protocol(ip, ip, 5, 0, 1, 0, 64, IPv4Protocol.UDP, 1500).encapsulate(segment));
+            assertNull(app.segment);
+      }
+
+      @Test
+      public void replacingAppReleasesItsPort() {
+            host.setApp(new PortApp(Port.of(9000)));
+            PortApp next = new PortApp(Port.of(9000));
+            host.setApp(next);
+            assertSame(next, host.getDemux().app(9000));
+      }
+
+      /** App bound to a UDP port, recording what arrives through the demultiplexer. */
+      static class PortApp extends TestApp {
+            private final Port port;
+            byte[] segment;
+            IPv4   source;
+
+            PortApp(Port port) {
+                  this.port = port;
+            }
+
+            @Override
+            public Port getPort() {
+                  return this.port;
+            }
+
+            @Override
+            public void deliver(IPv4 source, byte[] segment) {
+                  this.source  = source;
+                  this.segment = segment;
+            }
+      }
+
       // Dummy App subclass for testing
       static class TestApp extends App {
             public boolean started = false;
             public byte[] receivedData;
+            public final List<byte[]> received = new ArrayList<>();
 
             public TestApp() {
                   super("test", "", new DummyCommandFactory(), null);
@@ -85,6 +297,7 @@ public class HostTest {
             @Override
             public void receive(ProtocolPipeline stack, byte[] data) {
                   this.receivedData = data;
+                  this.received.add(data);
             }
       }
 
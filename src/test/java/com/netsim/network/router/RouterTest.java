@@ -2,19 +2,26 @@ package com.netsim.network.router;
 
 import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
+import com.netsim.network.DropReason;
 import com.netsim.network.Interface;
 import com.netsim.network.NetworkAdapter;
 import com.netsim.network.CabledAdapter;
 import com.netsim.network.NetworkNode;
+import com.netsim.network.TrafficStats;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.protocols.IPv4.IPv4Protocol;
 import com.netsim.table.ArpTable;
+import com.netsim.table.RoutingInfo;
 import com.netsim.table.RoutingTable;
+import com.netsim.utils.Logger;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
 
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.List;
 
@@ -96,6 +103,105 @@ public class RouterTest {
             router.receive(stack, encoded); // dovrebbe inoltrare senza errori
       }
 
+      @Test
+      public void forwardingRewritesTtlInPlaceForEveryFragment() {
+            byte[] payload = new byte[3000];
+            IPv4Protocol ip = new IPv4Protocol(localIP1, destIP, 5, 0, 7, 0, 9, 0, 1500);
+            byte[] encoded = ip.encapsulate(payload);
+            byte[] original = encoded.clone();
+
+            DummyNode sink = linkSink();
+            ProtocolPipeline stack = new ProtocolPipeline();
+            stack.push(ip);
+            router.receive(stack, encoded);
+
+            assertNotNull("packet should reach the next hop", sink.received);
+            assertEquals(original.length, sink.received.length);
+            int at = 0;
+            int fragments = 0;
+            while (at < original.length) {
+                  int totalLen = ((original[at + 2] & 0xFF) << 8) | (original[at + 3] & 0xFF);
+                  assertEquals("TTL of fragment " + fragments, 8, sink.received[at + 9]);
+                  original[at + 9]--;
+                  at += totalLen;
+                  fragments++;
+            }
+            assertEquals(3, fragments);
+            assertArrayEquals("nothing but the TTL may change", original, sink.received);
+            assertArrayEquals(payload, ip.decapsulate(sink.received));
+      }
+
+      @Test
+      public void packetForRouterIsNotForwarded() {
+            IPv4Protocol ip = new IPv4Protocol(localIP2, new IPv4("10.0.0.1", 24), 5, 0, 0, 0, 5, 0, 1500);
+            DummyNode sink = linkSink();
+            ProtocolPipeline stack = new ProtocolPipeline();
+            stack.push(ip);
+            router.receive(stack, ip.encapsulate("local".getBytes()));
+            assertNull(sink.received);
+            assertEquals(0, stack.size());
+      }
+
+      @Test
+      public void malformedPacketIsDropped() {
+            DummyNode sink = linkSink();
+            ProtocolPipeline stack = new ProtocolPipeline();
+            stack.push(new IPv4Protocol(localIP1, destIP, 5, 0, 0, 0, 5, 0, 1500));
+            router.receive(stack, new byte[] {0x45, 0, 0, 60, 0, 0});
+            assertNull(sink.received);
+      }
+
+      /** Cables adapter2 to a recording node reachable as destIP. */
+      private DummyNode linkSink() {
+            CabledAdapter peer = new CabledAdapter("sink", 1500, new Mac("aa:aa:aa:aa:aa:aa"));
+            peer.setRemoteAdapter(adapter2);
+            adapter2.setRemoteAdapter(peer);
+            adapter1.setOwner(router);
+            adapter2.setOwner(router);
+            DummyNode sink = new DummyNode();
+            peer.setOwner(sink);
+
+            RoutingTable rt = new RoutingTable();
+            ArpTable at = new ArpTable();
+            rt.add(new IPv4("192.168.1.0", 24), new com.netsim.table.RoutingInfo(adapter2, null));
+            at.add(destIP, peer.getMacAddress());
+            router = new Router("router1", rt, at, Arrays.asList(iface1, iface2));
+            adapter2.setOwner(router);
+            return sink;
+      }
+
+      @Test
+      public void statsCountForwardedAndDroppedPackets() {
+            DummyNode sink = linkSink();
+            IPv4Protocol ip = new IPv4Protocol(localIP1, destIP, 5, 0, 7, 0, 9, 0, 1500);
+            byte[] encoded = ip.encapsulate(new byte[3000]);
+            ProtocolPipeline stack = new ProtocolPipeline();
+            stack.push(ip);
+            router.receive(stack, encoded);
+            assertNotNull(sink.received);
+
+            IPv4Protocol expired = new IPv4Protocol(localIP1, destIP, 5, 0, 0, 0, 0, 0, 1500);
+            stack = new ProtocolPipeline();
+            stack.push(expired);
+            router.receive(stack, expired.encapsulate("x".getBytes()));
+            router.receive(stack, new byte[] {0x45, 0, 0, 60, 0, 0});
+            router.send(new IPv4("172.16.0.5", 32), new ProtocolPipeline(), new byte[] {1});
+
+            TrafficStats stats = router.getStats();
+            assertEquals(5, stats.getRxPackets());
+            assertEquals(3, stats.getTxPackets());
+            assertEquals(encoded.length, stats.getTxBytes());
+            assertEquals(1, stats.getDrops(DropReason.TTL_EXPIRED));
+            assertEquals(1, stats.getDrops(DropReason.BAD_FRAME));
+            assertEquals(1, stats.getDrops(DropReason.NO_ROUTE));
+            assertEquals(3, stats.getDrops());
+            assertEquals(0, stats.getQueueDepth());
+
+            TrafficStats wire = adapter2.getStats();
+            assertEquals(3, wire.getTxPackets());
+            assertEquals(encoded.length + 3 * 12, wire.getTxBytes());
+      }
+
       @Test
       public void sendDropsIfNoRouteExists() {
             IPv4 unreachable = new IPv4("172.16.0.5", 32);
@@ -110,14 +216,47 @@ public class RouterTest {
             assertEquals(2, router.getInterfaces().size());
       }
 
+      @Test
+      public void lookupsDoNotAllocateWithLoggingOff() {
+            assumeFalse(Logger.getInstance(NetworkNode.class).isDebugEnabled());
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            assumeTrue(threads.isThreadAllocatedMemorySupported());
+            threads.setThreadAllocatedMemoryEnabled(true);
+
+            int lookups = 100_000;
+            Runnable body = () -> {
+                  for (int i = 0; i < lookups; i++) {
+                        RoutingInfo route = router.getRoute(destIP);
+                        if (router.getInterface(route.getDevice()) != iface2
+                            || route.getNextHop() != null
+                            || router.getMTU() != 1500) {
+                              throw new AssertionError("lookup missed");
+                        }
+                  }
+            };
+            for (int round = 0; round < 5; round++) {
+                  body.run(); // until the lookups are compiled
+            }
+            long id    = Thread.currentThread().getId();
+            long start = threads.getThreadAllocatedBytes(id);
+            body.run();
+            long bytes = threads.getThreadAllocatedBytes(id) - start;
+            // the probe itself costs a few dozen bytes
+            assertTrue("allocated " + bytes + " bytes over " + lookups + " lookups", bytes < lookups);
+      }
+
       private static class DummyNode extends NetworkNode {
+            byte[] received;
+
             public DummyNode() {
                   super("dummy", new RoutingTable(), new ArpTable(), List.of());
             }
 
             @Override
             public void receive(ProtocolPipeline stack, byte[] data) {
-                  // No-op
+                  this.received = data;
             }
             
             @Override
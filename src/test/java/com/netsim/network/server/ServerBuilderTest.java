@@ -63,18 +63,18 @@ public class ServerBuilderTest {
                    .build(); // should throw
       }
 
-      @Test(expected = RuntimeException.class)
-      public void buildFailsWithoutArp() {
+      @Test
+      public void buildSucceedsWithoutArp() {
             ServerBuilder<DummyApp> builder = new ServerBuilder<>();
             NetworkAdapter adapter = new CabledAdapter("eth0", 1500, new Mac("AA:BB:CC:DD:EE:01"));
             Interface iface = new Interface(adapter, new IPv4("192.168.0.2", 24));
 
-                  
-            
-            builder.setName("srv")
-                   .addInterface(iface)
-                   .addRoute(new IPv4("192.168.0.0", 24), "eth0", new IPv4("192.168.0.1", 24))
-                   .build(); // should throw
+            Server<DummyApp> server = builder.setName("srv")
+                                             .addInterface(iface)
+                                             .addRoute(new IPv4("192.168.0.0", 24), "eth0", new IPv4("192.168.0.1", 24))
+                                             .build(); // next hops are resolved by ARP
+
+            assertEquals("srv", server.getName());
       }
 
       @Test
@@ -0,0 +1,49 @@
+package com.netsim.network.switching;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+
+public class SwitchBuilderTest {
+    private SwitchBuilder builder;
+    private CabledAdapter port;
+
+    @Before
+    public void setUp() {
+        builder = new SwitchBuilder();
+        port    = new CabledAdapter("p0", 1500, new Mac("02:00:00:00:0f:00"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void buildRejectsMissingName() {
+        builder.addPort(port).build();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void buildRejectsNoPorts() {
+        builder.setName("sw").build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void staticEntryNeedsKnownPort() {
+        builder.addStaticEntry(new Mac("02:00:00:00:00:01"), "p0");
+    }
+
+    @Test
+    public void buildTakesOwnershipOfPorts() {
+        Mac station = new Mac("02:00:00:00:00:01");
+        Switch sw = builder.setName("sw")
+                           .addPort(port)
+                           .addStaticEntry(station, "p0")
+                           .setAgingTime(5L)
+                           .build();
+        assertSame(sw, port.getOwner());
+        assertEquals(1, sw.getPortCount());
+        assertEquals(0, sw.getMacTable().port(station.toLong(), Long.MAX_VALUE - 1));
+        assertEquals(5L, sw.getMacTable().getAgingTime());
+    }
+}
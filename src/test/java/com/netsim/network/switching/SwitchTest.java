@@ -0,0 +1,162 @@
+package com.netsim.network.switching;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.app.App;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Interface;
+import com.netsim.network.host.Host;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.simulation.Simulator;
+import com.netsim.table.ArpTable;
+import com.netsim.table.MacTable;
+import com.netsim.table.RoutingInfo;
+import com.netsim.table.RoutingTable;
+
+public class SwitchTest {
+    private Switch       sw;
+    private Host[]       hosts;
+    private List<List<byte[]>> received;
+
+    /** Records every payload delivered to its host. */
+    private static final class Recorder extends App {
+        private final List<byte[]> sink;
+
+        Recorder(List<byte[]> sink) {
+            super("recorder", "", cmd -> null, null);
+            this.sink = sink;
+        }
+
+        @Override public void start() {}
+        @Override public void send(ProtocolPipeline stack, byte[] data) {}
+        @Override public void receive(ProtocolPipeline stack, byte[] data) { this.sink.add(data); }
+    }
+
+    @Before
+    public void setUp() {
+        int n = 3;
+        hosts    = new Host[n];
+        received = new ArrayList<>();
+        SwitchBuilder builder = new SwitchBuilder().setName("sw1");
+        for (int i = 0; i < n; i++) {
+            CabledAdapter nic  = new CabledAdapter("h" + i, 1500, Mac.fromLong(0x0200_0000_0010L + i));
+            CabledAdapter port = new CabledAdapter("sw1-p" + i, 1500, Mac.fromLong(0x0200_0000_0f00L + i));
+            nic.setRemoteAdapter(port);
+            port.setRemoteAdapter(nic);
+            builder.addPort(port);
+
+            RoutingTable rt = new RoutingTable();
+            rt.add(new IPv4("10.0.0.0", 24), new RoutingInfo(nic, null));
+            hosts[i] = new Host("h" + i, rt, new ArpTable(),
+                                Collections.singletonList(new Interface(nic, ip(i))));
+            nic.setOwner(hosts[i]);
+            received.add(new ArrayList<>());
+            hosts[i].setApp(new Recorder(received.get(i)));
+        }
+        sw = builder.build();
+    }
+
+    private static IPv4 ip(int i) {
+        return new IPv4("10.0.0." + (i + 1), 24);
+    }
+
+    @Test
+    public void arpIsFloodedAndUnicastIsForwarded() {
+        hosts[0].send(ip(2), new ProtocolPipeline(), "hello".getBytes());
+
+        assertEquals(1, received.get(2).size());
+        assertArrayEquals("hello".getBytes(), received.get(2).get(0));
+        assertTrue("bystander sees no IP traffic", received.get(1).isEmpty());
+        // the ARP request floods, the reply and the data are forwarded
+        assertEquals(1, sw.getFlooded());
+        assertEquals(2, sw.getForwarded());
+        assertEquals(0, sw.getMacTable().port(hosts[0].getInterfaces().get(0).getAdapter()
+                                                  .getMacAddress().toLong(), System.nanoTime()));
+    }
+
+    @Test
+    public void secondPacketNeedsNoFlooding() {
+        hosts[0].send(ip(1), new ProtocolPipeline(), "a".getBytes());
+        long flooded = sw.getFlooded();
+        hosts[1].send(ip(0), new ProtocolPipeline(), "b".getBytes());
+        assertEquals(flooded, sw.getFlooded());
+        assertArrayEquals("b".getBytes(), received.get(0).get(0));
+    }
+
+    @Test
+    public void frameToIngressPortIsFiltered() {
+        Mac self = hosts[0].getInterfaces().get(0).getAdapter().getMacAddress();
+        sw.getMacTable().learn(self.toLong(), 0, System.nanoTime());
+        byte[] frame = new byte[40];
+        self.encode(frame, 0);
+        self.encode(frame, 6);
+        sw.receiveFrame(sw.getPort(0), new ProtocolPipeline(), frame);
+        assertEquals(1, sw.getFiltered());
+        assertEquals(0, sw.getForwarded() + sw.getFlooded());
+    }
+
+    @Test
+    public void uncabledPortsAreSkipped() {
+        CabledAdapter nic   = new CabledAdapter("n", 1500, Mac.fromLong(0x0200_0000_0020L));
+        CabledAdapter in    = new CabledAdapter("sw2-p0", 1500, Mac.fromLong(0x0200_0000_0f10L));
+        CabledAdapter loose = new CabledAdapter("sw2-p1", 1500, Mac.fromLong(0x0200_0000_0f11L));
+        nic.setRemoteAdapter(in);
+        in.setRemoteAdapter(nic);
+        Mac    behindLoose = Mac.fromLong(0x0200_0000_0030L);
+        Switch lone        = new SwitchBuilder().setName("sw2").addPort(in).addPort(loose)
+                                                .addStaticEntry(behindLoose, "sw2-p1").build();
+
+        byte[] frame = new byte[40];
+        Mac.broadcast().encode(frame, 0);
+        nic.getMacAddress().encode(frame, 6);
+        lone.receiveFrame(in, new ProtocolPipeline(), frame);
+        assertEquals(1, lone.getFlooded());
+
+        behindLoose.encode(frame, 0);
+        lone.receiveFrame(in, new ProtocolPipeline(), frame);
+        assertEquals(1, lone.getFiltered());
+        assertEquals(0, lone.getForwarded());
+    }
+
+    @Test
+    public void agedEntriesAreFloodedAgain() {
+        Simulator sim = new Simulator();
+        sw.getMacTable().setAgingTime(1_000L);
+        sw.setSimulator(sim);
+        for (Host h : hosts) {
+            h.setSimulator(sim);
+        }
+        hosts[0].send(ip(1), new ProtocolPipeline(), "a".getBytes());
+        sim.runUntil(10L);
+        assertEquals(1, received.get(1).size());
+        long flooded = sw.getFlooded();
+
+        // h1 is still in h0's neighbour cache, but the switch has forgotten it
+        sim.runUntil(2_000L);
+        hosts[0].send(ip(1), new ProtocolPipeline(), "b".getBytes());
+        sim.runUntil(2_010L);
+        assertEquals(2, received.get(1).size());
+        assertEquals(flooded + 1, sw.getFlooded());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void switchDoesNotOriginatePackets() {
+        sw.send(ip(0), new ProtocolPipeline(), new byte[] {1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void staticEntryOnForeignAdapterIsRejected() {
+        MacTable table = new MacTable();
+        table.add(Mac.fromLong(1L), new CabledAdapter("other", 1500, Mac.fromLong(2L)));
+        new Switch("sw2", table, List.of(new CabledAdapter("p", 1500, Mac.fromLong(3L))));
+    }
+}
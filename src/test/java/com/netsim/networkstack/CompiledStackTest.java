@@ -0,0 +1,95 @@
+package com.netsim.networkstack;
+
+import static org.junit.Assert.*;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.MSG.MSGProtocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.protocols.UDP.UDPProtocol;
+
+import org.junit.Test;
+
+public class CompiledStackTest {
+    private static ProtocolPipeline pipeline(boolean msg, int ihl, int mss, int mtu) {
+        ProtocolPipeline p = new ProtocolPipeline();
+        p.push(new SimpleDLLProtocol(new Mac("aa:bb:cc:00:00:01"), new Mac("aa:bb:cc:00:00:02")));
+        p.push(new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.1.1", 24),
+                                ihl, 7, 4242, 0, 64, IPv4Protocol.UDP, mtu));
+        p.push(new UDPProtocol(mss, new Port("4000"), MSGProtocol.port()));
+        if (msg) {
+            p.push(new MSGProtocol("alice"));
+        }
+        return p;
+    }
+
+    private static byte[] text(int length) {
+        byte[] b = new byte[length];
+        for (int i = 0; i < length; i++) {
+            b[i] = (byte) ('a' + i % 26);
+        }
+        return b;
+    }
+
+    @Test
+    public void matchesLayeredPipelineByteForByte() {
+        int[] sizes = { 1, 7, 100, 1000, 1472, 5000, 20000 };
+        int[][] plans = { { 5, 536, 576 }, { 5, 1460, 1500 }, { 5, 100, 1500 },
+                          { 6, 1000, 333 }, { 15, 3960, 4000 }, { 5, 2000, 1500 } };
+        for (boolean msg : new boolean[] { true, false }) {
+            for (int[] plan : plans) {
+                ProtocolPipeline p = pipeline(msg, plan[0], plan[1], plan[2]);
+                CompiledStack compiled = p.compile();
+                for (int size : sizes) {
+                    byte[] payload  = text(size);
+                    byte[] expected = p.encapsulate(payload);
+                    String where    = "msg=" + msg + " ihl=" + plan[0] + " mss=" + plan[1]
+                                      + " mtu=" + plan[2] + " size=" + size;
+                    assertArrayEquals(where, expected, compiled.encapsulate(payload));
+                    assertEquals(where, expected.length, compiled.length(size));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void encapsulatesIntoCallerArray() {
+        ProtocolPipeline p  = pipeline(true, 5, 536, 576);
+        CompiledStack    cs = p.compile();
+        byte[] payload  = text(3000);
+        byte[] expected = p.encapsulate(payload);
+        byte[] out      = new byte[expected.length + 10];
+
+        assertEquals(expected.length, cs.encapsulate(payload, out, 5));
+        byte[] written = new byte[expected.length];
+        System.arraycopy(out, 5, written, 0, written.length);
+        assertArrayEquals(expected, written);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void tooSmallOutputThrows() {
+        CompiledStack cs = pipeline(true, 5, 536, 576).compile();
+        cs.encapsulate(text(100), new byte[cs.length(100) - 1], 0);
+    }
+
+    @Test
+    public void layeredPipelineDecodesCompiledFrames() {
+        ProtocolPipeline p = pipeline(true, 5, 1000, 576);
+        byte[] payload = text(4000);
+        assertArrayEquals(payload, p.decapsulate(p.compile().encapsulate(payload)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedStackThrows() {
+        ProtocolPipeline p = new ProtocolPipeline();
+        p.push(new MSGProtocol("alice"));
+        p.compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPayloadThrows() {
+        pipeline(true, 5, 536, 576).compile().encapsulate(new byte[0]);
+    }
+}
@@ -0,0 +1,98 @@
+package com.netsim.networkstack;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PacketBufferTest {
+
+    @Test
+    public void copyOfReservesHeadroom() {
+        PacketBuffer buf = PacketBuffer.copyOf(new byte[] { 1, 2, 3 });
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM, buf.headroom());
+        assertEquals(3, buf.length());
+        assertEquals(0, buf.tailroom());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, buf.toByteArray());
+    }
+
+    @Test
+    public void prependWritesIntoHeadroomWithoutCopying() {
+        PacketBuffer buf   = PacketBuffer.copyOf(new byte[] { 9 }, 4, 0);
+        byte[]       array = buf.array();
+        buf.prepend(2);
+        buf.putShort(0, 0xABCD);
+        assertSame(array, buf.array());
+        assertEquals(2, buf.headroom());
+        assertArrayEquals(new byte[] { (byte) 0xAB, (byte) 0xCD, 9 }, buf.toByteArray());
+    }
+
+    @Test
+    public void prependGrowsWhenHeadroomIsExhausted() {
+        PacketBuffer buf = PacketBuffer.copyOf(new byte[] { 7, 8 }, 1, 0);
+        buf.prepend(3);
+        buf.put(0, new byte[] { 1, 2, 3 });
+        assertArrayEquals(new byte[] { 1, 2, 3, 7, 8 }, buf.toByteArray());
+        assertTrue(buf.headroom() >= PacketBuffer.DEFAULT_HEADROOM);
+    }
+
+    @Test
+    public void appendUsesTailroomThenGrows() {
+        PacketBuffer buf = PacketBuffer.allocate(0, 1, 1);
+        byte[]       array = buf.array();
+        assertEquals(1, buf.append(1));
+        assertSame(array, buf.array());
+        buf.append(4);
+        assertEquals(6, buf.length());
+        assertNotSame(array, buf.array());
+    }
+
+    @Test
+    public void trimTurnsBytesIntoRoom() {
+        PacketBuffer buf = PacketBuffer.wrap(new byte[] { 1, 2, 3, 4, 5 });
+        buf.trimFront(2);
+        buf.trimBack(1);
+        assertArrayEquals(new byte[] { 3, 4 }, buf.toByteArray());
+        assertEquals(2, buf.headroom());
+        assertEquals(1, buf.tailroom());
+    }
+
+    @Test
+    public void accessorsAreBigEndianAndRelative() {
+        PacketBuffer buf = PacketBuffer.allocate(3, 8, 0);
+        buf.putInt(0, 0x01020304);
+        buf.putShort(4, 0xFFEE);
+        buf.putByte(6, 0x80);
+        assertEquals(0x01020304, buf.getInt(0));
+        assertEquals(0xFFEE, buf.getUnsignedShort(4));
+        assertEquals(0x80, buf.getUnsignedByte(6));
+        assertEquals(1, buf.array()[buf.offset()]);
+    }
+
+    @Test
+    public void sliceSharesTheArray() {
+        PacketBuffer buf   = PacketBuffer.wrap(new byte[] { 1, 2, 3, 4 });
+        PacketBuffer slice = buf.slice(1, 3);
+        assertSame(buf.array(), slice.array());
+        assertArrayEquals(new byte[] { 2, 3 }, slice.toByteArray());
+        assertEquals(1, slice.headroom());
+        assertEquals(1, slice.tailroom());
+    }
+
+    @Test
+    public void regionMatchesComparesWithoutCopy() {
+        PacketBuffer buf = PacketBuffer.wrap(new byte[] { 'a', ':', ' ', 'x' });
+        assertTrue(buf.regionMatches(0, new byte[] { 'a', ':', ' ' }));
+        assertFalse(buf.regionMatches(1, new byte[] { 'a' }));
+        assertFalse(buf.regionMatches(3, new byte[] { 'x', 'y' }));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void accessBeyondValidBytesFails() {
+        PacketBuffer.allocate(4, 2, 4).getInt(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void trimMoreThanLengthFails() {
+        PacketBuffer.wrap(new byte[2]).trimFront(3);
+    }
+}
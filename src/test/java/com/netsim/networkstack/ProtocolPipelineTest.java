@@ -2,6 +2,16 @@ package com.netsim.networkstack;
 
 import static org.junit.Assert.*;
 
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.MSG.MSGProtocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.protocols.UDP.UDPProtocol;
+
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -90,7 +100,7 @@ public class ProtocolPipelineTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void encapsulateNullThrows() {
-        pipeline.encapsulate(null);
+        pipeline.encapsulate((byte[]) null);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -100,7 +110,7 @@ public class ProtocolPipelineTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void decapsulateNullThrows() {
-        pipeline.decapsulate(null);
+        pipeline.decapsulate((byte[]) null);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -140,4 +150,43 @@ public class ProtocolPipelineTest {
         pipeline.pop();
         assertEquals(1, pipeline.size());
     }
-}
\ No newline at end of file
+
+    /** MSG → UDP → IPv4 → SimpleDLL, pushed innermost last */
+    private static ProtocolPipeline fullStack(int mtu) {
+        ProtocolPipeline p = new ProtocolPipeline();
+        p.push(new SimpleDLLProtocol(new Mac("aa:bb:cc:00:00:01"), new Mac("aa:bb:cc:00:00:02")));
+        p.push(new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.0.2", 24), 5, 0, 7, 0, 64, 17, mtu));
+        p.push(new UDPProtocol(mtu - 40, new Port("4000"), new Port("9696")));
+        p.push(new MSGProtocol("alice"));
+        return p;
+    }
+
+    private static byte[] text(int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) sb.append((char) ('a' + i % 26));
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void bufferEncapsulationWritesPayloadOnceAndMatchesArrays() {
+        ProtocolPipeline stack   = fullStack(1500);
+        byte[]           payload = text(1000);
+        PacketBuffer     buf     = PacketBuffer.copyOf(payload);
+        byte[]           array   = buf.array();
+
+        PacketBuffer frame = stack.encapsulate(buf);
+        assertSame(array, frame.array());
+        assertArrayEquals(stack.encapsulate(payload), frame.toByteArray());
+        assertArrayEquals(payload, stack.decapsulate(frame).toByteArray());
+        assertSame(array, frame.array());
+    }
+
+    @Test
+    public void bufferEncapsulationMatchesArraysWhenFragmenting() {
+        ProtocolPipeline stack   = fullStack(576);
+        byte[]           payload = text(3000);
+        PacketBuffer     frames  = stack.encapsulate(PacketBuffer.copyOf(payload));
+        assertArrayEquals(stack.encapsulate(payload), frames.toByteArray());
+        assertArrayEquals(payload, stack.decapsulate(frames).toByteArray());
+    }
+}
@@ -0,0 +1,66 @@
+package com.netsim.protocols.ARP;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+
+public class ARPPacketTest {
+    private final Mac  sender   = new Mac("aa:bb:cc:00:00:01");
+    private final Mac  target   = new Mac("aa:bb:cc:00:00:02");
+    private final int  senderIp = new IPv4("10.0.0.1", 32).toInt();
+    private final int  targetIp = new IPv4("10.0.0.2", 32).toInt();
+
+    @Test
+    public void requestRoundTrips() {
+        byte[]    bytes  = ARPPacket.request(sender, senderIp, targetIp).toByte();
+        assertEquals(ARPPacket.LENGTH, bytes.length);
+        ARPPacket parsed = ARPPacket.fromBytes(bytes, 0);
+        assertTrue(parsed.isRequest());
+        assertEquals(sender, parsed.getSenderMac());
+        assertEquals(senderIp, parsed.getSenderIp());
+        assertEquals(0L, parsed.getTargetMac().toLong());
+        assertEquals(targetIp, parsed.getTargetIp());
+    }
+
+    @Test
+    public void replySwapsRoles() {
+        ARPPacket request = ARPPacket.request(sender, senderIp, targetIp);
+        ARPPacket reply   = ARPPacket.fromBytes(ARPPacket.replyTo(request, target).toByte(), 0);
+        assertEquals(ARPPacket.REPLY, reply.getOperation());
+        assertEquals(target, reply.getSenderMac());
+        assertEquals(targetIp, reply.getSenderIp());
+        assertEquals(sender, reply.getTargetMac());
+        assertEquals(senderIp, reply.getTargetIp());
+    }
+
+    @Test
+    public void ipv4PacketIsNotArp() {
+        IPv4Protocol ip = new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.0.2", 24),
+                                           5, 0, 0, 0, 64, 0, 1500);
+        assertFalse(ARPPacket.isArp(ip.encapsulate(new byte[40]), 0));
+    }
+
+    @Test
+    public void simpleDllFramesArp() {
+        SimpleDLLProtocol dll    = new SimpleDLLProtocol(sender, Mac.broadcast());
+        byte[]            packet = ARPPacket.request(sender, senderIp, targetIp).toByte();
+        byte[]            frame  = dll.encapsulate(packet);
+        assertEquals(12 + ARPPacket.LENGTH, frame.length);
+        assertArrayEquals(packet, dll.decapsulate(frame));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromBytesRejectsTruncatedPacket() {
+        ARPPacket.fromBytes(new byte[ARPPacket.LENGTH - 1], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownOperation() {
+        new ARPPacket(3, sender, senderIp, target, targetIp);
+    }
+}
@@ -1,9 +1,13 @@
 
 package com.netsim.protocols.IPv4;
 
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.addresses.IPv4;
+import com.netsim.utils.Logger;
+import java.lang.management.ManagementFactory;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import static org.junit.Assume.*;
 
 public class IPv4ProtocolTest {
 
@@ -54,4 +58,97 @@ public class IPv4ProtocolTest {
         assertEquals("192.168.0.1", extractedSrc.stringRepresentation());
         assertEquals("10.0.0.1", extractedDst.stringRepresentation());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void extractReadsTheHeaderNotTheConfiguration() {
+        IPv4Protocol sender   = new IPv4Protocol(new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24),
+                                                 5, 0, 1, 0, 64, IPv4Protocol.UDP, 100);
+        IPv4Protocol receiver = new IPv4Protocol(new IPv4("1.1.1.1", 32), new IPv4("2.2.2.2", 32),
+                                                 5, 0, 0, 0, 64, 0, 100);
+        byte[] wire = sender.encapsulate(new byte[10]);
+
+        assertEquals("192.168.0.1", receiver.extractSource(wire).stringRepresentation());
+        assertEquals("10.0.0.1", receiver.extractDestination(wire).stringRepresentation());
+        assertEquals(IPv4Protocol.UDP, IPv4Protocol.protocolOf(wire, 0));
+    }
+
+    private static byte[] payload(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) data[i] = (byte) (i * 7);
+        return data;
+    }
+
+    @Test
+    public void bufferEncapsulationMatchesArrayForOnePacket() {
+        IPv4Protocol protocol = new IPv4Protocol(new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24),
+                                                 6, 3, 1234, 0, 64, 17, 100);
+        byte[]       data     = payload(72);
+        PacketBuffer buf      = PacketBuffer.copyOf(data);
+        byte[]       array    = buf.array();
+
+        PacketBuffer packet = protocol.encapsulate(buf);
+        assertSame(array, packet.array());
+        assertArrayEquals(protocol.encapsulate(data), packet.toByteArray());
+        assertArrayEquals(data, protocol.decapsulate(packet).toByteArray());
+    }
+
+    @Test
+    public void bufferEncapsulationMatchesArrayForFragments() {
+        IPv4Protocol protocol = new IPv4Protocol(new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24),
+                                                 5, 0, 1234, 0, 64, 17, 100);
+        byte[]       data     = payload(250);
+        PacketBuffer packets  = protocol.encapsulate(PacketBuffer.copyOf(data));
+        assertArrayEquals(protocol.encapsulate(data), packets.toByteArray());
+        assertArrayEquals(data, protocol.decapsulate(packets).toByteArray());
+    }
+
+    @Test
+    public void testEncapsulateIntoArrayMatchesEncapsulate() {
+        IPv4 src = new IPv4("192.168.0.1", 24);
+        IPv4 dst = new IPv4("10.0.0.1", 24);
+        IPv4Protocol protocol = new IPv4Protocol(src, dst, 5, 0, 1234, 0, 64, 17, 100);
+        byte[] payload = new byte[250];
+        for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+
+        byte[] expected = new IPv4Protocol(src, dst, 5, 0, 77, 0, 64, 17, 100).encapsulate(payload);
+        assertEquals(expected.length, protocol.encapsulatedLength(payload.length));
+        byte[] out = new byte[expected.length + 3];
+        assertEquals(expected.length, protocol.encapsulate(payload, 77, out, 3));
+        assertArrayEquals(expected, java.util.Arrays.copyOfRange(out, 3, out.length));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testEncapsulateIntoArrayTooSmall() {
+        IPv4Protocol protocol = new IPv4Protocol(new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24),
+                                                 5, 0, 0, 0, 64, 17, 100);
+        protocol.encapsulate(new byte[50], 1, new byte[69], 0);
+    }
+
+    @Test
+    public void decapsulateAllocatesOnlyThePayloadWithLoggingOff() {
+        assumeFalse(Logger.getInstance(IPv4Protocol.class).isInfoEnabled());
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        IPv4Protocol protocol = new IPv4Protocol(new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24),
+                                                 5, 0, 1, 0, 64, 17, 1500);
+        // long enough that its length would be boxed into a fresh Integer
+        byte[] wire  = protocol.encapsulate(new byte[200]);
+        int    calls = 2_000;
+        // no warm-up: while decapsulate runs interpreted there is no escape
+        // analysis, so a boxed argument or a capturing Supplier shows up here
+        long id    = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < calls; i++) {
+            if (protocol.decapsulate(wire).length != 200) {
+                throw new AssertionError("decapsulate failed");
+            }
+        }
+        long bytes = threads.getThreadAllocatedBytes(id) - start;
+        // the 200-byte payload array takes 216 bytes; the probe itself a few dozen
+        assertTrue("allocated " + bytes + " bytes over " + calls + " calls", bytes < calls * 216L + 4_096);
+    }
+}
@@ -0,0 +1,124 @@
+package com.netsim.protocols.IPv4;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+
+public class IPv4ReassemblerTest {
+    private static final IPv4 SRC = new IPv4("10.0.0.1", 24);
+    private static final IPv4 DST = new IPv4("10.0.0.2", 24);
+
+    private static byte[] payload(int length, long seed) {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    /** Splits the output of IPv4Protocol.encapsulate into single fragments. */
+    private static List<byte[]> fragments(IPv4 src, int id, byte[] data, int mtu) {
+        byte[]       packets = new IPv4Protocol(src, DST, 5, 0, id, 0, 64, 0, mtu).encapsulate(data);
+        List<byte[]> out     = new ArrayList<>();
+        for (int at = 0; at < packets.length; ) {
+            int length = ((packets[at + 2] & 0xFF) << 8) | (packets[at + 3] & 0xFF);
+            byte[] one = new byte[length];
+            System.arraycopy(packets, at, one, 0, length);
+            out.add(one);
+            at += length;
+        }
+        return out;
+    }
+
+    @Test
+    public void unfragmentedPacketBypassesTable() {
+        IPv4Reassembler r    = new IPv4Reassembler();
+        byte[]          data = payload(100, 1);
+        assertArrayEquals(data, r.accept(fragments(SRC, 1, data, 1500).get(0), 0, 0));
+        assertTrue(r.isEmpty());
+    }
+
+    @Test
+    public void fragmentsInAnyOrderReassemble() {
+        byte[]       data  = payload(5000, 2);
+        List<byte[]> frags = fragments(SRC, 7, data, 576);
+        Collections.shuffle(frags, new Random(3));
+        IPv4Reassembler r = new IPv4Reassembler();
+        byte[] result = null;
+        for (int i = 0; i < frags.size(); i++) {
+            result = r.accept(frags.get(i), 0, i);
+            assertEquals(i == frags.size() - 1, result != null);
+        }
+        assertArrayEquals(data, result);
+        assertTrue(r.isEmpty());
+        assertEquals(0, r.getBuffered());
+    }
+
+    @Test
+    public void duplicatesAreHarmless() {
+        byte[]       data  = payload(3000, 4);
+        List<byte[]> frags = fragments(SRC, 7, data, 1500);
+        IPv4Reassembler r = new IPv4Reassembler();
+        assertNull(r.accept(frags.get(0), 0, 0));
+        assertNull(r.accept(frags.get(0), 0, 0));
+        assertNull(r.accept(frags.get(2), 0, 0));
+        assertArrayEquals(data, r.accept(frags.get(1), 0, 0));
+    }
+
+    @Test
+    public void interleavedDatagramsStaySeparate() {
+        byte[]       a  = payload(3000, 5);
+        byte[]       b  = payload(3000, 6);
+        byte[]       c  = payload(3000, 7);
+        List<byte[]> fa = fragments(SRC, 1, a, 1500);
+        List<byte[]> fb = fragments(SRC, 2, b, 1500);
+        List<byte[]> fc = fragments(new IPv4("10.0.0.9", 24), 1, c, 1500);
+        IPv4Reassembler r = new IPv4Reassembler();
+        for (int i = 0; i < fa.size() - 1; i++) {
+            assertNull(r.accept(fa.get(i), 0, 0));
+            assertNull(r.accept(fb.get(i), 0, 0));
+            assertNull(r.accept(fc.get(i), 0, 0));
+        }
+        assertEquals(3, r.pending());
+        assertArrayEquals(b, r.accept(fb.get(fb.size() - 1), 0, 0));
+        assertArrayEquals(c, r.accept(fc.get(fc.size() - 1), 0, 0));
+        assertArrayEquals(a, r.accept(fa.get(fa.size() - 1), 0, 0));
+    }
+
+    @Test
+    public void incompleteDatagramTimesOut() {
+        List<byte[]>    frags = fragments(SRC, 1, payload(3000, 8), 1500);
+        IPv4Reassembler r     = new IPv4Reassembler(100L, 1 << 20);
+        assertNull(r.accept(frags.get(0), 0, 0));
+        assertEquals(0, r.expire(99));
+        assertEquals(1, r.expire(100));
+        assertEquals(1, r.getTimedOut());
+        assertEquals(0, r.getBuffered());
+        // the rest of the datagram now starts a fresh, still incomplete one
+        assertNull(r.accept(frags.get(1), 0, 101));
+        assertNull(r.accept(frags.get(2), 0, 101));
+    }
+
+    @Test
+    public void memoryLimitEvictsOldestDatagram() {
+        List<byte[]>    first  = fragments(SRC, 1, payload(3000, 9), 1500);
+        List<byte[]>    second = fragments(SRC, 2, payload(3000, 10), 1500);
+        IPv4Reassembler r      = new IPv4Reassembler(1_000L, 4000);
+        assertNull(r.accept(first.get(2), 0, 0));    // last fragment: buffer sized to 3000
+        assertNull(r.accept(second.get(2), 0, 1));   // needs 3000 more: first goes
+        assertEquals(1, r.pending());
+        assertEquals(1, r.getEvicted());
+        assertTrue(r.getBuffered() <= 4000);
+        assertNull(r.accept(first.get(0), 0, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedFragmentIsRejected() {
+        new IPv4Reassembler().accept(new byte[] {0x45, 0, 0, 40}, 0, 0);
+    }
+}
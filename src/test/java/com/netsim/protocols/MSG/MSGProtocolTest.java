@@ -1,5 +1,6 @@
 package com.netsim.protocols.MSG;
 
+import com.netsim.networkstack.PacketBuffer;
 import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
@@ -32,7 +33,7 @@ public class MSGProtocolTest {
     @Test(expected = IllegalArgumentException.class)
     public void testEncapsulateRejectsNullPayload() {
         MSGProtocol protocol = new MSGProtocol("Bob");
-        protocol.encapsulate(null);
+        protocol.encapsulate((byte[]) null);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -44,7 +45,7 @@ public class MSGProtocolTest {
     @Test(expected = IllegalArgumentException.class)
     public void testDecapsulateRejectsNullPayload() {
         MSGProtocol protocol = new MSGProtocol("Dan");
-        protocol.decapsulate(null);
+        protocol.decapsulate((byte[]) null);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -85,4 +86,35 @@ public class MSGProtocolTest {
         assertNotSame("Copy should not be same object", original, copy);
         assertEquals("Copy should be equal in content", original, copy);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void bufferEncapsulationMatchesArrayAndIsInPlace() {
+        MSGProtocol  protocol = new MSGProtocol("Alice");
+        byte[]       payload  = "Hello, world!".getBytes(StandardCharsets.UTF_8);
+        PacketBuffer buf      = PacketBuffer.copyOf(payload);
+        byte[]       array    = buf.array();
+
+        PacketBuffer framed = protocol.encapsulate(buf);
+        assertSame(array, framed.array());
+        assertArrayEquals(protocol.encapsulate(payload), framed.toByteArray());
+        assertArrayEquals(payload, protocol.decapsulate(framed).toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferDecapsulationRejectsWrongPrefix() {
+        new MSGProtocol("Alice").decapsulate(PacketBuffer.copyOf("Bob: hi".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void parseReadsNameFromBytes() {
+        byte[] wire = new MSGProtocol("alice").encapsulate("hi: there".getBytes(StandardCharsets.UTF_8));
+        MSGHeader header = MSGProtocol.parse(wire);
+        assertEquals("alice", header.getNameString());
+        assertEquals("hi: there", header.getMessageString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRejectsMissingPrefix() {
+        MSGProtocol.parse("no prefix".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,6 @@
 package com.netsim.protocols.SimpleDLL;
 
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.addresses.Mac;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,7 +39,7 @@ public class SimpleDLLProtocolTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testEncapsulateRejectsNull() {
-        protocol.encapsulate(null);
+        protocol.encapsulate((byte[]) null);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -63,7 +64,7 @@ public class SimpleDLLProtocolTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testDecapsulateRejectsNull() {
-        protocol.decapsulate(null);
+        protocol.decapsulate((byte[]) null);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -93,4 +94,28 @@ public class SimpleDLLProtocolTest {
         assertEquals(protocol.getSource(), copy.getSource());
         assertEquals(protocol.getDestination(), copy.getDestination());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void bufferEncapsulationMatchesArrayForOnePacket() {
+        byte[]       ip    = sampleIPv4Packet();
+        PacketBuffer buf   = PacketBuffer.copyOf(ip);
+        byte[]       array = buf.array();
+
+        PacketBuffer frame = protocol.encapsulate(buf);
+        assertSame(array, frame.array());
+        assertArrayEquals(protocol.encapsulate(ip), frame.toByteArray());
+        assertArrayEquals(ip, protocol.decapsulate(frame).toByteArray());
+    }
+
+    @Test
+    public void bufferEncapsulationMatchesArrayForConcatenatedPackets() {
+        byte[] ip  = sampleIPv4Packet();
+        byte[] two = new byte[ip.length * 2];
+        System.arraycopy(ip, 0, two, 0, ip.length);
+        System.arraycopy(ip, 0, two, ip.length, ip.length);
+
+        PacketBuffer frames = protocol.encapsulate(PacketBuffer.copyOf(two));
+        assertArrayEquals(protocol.encapsulate(two), frames.toByteArray());
+        assertArrayEquals(two, protocol.decapsulate(frames).toByteArray());
+    }
+}
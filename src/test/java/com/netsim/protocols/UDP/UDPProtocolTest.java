@@ -1,5 +1,6 @@
 package com.netsim.protocols.UDP;
 
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.addresses.Port;
 import org.junit.Before;
 import org.junit.Test;
@@ -42,7 +43,7 @@ public class UDPProtocolTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void encapsulateRejectsNullPayload() {
-        udp.encapsulate(null);
+        udp.encapsulate((byte[]) null);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -60,7 +61,7 @@ public class UDPProtocolTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void decapsulateRejectsNull() {
-        udp.decapsulate(null);
+        udp.decapsulate((byte[]) null);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -101,4 +102,25 @@ public class UDPProtocolTest {
         assertEquals("Destination should match", udp.getDestination(), copy.getDestination());
         assertEquals("MSS should match", udp.getMSS(), copy.getMSS());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void bufferEncapsulationMatchesArrayForOneSegment() {
+        byte[]       payload = samplePayload(10);
+        PacketBuffer buf     = PacketBuffer.copyOf(payload);
+        byte[]       array   = buf.array();
+
+        PacketBuffer segment = udp.encapsulate(buf);
+        assertSame(array, segment.array());
+        assertArrayEquals(udp.encapsulate(payload), segment.toByteArray());
+        assertArrayEquals(payload, udp.decapsulate(segment).toByteArray());
+    }
+
+    @Test
+    public void bufferEncapsulationMatchesArrayForManySegments() {
+        byte[]       payload  = samplePayload(35);
+        PacketBuffer segments = udp.encapsulate(PacketBuffer.copyOf(payload));
+        assertArrayEquals(udp.encapsulate(payload), segments.toByteArray());
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM, segments.headroom());
+        assertArrayEquals(payload, udp.decapsulate(segments).toByteArray());
+    }
+}
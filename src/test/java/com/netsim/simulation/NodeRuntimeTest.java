@@ -0,0 +1,246 @@
+package com.netsim.simulation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.app.App;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.DropReason;
+import com.netsim.network.Interface;
+import com.netsim.network.host.Host;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.table.ArpTable;
+import com.netsim.table.RoutingInfo;
+import com.netsim.table.RoutingTable;
+
+public class NodeRuntimeTest {
+    private static final Map<Host, Recorder> APPS = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /** Records every payload and the thread it arrived on; start() sends a burst to a peer. */
+    private static final class Recorder extends App {
+        final List<byte[]> payloads = Collections.synchronizedList(new ArrayList<>());
+        final List<String> threads  = Collections.synchronizedList(new ArrayList<>());
+        Host host;
+        IPv4 peer;
+        int  burst;
+
+        Recorder() {
+            super("recorder", "", cmd -> null, null);
+        }
+
+        @Override
+        public void start() {
+            for (int i = 0; i < this.burst; i++) {
+                this.host.send(this.peer, new ProtocolPipeline(), new byte[] { (byte) i });
+            }
+        }
+
+        @Override
+        public void send(ProtocolPipeline stack, byte[] data) {}
+
+        @Override
+        public void receive(ProtocolPipeline stack, byte[] data) {
+            this.payloads.add(data);
+            this.threads.add(Thread.currentThread().getName());
+        }
+    }
+
+    private static Host host(String name, CabledAdapter a, String ip, String subnet) {
+        RoutingTable rt = new RoutingTable();
+        rt.add(new IPv4(subnet, 24), new RoutingInfo(a, null));
+        Host h = new Host(name, rt, new ArpTable(), Collections.singletonList(new Interface(a, new IPv4(ip, 24))));
+        a.setOwner(h);
+        Recorder app = new Recorder();
+        app.host = h;
+        h.setApp(app);
+        APPS.put(h, app);
+        return h;
+    }
+
+    /** Two hosts on their own /24, the first at .1 and the second at .2. */
+    private static Host[] pair(int n) {
+        String        subnet = "10." + (n / 256) + "." + (n % 256) + ".";
+        CabledAdapter a1     = new CabledAdapter("p" + n + "a", 1500, Mac.fromLong(0x020000000000L + 2L * n));
+        CabledAdapter a2     = new CabledAdapter("p" + n + "b", 1500, Mac.fromLong(0x020000000001L + 2L * n));
+        a1.setRemoteAdapter(a2);
+        a2.setRemoteAdapter(a1);
+        return new Host[] { host("a" + n, a1, subnet + "1", subnet + "0"),
+                            host("b" + n, a2, subnet + "2", subnet + "0") };
+    }
+
+    private static Recorder app(Host h) {
+        return APPS.get(h);
+    }
+
+    @Test
+    public void receiverRunsOnItsOwnLoop() throws InterruptedException {
+        Host[] hosts = pair(0);
+        try (NodeRuntime runtime = new NodeRuntime(List.of(hosts[0], hosts[1]))) {
+            runtime.start();
+            hosts[0].send(new IPv4("10.0.0.2", 24), new ProtocolPipeline(), "hi".getBytes());
+            assertTrue(runtime.awaitIdle(10, TimeUnit.SECONDS));
+
+            assertEquals(1, app(hosts[1]).payloads.size());
+            assertArrayEquals("hi".getBytes(), app(hosts[1]).payloads.get(0));
+            assertEquals(List.of("netsim-node-b0"), app(hosts[1]).threads);
+            assertTrue(runtime.getMailbox(hosts[1]).getProcessed() >= 2);  // ARP request and data
+        }
+    }
+
+    @Test
+    public void lostArpReplyIsRetransmitted() throws InterruptedException {
+        Host[]         hosts = pair(0);
+        CabledAdapter  a     = (CabledAdapter) hosts[0].getInterfaces().get(0).getAdapter();
+        CountDownLatch hold  = new CountDownLatch(1);
+        try (NodeRuntime runtime = new NodeRuntime(List.of(hosts[0], hosts[1]))) {
+            runtime.start();
+            // b sits on the request until a is down, so a drops the reply
+            runtime.getMailbox(hosts[1]).post(() -> {
+                try {
+                    hold.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            hosts[0].send(new IPv4("10.0.0.2", 24), new ProtocolPipeline(), "hi".getBytes());
+            while (a.getStats().getTxPackets() == 0) {
+                Thread.sleep(1);
+            }
+            a.setDown();
+            hold.countDown();
+            while (a.getStats().getDrops(DropReason.ADAPTER_DOWN) == 0) {
+                Thread.sleep(1);
+            }
+            a.setUp();
+            assertEquals(0, app(hosts[1]).payloads.size());
+
+            assertTrue(runtime.awaitIdle(10, TimeUnit.SECONDS));
+            assertEquals(1, app(hosts[1]).payloads.size());
+            assertArrayEquals("hi".getBytes(), app(hosts[1]).payloads.get(0));
+            assertEquals(3, a.getStats().getTxPackets());  // two requests, then the data
+            assertEquals(0, hosts[0].getStats().getDrops(DropReason.UNRESOLVED));
+        }
+    }
+
+    @Test
+    public void manyHostsExchangeConcurrently() throws InterruptedException {
+        int           pairs = 64;
+        int           burst = 25;
+        List<Host>    nodes = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            Host[] p = pair(i);
+            app(p[0]).peer  = new IPv4("10." + (i / 256) + "." + (i % 256) + ".2", 24);
+            app(p[0]).burst = burst;
+            nodes.add(p[0]);
+            nodes.add(p[1]);
+        }
+        try (NodeRuntime runtime = new NodeRuntime(nodes)) {
+            runtime.start();
+            // resolve every pair first: a burst would overflow the neighbour queue
+            for (int i = 0; i < nodes.size(); i += 2) {
+                nodes.get(i).send(app(nodes.get(i)).peer, new ProtocolPipeline(), new byte[] { -1 });
+            }
+            assertTrue(runtime.awaitIdle(10, TimeUnit.SECONDS));
+            List<Thread> apps = new ArrayList<>();
+            for (int i = 0; i < nodes.size(); i += 2) {
+                apps.add(runtime.runApp(nodes.get(i)));
+            }
+            for (Thread t : apps) {
+                t.join(10_000L);
+            }
+            assertTrue(runtime.awaitIdle(30, TimeUnit.SECONDS));
+            for (int i = 1; i < nodes.size(); i += 2) {
+                assertEquals(nodes.get(i).getName(), burst + 1, app(nodes.get(i)).payloads.size());
+            }
+        }
+    }
+
+    @Test
+    public void closeDetachesMailboxes() {
+        Host[] hosts = pair(0);
+        NodeRuntime runtime = new NodeRuntime(List.of(hosts[0], hosts[1]));
+        runtime.start();
+        runtime.close();
+        assertNull(hosts[0].getMailbox());
+        // back to synchronous delivery on the caller's thread
+        hosts[0].send(new IPv4("10.0.0.2", 24), new ProtocolPipeline(), "hi".getBytes());
+        assertEquals(List.of(Thread.currentThread().getName()), app(hosts[1]).threads);
+    }
+
+    @Test
+    public void postsRacingCloseLeaveNothingInFlight() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            AtomicLong   inFlight = new AtomicLong();
+            Mailbox      inbox    = new Mailbox("m", inFlight);
+            Thread       loop     = new Thread(inbox::run);
+            List<Thread> posters  = new ArrayList<>();
+            loop.start();
+            for (int i = 0; i < 4; i++) {
+                Thread t = new Thread(() -> {
+                    while (inbox.post(() -> {})) {
+                        Thread.onSpinWait();
+                    }
+                });
+                posters.add(t);
+                t.start();
+            }
+            Thread.sleep(1);
+            inbox.close();
+            for (Thread t : posters) {
+                t.join(10_000L);
+            }
+            loop.join(10_000L);
+            assertEquals("round " + round, 0, inFlight.get());
+        }
+    }
+
+    @Test
+    public void closeWithoutLoopDropsQueuedTasks() {
+        AtomicLong inFlight = new AtomicLong();
+        Mailbox    inbox    = new Mailbox("m", inFlight);
+        assertTrue(inbox.post(() -> {}));
+        inbox.close();
+        assertFalse(inbox.post(() -> {}));
+        assertEquals(0, inFlight.get());
+        assertEquals(0, inbox.pending());
+    }
+
+    @Test
+    public void closeCancelsTimers() {
+        AtomicLong inFlight = new AtomicLong();
+        Mailbox    inbox    = new Mailbox("m", inFlight);
+        assertTrue(inbox.schedule(TimeUnit.HOURS.toNanos(1), () -> {}));
+        assertTrue(inbox.scheduleDaemon(TimeUnit.HOURS.toNanos(1), () -> {}));
+        assertEquals(1, inFlight.get());  // only the busy timer holds the mailbox
+        assertEquals(2, inbox.pendingTimers());
+        inbox.close();
+        assertEquals(0, inFlight.get());
+        assertEquals(0, inbox.pendingTimers());
+        assertFalse(inbox.schedule(0L, () -> {}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNodesOnASimulator() {
+        Host[] hosts = pair(0);
+        hosts[0].setSimulator(new Simulator());
+        new NodeRuntime(List.of(hosts[0], hosts[1]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDuplicateNodes() {
+        Host[] hosts = pair(0);
+        new NodeRuntime(List.of(hosts[0], hosts[0]));
+    }
+}
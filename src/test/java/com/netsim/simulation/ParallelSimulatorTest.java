@@ -0,0 +1,252 @@
+package com.netsim.simulation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Interface;
+import com.netsim.network.NetworkAdapter;
+import com.netsim.network.NetworkNode;
+import com.netsim.network.Node;
+import com.netsim.network.switching.Switch;
+import com.netsim.network.switching.SwitchBuilder;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.table.ArpTable;
+import com.netsim.table.RoutingTable;
+
+public class ParallelSimulatorTest {
+    private static final int NODES = 48;
+
+    /** Forwards every packet out of a random interface until its hop budget is spent. */
+    private static final class Relay extends NetworkNode {
+        private final List<String> trace = new ArrayList<>();
+
+        Relay(String name) {
+            super(name, new RoutingTable(), new ArpTable(), new ArrayList<>());
+        }
+
+        void inject(int packets) {
+            for (int i = 0; i < packets; i++) {
+                byte[] payload = new byte[16 + this.getRandom().nextInt(200)];
+                this.getRandom().nextBytes(payload);
+                payload[0] = 12;  // hop budget
+                IPv4Protocol ip = new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.0.2", 24),
+                                                   5, 0, 0, 0, 64, 0, 1500);
+                this.forward(ip.encapsulate(payload));
+            }
+        }
+
+        private void forward(byte[] packet) {
+            NetworkAdapter out = this.interfaces.get(this.getRandom().nextInt(this.interfaces.size())).getAdapter();
+            // broadcast, so that a frame sent into a switch reaches every relay behind it
+            this.simulator.schedule(0L, EventType.TRANSMIT, this.context,
+                                    () -> out.send(new ProtocolPipeline(), packet, Mac.broadcast()));
+        }
+
+        @Override
+        public void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) {}
+
+        @Override
+        public void receive(ProtocolPipeline protocols, byte[] data) {
+            this.trace.add(this.simulator.now() + ":" + Arrays.hashCode(data));
+            if (data[20] > 0) {
+                byte[] next = data.clone();
+                next[20]--;
+                this.forward(next);
+            }
+        }
+    }
+
+    private static int macs;
+
+    private static void link(Relay a, Relay b, long delay) {
+        CabledAdapter x = new CabledAdapter("eth" + a.getInterfaces().size(), 1500, nextMac());
+        CabledAdapter y = new CabledAdapter("eth" + b.getInterfaces().size(), 1500, nextMac());
+        x.setOwner(a);
+        y.setOwner(b);
+        x.setRemoteAdapter(y);
+        y.setRemoteAdapter(x);
+        x.setLink(10_000_000L, delay, 4);
+        y.setLink(10_000_000L, delay, 4);
+        a.getInterfaces().add(new Interface(x, new IPv4("10.0.0.1", 24)));
+        b.getInterfaces().add(new Interface(y, new IPv4("10.0.0.2", 24)));
+    }
+
+    /** Links a relay to a new switch port, returned for the switch to own. */
+    private static CabledAdapter port(Relay a, long delay) {
+        CabledAdapter x = new CabledAdapter("eth" + a.getInterfaces().size(), 1500, nextMac());
+        CabledAdapter y = new CabledAdapter("sw-p" + macs, 1500, nextMac());
+        x.setOwner(a);
+        x.setRemoteAdapter(y);
+        y.setRemoteAdapter(x);
+        x.setLink(10_000_000L, delay, 4);
+        y.setLink(10_000_000L, delay, 4);
+        a.getInterfaces().add(new Interface(x, new IPv4("10.0.0.1", 24)));
+        return y;
+    }
+
+    private static Mac nextMac() {
+        int i = macs++;
+        return new Mac(String.format("02:00:00:%02x:%02x:%02x", (i >> 16) & 0xff, (i >> 8) & 0xff, i & 0xff));
+    }
+
+    /** Ring with chords, link delays between 1 and 1.4 microseconds. */
+    private static List<Relay> topology(long zeroDelayLink) {
+        List<Relay> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new Relay("r" + i));
+        }
+        for (int i = 0; i < NODES; i++) {
+            link(nodes.get(i), nodes.get((i + 1) % NODES), i == zeroDelayLink ? 0L : 1_000L + (i % 5) * 100L);
+            if (i % 3 == 0) {
+                link(nodes.get(i), nodes.get((i * 7 + 11) % NODES), 1_200L);
+            }
+        }
+        return nodes;
+    }
+
+    /** A ring of relays, every fifth one also plugged into one switch, listed last. */
+    private static List<Node> switchedTopology() {
+        List<Node>    nodes   = new ArrayList<>();
+        SwitchBuilder builder = new SwitchBuilder().setName("sw");
+        int           relays  = NODES / 2;
+        for (int i = 0; i < relays; i++) {
+            nodes.add(new Relay("r" + i));
+        }
+        for (int i = 0; i < relays; i++) {
+            link((Relay) nodes.get(i), (Relay) nodes.get((i + 1) % relays), 1_000L + (i % 5) * 100L);
+            if (i % 5 == 0) {
+                builder.addPort(port((Relay) nodes.get(i), 1_100L));
+            }
+        }
+        nodes.add(builder.build());
+        return nodes;
+    }
+
+    private static List<Relay> relays(List<Node> nodes) {
+        List<Relay> relays = new ArrayList<>();
+        for (Node n : nodes) {
+            if (n instanceof Relay) {
+                relays.add((Relay) n);
+            }
+        }
+        return relays;
+    }
+
+    private static void inject(List<Relay> nodes) {
+        for (Relay r : nodes) {
+            r.inject(3);
+        }
+    }
+
+    private static List<List<String>> traces(List<Relay> nodes) {
+        List<List<String>> all = new ArrayList<>();
+        for (Relay r : nodes) {
+            all.add(r.trace);
+        }
+        return all;
+    }
+
+    private static List<List<String>> sequentialRun(long seed) {
+        List<Relay> nodes = topology(-1);
+        Simulator   sim   = new Simulator(seed);
+        for (Relay r : nodes) {
+            r.setSimulator(sim);
+        }
+        inject(nodes);
+        sim.run();
+        return traces(nodes);
+    }
+
+    @Test
+    public void parallelRunMatchesSequentialRun() {
+        List<List<String>> expected = sequentialRun(42L);
+        long delivered = expected.stream().mapToLong(List::size).sum();
+        assertTrue(delivered > NODES);
+
+        for (int partitions : new int[] { 2, 4, 7 }) {
+            List<Relay>       nodes    = topology(-1);
+            ParallelSimulator parallel = new ParallelSimulator(nodes, partitions, 42L);
+            inject(nodes);
+            parallel.run();
+            assertEquals("partitions=" + partitions, expected, traces(nodes));
+            assertTrue(parallel.getRounds() > 1);
+        }
+    }
+
+    @Test
+    public void switchTakesPartInPartitioningAndLookahead() {
+        List<Node> sequential = switchedTopology();
+        Simulator  sim        = new Simulator(7L);
+        for (Relay r : relays(sequential)) {
+            r.setSimulator(sim);
+        }
+        ((Switch) sequential.get(sequential.size() - 1)).setSimulator(sim, sim.register());
+        inject(relays(sequential));
+        sim.run();
+        List<List<String>> expected = traces(relays(sequential));
+
+        for (int partitions : new int[] { 2, 3 }) {
+            List<Node>        nodes    = switchedTopology();
+            int               last     = nodes.size() - 1;
+            Switch            sw       = (Switch) nodes.get(last);
+            ParallelSimulator parallel = new ParallelSimulator(nodes, partitions, 7L);
+            for (int p = 0; p < sw.getPortCount(); p++) {
+                assertSame(parallel.getSimulator(parallel.getPartition(last)), sw.getPort(p).getSimulator());
+            }
+            assertTrue(parallel.getLookahead() >= 1_000L);
+            assertTrue(parallel.getLookahead() <= 1_400L);
+            inject(relays(nodes));
+            parallel.run();
+            assertEquals("partitions=" + partitions, expected, traces(relays(nodes)));
+            assertTrue(sw.getFlooded() > 0);
+        }
+    }
+
+    @Test
+    public void differentSeedsGiveDifferentRuns() {
+        assertNotEquals(sequentialRun(1L), sequentialRun(2L));
+    }
+
+    @Test
+    public void lookaheadIsShortestCutLinkDelay() {
+        List<Relay>       nodes    = topology(-1);
+        ParallelSimulator parallel = new ParallelSimulator(nodes, 4, 0L);
+        assertEquals(4, parallel.getPartitions());
+        assertTrue(parallel.getLookahead() >= 1_000L);
+        assertTrue(parallel.getLookahead() <= 1_400L);
+        int[] sizes = new int[4];
+        for (int i = 0; i < NODES; i++) {
+            sizes[parallel.getPartition(i)]++;
+        }
+        for (int size : sizes) {
+            assertEquals(NODES / 4, size);
+        }
+    }
+
+    @Test
+    public void singlePartitionHasNoLookaheadLimit() {
+        ParallelSimulator parallel = new ParallelSimulator(topology(0), 1, 0L);
+        assertEquals(Long.MAX_VALUE, parallel.getLookahead());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroDelayLinkBetweenPartitionsIsRejected() {
+        List<Relay> nodes = topology(-1);
+        int[]       parts = ParallelSimulator.partition(nodes, 2);
+        // find a ring link that crosses the cut and rebuild with it at zero delay
+        for (int i = 0; i < NODES; i++) {
+            if (parts[i] != parts[(i + 1) % NODES]) {
+                new ParallelSimulator(topology(i), 2, 0L);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.netsim.simulation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Node;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+
+public class SimulatorTest {
+    private Simulator sim;
+
+    @Before
+    public void setUp() {
+        sim = new Simulator();
+    }
+
+    @Test
+    public void eventsFireInTimeThenSchedulingOrder() {
+        List<String> fired = new ArrayList<>();
+        sim.schedule(20, EventType.TIMER, () -> fired.add("c"));
+        sim.schedule(10, EventType.TIMER, () -> fired.add("a"));
+        sim.schedule(10, EventType.TIMER, () -> fired.add("b"));
+        assertEquals(3, sim.run());
+        assertEquals(List.of("a", "b", "c"), fired);
+        assertEquals(20, sim.now());
+    }
+
+    @Test
+    public void eventsScheduledWhileRunningSeeTheCurrentTime() {
+        List<Long> times = new ArrayList<>();
+        sim.schedule(5, EventType.TIMER,
+                     () -> sim.schedule(7, EventType.TIMER, () -> times.add(sim.now())));
+        sim.run();
+        assertEquals(List.of(12L), times);
+    }
+
+    @Test
+    public void cancelledEventsAreSkipped() {
+        List<String> fired = new ArrayList<>();
+        Event e = sim.schedule(1, EventType.TIMER, () -> fired.add("x"));
+        sim.cancel(e);
+        assertTrue(e.isCancelled());
+        assertEquals(0, sim.run());
+        assertTrue(fired.isEmpty());
+    }
+
+    @Test
+    public void runUntilStopsAtTheHorizon() {
+        List<String> fired = new ArrayList<>();
+        sim.schedule(10, EventType.TIMER, () -> fired.add("a"));
+        sim.schedule(30, EventType.TIMER, () -> fired.add("b"));
+        assertEquals(1, sim.runUntil(20));
+        assertEquals(20, sim.now());
+        assertEquals(1, sim.pending());
+        sim.run();
+        assertEquals(List.of("a", "b"), fired);
+    }
+
+    @Test
+    public void failingActionDoesNotStopTheLoop() {
+        List<String> fired = new ArrayList<>();
+        sim.schedule(1, EventType.TIMER, () -> { throw new RuntimeException("boom"); });
+        sim.schedule(2, EventType.TIMER, () -> fired.add("after"));
+        assertEquals(2, sim.run());
+        assertEquals(List.of("after"), fired);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeDelayIsRejected() {
+        sim.schedule(-1, EventType.TIMER, () -> {});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void schedulingInThePastIsRejected() {
+        sim.runUntil(100);
+        sim.scheduleAt(50, EventType.TIMER, () -> {});
+    }
+
+    /** Forwards every frame received on one adapter out of the other. */
+    private static final class Relay implements Node {
+        private final String        name;
+        private       CabledAdapter out;
+        private       int           depth = -1;
+
+        Relay(String name) { this.name = name; }
+        public void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) {}
+        public void receive(ProtocolPipeline protocols, byte[] data) {
+            if (this.out == null) {
+                this.depth = Thread.currentThread().getStackTrace().length;
+            } else {
+                this.out.send(protocols, data);
+            }
+        }
+        public String getName() { return this.name; }
+    }
+
+    private int deliveryDepth(int hops) {
+        CabledAdapter first = null;
+        CabledAdapter prev  = null;
+        Relay         last  = null;
+        for (int i = 0; i <= hops; i++) {
+            Relay node = new Relay("n" + i);
+            CabledAdapter in  = new CabledAdapter("in" + i, 1500, new Mac(macFor(2 * i)));
+            CabledAdapter out = new CabledAdapter("out" + i, 1500, new Mac(macFor(2 * i + 1)));
+            in.setOwner(node);
+            out.setOwner(node);
+            in.setSimulator(sim);
+            out.setSimulator(sim);
+            if (prev != null) {
+                prev.setRemoteAdapter(in);
+                in.setRemoteAdapter(prev);
+            } else {
+                first = out;
+            }
+            if (i > 0) {
+                node.out = i < hops ? out : null;
+            }
+            prev = out;
+            last = node;
+        }
+        IPv4Protocol ip = new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.0.2", 24),
+                                           5, 0, 0, 0, 64, 0, 1500);
+        first.send(new ProtocolPipeline(), ip.encapsulate(new byte[] { 1, 2, 3 }));
+        long events = sim.run();
+        assertEquals(hops, events);
+        return last.depth;
+    }
+
+    private static String macFor(int i) {
+        return String.format("02:00:00:00:%02x:%02x", (i >> 8) & 0xff, i & 0xff);
+    }
+
+    @Test
+    public void stackDepthDoesNotGrowWithPathLength() {
+        int shortPath = deliveryDepth(2);
+        sim = new Simulator();
+        int longPath  = deliveryDepth(100);
+        assertTrue(shortPath > 0);
+        assertEquals(shortPath, longPath);
+    }
+}
@@ -0,0 +1,60 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+
+public class ConcurrentArpTableTest {
+    private ConcurrentArpTable table;
+    private IPv4               ip;
+    private Mac                mac;
+
+    @Before
+    public void setUp() {
+        table = new ConcurrentArpTable();
+        ip    = new IPv4("10.0.0.2", 24);
+        mac   = new Mac("aa:bb:cc:00:00:02");
+    }
+
+    @Test
+    public void addLookupFindAndRemove() {
+        assertTrue(table.isEmpty());
+        table.add(ip, mac);
+        assertSame(mac, table.lookup(ip));
+        assertSame(mac, table.find(ip.toInt()));
+        table.remove(ip);
+        assertNull(table.find(ip.toInt()));
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    public void gatewayGoesThroughSnapshot() {
+        table.setGateway(mac);
+        assertSame(mac, table.gateway());
+    }
+
+    @Test
+    public void batchIsAppliedAtomically() {
+        Mac other = new Mac("aa:bb:cc:00:00:03");
+        table.add(ip, mac);
+        try {
+            table.update(b -> b.add(new IPv4("10.0.0.3", 24), other).remove(new IPv4("10.0.0.9", 24)));
+            fail("remove of a missing entry should throw");
+        } catch (NullPointerException expected) {
+        }
+        assertNull(table.find(new IPv4("10.0.0.3", 24).toInt()));
+
+        table.update(b -> b.remove(ip).add(new IPv4("10.0.0.3", 24), other));
+        assertNull(table.find(ip.toInt()));
+        assertSame(other, table.find(new IPv4("10.0.0.3", 24).toInt()));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void lookupMissThrows() {
+        table.lookup(ip);
+    }
+}
@@ -0,0 +1,124 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+
+public class ConcurrentRoutingTableTest {
+    private ConcurrentRoutingTable table;
+    private RoutingInfo            viaA;
+    private RoutingInfo            viaB;
+
+    @Before
+    public void setUp() {
+        table = new ConcurrentRoutingTable();
+        viaA  = new RoutingInfo(new CabledAdapter("eth0", 1500, new Mac("aa:bb:cc:00:00:01")), null);
+        viaB  = new RoutingInfo(new CabledAdapter("eth1", 1500, new Mac("aa:bb:cc:00:00:02")), null);
+    }
+
+    @Test
+    public void behavesLikeRoutingTable() {
+        table.add(new IPv4("10.0.0.0", 8), viaA);
+        table.add(new IPv4("10.1.0.0", 16), viaB);
+        assertSame(viaB, table.lookup(new IPv4("10.1.2.3", 32)));
+        assertSame(viaA, table.lookup(new IPv4("10.2.2.3", 32)));
+        assertEquals(2, table.size());
+
+        table.remove(new IPv4("10.1.0.0", 16));
+        assertSame(viaA, table.lookup(new IPv4("10.1.2.3", 32)));
+        table.clear();
+        assertTrue(table.isEmpty());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void duplicateRouteIsRejected() {
+        table.add(new IPv4("10.0.0.7", 24), viaA);
+        table.add(new IPv4("10.0.0.0", 24), viaB);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void missThrows() {
+        table.lookup(new IPv4("192.168.0.1", 32));
+    }
+
+    @Test
+    public void engineBuildsOneFibPerSnapshot() {
+        AtomicInteger          built   = new AtomicInteger();
+        ConcurrentRoutingTable counted = new ConcurrentRoutingTable(() -> {
+            built.incrementAndGet();
+            return new PatriciaFib<>();
+        });
+        assertEquals(1, built.get());
+        counted.update(b -> b.add(new IPv4("10.0.0.0", 8), viaA).add(new IPv4("10.1.0.0", 16), viaB));
+        assertEquals(2, built.get());
+        assertSame(viaB, counted.lookup(new IPv4("10.1.2.3", 32)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void engineYieldingFilledFibsIsRejected() {
+        new ConcurrentRoutingTable(() -> {
+            Fib<RoutingInfo> fib = new PatriciaFib<>();
+            fib.put(0, 0, viaA);
+            return fib;
+        });
+    }
+
+    @Test
+    public void failedBatchPublishesNothing() {
+        table.add(new IPv4("10.0.0.0", 8), viaA);
+        try {
+            table.update(b -> b.setDefault(viaB).remove(new IPv4("172.16.0.0", 12)));
+            fail("remove of a missing route should throw");
+        } catch (NullPointerException expected) {
+            // the default route of the aborted batch must not be visible
+        }
+        assertEquals(1, table.size());
+        try {
+            table.lookup(new IPv4("8.8.8.8", 32));
+            fail("default route leaked from an aborted batch");
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    @Test
+    public void readersNeverSeeHalfABatch() throws InterruptedException {
+        IPv4 a = new IPv4("10.0.0.1", 32);
+        IPv4 b = new IPv4("20.0.0.1", 32);
+        table.update(batch -> batch.add(new IPv4("10.0.0.0", 8), viaA)
+                                   .add(new IPv4("20.0.0.0", 8), viaA));
+
+        AtomicBoolean           stop  = new AtomicBoolean();
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!stop.get()) {
+                try {
+                    table.lookup(a);
+                    table.lookup(b);
+                } catch (NullPointerException e) {
+                    // each batch clears and re-adds: a miss means a half-built snapshot leaked
+                    error.set(e.getMessage());
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2_000; i++) {
+            RoutingInfo next = (i & 1) == 0 ? viaB : viaA;
+            table.update(batch -> batch.clear()
+                                       .add(new IPv4("10.0.0.0", 8), next)
+                                       .add(new IPv4("20.0.0.0", 8), next));
+        }
+        stop.set(true);
+        reader.join();
+        assertNull(error.get());
+        assertSame(viaA, table.lookup(a));
+    }
+}
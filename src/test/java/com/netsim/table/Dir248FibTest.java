@@ -0,0 +1,28 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class Dir248FibTest extends FibTest {
+    @Override
+    protected Fib<String> newFib() {
+        return new Dir248Fib<>();
+    }
+
+    @Test
+    public void secondLevelChunksAreReusedAfterFolding() {
+        Dir248Fib<String> fib = new Dir248Fib<>();
+        int net = 0x0A000000;
+        fib.put(net, 16, "cover");
+        for (int i = 0; i < 64; i++) {
+            int host = net | (i << 8) | 0x80;
+            fib.put(host, 25, "long" + i);
+            assertEquals("long" + i, fib.lookup(host | 1));
+            assertEquals("cover", fib.lookup(host & ~0x80));
+            fib.remove(host, 25);
+            assertEquals("cover", fib.lookup(host | 1));
+        }
+        assertEquals(1, fib.size());
+    }
+}
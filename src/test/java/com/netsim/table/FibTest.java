@@ -0,0 +1,138 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Contract tests shared by every {@link Fib} engine.
+ */
+public abstract class FibTest {
+    private Fib<String> fib;
+
+    protected abstract Fib<String> newFib();
+
+    @Before
+    public void setUp() {
+        fib = newFib();
+    }
+
+    private static int ip(int a, int b, int c, int d) {
+        return (a << 24) | (b << 16) | (c << 8) | d;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putRejectsNullValue() {
+        fib.put(0, 0, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putRejectsLengthAbove32() {
+        fib.put(0, 33, "x");
+    }
+
+    @Test
+    public void emptyFibMatchesNothing() {
+        assertNull(fib.lookup(ip(10, 0, 0, 1)));
+        assertEquals(0, fib.size());
+    }
+
+    @Test
+    public void longestPrefixWins() {
+        fib.put(0, 0, "default");
+        fib.put(ip(10, 0, 0, 0), 8, "10/8");
+        fib.put(ip(10, 1, 0, 0), 16, "10.1/16");
+        fib.put(ip(10, 1, 2, 0), 24, "10.1.2/24");
+        fib.put(ip(10, 1, 2, 128), 25, "10.1.2.128/25");
+        fib.put(ip(10, 1, 2, 200), 32, "host");
+
+        assertEquals("default", fib.lookup(ip(11, 0, 0, 1)));
+        assertEquals("10/8", fib.lookup(ip(10, 2, 0, 1)));
+        assertEquals("10.1/16", fib.lookup(ip(10, 1, 3, 1)));
+        assertEquals("10.1.2/24", fib.lookup(ip(10, 1, 2, 1)));
+        assertEquals("10.1.2.128/25", fib.lookup(ip(10, 1, 2, 129)));
+        assertEquals("host", fib.lookup(ip(10, 1, 2, 200)));
+        assertEquals(6, fib.size());
+    }
+
+    @Test
+    public void hostBitsOfTheNetworkAreIgnored() {
+        assertNull(fib.put(ip(192, 168, 1, 77), 24, "a"));
+        assertEquals("a", fib.put(ip(192, 168, 1, 0), 24, "b"));
+        assertEquals("b", fib.get(ip(192, 168, 1, 5), 24));
+        assertEquals(1, fib.size());
+    }
+
+    @Test
+    public void removeFallsBackToCoveringPrefix() {
+        fib.put(ip(10, 0, 0, 0), 8, "short");
+        fib.put(ip(10, 1, 2, 0), 24, "mid");
+        fib.put(ip(10, 1, 2, 4), 30, "long");
+
+        assertEquals("long", fib.remove(ip(10, 1, 2, 4), 30));
+        assertEquals("mid", fib.lookup(ip(10, 1, 2, 5)));
+        assertEquals("mid", fib.remove(ip(10, 1, 2, 0), 24));
+        assertEquals("short", fib.lookup(ip(10, 1, 2, 5)));
+        assertNull(fib.remove(ip(10, 1, 2, 0), 24));
+        assertEquals(1, fib.size());
+    }
+
+    @Test
+    public void shorterInsertDoesNotShadowLongerRoutes() {
+        fib.put(ip(172, 16, 5, 0), 24, "long");
+        fib.put(ip(172, 16, 0, 0), 12, "short");
+        assertEquals("long", fib.lookup(ip(172, 16, 5, 9)));
+        assertEquals("short", fib.lookup(ip(172, 17, 5, 9)));
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        fib.put(0, 0, "d");
+        fib.put(ip(1, 2, 3, 4), 32, "h");
+        fib.clear();
+        assertEquals(0, fib.size());
+        assertNull(fib.lookup(ip(1, 2, 3, 4)));
+    }
+
+    @Test
+    public void randomisedAgainstLinearScan() {
+        Random               rnd    = new Random(42);
+        Map<Long, String>    routes = new HashMap<>();
+        int[]                lens   = new int[] { 8, 12, 16, 20, 22, 24, 24, 24, 26, 28, 32 };
+        for (int round = 0; round < 3000; round++) {
+            // addresses in 10.0.0.0/14 so that prefixes overlap
+            int  len  = lens[rnd.nextInt(lens.length)];
+            int  net  = (ip(10, 0, 0, 0) | rnd.nextInt(1 << 18)) & Fib.netmask(len);
+            long key  = ((long) len << 32) | (net & 0xFFFFFFFFL);
+            if (rnd.nextInt(4) == 0 && routes.containsKey(key)) {
+                assertEquals(routes.remove(key), fib.remove(net, len));
+            } else {
+                String v = "r" + round;
+                assertEquals(routes.put(key, v), fib.put(net, len, v));
+            }
+            assertEquals(routes.size(), fib.size());
+
+            int addr = ip(10, 0, 0, 0) | rnd.nextInt(1 << 18);
+            assertEquals(linearLookup(routes, addr), fib.lookup(addr));
+        }
+    }
+
+    private static String linearLookup(Map<Long, String> routes, int addr) {
+        String best    = null;
+        int    bestLen = -1;
+        for (Map.Entry<Long, String> e : routes.entrySet()) {
+            int len = (int) (e.getKey() >>> 32);
+            int net = (int) (long) e.getKey();
+            if ((addr & Fib.netmask(len)) == net && len > bestLen) {
+                best    = e.getValue();
+                bestLen = len;
+            }
+        }
+        return best;
+    }
+}
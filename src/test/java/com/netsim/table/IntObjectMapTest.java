@@ -0,0 +1,81 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntObjectMapTest {
+
+    @Test
+    public void putGetAndUpdate() {
+        IntObjectMap<String> map = new IntObjectMap<>(4);
+        assertNull(map.put(0x0A00_0001, "a"));
+        assertEquals("a", map.put(0x0A00_0001, "b"));
+        assertEquals("b", map.get(0x0A00_0001));
+        assertNull(map.get(0x0A00_0002));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void zeroAndNegativeAddressesAreValidKeys() {
+        IntObjectMap<String> map = new IntObjectMap<>(4);
+        map.put(0, "default");
+        map.put(0xFFFF_FFFF, "broadcast");
+        assertEquals("default", map.get(0));
+        assertEquals("broadcast", map.get(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullValueThrows() {
+        new IntObjectMap<String>(4).put(1, null);
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        IntObjectMap<String> map = new IntObjectMap<>(4);
+        map.put(1, "a");
+        IntObjectMap<String> copy = map.copy();
+        copy.put(2, "b");
+        copy.remove(1);
+        assertEquals("a", map.get(1));
+        assertNull(map.get(2));
+        assertEquals(1, copy.size());
+    }
+
+    @Test
+    public void removeIfDropsSelectedEntries() {
+        IntObjectMap<Integer> map = new IntObjectMap<>(0);
+        for (int ip = 0; ip < 100; ip++) {
+            map.put(ip, ip % 3);
+        }
+        assertEquals(34, map.removeIf((ip, v) -> v == 0));
+        for (int ip = 0; ip < 100; ip++) {
+            assertEquals(ip % 3 == 0 ? null : Integer.valueOf(ip % 3), map.get(ip));
+        }
+        assertEquals(66, map.size());
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomUpdates() {
+        IntObjectMap<Integer>  map   = new IntObjectMap<>(0);
+        Map<Integer, Integer>  model = new HashMap<>();
+        Random                 rnd   = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            int ip = 0x0A00_0000 | rnd.nextInt(5_000) << 8;   // clustered keys
+            if (rnd.nextInt(4) == 0) {
+                assertEquals(model.remove(ip), map.remove(ip));
+            } else {
+                assertEquals(model.put(ip, i), map.put(ip, i));
+            }
+        }
+        assertEquals(model.size(), map.size());
+        for (Map.Entry<Integer, Integer> e : model.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+        assertTrue(map.capacity() >= 2 * map.size());
+    }
+}
@@ -0,0 +1,74 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MacPortMapTest {
+
+    @Test
+    public void putGetAndUpdate() {
+        MacPortMap map = new MacPortMap(4);
+        assertEquals(-1, map.put(0x0200_0000_0001L, 3, 10L));
+        assertEquals(3, map.put(0x0200_0000_0001L, 5, 20L));
+        assertEquals(5, map.get(0x0200_0000_0001L));
+        assertEquals(-1, map.get(0x0200_0000_0002L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void zeroMacIsAValidKey() {
+        MacPortMap map = new MacPortMap(4);
+        map.put(0L, 7, 0L);
+        assertEquals(7, map.get(0L));
+    }
+
+    @Test
+    public void cutoffHidesOldEntries() {
+        MacPortMap map = new MacPortMap(4);
+        map.put(1L, 2, 100L);
+        assertEquals(2, map.get(1L, 100L));
+        assertEquals(-1, map.get(1L, 101L));
+        assertEquals(1, map.removeOlderThan(101L));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void removePortDropsOnlyThatPort() {
+        MacPortMap map = new MacPortMap(4);
+        for (long mac = 0; mac < 100; mac++) {
+            map.put(mac, (int) (mac % 3), 0L);
+        }
+        assertEquals(34, map.removePort(0));
+        for (long mac = 0; mac < 100; mac++) {
+            assertEquals(mac % 3 == 0 ? -1 : (int) (mac % 3), map.get(mac));
+        }
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomUpdates() {
+        MacPortMap       map   = new MacPortMap(0);
+        Map<Long, Integer> model = new HashMap<>();
+        Random           rnd   = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long mac = rnd.nextInt(5_000) * 0x0101_0101L;   // clustered keys
+            if (rnd.nextInt(4) == 0) {
+                Integer expected = model.remove(mac);
+                assertEquals(expected == null ? -1 : expected, map.remove(mac));
+            } else {
+                int port = rnd.nextInt(48);
+                Integer expected = model.put(mac, port);
+                assertEquals(expected == null ? -1 : expected, map.put(mac, port, i));
+            }
+        }
+        assertEquals(model.size(), map.size());
+        for (Map.Entry<Long, Integer> e : model.entrySet()) {
+            assertEquals((int) e.getValue(), map.get(e.getKey()));
+        }
+        assertTrue(map.capacity() >= 2 * map.size());
+    }
+}
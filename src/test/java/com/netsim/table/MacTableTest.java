@@ -90,4 +90,36 @@ public class MacTableTest {
         // mac2 should still be present
         assertSame("mac2 should still map to adapter2", adapter2, macTable.lookup(mac2));
     }
-}
\ No newline at end of file
+
+    // —— Tests for learning and aging —— //
+
+    @Test
+    public void learntEntriesAgeOut() {
+        MacTable table = new MacTable(100L);
+        int port = table.addPort(adapter2);
+        assertEquals(-1, table.learn(mac1.toLong(), port, 0L));
+        assertEquals(port, table.port(mac1.toLong(), 99L));
+        assertEquals(-1, table.port(mac1.toLong(), 101L));
+        assertEquals(1, table.expire(101L));
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    public void staticEntriesNeverAge() {
+        MacTable table = new MacTable(100L);
+        table.add(mac1, adapter1);
+        assertEquals(0, table.expire(Long.MAX_VALUE - 1));
+        assertEquals(table.portIndex(adapter1), table.port(mac1.toLong(), 1_000_000L));
+    }
+
+    @Test
+    public void portsKeepTheirIndex() {
+        assertEquals(0, macTable.addPort(adapter1));
+        assertEquals(1, macTable.addPort(adapter2));
+        assertEquals(0, macTable.addPort(adapter1));
+        assertSame(adapter2, macTable.getPort(1));
+        macTable.learn(mac2.toLong(), 1, 0L);
+        assertSame(adapter2, macTable.lookup(mac2));
+        assertEquals(1, macTable.flushPort(1));
+    }
+}
@@ -0,0 +1,135 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.Mac;
+
+public class NeighbourCacheTest {
+    private static final int IP = 0x0A000001;
+
+    private NeighbourCache cache;
+    private Mac            mac;
+    private List<Mac>      sent;
+
+    @Before
+    public void setUp() {
+        cache = new NeighbourCache(100L, 200L, 2);
+        mac   = new Mac("aa:bb:cc:00:11:22");
+        sent  = new ArrayList<>();
+    }
+
+    private Consumer<Mac> send() {
+        return m -> sent.add(m);
+    }
+
+    @Test
+    public void unknownNeighbourHasNoState() {
+        assertNull(cache.lookup(IP));
+        assertNull(cache.state(IP, 0L));
+    }
+
+    @Test
+    public void firstEnqueueStartsResolutionAndLaterOnesWait() {
+        assertEquals(NeighbourCache.Enqueued.STARTED, cache.enqueue(IP, send(), 0L));
+        assertEquals(NeighbourCache.Enqueued.QUEUED, cache.enqueue(IP, send(), 1L));
+        assertEquals(NeighbourCache.State.INCOMPLETE, cache.state(IP, 1L));
+        assertNull(cache.lookup(IP));
+    }
+
+    @Test
+    public void confirmReleasesQueuedSendsInOrder() {
+        Consumer<Mac> first  = m -> sent.add(null);
+        Consumer<Mac> second = send();
+        cache.enqueue(IP, first, 0L);
+        cache.enqueue(IP, second, 0L);
+        List<Consumer<Mac>> released = cache.confirm(IP, mac, 5L, false);
+        assertEquals(List.of(first, second), released);
+        assertEquals(mac, cache.lookup(IP));
+        assertEquals(NeighbourCache.State.REACHABLE, cache.state(IP, 5L));
+    }
+
+    @Test
+    public void queueOverflowDropsNewSends() {
+        cache.enqueue(IP, send(), 0L);
+        cache.enqueue(IP, send(), 0L);
+        assertEquals(NeighbourCache.Enqueued.DROPPED, cache.enqueue(IP, send(), 0L));
+        assertEquals(1, cache.getDropped());
+        assertEquals(2, cache.confirm(IP, mac, 0L, true).size());
+    }
+
+    @Test
+    public void confirmWithoutCreateOnlyRefreshes() {
+        assertTrue(cache.confirm(IP, mac, 0L, false).isEmpty());
+        assertNull(cache.state(IP, 0L));
+        cache.confirm(IP, mac, 0L, true);
+        assertEquals(mac, cache.lookup(IP));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void enqueueOnResolvedNeighbourIsRejected() {
+        cache.confirm(IP, mac, 0L, true);
+        cache.enqueue(IP, send(), 0L);
+    }
+
+    @Test
+    public void entriesGoStaleAndAgeOut() {
+        cache.confirm(IP, mac, 0L, true);
+        assertEquals(NeighbourCache.State.REACHABLE, cache.state(IP, 99L));
+        assertEquals(NeighbourCache.State.STALE, cache.state(IP, 100L));
+        assertEquals(mac, cache.lookup(IP));
+        assertEquals(0, cache.expire(299L));
+        assertEquals(1, cache.expire(300L));
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void staleNeighbourIsProbedOnce() {
+        cache.confirm(IP, mac, 0L, true);
+        assertFalse(cache.startProbe(IP, 50L));
+        assertTrue(cache.startProbe(IP, 150L));
+        assertFalse(cache.startProbe(IP, 151L));
+        cache.confirm(IP, mac, 160L, false);
+        assertEquals(NeighbourCache.State.REACHABLE, cache.state(IP, 161L));
+        assertTrue(cache.startProbe(IP, 260L));
+    }
+
+    @Test
+    public void failDropsIncompleteEntry() {
+        cache.enqueue(IP, send(), 0L);
+        cache.enqueue(IP, send(), 0L);
+        assertEquals(2, cache.fail(IP));
+        assertNull(cache.state(IP, 0L));
+        assertEquals(2, cache.getDropped());
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void failLeavesResolvedEntry() {
+        cache.confirm(IP, mac, 0L, true);
+        assertEquals(0, cache.fail(IP));
+        assertEquals(mac, cache.lookup(IP));
+    }
+
+    @Test
+    public void incompleteEntryExpiresAfterReachableTime() {
+        cache.enqueue(IP, send(), 0L);
+        cache.enqueue(IP, send(), 0L);
+        int[] discarded = new int[1];
+        assertEquals(0, cache.expire(99L, n -> discarded[0] += n));
+        assertEquals(1, cache.expire(100L, n -> discarded[0] += n));
+        assertEquals(2, discarded[0]);
+        assertEquals(2, cache.getDropped());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveReachableTime() {
+        new NeighbourCache(0L, 0L, 0);
+    }
+}
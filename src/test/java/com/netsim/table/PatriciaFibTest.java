@@ -0,0 +1,8 @@
+package com.netsim.table;
+
+public class PatriciaFibTest extends FibTest {
+    @Override
+    protected Fib<String> newFib() {
+        return new PatriciaFib<>();
+    }
+}
@@ -138,4 +138,40 @@ public class RoutingTableTest {
             fail("Expected NullPointerException after clear");
         } catch (NullPointerException ignored) {}
     }
-}
\ No newline at end of file
+
+    // —— Tests for longest-prefix matching and FIB engines —— //
+
+    @Test
+    public void lookupPrefersLongestPrefix() {
+        routingTable.setDefault(info2);
+        routingTable.add(new IPv4("192.168.0.0", 16), info2);
+        routingTable.add(dest1, info1);
+        assertSame(info1, routingTable.lookup(new IPv4("192.168.1.77", 32)));
+        assertSame(info2, routingTable.lookup(new IPv4("192.168.9.1", 32)));
+        assertSame(info2, routingTable.lookup(new IPv4("8.8.8.8", 32)));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void addSameSubnetWithHostBitsThrows() {
+        routingTable.add(dest1, info1);
+        routingTable.add(new IPv4("192.168.1.9", 24), info2);
+    }
+
+    @Test
+    public void dir248EngineBehavesLikeDefault() {
+        RoutingTable table = new RoutingTable(new Dir248Fib<>());
+        table.add(dest1, info1);
+        table.add(new IPv4("192.168.1.128", 25), info2);
+        assertSame(info1, table.lookup(new IPv4("192.168.1.1", 32)));
+        assertSame(info2, table.lookup(new IPv4("192.168.1.200", 32)));
+        table.remove(new IPv4("192.168.1.128", 25));
+        assertSame(info1, table.lookup(new IPv4("192.168.1.200", 32)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsNonEmptyFib() {
+        Fib<RoutingInfo> fib = new PatriciaFib<>();
+        fib.put(0, 0, info1);
+        new RoutingTable(fib);
+    }
+}
@@ -0,0 +1,104 @@
+package com.netsim.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncLogWriterTest {
+    private Path file;
+    private AsyncLogWriter writer;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("netsim-async", ".log");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        Files.deleteIfExists(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsZeroCapacity() {
+        new AsyncLogWriter(file, 0, 1, OverflowPolicy.BLOCK);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRejectsUnknownPolicy() {
+        OverflowPolicy.parse("sometimes");
+    }
+
+    @Test
+    public void parseAcceptsDashedLowerCase() {
+        assertEquals(OverflowPolicy.COUNT_AND_DROP, OverflowPolicy.parse("count-and-drop"));
+    }
+
+    @Test
+    public void flushMakesAllRecordsVisibleInOrder() throws IOException {
+        writer = new AsyncLogWriter(file, 16, 4, OverflowPolicy.BLOCK);
+        writer.start();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(writer.append("record " + i));
+        }
+        writer.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(100, lines.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("record " + i, lines.get(i));
+        }
+        assertEquals(0L, writer.getDropped());
+    }
+
+    @Test
+    public void dropPolicyDiscardsWhenRingIsFull() throws IOException {
+        writer = new AsyncLogWriter(file, 4, 4, OverflowPolicy.DROP);
+        // writer thread not started yet: the ring fills up
+        for (int i = 0; i < 10; i++) {
+            writer.append("r" + i);
+        }
+        assertEquals(6L, writer.getDropped());
+
+        writer.start();
+        writer.flush();
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(4, lines.size());
+        assertEquals("r0", lines.get(0));
+    }
+
+    @Test
+    public void countAndDropReportsLostRecords() throws IOException {
+        writer = new AsyncLogWriter(file, 2, 8, OverflowPolicy.COUNT_AND_DROP);
+        for (int i = 0; i < 5; i++) {
+            writer.append("r" + i);
+        }
+        writer.start();
+        writer.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).contains("dropped 3 records"));
+    }
+
+    @Test
+    public void closeDrainsPendingRecords() throws IOException {
+        writer = new AsyncLogWriter(file, 64, 8, OverflowPolicy.BLOCK);
+        writer.start();
+        for (int i = 0; i < 50; i++) {
+            writer.append("x" + i);
+        }
+        writer.close();
+        writer = null;
+        assertEquals(50, Files.readAllLines(file).size());
+    }
+}
@@ -0,0 +1,132 @@
+package com.netsim.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryTraceSinkTest {
+    private Path dir;
+    private BinaryTraceSink sink;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("netsim-trace");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (sink != null) {
+            sink.close();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private String decode(boolean timestamps) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            new BinaryTraceDecoder(dir, "t").decode(out, timestamps);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsTinySegments() {
+        new BinaryTraceSink(dir, "t", 8, 0);
+    }
+
+    @Test
+    public void roundTripProducesTextLogFormat() throws IOException {
+        sink = new BinaryTraceSink(dir, "t", 4096, 0);
+        int cls = sink.internClass("com.netsim.Foo");
+        assertTrue(sink.write(Level.INFO, cls, "[{}] sent {} bytes", 2, "Foo", 1500, null, null));
+        assertTrue(sink.write(Level.DEBUG, cls, "ratio={} ok={} x={}", 3, 0.5, true, null, null));
+        sink.close();
+        sink = null;
+
+        String[] lines = decode(false).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(String.format("LOGGER %5s:\t%s", "INFO", "[Foo] sent 1500 bytes"), lines[0]);
+        assertEquals(String.format("LOGGER %5s:\t%s", "DEBUG", "ratio=0.5 ok=true x=null"), lines[1]);
+    }
+
+    @Test
+    public void messagesWithoutArgumentsAreLeftToTheTextLog() throws IOException {
+        sink = new BinaryTraceSink(dir, "t", 4096, 0);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(sink.write(Level.INFO, 0, "frame " + i + " sent", 0, null, null, null, null));
+        }
+        sink.close();
+        sink = null;
+        assertEquals("", decode(false));
+        assertEquals(0, Files.size(BinaryTraceSink.dictionaryFile(dir, "t")));
+    }
+
+    @Test
+    public void stringsBeyondTheDictionaryAreCounted() throws IOException {
+        int segmentSize = BinaryTraceSink.HEADER_SIZE + 1024 * BinaryTraceSink.RECORD_SIZE;
+        sink = new BinaryTraceSink(dir, "t", segmentSize, 1);
+        for (int i = 0; i < BinaryTraceSink.MAX_STRINGS + 2; i++) {
+            assertTrue(sink.write(Level.INFO, 0, "peer {}", 1, "p" + i, null, null, null));
+        }
+        assertEquals(2, sink.getDroppedStrings());
+    }
+
+    @Test
+    public void tooManyArgumentsAreRejected() {
+        sink = new BinaryTraceSink(dir, "t", 4096, 0);
+        assertFalse(sink.write(Level.INFO, 0, "{}{}{}{}{}", 5, null, null, null, new Object[] { 1, 2, 3, 4, 5 }));
+    }
+
+    @Test
+    public void segmentsRollAndOldOnesAreDeleted() throws IOException {
+        // header + 2 records per segment
+        int segmentSize = BinaryTraceSink.HEADER_SIZE + 2 * BinaryTraceSink.RECORD_SIZE;
+        sink = new BinaryTraceSink(dir, "t", segmentSize, 2);
+        for (int i = 0; i < 9; i++) {
+            sink.write(Level.INFO, 0, "n={}", 1, i, null, null, null);
+        }
+        assertEquals(4, sink.getSegmentIndex());
+        sink.close();
+        sink = null;
+
+        assertFalse(Files.exists(BinaryTraceSink.segmentFile(dir, "t", 2)));
+        assertTrue(Files.exists(BinaryTraceSink.segmentFile(dir, "t", 3)));
+        String[] lines = decode(false).split("\n");
+        // segments 3 and 4 hold records 6, 7 and 8
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].endsWith("n=6"));
+        assertTrue(lines[2].endsWith("n=8"));
+    }
+
+    @Test
+    public void escapedTemplatesSurviveTheDictionary() throws IOException {
+        sink = new BinaryTraceSink(dir, "t", 4096, 0);
+        sink.write(Level.INFO, 0, "a\\b\tc {}", 1, "x\ny", null, null, null);
+        sink.close();
+        sink = null;
+        assertEquals(String.format("LOGGER %5s:\t%s", "INFO", "a\\b\tc x\ny") + "\n",
+                     decode(false).replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test(expected = IOException.class)
+    public void decoderRejectsForeignSegments() throws IOException {
+        sink = new BinaryTraceSink(dir, "t", 4096, 0);
+        sink.close();
+        sink = null;
+        Files.write(BinaryTraceSink.segmentFile(dir, "t", 0), new byte[64]);
+        decode(false);
+    }
+}
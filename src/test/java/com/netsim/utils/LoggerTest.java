@@ -1,12 +1,16 @@
 package com.netsim.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Test;
@@ -24,6 +28,48 @@ public class LoggerTest {
         assertEquals("Message written must match", lines.get(lines.size()-1), testMsg);
     }
 
+    @Test
+    public void testFormatReplacesPlaceholdersInOrder() {
+        assertEquals("[A] 1 -> x", Logger.format("[{}] {} -> {}", 3, "A", 1, "x", null));
+        assertEquals("a=1 b=2 c=3 d=4",
+                     Logger.format("a={} b={} c={} d={}", 4, null, null, null, new Object[] { 1, 2, 3, 4 }));
+    }
+
+    @Test
+    public void testFormatKeepsSurplusPlaceholders() {
+        assertEquals("only 7 {}", Logger.format("only {} {}", 1, 7, null, null, null));
+    }
+
+    @Test
+    public void testResolveThresholdPicksLongestPrefix() {
+        Map<String, Level> thresholds = new HashMap<>();
+        thresholds.put("", Level.INFO);
+        thresholds.put("com.netsim.protocols", Level.ERROR);
+        thresholds.put("com.netsim.protocols.UDP", Level.DEBUG);
+
+        assertEquals(Level.INFO,  Logger.resolveThreshold(thresholds, "com.netsim.network.Router"));
+        assertEquals(Level.ERROR, Logger.resolveThreshold(thresholds, "com.netsim.protocols.IPv4.IPv4Packet"));
+        assertEquals(Level.DEBUG, Logger.resolveThreshold(thresholds, "com.netsim.protocols.UDP.UDPSegment"));
+        // a prefix must stop at a package boundary
+        assertEquals(Level.INFO,  Logger.resolveThreshold(thresholds, "com.netsim.protocolsX.Foo"));
+    }
+
+    @Test
+    public void testRootThresholdAndDefault() {
+        Map<String, Level> thresholds = new HashMap<>();
+        thresholds.put("", Level.OFF);
+        assertEquals(Level.OFF,   Logger.resolveThreshold(thresholds, "any.Class"));
+        assertEquals(Level.DEBUG, Logger.resolveThreshold(new HashMap<>(), "any.Class"));
+    }
+
+    @Test
+    public void testClassLoggersAreCached() {
+        Logger a = Logger.getInstance(LoggerTest.class);
+        assertSame(a, Logger.getInstance(LoggerTest.class));
+        assertTrue(a.isInfoEnabled());
+        assertEquals(Logger.getInstance().getFilename(), a.getFilename());
+    }
+
     @After
     public void resetSingleton() {
         Logger.reset();
@@ -0,0 +1,153 @@
+package com.netsim.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PcapWriterTest {
+    private Path dir;
+    private PcapWriter pcap;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("netsim-pcap");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (pcap != null) {
+            pcap.close();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static byte[] frame(int length) {
+        byte[] f = new byte[length];
+        for (int i = 0; i < length; i++) {
+            f[i] = (byte) i;
+        }
+        return f;
+    }
+
+    private ByteBuffer read(int index) throws IOException {
+        byte[] bytes = Files.readAllBytes(PcapWriter.captureFile(dir, "c", index));
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsFilesTooSmallForOneFrame() {
+        new PcapWriter(dir, "c", 100, 0, 1500);
+    }
+
+    @Test
+    public void writesGlobalHeaderAndEthernetRecords() throws IOException {
+        pcap = new PcapWriter(dir, "c", 4096, 0, 1500);
+        assertTrue(pcap.write(3_000_000_007L, frame(40), 0, 40, PcapWriter.ETHERTYPE_IPV4));
+        assertTrue(pcap.write(5L, frame(40), 10, 30, PcapWriter.ETHERTYPE_ARP));
+        pcap.close();
+        pcap = null;
+
+        ByteBuffer b = read(0);
+        assertEquals(PcapWriter.GLOBAL_HEADER + 2 * PcapWriter.RECORD_HEADER + 42 + 32, b.limit());
+        assertEquals(PcapWriter.MAGIC_NANOS, b.getInt(0));
+        assertEquals(2, b.getShort(4));
+        assertEquals(4, b.getShort(6));
+        assertEquals(1500, b.getInt(16));
+        assertEquals(PcapWriter.LINKTYPE_ETHERNET, b.getInt(20));
+
+        int at = PcapWriter.GLOBAL_HEADER;
+        assertEquals(3, b.getInt(at));
+        assertEquals(7, b.getInt(at + 4));
+        assertEquals(42, b.getInt(at + 8));
+        assertEquals(42, b.getInt(at + 12));
+        at += PcapWriter.RECORD_HEADER;
+        assertEquals(11, b.get(at + 11));
+        assertEquals(0x08, b.get(at + 12));
+        assertEquals(0x00, b.get(at + 13));
+        assertEquals(12, b.get(at + 14));
+        assertEquals(39, b.get(at + 41));
+
+        at += 42;
+        assertEquals(5, b.getInt(at + 4));
+        at += PcapWriter.RECORD_HEADER;
+        assertEquals(10, b.get(at));
+        assertEquals(0x06, b.get(at + 13));
+        assertEquals(22, b.get(at + 14));
+    }
+
+    @Test
+    public void snapLengthCutsFramesButKeepsOriginalLength() throws IOException {
+        pcap = new PcapWriter(dir, "c", 4096, 0, 64);
+        pcap.write(0L, frame(1000), 0, 1000, PcapWriter.ETHERTYPE_IPV4);
+        pcap.close();
+        pcap = null;
+
+        ByteBuffer b = read(0);
+        assertEquals(64, b.getInt(PcapWriter.GLOBAL_HEADER + 8));
+        assertEquals(1002, b.getInt(PcapWriter.GLOBAL_HEADER + 12));
+        assertEquals(PcapWriter.GLOBAL_HEADER + PcapWriter.RECORD_HEADER + 64, b.limit());
+    }
+
+    @Test
+    public void rollsOverAndKeepsARingOfFiles() throws IOException {
+        int record = PcapWriter.RECORD_HEADER + 102;
+        pcap = new PcapWriter(dir, "c", PcapWriter.GLOBAL_HEADER + 2 * record, 2, 200);
+        for (int i = 0; i < 7; i++) {
+            assertTrue(pcap.write(i, frame(100), 0, 100, PcapWriter.ETHERTYPE_IPV4));
+        }
+        assertEquals(3, pcap.getFileIndex());
+        assertEquals(7, pcap.getFramesWritten());
+        pcap.close();
+        pcap = null;
+
+        assertFalse(Files.exists(PcapWriter.captureFile(dir, "c", 0)));
+        assertFalse(Files.exists(PcapWriter.captureFile(dir, "c", 1)));
+        assertEquals(PcapWriter.GLOBAL_HEADER + 2 * record, read(2).limit());
+        ByteBuffer last = read(3);
+        assertEquals(PcapWriter.GLOBAL_HEADER + record, last.limit());
+        assertEquals(6, last.getInt(PcapWriter.GLOBAL_HEADER + 4));
+    }
+
+    @Test
+    public void failedOpenIsRetriedAfterDroppedFrames() throws IOException {
+        int record = PcapWriter.RECORD_HEADER + 102;
+        pcap = new PcapWriter(dir, "c", PcapWriter.GLOBAL_HEADER + record, 0, 102);
+        assertTrue(pcap.write(0L, frame(100), 0, 100, PcapWriter.ETHERTYPE_IPV4));
+        // a directory where the next file goes makes its open fail
+        Path blocker = Files.createDirectory(PcapWriter.captureFile(dir, "c", 1));
+        assertFalse(pcap.write(1L, frame(100), 0, 100, PcapWriter.ETHERTYPE_IPV4));
+        Files.delete(blocker);
+
+        int dropped = 1;
+        while (!pcap.write(2L, frame(100), 0, 100, PcapWriter.ETHERTYPE_IPV4)) {
+            dropped++;
+            assertTrue("capture never resumed", dropped <= PcapWriter.REOPEN_INTERVAL);
+        }
+        assertEquals(PcapWriter.REOPEN_INTERVAL, dropped);
+        assertEquals(dropped, pcap.getFramesDropped());
+        assertEquals(1, pcap.getFileIndex());
+        pcap.close();
+        pcap = null;
+        assertEquals(2, read(1).getInt(PcapWriter.GLOBAL_HEADER + 4));
+    }
+
+    @Test
+    public void writesAfterCloseAreDropped() {
+        pcap = new PcapWriter(dir, "c", 4096, 0, 1500);
+        pcap.close();
+        assertFalse(pcap.write(0L, frame(20), 0, 20, PcapWriter.ETHERTYPE_IPV4));
+        assertEquals(1, pcap.getFramesDropped());
+    }
+}